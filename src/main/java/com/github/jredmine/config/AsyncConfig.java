@@ -2,6 +2,7 @@ package com.github.jredmine.config;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.annotation.EnableAsync;
@@ -60,6 +61,62 @@ public class AsyncConfig implements AsyncConfigurer {
         return executor;
     }
 
+    /**
+     * 附件缩略图生成执行器
+     * 只执行可补生成的缩略图任务（水印在上传时同步添加，不经过此线程池）；
+     * 线程数和队列有界，队列满时丢弃任务而不是由上传线程执行，缩略图会在首次访问时补生成
+     */
+    @Bean("imageProcessingExecutor")
+    public Executor imageProcessingExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(500);
+        executor.setThreadNamePrefix("async-image-");
+        executor.setRejectedExecutionHandler((task, pool) ->
+                log.warn("缩略图生成队列已满，丢弃任务，缩略图将在访问时生成，队列长度: {}", pool.getQueue().size()));
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 附件批量下载预读执行器（读取云存储小文件到内存）
+     * 线程数和队列有界，队列满时拒绝提交，由调用方改为按流读取；预读占用的内存另由 AttachmentService 的全局配额限制
+     */
+    @Bean("zipPrefetchExecutor")
+    public ThreadPoolTaskExecutor zipPrefetchExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(32);
+        executor.setThreadNamePrefix("attachment-zip-prefetch-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        // 预读结果只对正在进行的下载请求有意义，关闭时不等待
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Wiki 后台导出执行器
+     * 单线程依次执行，避免多个大导出同时占用数据库和磁盘；队列有界，队列满时拒绝提交，由调用方提示稍后重试
+     */
+    @Bean("exportJobExecutor")
+    public ThreadPoolTaskExecutor exportJobExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(20);
+        executor.setThreadNamePrefix("wiki-export-job-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        // 导出文件只在本进程内登记，重启后无法下载，关闭时不等待
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
     /**
      * 异步任务异常处理
      */
@@ -1,8 +1,10 @@
 package com.github.jredmine.config;
 
 import com.github.jredmine.security.CustomUserDetailsService;
+import com.github.jredmine.security.JwtClaims;
+import com.github.jredmine.security.JwtTokenVerifier;
 import com.github.jredmine.security.UserPrincipal;
-import com.github.jredmine.util.JwtUtils;
+import com.github.jredmine.util.SecurityUtils;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -12,7 +14,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -22,7 +23,8 @@ import java.io.IOException;
 /**
  * JWT认证过滤器
  * 在每个请求中检查JWT Token，如果有效则设置认证信息
- * 从数据库加载用户真实权限信息
+ * Token 由 {@link JwtTokenVerifier} 解析验证一次并缓存，
+ * 用户主体按 (用户ID, Token签发时间) 缓存，缓存命中时认证过程不解析 Token 也不访问数据库
  *
  * @author panfeng
  */
@@ -31,7 +33,7 @@ import java.io.IOException;
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    private final JwtUtils jwtUtils;
+    private final JwtTokenVerifier jwtTokenVerifier;
     private final CustomUserDetailsService userDetailsService;
 
     @Override
@@ -52,41 +54,44 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             // 提取Token（去掉"Bearer "前缀）
             final String jwt = authHeader.substring(7);
 
-            // 验证Token并提取用户名
-            if (jwtUtils.validateToken(jwt)) {
-                final String username = jwtUtils.extractUsername(jwt);
-                final Long userId = jwtUtils.extractUserId(jwt);
+            // 验证Token并提取声明（只解析一次）
+            final JwtClaims claims = jwtTokenVerifier.verify(jwt);
+            if (claims != null) {
+                final String username = claims.getUsername();
+                final Long userId = claims.getUserId();
 
                 // 如果用户名不为空且当前没有认证信息，则设置认证信息
                 if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                    // 从数据库加载用户信息和权限
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                    
+                    // 加载用户信息和权限（优先使用缓存）
+                    UserPrincipal userPrincipal = userDetailsService.loadUserForToken(
+                            userId, username, claims.getIssuedAt());
+
                     // 验证用户ID是否匹配
-                    if (userDetails instanceof UserPrincipal) {
-                        UserPrincipal userPrincipal = (UserPrincipal) userDetails;
-                        if (!userPrincipal.getId().equals(userId)) {
-                            log.warn("JWT Token中的用户ID与数据库中的用户ID不匹配，Token用户ID: {}, 数据库用户ID: {}", 
-                                    userId, userPrincipal.getId());
-                            filterChain.doFilter(request, response);
-                            return;
-                        }
+                    if (!userPrincipal.getId().equals(userId)) {
+                        log.warn("JWT Token中的用户ID与数据库中的用户ID不匹配，Token用户ID: {}, 数据库用户ID: {}",
+                                userId, userPrincipal.getId());
+                        filterChain.doFilter(request, response);
+                        return;
                     }
 
                     // 创建认证Token，包含用户权限信息
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
+                            userPrincipal,
                             null,
-                            userDetails.getAuthorities()
+                            userPrincipal.getAuthorities()
                     );
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
 
-                    // 将用户ID存储到请求属性中，方便后续使用
+                    // 将用户ID和用户信息存储到请求属性中，SecurityUtils 在同一请求内直接复用
                     request.setAttribute("userId", userId);
+                    if (userPrincipal.getUser() != null) {
+                        request.setAttribute(SecurityUtils.CURRENT_USER_ATTRIBUTE,
+                                SecurityUtils.copyUser(userPrincipal.getUser()));
+                    }
                     
-                    log.debug("JWT认证成功，用户: {}, 用户ID: {}, 是否管理员: {}", 
-                            username, userId, userDetails instanceof UserPrincipal && ((UserPrincipal) userDetails).isAdmin());
+                    log.debug("JWT认证成功，用户: {}, 用户ID: {}, 是否管理员: {}",
+                            username, userId, userPrincipal.isAdmin());
                 }
             }
         } catch (Exception e) {
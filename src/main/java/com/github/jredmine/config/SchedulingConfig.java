@@ -0,0 +1,51 @@
+package com.github.jredmine.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+/**
+ * 定时任务配置
+ * 所有 @Scheduled 任务（通知发件箱投递与清理、搜索历史批量写入、燃尽图快照、Wiki 版本压缩、Wiki 导出任务清理等）
+ * 共用一个多线程调度器，耗时较长的任务（如燃尽图历史回放、版本压缩）不会阻塞通知投递等高频任务
+ *
+ * @author panfeng
+ */
+@Slf4j
+@Configuration
+@EnableScheduling
+public class SchedulingConfig implements SchedulingConfigurer {
+
+    /**
+     * 调度线程数
+     */
+    @Value("${scheduling.pool-size:4}")
+    private Integer poolSize;
+
+    /**
+     * 定时任务调度器
+     */
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("scheduled-");
+        // 任务抛出异常时记录日志，周期任务继续执行
+        scheduler.setErrorHandler(throwable -> log.error("定时任务执行异常: {}", throwable.getMessage(), throwable));
+        // 关闭时等待正在执行的任务完成
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        scheduler.setAwaitTerminationSeconds(60);
+        log.info("定时任务调度器已初始化，线程数: {}", poolSize);
+        return scheduler;
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.setTaskScheduler(taskScheduler());
+    }
+}
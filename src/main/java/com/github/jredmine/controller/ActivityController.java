@@ -78,6 +78,9 @@ public class ActivityController {
         ActivityQueryRequestDTO queryDTO = new ActivityQueryRequestDTO();
         queryDTO.setCurrent(requestDTO.getCurrent());
         queryDTO.setSize(requestDTO.getSize());
+        queryDTO.setCursor(requestDTO.getCursor());
+        queryDTO.setCursorMode(requestDTO.getCursorMode());
+        queryDTO.setWithTotal(requestDTO.getWithTotal());
         queryDTO.setStartDate(requestDTO.getStartDate());
         queryDTO.setEndDate(requestDTO.getEndDate());
         queryDTO.setActivityTypes(requestDTO.getActivityTypes());
@@ -112,6 +115,9 @@ public class ActivityController {
         ActivityQueryRequestDTO queryDTO = new ActivityQueryRequestDTO();
         queryDTO.setCurrent(requestDTO.getCurrent());
         queryDTO.setSize(requestDTO.getSize());
+        queryDTO.setCursor(requestDTO.getCursor());
+        queryDTO.setCursorMode(requestDTO.getCursorMode());
+        queryDTO.setWithTotal(requestDTO.getWithTotal());
         queryDTO.setStartDate(requestDTO.getStartDate());
         queryDTO.setEndDate(requestDTO.getEndDate());
         queryDTO.setActivityTypes(requestDTO.getActivityTypes());
@@ -148,6 +154,9 @@ public class ActivityController {
         ActivityQueryRequestDTO queryDTO = new ActivityQueryRequestDTO();
         queryDTO.setCurrent(requestDTO.getCurrent());
         queryDTO.setSize(requestDTO.getSize());
+        queryDTO.setCursor(requestDTO.getCursor());
+        queryDTO.setCursorMode(requestDTO.getCursorMode());
+        queryDTO.setWithTotal(requestDTO.getWithTotal());
         queryDTO.setStartDate(requestDTO.getStartDate());
         queryDTO.setEndDate(requestDTO.getEndDate());
         queryDTO.setActivityTypes(requestDTO.getActivityTypes());
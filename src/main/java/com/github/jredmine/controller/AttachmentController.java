@@ -7,12 +7,16 @@ import com.github.jredmine.dto.response.ApiResponse;
 import com.github.jredmine.dto.response.PageResponse;
 import com.github.jredmine.dto.response.attachment.AttachmentBatchUploadResponseDTO;
 import com.github.jredmine.dto.response.attachment.AttachmentResponseDTO;
+import com.github.jredmine.entity.Attachment;
 import com.github.jredmine.service.AttachmentService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
@@ -23,10 +27,13 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.List;
-import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 
 /**
  * 附件管理控制器
@@ -42,6 +49,28 @@ public class AttachmentController {
 
     private final AttachmentService attachmentService;
 
+    /**
+     * Tomcat sendfile 相关请求属性
+     */
+    private static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
+    private static final long[] UNSATISFIABLE_RANGE = new long[0];
+
+    /**
+     * 云存储附件是否重定向到预签名地址下载
+     */
+    @Value("${attachment.download.redirect-enabled:false}")
+    private Boolean redirectEnabled;
+
+    /**
+     * 预签名下载地址有效期（秒）
+     */
+    @Value("${attachment.download.presigned-expire-seconds:300}")
+    private Long presignedExpireSeconds;
+
     /**
      * 上传附件
      */
@@ -139,75 +168,110 @@ public class AttachmentController {
 
     /**
      * 下载附件
+     * 支持 Range/If-Range 断点续传与 ETag 缓存校验；本地文件优先交给容器零拷贝发送，
+     * 云存储直接按区间转发对象流，开启重定向时跳转到预签名地址
      */
-    @Operation(summary = "下载附件", description = "下载附件文件")
+    @Operation(summary = "下载附件", description = "下载附件文件，支持Range请求")
     @GetMapping("/{id}/download")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<Resource> downloadAttachment(
-            @Parameter(description = "附件ID", required = true) @PathVariable Long id) {
+    public void downloadAttachment(
+            @Parameter(description = "附件ID", required = true) @PathVariable Long id,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+
+        // 云存储：重定向到预签名地址，文件不经过应用服务器
+        if (Boolean.TRUE.equals(redirectEnabled)) {
+            String presignedUrl = attachmentService.getPresignedDownloadUrl(id, presignedExpireSeconds);
+            if (presignedUrl != null) {
+                attachmentService.recordDownload(id);
+                response.sendRedirect(presignedUrl);
+                return;
+            }
+        }
 
-        // 获取附件信息
-        AttachmentResponseDTO attachment = attachmentService.getAttachmentById(id);
+        AttachmentService.DownloadTarget target = attachmentService.openDownload(id);
 
-        // 获取文件
-        File file = attachmentService.downloadAttachment(id);
-        Resource resource = new FileSystemResource(file);
+        String etag = target.getEtag();
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (etag != null) {
+            response.setHeader(HttpHeaders.ETAG, etag);
+        }
+        if (target.getLastModified() > 0) {
+            response.setDateHeader(HttpHeaders.LAST_MODIFIED, target.getLastModified());
+        }
+        if (etag != null && matchesEtag(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
 
-        // 处理文件名编码
-        String filename = attachment.getFilename();
-        String encodedFilename;
-        try {
-            encodedFilename = URLEncoder.encode(filename, StandardCharsets.UTF_8.toString())
-                    .replaceAll("\\+", "%20");
-        } catch (UnsupportedEncodingException e) {
-            encodedFilename = filename;
+        // 解析 Range（仅支持单个区间，多区间按完整文件返回）
+        long length = target.getLength();
+        long start = 0;
+        long end = length - 1;
+        boolean partial = false;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null && length > 0 && isIfRangeSatisfied(request.getHeader(HttpHeaders.IF_RANGE), target)) {
+            long[] byteRange = parseRange(range, length);
+            if (byteRange == UNSATISFIABLE_RANGE) {
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                return;
+            }
+            if (byteRange != null) {
+                start = byteRange[0];
+                end = byteRange[1];
+                partial = true;
+            }
         }
 
-        // 设置响应头
-        HttpHeaders headers = new HttpHeaders();
-        headers.add(HttpHeaders.CONTENT_DISPOSITION,
-                "attachment; filename*=UTF-8''" + encodedFilename);
-        headers.setContentType(MediaType.parseMediaType(
-                attachment.getContentType() != null ? attachment.getContentType()
-                        : MediaType.APPLICATION_OCTET_STREAM_VALUE));
+        // 续传请求不重复计入下载次数
+        if (start == 0) {
+            attachmentService.recordDownload(id);
+        }
 
-        return ResponseEntity.ok()
-                .headers(headers)
-                .body(resource);
+        response.setContentType(target.getContentType() != null ? target.getContentType()
+                : MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename*=UTF-8''" + encodeFilename(target.getFilename()));
+        if (partial) {
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+        long contentLength = end - start + 1;
+        response.setContentLengthLong(contentLength);
+        if (contentLength <= 0) {
+            return;
+        }
+
+        // 本地文件且容器支持 sendfile 时由容器直接发送文件区间（零拷贝）
+        if (!target.isCloud() && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR))) {
+            request.setAttribute(SENDFILE_FILENAME_ATTR, target.getLocalPath().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START_ATTR, start);
+            request.setAttribute(SENDFILE_END_ATTR, end + 1);
+            return;
+        }
+        attachmentService.writeRange(target, response.getOutputStream(), start, contentLength);
     }
 
     /**
-     * 批量下载附件（打包为ZIP）
+     * 批量下载附件（打包为ZIP，边打包边输出）
      */
     @Operation(summary = "批量下载附件", description = "批量下载多个附件并打包为ZIP文件")
     @PostMapping("/batch/download")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<Resource> batchDownloadAttachments(
-            @Parameter(description = "附件ID列表", required = true) @RequestBody List<Long> attachmentIds) {
+    public void batchDownloadAttachments(
+            @Parameter(description = "附件ID列表", required = true) @RequestBody List<Long> attachmentIds,
+            HttpServletResponse response) throws IOException {
 
-        // 打包为ZIP
-        File zipFile = attachmentService.batchDownloadAttachments(attachmentIds);
-        Resource resource = new FileSystemResource(zipFile);
+        // 先校验并查询附件，出错时仍可返回普通的错误响应
+        List<Attachment> attachments = attachmentService.prepareBatchDownload(attachmentIds);
 
-        // 处理文件名编码
-        String filename = zipFile.getName();
-        String encodedFilename;
-        try {
-            encodedFilename = URLEncoder.encode(filename, StandardCharsets.UTF_8.toString())
-                    .replaceAll("\\+", "%20");
-        } catch (UnsupportedEncodingException e) {
-            encodedFilename = filename;
-        }
+        String filename = "attachments_" + System.currentTimeMillis() + ".zip";
+        response.setContentType("application/zip");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename*=UTF-8''" + encodeFilename(filename));
 
-        // 设置响应头
-        HttpHeaders headers = new HttpHeaders();
-        headers.add(HttpHeaders.CONTENT_DISPOSITION,
-                "attachment; filename*=UTF-8''" + encodedFilename);
-        headers.setContentType(MediaType.parseMediaType("application/zip"));
-
-        return ResponseEntity.ok()
-                .headers(headers)
-                .body(resource);
+        attachmentService.writeBatchDownload(attachments, response.getOutputStream());
     }
 
     /**
@@ -217,16 +281,21 @@ public class AttachmentController {
     @GetMapping("/{id}/thumbnail")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<Resource> getThumbnail(
-            @Parameter(description = "附件ID", required = true) @PathVariable Long id) {
+            @Parameter(description = "附件ID", required = true) @PathVariable Long id,
+            @Parameter(description = "期望的最长边像素，不传使用默认尺寸") @RequestParam(value = "size", required = false) Integer size,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
 
-        // 获取缩略图文件
-        File thumbnailFile = attachmentService.getThumbnail(id);
-        Resource resource = new FileSystemResource(thumbnailFile);
+        // 获取缩略图文件（客户端接受时优先返回 WebP）
+        boolean acceptWebp = accept != null && accept.contains("image/webp");
+        Resource resource = attachmentService.getThumbnail(id, size, acceptWebp);
+        String thumbnailFilename = resource.getFilename();
 
         // 设置响应头
         HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.IMAGE_JPEG);
+        headers.setContentType(thumbnailFilename != null && thumbnailFilename.endsWith(".webp")
+                ? MediaType.parseMediaType("image/webp") : MediaType.IMAGE_JPEG);
         headers.setCacheControl("public, max-age=31536000"); // 缓存1年
+        headers.setVary(List.of(HttpHeaders.ACCEPT));
 
         return ResponseEntity.ok()
                 .headers(headers)
@@ -294,4 +363,85 @@ public class AttachmentController {
                 .headers(headers)
                 .body(resource);
     }
+
+    /**
+     * 解析单个字节区间（bytes=a-b、bytes=a-、bytes=-n）
+     *
+     * @return [start, end]；无法识别或多区间返回 null；区间越界返回 UNSATISFIABLE_RANGE
+     */
+    private long[] parseRange(String range, long length) {
+        if (!range.startsWith("bytes=") || range.indexOf(',') >= 0) {
+            return null;
+        }
+        String spec = range.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                // 最后 n 个字节
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) {
+                    return UNSATISFIABLE_RANGE;
+                }
+                return new long[]{Math.max(0, length - suffix), length - 1};
+            }
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? length - 1 : Math.min(Long.parseLong(last), length - 1);
+            if (start >= length || start > end) {
+                return UNSATISFIABLE_RANGE;
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * If-Range 校验：与 ETag（强比较）或最后修改时间一致时才按区间返回
+     */
+    private boolean isIfRangeSatisfied(String ifRange, AttachmentService.DownloadTarget target) {
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return target.getEtag() != null && target.getEtag().equals(ifRange);
+        }
+        try {
+            ZonedDateTime date = ZonedDateTime.parse(ifRange, DateTimeFormatter.RFC_1123_DATE_TIME);
+            return target.getLastModified() > 0
+                    && date.toEpochSecond() == target.getLastModified() / 1000;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    /**
+     * If-None-Match 校验（弱比较）
+     */
+    private boolean matchesEtag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if ("*".equals(value) || etag.equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String encodeFilename(String filename) {
+        if (filename == null) {
+            return "";
+        }
+        return URLEncoder.encode(filename, StandardCharsets.UTF_8).replaceAll("\\+", "%20");
+    }
 }
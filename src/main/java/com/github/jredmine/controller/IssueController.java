@@ -32,6 +32,7 @@ import com.github.jredmine.service.IssueService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.http.HttpHeaders;
@@ -48,6 +49,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -67,7 +69,7 @@ public class IssueController {
         this.issueService = issueService;
     }
 
-    @Operation(summary = "获取任务列表", description = "分页查询任务列表，支持按项目、状态、跟踪器、优先级、指派人、创建者等条件筛选，支持关键词搜索（标题、描述），支持排序。需要认证，需要 view_issues 权限或系统管理员。私有任务仅项目成员可见。", security = @SecurityRequirement(name = "bearerAuth"))
+    @Operation(summary = "获取任务列表", description = "分页查询任务列表，支持按项目、状态、跟踪器、优先级、指派人、创建者等条件筛选，支持关键词搜索（标题、描述），支持排序。传入 cursorMode=true 或 cursor 时使用游标分页（响应返回 nextCursor，总数需 withTotal=true）。需要认证，需要 view_issues 权限或系统管理员。私有任务仅项目成员可见。", security = @SecurityRequirement(name = "bearerAuth"))
     @PreAuthorize("hasRole('ADMIN') or authentication.principal.hasPermission('view_issues')")
     @GetMapping
     public ApiResponse<PageResponse<IssueListItemResponseDTO>> listIssues(
@@ -137,6 +139,15 @@ public class IssueController {
         return ApiResponse.success(result);
     }
 
+    @Operation(summary = "重建任务计数器", description = "根据任务表重新生成统计使用的任务计数器，用于修复计数器与任务数据的偏差。如果指定 projectId，仅重建该项目；否则重建全部项目。仅管理员可访问。", security = @SecurityRequirement(name = "bearerAuth"))
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/statistics/counters/rebuild")
+    public ApiResponse<Integer> rebuildIssueCounters(
+            @RequestParam(value = "projectId", required = false) Long projectId) {
+        int rows = issueService.rebuildIssueCounters(projectId);
+        return ApiResponse.success("任务计数器重建成功", rows);
+    }
+
     @Operation(summary = "获取任务甘特图数据", description = "获取任务的甘特图数据，包含任务的开始日期、截止日期、完成度、依赖关系等信息。支持按项目、版本、跟踪器、状态、指派人等条件筛选。支持包含子项目任务。需要认证，需要 view_issues 权限或系统管理员。私有任务仅项目成员可见。", security = @SecurityRequirement(name = "bearerAuth"))
     @PreAuthorize("hasRole('ADMIN') or authentication.principal.hasPermission('view_issues')")
     @GetMapping("/gantt")
@@ -146,22 +157,22 @@ public class IssueController {
         return ApiResponse.success(result);
     }
 
-    @Operation(summary = "导出任务列表", description = "导出任务列表为 CSV 格式。支持按筛选条件导出，参数同任务列表接口。需要认证，需要 view_issues 权限或系统管理员。私有任务仅项目成员可见。", security = @SecurityRequirement(name = "bearerAuth"))
+    @Operation(summary = "导出任务列表", description = "导出任务列表为 CSV 或 Excel（xlsx）格式，format 参数取 csv（默认）或 xlsx。支持按筛选条件导出，参数同任务列表接口。导出内容边查询边写出，不受导出行数限制。需要认证，需要 view_issues 权限或系统管理员。私有任务仅项目成员可见。", security = @SecurityRequirement(name = "bearerAuth"))
     @PreAuthorize("hasRole('ADMIN') or authentication.principal.hasPermission('view_issues')")
     @GetMapping("/export")
-    public ResponseEntity<byte[]> exportIssues(@Valid IssueListRequestDTO requestDTO) {
-        // 导出为 CSV
-        byte[] csvBytes = issueService.exportIssues(requestDTO);
-
-        // 设置响应头
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.parseMediaType("text/csv;charset=UTF-8"));
-        headers.setContentDispositionFormData("attachment", "issues_" + System.currentTimeMillis() + ".csv");
-        headers.setContentLength(csvBytes.length);
-
-        return ResponseEntity.ok()
-                .headers(headers)
-                .body(csvBytes);
+    public void exportIssues(@Valid IssueListRequestDTO requestDTO,
+            @RequestParam(value = "format", required = false, defaultValue = "csv") String format,
+            HttpServletResponse response) throws IOException {
+        boolean excel = "xlsx".equalsIgnoreCase(format) || "excel".equalsIgnoreCase(format);
+        String fileName = "issues_" + System.currentTimeMillis() + (excel ? ".xlsx" : ".csv");
+
+        // 设置响应头（不设置 Content-Length，内容以分块方式写出）
+        response.setContentType(excel
+                ? "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"
+                : "text/csv;charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"");
+
+        issueService.exportIssues(requestDTO, excel, response.getOutputStream());
     }
 
     @Operation(summary = "下载任务导入模板", description = "下载任务导入的 Excel 模板文件。需要认证。", security = @SecurityRequirement(name = "bearerAuth"))
@@ -195,8 +206,8 @@ public class IssueController {
         }
         
         String filename = file.getOriginalFilename();
-        if (filename == null || (!filename.endsWith(".xlsx") && !filename.endsWith(".xls"))) {
-            throw new BusinessException(ResultCode.PARAM_INVALID, "只支持 Excel 文件格式 (.xlsx, .xls)");
+        if (filename == null || !filename.endsWith(".xlsx")) {
+            throw new BusinessException(ResultCode.PARAM_INVALID, "只支持 Excel 文件格式 (.xlsx)");
         }
 
         IssueImportResultDTO result = issueService.importIssuesFromExcel(projectId, file);
@@ -302,7 +313,7 @@ public class IssueController {
         return ApiResponse.success("任务评论创建成功", result);
     }
 
-    @Operation(summary = "获取任务活动日志列表", description = "分页查询任务的活动日志（包括评论、状态变更等）。私有备注只有项目成员可见。需要认证，需要 view_issues 权限或系统管理员。按创建时间倒序排序（最新的在前）。", security = @SecurityRequirement(name = "bearerAuth"))
+    @Operation(summary = "获取任务活动日志列表", description = "分页查询任务的活动日志（包括评论、状态变更等）。私有备注只有项目成员可见。需要认证，需要 view_issues 权限或系统管理员。按创建时间倒序排序（最新的在前）。支持游标分页（cursorMode/cursor）。", security = @SecurityRequirement(name = "bearerAuth"))
     @PreAuthorize("hasRole('ADMIN') or authentication.principal.hasPermission('view_issues')")
     @GetMapping("/{id}/journals")
     public ApiResponse<PageResponse<IssueJournalResponseDTO>> listIssueJournals(
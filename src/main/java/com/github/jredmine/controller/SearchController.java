@@ -182,4 +182,13 @@ public class SearchController {
         
         return ResponseEntity.ok(hotKeywords);
     }
-}
\ No newline at end of file
+
+    @Operation(summary = "重建全文搜索索引", description = "根据任务、项目、Wiki 页面重新生成全文搜索索引，用于修复索引与源数据的偏差。仅管理员可访问。")
+    @PostMapping("/index/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Integer> rebuildSearchIndex() {
+        int rows = searchService.rebuildSearchIndex();
+        log.info("全文搜索索引重建完成: rows={}", rows);
+        return ResponseEntity.ok(rows);
+    }
+}
@@ -5,6 +5,7 @@ import com.github.jredmine.dto.request.wiki.WikiPageUpdateRequestDTO;
 import com.github.jredmine.dto.request.wiki.WikiRedirectCreateRequestDTO;
 import com.github.jredmine.dto.response.ApiResponse;
 import com.github.jredmine.dto.response.PageResponse;
+import com.github.jredmine.dto.response.wiki.WikiExportJobResponseDTO;
 import com.github.jredmine.dto.response.wiki.WikiPageDetailResponseDTO;
 import com.github.jredmine.dto.response.wiki.WikiPageListItemResponseDTO;
 import com.github.jredmine.dto.response.wiki.WikiPageTreeNodeResponseDTO;
@@ -16,7 +17,10 @@ import com.github.jredmine.service.WikiService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -24,6 +28,8 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -195,16 +201,51 @@ public class WikiController {
         return ResponseEntity.ok().headers(headers).body(data);
     }
 
-    @Operation(summary = "导出全部页面", description = "导出项目 Wiki 全部页面为 ZIP（内为多份 .md 文件）。需要认证，需要 view_wiki_pages 权限或系统管理员。", security = @SecurityRequirement(name = "bearerAuth"))
+    @Operation(summary = "导出全部页面", description = "导出项目 Wiki 全部页面为 ZIP（内为多份 .md 文件），边查询边写出。可选包含页面附件和历史版本。需要认证，需要 view_wiki_pages 权限或系统管理员。", security = @SecurityRequirement(name = "bearerAuth"))
     @PreAuthorize("hasRole('ADMIN') or hasPermission(#projectId, 'Project', 'view_wiki_pages')")
     @GetMapping("/export/all")
-    public ResponseEntity<byte[]> exportAll(
+    public void exportAll(
             @PathVariable Long projectId,
-            @RequestParam(value = "format", defaultValue = "markdown") String format) {
-        byte[] data = wikiExportService.exportAllToMarkdownZip(projectId);
+            @RequestParam(value = "includeAttachments", defaultValue = "false") boolean includeAttachments,
+            @RequestParam(value = "includeHistory", defaultValue = "false") boolean includeHistory,
+            HttpServletResponse response) throws IOException {
+        // 不设置 Content-Length，内容以分块方式写出
+        response.setContentType("application/zip");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"wiki-export.zip\"");
+        wikiExportService.writeMarkdownZip(projectId, includeAttachments, includeHistory, response.getOutputStream());
+    }
+
+    @Operation(summary = "提交后台导出任务", description = "页面较多时在后台生成 Wiki 全部页面的 ZIP 文件，完成后邮件通知提交人，可通过任务接口查询状态并下载。需要认证，需要 view_wiki_pages 权限或系统管理员。", security = @SecurityRequirement(name = "bearerAuth"))
+    @PreAuthorize("hasRole('ADMIN') or hasPermission(#projectId, 'Project', 'view_wiki_pages')")
+    @PostMapping("/export/jobs")
+    public ApiResponse<WikiExportJobResponseDTO> submitExportJob(
+            @PathVariable Long projectId,
+            @RequestParam(value = "includeAttachments", defaultValue = "false") boolean includeAttachments,
+            @RequestParam(value = "includeHistory", defaultValue = "false") boolean includeHistory) {
+        WikiExportJobResponseDTO result = wikiExportService.submitExportJob(projectId, includeAttachments, includeHistory);
+        return ApiResponse.success(result);
+    }
+
+    @Operation(summary = "查询后台导出任务", description = "查询后台导出任务状态，仅提交人或系统管理员可见。需要认证，需要 view_wiki_pages 权限或系统管理员。", security = @SecurityRequirement(name = "bearerAuth"))
+    @PreAuthorize("hasRole('ADMIN') or hasPermission(#projectId, 'Project', 'view_wiki_pages')")
+    @GetMapping("/export/jobs/{jobId}")
+    public ApiResponse<WikiExportJobResponseDTO> getExportJob(
+            @PathVariable Long projectId,
+            @PathVariable String jobId) {
+        WikiExportJobResponseDTO result = wikiExportService.getExportJob(projectId, jobId);
+        return ApiResponse.success(result);
+    }
+
+    @Operation(summary = "下载后台导出文件", description = "下载已完成的后台导出任务生成的 ZIP 文件，仅提交人或系统管理员可下载。需要认证，需要 view_wiki_pages 权限或系统管理员。", security = @SecurityRequirement(name = "bearerAuth"))
+    @PreAuthorize("hasRole('ADMIN') or hasPermission(#projectId, 'Project', 'view_wiki_pages')")
+    @GetMapping("/export/jobs/{jobId}/file")
+    public ResponseEntity<Resource> downloadExportJobFile(
+            @PathVariable Long projectId,
+            @PathVariable String jobId) {
+        Path file = wikiExportService.getExportJobFile(projectId, jobId);
         HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+        headers.setContentType(MediaType.parseMediaType("application/zip"));
         headers.setContentDispositionFormData("attachment", "wiki-export.zip");
-        return ResponseEntity.ok().headers(headers).body(data);
+        return ResponseEntity.ok().headers(headers).body(new FileSystemResource(file));
     }
 }
@@ -0,0 +1,33 @@
+package com.github.jredmine.dto.aggregate;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 任务属性变更记录
+ * 由 journals 和 journal_details 联合查询得到，用于按时间回放任务状态
+ *
+ * @author panfeng
+ */
+@Data
+public class IssueAttributeChangeDTO {
+    /**
+     * 任务ID
+     */
+    private Long issueId;
+
+    /**
+     * 变更时间
+     */
+    private LocalDateTime changedOn;
+
+    /**
+     * 属性名（status_id、fixed_version_id 等）
+     */
+    private String propKey;
+
+    private String oldValue;
+
+    private String value;
+}
@@ -0,0 +1,23 @@
+package com.github.jredmine.dto.aggregate;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * 按日期分组的任务计数
+ *
+ * @author panfeng
+ */
+@Data
+public class IssueDailyCountDTO {
+    /**
+     * 日期
+     */
+    private LocalDate date;
+
+    /**
+     * 任务数量
+     */
+    private Long issueCount;
+}
@@ -0,0 +1,18 @@
+package com.github.jredmine.dto.aggregate;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * 任务日期范围（最早开始日期、最晚截止日期）
+ *
+ * @author panfeng
+ */
+@Data
+public class IssueDateRangeDTO {
+
+    private LocalDate minStartDate;
+
+    private LocalDate maxDueDate;
+}
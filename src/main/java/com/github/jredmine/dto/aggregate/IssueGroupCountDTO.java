@@ -0,0 +1,27 @@
+package com.github.jredmine.dto.aggregate;
+
+import lombok.Data;
+
+/**
+ * 任务分组计数结果
+ * 用于 IssueMapper 的 GROUP BY 聚合查询，只返回分组键与计数，不加载任务实体
+ *
+ * @author panfeng
+ */
+@Data
+public class IssueGroupCountDTO {
+    /**
+     * 分组键（状态ID、跟踪器ID、优先级ID、用户ID等，取决于查询的分组维度）
+     */
+    private Long groupKey;
+
+    /**
+     * 状态ID（按 分组键 + 状态 二级分组时有值）
+     */
+    private Integer statusId;
+
+    /**
+     * 任务数量
+     */
+    private Long issueCount;
+}
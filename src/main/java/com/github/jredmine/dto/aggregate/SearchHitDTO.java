@@ -0,0 +1,39 @@
+package com.github.jredmine.dto.aggregate;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 全文搜索命中结果
+ * 只包含索引表中的字段和正文摘要，类型相关的展示信息由搜索服务按页批量补充
+ *
+ * @author panfeng
+ */
+@Data
+public class SearchHitDTO {
+    /**
+     * 对象类型：issue、project、wiki
+     */
+    private String searchableType;
+
+    private Long searchableId;
+
+    private Long projectId;
+
+    private Long authorId;
+
+    private String title;
+
+    /**
+     * 正文开头部分（用于生成结果摘要）
+     */
+    private String excerpt;
+
+    private LocalDateTime updatedOn;
+
+    /**
+     * 相关度得分
+     */
+    private Double score;
+}
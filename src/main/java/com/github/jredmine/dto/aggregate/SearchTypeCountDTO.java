@@ -0,0 +1,18 @@
+package com.github.jredmine.dto.aggregate;
+
+import lombok.Data;
+
+/**
+ * 全文搜索按对象类型分组的命中数
+ *
+ * @author panfeng
+ */
+@Data
+public class SearchTypeCountDTO {
+    /**
+     * 对象类型：issue、project、wiki
+     */
+    private String searchableType;
+
+    private Long hitCount;
+}
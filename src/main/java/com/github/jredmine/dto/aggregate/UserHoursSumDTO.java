@@ -0,0 +1,26 @@
+package com.github.jredmine.dto.aggregate;
+
+import lombok.Data;
+
+/**
+ * 按用户分组的工时合计
+ *
+ * @author panfeng
+ */
+@Data
+public class UserHoursSumDTO {
+    /**
+     * 用户ID
+     */
+    private Long userId;
+
+    /**
+     * 工时合计
+     */
+    private Double totalHours;
+
+    /**
+     * 工时记录数（仅统计填写了工时的记录）
+     */
+    private Long timeEntryCount;
+}
@@ -0,0 +1,32 @@
+package com.github.jredmine.dto.aggregate;
+
+import lombok.Data;
+
+/**
+ * 按指派人分组的任务工作量计数
+ * 用于用户工作量报表，一次 GROUP BY 查询得到每个指派人的任务总数、已完成数和进行中数
+ *
+ * @author panfeng
+ */
+@Data
+public class UserIssueWorkloadDTO {
+    /**
+     * 指派人ID
+     */
+    private Long userId;
+
+    /**
+     * 任务总数
+     */
+    private Long issueCount;
+
+    /**
+     * 已完成数（状态为关闭）
+     */
+    private Long completedCount;
+
+    /**
+     * 进行中数（未关闭且完成度在 0~100 之间）
+     */
+    private Long inProgressCount;
+}
@@ -0,0 +1,21 @@
+package com.github.jredmine.dto.aggregate;
+
+import lombok.Data;
+
+/**
+ * 按版本分组的已消耗工时合计
+ *
+ * @author panfeng
+ */
+@Data
+public class VersionHoursSumDTO {
+    /**
+     * 版本ID
+     */
+    private Long versionId;
+
+    /**
+     * 版本关联任务的已消耗工时合计
+     */
+    private Double spentHours;
+}
@@ -0,0 +1,39 @@
+package com.github.jredmine.dto.request;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * 支持游标（keyset）分页的请求基础DTO
+ * 传入 cursor，或以 cursorMode=true 请求第一页时使用游标分页：
+ * 按 (排序字段, id) 定位下一页，不执行 OFFSET 和 COUNT 查询，current 参数被忽略。
+ * 未传入时仍使用页码分页，保持兼容。
+ *
+ * @author panfeng
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class CursorPageRequestDTO extends PageRequestDTO {
+
+    /**
+     * 游标（上一页响应中的 nextCursor）
+     */
+    private String cursor;
+
+    /**
+     * 是否使用游标分页（请求第一页时传 true）
+     */
+    private Boolean cursorMode;
+
+    /**
+     * 游标分页时是否同时返回总记录数（默认不返回，避免每页执行 COUNT 查询）
+     */
+    private Boolean withTotal;
+
+    /**
+     * 是否为游标分页请求
+     */
+    public boolean isCursorPaging() {
+        return Boolean.TRUE.equals(cursorMode) || (cursor != null && !cursor.isBlank());
+    }
+}
@@ -1,6 +1,6 @@
 package com.github.jredmine.dto.request.activity;
 
-import com.github.jredmine.dto.request.PageRequestDTO;
+import com.github.jredmine.dto.request.CursorPageRequestDTO;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
@@ -16,7 +16,7 @@ import java.util.List;
 @Data
 @EqualsAndHashCode(callSuper = true)
 @Schema(description = "项目活动流查询请求")
-public class ProjectActivityRequestDTO extends PageRequestDTO {
+public class ProjectActivityRequestDTO extends CursorPageRequestDTO {
 
     @Schema(description = "开始时间")
     private LocalDateTime startDate;
@@ -1,6 +1,6 @@
 package com.github.jredmine.dto.request.issue;
 
-import com.github.jredmine.dto.request.PageRequestDTO;
+import com.github.jredmine.dto.request.CursorPageRequestDTO;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 
@@ -11,5 +11,5 @@ import lombok.EqualsAndHashCode;
  */
 @Data
 @EqualsAndHashCode(callSuper = true)
-public class IssueJournalListRequestDTO extends PageRequestDTO {
+public class IssueJournalListRequestDTO extends CursorPageRequestDTO {
 }
@@ -1,6 +1,6 @@
 package com.github.jredmine.dto.request.issue;
 
-import com.github.jredmine.dto.request.PageRequestDTO;
+import com.github.jredmine.dto.request.CursorPageRequestDTO;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -15,7 +15,7 @@ import java.time.LocalDate;
  */
 @Data
 @EqualsAndHashCode(callSuper = true)
-public class IssueListRequestDTO extends PageRequestDTO {
+public class IssueListRequestDTO extends CursorPageRequestDTO {
 
     /**
      * 项目ID
@@ -36,6 +36,11 @@ public class PageResponse<T> {
      */
     private Integer pages;
 
+    /**
+     * 下一页游标（仅游标分页时返回，为 null 表示没有下一页）
+     */
+    private String nextCursor;
+
     public PageResponse() {
     }
 
@@ -61,6 +66,21 @@ public class PageResponse<T> {
         return new PageResponse<>(records, total.intValue(), current.intValue(), size.intValue());
     }
 
+    /**
+     * 创建游标分页响应（未统计总数时 total、pages 为 null）
+     */
+    public static <T> PageResponse<T> ofCursor(List<T> records, Integer size, String nextCursor, Long total) {
+        PageResponse<T> response = new PageResponse<>();
+        response.setRecords(records);
+        response.setSize(size);
+        response.setNextCursor(nextCursor);
+        if (total != null) {
+            response.setTotal(total.intValue());
+            response.setPages(size > 0 ? (total.intValue() + size - 1) / size : 0);
+        }
+        return response;
+    }
+
     /**
      * 将分页记录转换为新类型，同时保留分页元数据
      */
@@ -71,6 +91,7 @@ public class PageResponse<T> {
         response.setCurrent(this.current);
         response.setSize(this.size);
         response.setPages(this.pages);
+        response.setNextCursor(this.nextCursor);
         return response;
     }
 }
@@ -33,7 +33,17 @@ public class IssueImportResultDTO {
     private Integer skipped = 0;
 
     /**
-     * 错误信息列表
+     * 已提交的批次数
+     */
+    private Integer batches = 0;
+
+    /**
+     * 导入耗时（毫秒）
+     */
+    private Long elapsedMillis = 0L;
+
+    /**
+     * 错误信息列表（超过上限时只计数，不再记录明细）
      */
     private List<ImportError> errors = new ArrayList<>();
 
@@ -66,5 +66,11 @@ public class BurndownReportResponseDTO {
         private Long remaining;
         @Schema(description = "当日已完成数（仅 actualLine 有值）")
         private Long completedThatDay;
+        @Schema(description = "当日任务总数，用于燃起图（仅 actualLine 有值）")
+        private Long total;
+        @Schema(description = "当日累计已完成数，用于燃起图（仅 actualLine 有值）")
+        private Long completed;
+        @Schema(description = "当日剩余预估工时（仅 actualLine 有值）")
+        private Double remainingHours;
     }
 }
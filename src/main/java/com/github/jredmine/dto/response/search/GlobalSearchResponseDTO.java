@@ -27,6 +27,12 @@ public class GlobalSearchResponseDTO {
     @Schema(description = "各类型结果数量统计")
     private Map<String, Long> typeCounts;
 
+    @Schema(description = "各类型是否超时（超时的类型不计入结果和数量，其余类型正常返回）")
+    private Map<String, Boolean> timedOut;
+
+    @Schema(description = "各类型是否执行失败（失败的类型不计入结果和数量，与超时分开标记）")
+    private Map<String, Boolean> failed;
+
     @Schema(description = "分页的搜索结果")
     private PageResponse<SearchResultItemDTO> results;
 
@@ -0,0 +1,52 @@
+package com.github.jredmine.dto.response.wiki;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * Wiki 导出任务响应 DTO
+ *
+ * @author panfeng
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Wiki 导出任务")
+public class WikiExportJobResponseDTO {
+
+    @Schema(description = "任务 ID")
+    private String jobId;
+
+    @Schema(description = "项目 ID")
+    private Long projectId;
+
+    @Schema(description = "任务状态：PENDING、RUNNING、READY、FAILED")
+    private String status;
+
+    @Schema(description = "是否包含附件")
+    private Boolean includeAttachments;
+
+    @Schema(description = "是否包含历史版本")
+    private Boolean includeHistory;
+
+    @Schema(description = "已导出页面数")
+    private Integer pageCount;
+
+    @Schema(description = "导出文件大小（字节）")
+    private Long fileSize;
+
+    @Schema(description = "失败原因")
+    private String errorMessage;
+
+    @Schema(description = "创建时间")
+    private Date createdOn;
+
+    @Schema(description = "完成时间")
+    private Date completedOn;
+}
@@ -0,0 +1,53 @@
+package com.github.jredmine.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 附件内容实体类
+ * 内容寻址存储中每份文件内容对应一行，按 存储类型 + SHA-256 唯一，ref_count 为引用该文件的附件数
+ *
+ * @author panfeng
+ */
+@Data
+@TableName("attachment_blobs")
+public class AttachmentBlob {
+
+    @TableId(value = "id", type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 存储类型（local/oss/cos）
+     */
+    @TableField("storage_type")
+    private String storageType;
+
+    /**
+     * 文件内容 SHA-256 摘要
+     */
+    @TableField("digest")
+    private String digest;
+
+    @TableField("disk_directory")
+    private String diskDirectory;
+
+    @TableField("disk_filename")
+    private String diskFilename;
+
+    @TableField("filesize")
+    private Long filesize;
+
+    /**
+     * 引用该文件的附件数
+     */
+    @TableField("ref_count")
+    private Integer refCount;
+
+    @TableField("created_on")
+    private LocalDateTime createdOn;
+}
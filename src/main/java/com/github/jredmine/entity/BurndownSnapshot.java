@@ -0,0 +1,54 @@
+package com.github.jredmine.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 燃尽图每日快照实体类
+ * 按 项目 × 版本 × 日期 保存当日结束时的任务数和剩余预估工时
+ *
+ * @author panfeng
+ */
+@Data
+@TableName("burndown_snapshots")
+public class BurndownSnapshot {
+
+    @TableId(value = "id", type = IdType.AUTO)
+    private Long id;
+
+    @TableField("project_id")
+    private Long projectId;
+
+    /**
+     * 目标版本ID（0 表示未关联版本）
+     */
+    @TableField("version_id")
+    private Long versionId;
+
+    @TableField("snapshot_date")
+    private LocalDate snapshotDate;
+
+    @TableField("total_count")
+    private Integer totalCount;
+
+    @TableField("open_count")
+    private Integer openCount;
+
+    @TableField("closed_count")
+    private Integer closedCount;
+
+    /**
+     * 未关闭任务的预估工时合计
+     */
+    @TableField("remaining_hours")
+    private Double remainingHours;
+
+    @TableField("updated_on")
+    private LocalDateTime updatedOn;
+}
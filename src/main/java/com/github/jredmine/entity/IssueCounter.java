@@ -0,0 +1,68 @@
+package com.github.jredmine.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 任务计数器实体类
+ * 按 项目 × 版本 × 跟踪器 × 状态 × 私有 维度增量维护的任务数量及工时、完成度合计
+ *
+ * @author panfeng
+ */
+@Data
+@TableName("issue_counters")
+public class IssueCounter {
+
+    @TableId(value = "id", type = IdType.AUTO)
+    private Long id;
+
+    @TableField("project_id")
+    private Long projectId;
+
+    /**
+     * 目标版本ID（0 表示未关联版本）
+     */
+    @TableField("version_id")
+    private Long versionId;
+
+    @TableField("tracker_id")
+    private Integer trackerId;
+
+    @TableField("status_id")
+    private Integer statusId;
+
+    @TableField("is_private")
+    private Boolean isPrivate;
+
+    @TableField("is_closed")
+    private Boolean isClosed;
+
+    @TableField("issue_count")
+    private Integer issueCount;
+
+    /**
+     * 完成度为 100% 的任务数量
+     */
+    @TableField("done_count")
+    private Integer doneCount;
+
+    /**
+     * 完成度为 1-99% 的任务数量
+     */
+    @TableField("started_count")
+    private Integer startedCount;
+
+    @TableField("estimated_hours_sum")
+    private Double estimatedHoursSum;
+
+    @TableField("done_ratio_sum")
+    private Long doneRatioSum;
+
+    @TableField("updated_on")
+    private LocalDateTime updatedOn;
+}
@@ -0,0 +1,89 @@
+package com.github.jredmine.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 通知发件箱实体类
+ * 与业务数据在同一事务中写入，每个收件人一行，由后台分发任务合并发送
+ *
+ * @author panfeng
+ */
+@Data
+@TableName("notification_outbox")
+public class NotificationOutbox {
+
+    @TableId(value = "id", type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 事件类型（issue_updated/issue_assigned）
+     */
+    @TableField("event_type")
+    private String eventType;
+
+    @TableField("issue_id")
+    private Long issueId;
+
+    /**
+     * 收件人用户ID
+     */
+    @TableField("recipient_id")
+    private Long recipientId;
+
+    /**
+     * 操作人用户ID
+     */
+    @TableField("actor_id")
+    private Long actorId;
+
+    /**
+     * 变更摘要
+     */
+    @TableField("changes_summary")
+    private String changesSummary;
+
+    /**
+     * 备注
+     */
+    @TableField("notes")
+    private String notes;
+
+    /**
+     * 状态（PENDING/SENT/SKIPPED/FAILED）
+     */
+    @TableField("status")
+    private String status;
+
+    /**
+     * 已尝试发送次数
+     */
+    @TableField("attempts")
+    private Integer attempts;
+
+    /**
+     * 下次可发送时间（合并窗口结束时间、重试时间或领取租约到期时间）
+     */
+    @TableField("next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    /**
+     * 分发任务领取标识
+     */
+    @TableField("claim_token")
+    private String claimToken;
+
+    @TableField("last_error")
+    private String lastError;
+
+    @TableField("created_on")
+    private LocalDateTime createdOn;
+
+    @TableField("sent_on")
+    private LocalDateTime sentOn;
+}
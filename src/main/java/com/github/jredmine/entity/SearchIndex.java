@@ -0,0 +1,50 @@
+package com.github.jredmine.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 全文搜索索引实体类
+ * 任务、项目、Wiki 页面各对应一行，标题和正文上建有 FULLTEXT 索引
+ *
+ * @author panfeng
+ */
+@Data
+@TableName("search_index")
+public class SearchIndex {
+
+    @TableId(value = "id", type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 对象类型：issue、project、wiki
+     */
+    @TableField("searchable_type")
+    private String searchableType;
+
+    @TableField("searchable_id")
+    private Long searchableId;
+
+    /**
+     * 所属项目ID（项目为自身ID）
+     */
+    @TableField("project_id")
+    private Long projectId;
+
+    @TableField("author_id")
+    private Long authorId;
+
+    @TableField("title")
+    private String title;
+
+    @TableField("content")
+    private String content;
+
+    @TableField("updated_on")
+    private LocalDateTime updatedOn;
+}
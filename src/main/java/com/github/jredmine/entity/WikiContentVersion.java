@@ -10,7 +10,7 @@ import java.util.Date;
 
 /**
  * Wiki 内容版本快照实体类（对应 wiki_content_versions 表）
- * 每次向 wiki_contents 插入新版本时同步写入，用于持久化版本历史快照。
+ * 每次向 wiki_contents 插入新版本时同步写入，用于持久化版本历史，由 WikiVersionStore 负责编码和解码。
  *
  * @author panfeng
  */
@@ -31,11 +31,14 @@ public class WikiContentVersion {
     private Long authorId;
 
     /**
-     * 正文快照（与 wiki_contents.text 一致，存为 blob）
+     * 正文数据（blob），编码方式见 compression
      */
     @TableField("data")
     private byte[] data;
 
+    /**
+     * 编码方式：''（未压缩的完整正文）、zlib（压缩快照）、zdelta（相对上一版本的压缩增量）
+     */
     @TableField("compression")
     private String compression;
 
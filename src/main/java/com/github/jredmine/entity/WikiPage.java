@@ -34,4 +34,28 @@ public class WikiPage {
 
     @TableField("parent_id")
     private Long parentId;
-}
\ No newline at end of file
+
+    /**
+     * 最新内容ID（wiki_contents.id），创建、更新、回滚页面时维护
+     */
+    @TableField("latest_content_id")
+    private Long latestContentId;
+
+    /**
+     * 最新版本号
+     */
+    @TableField("latest_version")
+    private Integer latestVersion;
+
+    /**
+     * 最新版本作者ID
+     */
+    @TableField("latest_author_id")
+    private Long latestAuthorId;
+
+    /**
+     * 最新版本更新时间
+     */
+    @TableField("latest_updated_on")
+    private Date latestUpdatedOn;
+}
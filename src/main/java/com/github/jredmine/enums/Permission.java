@@ -256,6 +256,17 @@ public enum Permission {
      */
     private final String description;
 
+    /**
+     * 权限键到枚举的索引，避免每次查找都遍历 values()
+     */
+    private static final java.util.Map<String, Permission> KEY_INDEX = new java.util.HashMap<>();
+
+    static {
+        for (Permission permission : values()) {
+            KEY_INDEX.put(permission.key, permission);
+        }
+    }
+
     Permission(String key, String name, String category, String description) {
         this.key = key;
         this.name = name;
@@ -270,12 +281,10 @@ public enum Permission {
      * @return 权限枚举，如果不存在则返回null
      */
     public static Permission fromKey(String key) {
-        for (Permission permission : values()) {
-            if (permission.key.equals(key)) {
-                return permission;
-            }
+        if (key == null) {
+            return null;
         }
-        return null;
+        return KEY_INDEX.get(key);
     }
 
     /**
@@ -55,6 +55,8 @@ public enum ResultCode {
     WIKI_REDIRECT_NOT_FOUND(404, "Wiki 重定向不存在"),
     WIKI_REDIRECT_TITLE_EXISTS(409, "该标题已是重定向或已存在同名页面"),
     WIKI_REDIRECT_TARGET_NOT_FOUND(404, "重定向目标页面不存在"),
+    WIKI_EXPORT_JOB_NOT_FOUND(404, "Wiki 导出任务不存在或已过期"),
+    WIKI_EXPORT_JOB_NOT_READY(400, "Wiki 导出任务尚未完成"),
 
     // 文档
     DOCUMENTS_NOT_ENABLED(400, "项目未启用文档模块"),
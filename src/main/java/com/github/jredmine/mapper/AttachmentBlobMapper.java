@@ -0,0 +1,49 @@
+package com.github.jredmine.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.github.jredmine.entity.AttachmentBlob;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+/**
+ * 附件内容 Mapper 接口
+ * 引用计数均通过单条 SQL 原子增减，并发上传或删除相同内容时不会丢失计数
+ *
+ * @author panfeng
+ */
+@Mapper
+public interface AttachmentBlobMapper extends BaseMapper<AttachmentBlob> {
+
+    /**
+     * 新增内容记录，已存在时增加引用
+     */
+    @Insert("INSERT INTO attachment_blobs (storage_type, digest, disk_directory, disk_filename, filesize, "
+            + "ref_count, created_on) VALUES (#{b.storageType}, #{b.digest}, #{b.diskDirectory}, #{b.diskFilename}, "
+            + "#{b.filesize}, 1, NOW()) ON DUPLICATE KEY UPDATE ref_count = ref_count + 1")
+    int upsertRef(@Param("b") AttachmentBlob blob);
+
+    /**
+     * 加锁读取内容记录（SELECT ... FOR UPDATE），锁持有到事务结束；
+     * 记录不存在时锁住该唯一键的间隙，阻止并发事务插入相同内容
+     */
+    @Select("SELECT * FROM attachment_blobs WHERE storage_type = #{storageType} AND digest = #{digest} FOR UPDATE")
+    AttachmentBlob selectForUpdate(@Param("storageType") String storageType, @Param("digest") String digest);
+
+    /**
+     * 减少引用
+     */
+    @Update("UPDATE attachment_blobs SET ref_count = ref_count - 1 "
+            + "WHERE storage_type = #{storageType} AND digest = #{digest} AND ref_count > 0")
+    int decrementRef(@Param("storageType") String storageType, @Param("digest") String digest);
+
+    /**
+     * 删除已无引用的内容记录，返回 1 表示调用方需要删除物理文件
+     */
+    @Delete("DELETE FROM attachment_blobs "
+            + "WHERE storage_type = #{storageType} AND digest = #{digest} AND ref_count <= 0")
+    int deleteUnreferenced(@Param("storageType") String storageType, @Param("digest") String digest);
+}
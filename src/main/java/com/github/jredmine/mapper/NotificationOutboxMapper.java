@@ -0,0 +1,51 @@
+package com.github.jredmine.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.github.jredmine.entity.NotificationOutbox;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 通知发件箱 Mapper 接口
+ *
+ * @author panfeng
+ */
+@Mapper
+public interface NotificationOutboxMapper extends BaseMapper<NotificationOutbox> {
+
+    /**
+     * 批量写入通知
+     */
+    @Insert("<script>INSERT INTO notification_outbox (event_type, issue_id, recipient_id, actor_id, changes_summary, "
+            + "notes, status, attempts, next_attempt_at, created_on) VALUES "
+            + "<foreach collection='list' item='n' separator=','>"
+            + "(#{n.eventType}, #{n.issueId}, #{n.recipientId}, #{n.actorId}, #{n.changesSummary}, #{n.notes}, "
+            + "#{n.status}, #{n.attempts}, #{n.nextAttemptAt}, #{n.createdOn})"
+            + "</foreach></script>")
+    int insertBatch(@Param("list") List<NotificationOutbox> notifications);
+
+    /**
+     * 领取待发送的通知：取最早到期的若干 (任务, 收件人) 组合，连同该组合下尚未到期的通知一起领取，
+     * 以便合并为一封邮件。已被其它分发任务领取且租约未到期的记录不会被重复领取。
+     *
+     * @param token      领取标识
+     * @param now        当前时间
+     * @param leaseUntil 租约到期时间（分发任务异常退出后，到期的记录可被重新领取）
+     * @param limit      最多领取的组合数
+     * @return 领取的记录数
+     */
+    @Update("UPDATE notification_outbox o "
+            + "JOIN (SELECT issue_id, recipient_id FROM notification_outbox "
+            + "WHERE status = 'PENDING' AND next_attempt_at <= #{now} "
+            + "GROUP BY issue_id, recipient_id ORDER BY MIN(id) LIMIT #{limit}) d "
+            + "ON o.issue_id = d.issue_id AND o.recipient_id = d.recipient_id "
+            + "SET o.claim_token = #{token}, o.next_attempt_at = #{leaseUntil} "
+            + "WHERE o.status = 'PENDING' AND (o.claim_token IS NULL OR o.next_attempt_at <= #{now})")
+    int claimDue(@Param("token") String token, @Param("now") LocalDateTime now,
+                 @Param("leaseUntil") LocalDateTime leaseUntil, @Param("limit") int limit);
+}
@@ -1,8 +1,17 @@
 package com.github.jredmine.mapper;
 
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.toolkit.Constants;
+import com.github.jredmine.dto.aggregate.UserHoursSumDTO;
+import com.github.jredmine.dto.aggregate.VersionHoursSumDTO;
 import com.github.jredmine.entity.TimeEntry;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.Collection;
+import java.util.List;
 
 /**
  * 工时记录 Mapper 接口
@@ -12,4 +21,22 @@ import org.apache.ibatis.annotations.Mapper;
  */
 @Mapper
 public interface TimeEntryMapper extends BaseMapper<TimeEntry> {
+
+    /**
+     * 按用户分组统计工时合计和记录数（记录数只统计填写了工时的记录）
+     */
+    @Select("SELECT user_id, COALESCE(SUM(hours), 0) AS total_hours, COUNT(hours) AS time_entry_count "
+            + "FROM time_entries ${ew.customSqlSegment} GROUP BY user_id")
+    List<UserHoursSumDTO> selectHoursGroupByUser(@Param(Constants.WRAPPER) Wrapper<TimeEntry> wrapper);
+
+    /**
+     * 按目标版本分组统计项目内任务的已消耗工时
+     */
+    @Select("<script>SELECT i.fixed_version_id AS version_id, COALESCE(SUM(te.hours), 0) AS spent_hours "
+            + "FROM time_entries te JOIN issues i ON i.id = te.issue_id "
+            + "WHERE te.project_id = #{projectId} AND i.project_id = #{projectId} AND i.fixed_version_id IN "
+            + "<foreach collection='versionIds' item='id' open='(' separator=',' close=')'>#{id}</foreach> "
+            + "GROUP BY i.fixed_version_id</script>")
+    List<VersionHoursSumDTO> selectSpentHoursGroupByVersion(@Param("projectId") Long projectId,
+                                                            @Param("versionIds") Collection<Long> versionIds);
 }
@@ -0,0 +1,99 @@
+package com.github.jredmine.mapper.issue;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.github.jredmine.entity.BurndownSnapshot;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 燃尽图每日快照 Mapper 接口
+ *
+ * @author panfeng
+ */
+public interface BurndownSnapshotMapper extends BaseMapper<BurndownSnapshot> {
+
+    /**
+     * 历史快照回放是否已完整完成
+     */
+    @Select("SELECT EXISTS(SELECT 1 FROM burndown_snapshot_state WHERE id = 1)")
+    boolean isBackfillCompleted();
+
+    /**
+     * 记录历史快照回放已完成
+     */
+    @Insert("INSERT INTO burndown_snapshot_state (id, backfill_date, backfill_completed_on) VALUES (1, #{date}, NOW()) "
+            + "ON DUPLICATE KEY UPDATE backfill_date = VALUES(backfill_date), "
+            + "backfill_completed_on = VALUES(backfill_completed_on)")
+    int markBackfillCompleted(@Param("date") LocalDate date);
+
+    /**
+     * 根据任务计数器写入指定日期的快照（已存在则覆盖）
+     */
+    @Insert("INSERT INTO burndown_snapshots (project_id, version_id, snapshot_date, total_count, open_count, "
+            + "closed_count, remaining_hours, updated_on) "
+            + "SELECT project_id, version_id, #{date}, SUM(issue_count), "
+            + "SUM(CASE WHEN is_closed = 0 THEN issue_count ELSE 0 END), "
+            + "SUM(CASE WHEN is_closed = 1 THEN issue_count ELSE 0 END), "
+            + "SUM(CASE WHEN is_closed = 0 THEN estimated_hours_sum ELSE 0 END), NOW() "
+            + "FROM issue_counters GROUP BY project_id, version_id "
+            + "ON DUPLICATE KEY UPDATE total_count = VALUES(total_count), open_count = VALUES(open_count), "
+            + "closed_count = VALUES(closed_count), remaining_hours = VALUES(remaining_hours), "
+            + "updated_on = VALUES(updated_on)")
+    int upsertFromCounters(@Param("date") LocalDate date);
+
+    /**
+     * 为已不在任务计数器中的 项目 × 版本 写入指定日期的零值快照（已存在则覆盖）
+     * 计数器重建后没有任务的组合不会再由 {@link #upsertFromCounters} 写入，
+     * 其最近一条非零快照会被报表一直沿用，需以零值结束
+     */
+    @Insert("INSERT INTO burndown_snapshots (project_id, version_id, snapshot_date, total_count, open_count, "
+            + "closed_count, remaining_hours, updated_on) "
+            + "SELECT s.project_id, s.version_id, #{date}, 0, 0, 0, 0, NOW() FROM burndown_snapshots s "
+            + "JOIN (SELECT project_id, version_id, MAX(snapshot_date) AS snapshot_date FROM burndown_snapshots "
+            + "WHERE snapshot_date <= #{date} GROUP BY project_id, version_id) m "
+            + "ON s.project_id = m.project_id AND s.version_id = m.version_id AND s.snapshot_date = m.snapshot_date "
+            + "WHERE (s.total_count > 0 OR s.remaining_hours > 0) AND NOT EXISTS (SELECT 1 FROM issue_counters c "
+            + "WHERE c.project_id = s.project_id AND c.version_id = s.version_id) "
+            + "ON DUPLICATE KEY UPDATE total_count = 0, open_count = 0, closed_count = 0, remaining_hours = 0, "
+            + "updated_on = VALUES(updated_on)")
+    int upsertZeroForMissingCounters(@Param("date") LocalDate date);
+
+    /**
+     * 批量写入快照（已存在则覆盖）
+     */
+    @Insert("<script>INSERT INTO burndown_snapshots (project_id, version_id, snapshot_date, total_count, open_count, "
+            + "closed_count, remaining_hours, updated_on) VALUES "
+            + "<foreach collection='snapshots' item='s' separator=','>"
+            + "(#{s.projectId}, #{s.versionId}, #{s.snapshotDate}, #{s.totalCount}, #{s.openCount}, "
+            + "#{s.closedCount}, #{s.remainingHours}, NOW())</foreach> "
+            + "ON DUPLICATE KEY UPDATE total_count = VALUES(total_count), open_count = VALUES(open_count), "
+            + "closed_count = VALUES(closed_count), remaining_hours = VALUES(remaining_hours), "
+            + "updated_on = VALUES(updated_on)</script>")
+    int upsertBatch(@Param("snapshots") List<BurndownSnapshot> snapshots);
+
+    /**
+     * 查询项目（或项目的某个版本）在日期范围内的快照，
+     * 以及每个版本在范围开始前的最后一条快照（用于补齐范围开始时的数据），按版本、日期排序
+     */
+    @Select("<script>SELECT project_id, version_id, snapshot_date, total_count, open_count, closed_count, remaining_hours "
+            + "FROM burndown_snapshots WHERE project_id = #{projectId} "
+            + "<if test='versionId != null'>AND version_id = #{versionId} </if>"
+            + "AND snapshot_date BETWEEN #{from} AND #{to} "
+            + "UNION ALL "
+            + "SELECT b.project_id, b.version_id, b.snapshot_date, b.total_count, b.open_count, b.closed_count, "
+            + "b.remaining_hours FROM burndown_snapshots b "
+            + "JOIN (SELECT version_id, MAX(snapshot_date) AS snapshot_date FROM burndown_snapshots "
+            + "WHERE project_id = #{projectId} <if test='versionId != null'>AND version_id = #{versionId} </if>"
+            + "AND snapshot_date &lt; #{from} GROUP BY version_id) m "
+            + "ON b.version_id = m.version_id AND b.snapshot_date = m.snapshot_date "
+            + "WHERE b.project_id = #{projectId} "
+            + "ORDER BY version_id, snapshot_date</script>")
+    List<BurndownSnapshot> selectRange(@Param("projectId") Long projectId,
+                                       @Param("versionId") Long versionId,
+                                       @Param("from") LocalDate from,
+                                       @Param("to") LocalDate to);
+}
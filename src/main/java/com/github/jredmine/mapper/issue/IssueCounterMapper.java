@@ -0,0 +1,55 @@
+package com.github.jredmine.mapper.issue;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.github.jredmine.entity.IssueCounter;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Param;
+
+/**
+ * 任务计数器 Mapper 接口
+ *
+ * @author panfeng
+ */
+public interface IssueCounterMapper extends BaseMapper<IssueCounter> {
+
+    /**
+     * 按维度累加增量（不存在则插入）
+     * is_closed 由状态表决定，不依赖调用方传入
+     */
+    @Insert("INSERT INTO issue_counters (project_id, version_id, tracker_id, status_id, is_private, is_closed, "
+            + "issue_count, done_count, started_count, estimated_hours_sum, done_ratio_sum, updated_on) "
+            + "VALUES (#{c.projectId}, #{c.versionId}, #{c.trackerId}, #{c.statusId}, #{c.isPrivate}, "
+            + "COALESCE((SELECT s.is_closed FROM issue_statuses s WHERE s.id = #{c.statusId}), 0), "
+            + "#{c.issueCount}, #{c.doneCount}, #{c.startedCount}, #{c.estimatedHoursSum}, #{c.doneRatioSum}, NOW()) "
+            + "ON DUPLICATE KEY UPDATE issue_count = issue_count + VALUES(issue_count), "
+            + "done_count = done_count + VALUES(done_count), "
+            + "started_count = started_count + VALUES(started_count), "
+            + "estimated_hours_sum = estimated_hours_sum + VALUES(estimated_hours_sum), "
+            + "done_ratio_sum = done_ratio_sum + VALUES(done_ratio_sum), "
+            + "updated_on = VALUES(updated_on)")
+    int upsertDelta(@Param("c") IssueCounter delta);
+
+    /**
+     * 删除计数器（projectId 为空时删除全部）
+     */
+    @Delete("<script>DELETE FROM issue_counters"
+            + "<if test='projectId != null'> WHERE project_id = #{projectId}</if></script>")
+    int deleteByProject(@Param("projectId") Long projectId);
+
+    /**
+     * 根据任务表重新生成计数器（projectId 为空时重建全部）
+     */
+    @Insert("<script>INSERT INTO issue_counters (project_id, version_id, tracker_id, status_id, is_private, is_closed, "
+            + "issue_count, done_count, started_count, estimated_hours_sum, done_ratio_sum, updated_on) "
+            + "SELECT i.project_id, COALESCE(i.fixed_version_id, 0), i.tracker_id, i.status_id, "
+            + "COALESCE(i.is_private, 0), COALESCE(MAX(s.is_closed), 0), COUNT(*), "
+            + "SUM(CASE WHEN i.done_ratio &gt;= 100 THEN 1 ELSE 0 END), "
+            + "SUM(CASE WHEN i.done_ratio &gt; 0 AND i.done_ratio &lt; 100 THEN 1 ELSE 0 END), "
+            + "COALESCE(SUM(i.estimated_hours), 0), COALESCE(SUM(i.done_ratio), 0), NOW() "
+            + "FROM issues i LEFT JOIN issue_statuses s ON s.id = i.status_id"
+            + "<if test='projectId != null'> WHERE i.project_id = #{projectId}</if> "
+            + "GROUP BY i.project_id, COALESCE(i.fixed_version_id, 0), i.tracker_id, i.status_id, "
+            + "COALESCE(i.is_private, 0)</script>")
+    int insertFromIssues(@Param("projectId") Long projectId);
+}
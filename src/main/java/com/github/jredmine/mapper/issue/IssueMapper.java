@@ -1,13 +1,102 @@
 package com.github.jredmine.mapper.issue;
 
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.toolkit.Constants;
+import com.github.jredmine.dto.aggregate.IssueDailyCountDTO;
+import com.github.jredmine.dto.aggregate.IssueDateRangeDTO;
+import com.github.jredmine.dto.aggregate.IssueGroupCountDTO;
+import com.github.jredmine.dto.aggregate.UserIssueWorkloadDTO;
 import com.github.jredmine.entity.Issue;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.ResultType;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.util.Collection;
+import java.util.List;
 
 /**
  * 任务 Mapper 接口
  * 注意：不需要 @Mapper 注解，因为已经在 JRedmineApplication 中使用 @MapperScan 扫描
+ * 聚合查询的过滤条件通过 Wrapper 传入（仅使用 WHERE 条件，不要在 Wrapper 中设置排序）
  *
  * @author panfeng
  */
 public interface IssueMapper extends BaseMapper<Issue> {
+
+    /**
+     * 按优先级分组统计任务数量
+     */
+    @Select("SELECT priority_id AS group_key, COUNT(*) AS issue_count FROM issues "
+            + "${ew.customSqlSegment} GROUP BY priority_id")
+    List<IssueGroupCountDTO> selectCountGroupByPriority(@Param(Constants.WRAPPER) Wrapper<Issue> wrapper);
+
+    /**
+     * 按指派人分组统计任务数量（未指派的任务归入 group_key 为 NULL 的一组）
+     */
+    @Select("SELECT assigned_to_id AS group_key, COUNT(*) AS issue_count FROM issues "
+            + "${ew.customSqlSegment} GROUP BY assigned_to_id")
+    List<IssueGroupCountDTO> selectCountGroupByAssignee(@Param(Constants.WRAPPER) Wrapper<Issue> wrapper);
+
+    /**
+     * 按创建者分组统计任务数量
+     */
+    @Select("SELECT author_id AS group_key, COUNT(*) AS issue_count FROM issues "
+            + "${ew.customSqlSegment} GROUP BY author_id")
+    List<IssueGroupCountDTO> selectCountGroupByAuthor(@Param(Constants.WRAPPER) Wrapper<Issue> wrapper);
+
+    /**
+     * 按指派人分组统计工作量：任务总数、已完成数（状态已关闭）、进行中数（未关闭且 0 < 完成度 < 100）
+     * Wrapper 中的条件作用于 issues 表，未指派的任务需由调用方排除
+     */
+    @Select("SELECT assigned_to_id AS user_id, COUNT(*) AS issue_count, "
+            + "SUM(CASE WHEN s.is_closed = 1 THEN 1 ELSE 0 END) AS completed_count, "
+            + "SUM(CASE WHEN status_id IS NOT NULL AND COALESCE(s.is_closed, 0) = 0 "
+            + "AND done_ratio > 0 AND done_ratio < 100 THEN 1 ELSE 0 END) AS in_progress_count "
+            + "FROM issues LEFT JOIN issue_statuses s ON s.id = issues.status_id "
+            + "${ew.customSqlSegment} GROUP BY assigned_to_id")
+    List<UserIssueWorkloadDTO> selectWorkloadGroupByAssignee(@Param(Constants.WRAPPER) Wrapper<Issue> wrapper);
+
+    /**
+     * 查询任务的最早开始日期和最晚截止日期
+     */
+    @Select("SELECT MIN(start_date) AS min_start_date, MAX(due_date) AS max_due_date FROM issues "
+            + "${ew.customSqlSegment}")
+    IssueDateRangeDTO selectDateRange(@Param(Constants.WRAPPER) Wrapper<Issue> wrapper);
+
+    /**
+     * 按更新日期分组统计任务数量
+     */
+    @Select("SELECT DATE(updated_on) AS date, COUNT(*) AS issue_count FROM issues "
+            + "${ew.customSqlSegment} GROUP BY DATE(updated_on)")
+    List<IssueDailyCountDTO> selectCountGroupByUpdatedDate(@Param(Constants.WRAPPER) Wrapper<Issue> wrapper);
+
+    /**
+     * 按关闭日期分组统计已关闭任务数量
+     */
+    @Select("SELECT DATE(closed_on) AS date, COUNT(*) AS issue_count FROM issues "
+            + "${ew.customSqlSegment} GROUP BY DATE(closed_on)")
+    List<IssueDailyCountDTO> selectCountGroupByClosedDate(@Param(Constants.WRAPPER) Wrapper<Issue> wrapper);
+
+    /**
+     * 流式查询任务导出所需的列（逐行回调，不在内存中保留整个结果集）
+     * fetchSize 为 Integer.MIN_VALUE 时 MySQL 驱动逐行读取结果；
+     * 结果读取完成前该连接不能执行其它查询，调用方不能处于事务中
+     */
+    @Select("SELECT id, project_id, tracker_id, subject, status_id, priority_id, assigned_to_id, author_id, "
+            + "created_on, updated_on, due_date, done_ratio, is_private FROM issues ${ew.customSqlSegment}")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    @ResultType(Issue.class)
+    void streamIssues(@Param(Constants.WRAPPER) Wrapper<Issue> wrapper, ResultHandler<Issue> handler);
+
+    /**
+     * 将顶级任务的 root_id 设置为自身 ID（批量导入后一次更新）
+     */
+    @Update("<script>UPDATE issues SET root_id = id WHERE id IN "
+            + "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach></script>")
+    int updateRootIdToSelf(@Param("ids") Collection<Long> ids);
 }
@@ -1,7 +1,13 @@
 package com.github.jredmine.mapper.issue;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.github.jredmine.dto.aggregate.IssueAttributeChangeDTO;
 import com.github.jredmine.entity.JournalDetail;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.Collection;
+import java.util.List;
 
 /**
  * 活动详情 Mapper 接口
@@ -9,4 +15,17 @@ import com.github.jredmine.entity.JournalDetail;
  * @author panfeng
  */
 public interface JournalDetailMapper extends BaseMapper<JournalDetail> {
+
+    /**
+     * 查询一批任务的指定属性变更记录，按任务ID、变更时间排序
+     */
+    @Select("<script>SELECT j.journalized_id AS issue_id, j.created_on AS changed_on, d.prop_key, d.old_value, d.value "
+            + "FROM journal_details d JOIN journals j ON j.id = d.journal_id "
+            + "WHERE j.journalized_type = 'Issue' AND d.property = 'attr' AND j.journalized_id IN "
+            + "<foreach collection='issueIds' item='id' open='(' separator=',' close=')'>#{id}</foreach> "
+            + "AND d.prop_key IN "
+            + "<foreach collection='propKeys' item='key' open='(' separator=',' close=')'>#{key}</foreach> "
+            + "ORDER BY j.journalized_id, j.created_on, d.id</script>")
+    List<IssueAttributeChangeDTO> selectAttributeChanges(@Param("issueIds") Collection<Long> issueIds,
+                                                        @Param("propKeys") Collection<String> propKeys);
 }
@@ -0,0 +1,107 @@
+package com.github.jredmine.mapper.search;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.github.jredmine.dto.aggregate.SearchHitDTO;
+import com.github.jredmine.dto.aggregate.SearchTypeCountDTO;
+import com.github.jredmine.entity.SearchIndex;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 全文搜索索引 Mapper 接口
+ * 索引行由源表通过 INSERT ... SELECT 生成，写入逻辑与初始化脚本保持一致
+ *
+ * @author panfeng
+ */
+public interface SearchIndexMapper extends BaseMapper<SearchIndex> {
+
+    /**
+     * 搜索条件（MATCH 表达式与类型、项目范围），供命中查询和计数查询共用
+     */
+    String SEARCH_CONDITION = "MATCH(title, content) AGAINST(#{query} IN BOOLEAN MODE) "
+            + "AND searchable_type IN "
+            + "<foreach collection='types' item='type' open='(' separator=',' close=')'>#{type}</foreach> "
+            + "AND project_id IN "
+            + "<foreach collection='projectIds' item='pid' open='(' separator=',' close=')'>#{pid}</foreach>"
+            + "<if test='projectId != null'> AND (searchable_type = 'project' OR project_id = #{projectId})</if>";
+
+    String UPSERT_COLUMNS = "INSERT INTO search_index (searchable_type, searchable_id, project_id, author_id, "
+            + "title, content, updated_on) ";
+
+    String ON_DUPLICATE_UPDATE = " ON DUPLICATE KEY UPDATE project_id = VALUES(project_id), "
+            + "author_id = VALUES(author_id), title = VALUES(title), content = VALUES(content), "
+            + "updated_on = VALUES(updated_on)";
+
+    /**
+     * 按相关度分页查询命中结果（timeoutMillis 为数据库端执行时间上限）
+     */
+    @Select("<script>SELECT /*+ MAX_EXECUTION_TIME(${timeoutMillis}) */ "
+            + "searchable_type, searchable_id, project_id, author_id, title, "
+            + "LEFT(content, 300) AS excerpt, updated_on, "
+            + "MATCH(title, content) AGAINST(#{query} IN BOOLEAN MODE) AS score "
+            + "FROM search_index WHERE " + SEARCH_CONDITION
+            + " ORDER BY score DESC, updated_on DESC, id DESC LIMIT #{offset}, #{limit}</script>")
+    List<SearchHitDTO> selectHits(@Param("query") String query,
+                                  @Param("types") Collection<String> types,
+                                  @Param("projectIds") Collection<Long> projectIds,
+                                  @Param("projectId") Long projectId,
+                                  @Param("offset") long offset,
+                                  @Param("limit") int limit,
+                                  @Param("timeoutMillis") long timeoutMillis);
+
+    /**
+     * 按对象类型统计命中数（timeoutMillis 为数据库端执行时间上限）
+     */
+    @Select("<script>SELECT /*+ MAX_EXECUTION_TIME(${timeoutMillis}) */ "
+            + "searchable_type, COUNT(*) AS hit_count FROM search_index WHERE "
+            + SEARCH_CONDITION + " GROUP BY searchable_type</script>")
+    List<SearchTypeCountDTO> countHitsByType(@Param("query") String query,
+                                             @Param("types") Collection<String> types,
+                                             @Param("projectIds") Collection<Long> projectIds,
+                                             @Param("projectId") Long projectId,
+                                             @Param("timeoutMillis") long timeoutMillis);
+
+    /**
+     * 根据任务表写入索引（issueId 为空时写入全部任务）
+     */
+    @Insert("<script>" + UPSERT_COLUMNS
+            + "SELECT 'issue', i.id, i.project_id, i.author_id, COALESCE(i.subject, ''), i.description, i.updated_on "
+            + "FROM issues i<if test='issueId != null'> WHERE i.id = #{issueId}</if>"
+            + ON_DUPLICATE_UPDATE + "</script>")
+    int upsertIssues(@Param("issueId") Long issueId);
+
+    /**
+     * 根据任务表批量写入指定任务的索引
+     */
+    @Insert("<script>" + UPSERT_COLUMNS
+            + "SELECT 'issue', i.id, i.project_id, i.author_id, COALESCE(i.subject, ''), i.description, i.updated_on "
+            + "FROM issues i WHERE i.id IN "
+            + "<foreach collection='issueIds' item='id' open='(' separator=',' close=')'>#{id}</foreach>"
+            + ON_DUPLICATE_UPDATE + "</script>")
+    int upsertIssuesByIds(@Param("issueIds") Collection<Long> issueIds);
+
+    /**
+     * 根据项目表写入索引（projectId 为空时写入全部项目）
+     */
+    @Insert("<script>" + UPSERT_COLUMNS
+            + "SELECT 'project', p.id, p.id, NULL, COALESCE(p.name, ''), p.description, p.updated_on "
+            + "FROM projects p<if test='projectId != null'> WHERE p.id = #{projectId}</if>"
+            + ON_DUPLICATE_UPDATE + "</script>")
+    int upsertProjects(@Param("projectId") Long projectId);
+
+    /**
+     * 根据 Wiki 页面及其最新内容写入索引（pageId 为空时写入全部页面）
+     */
+    @Insert("<script>" + UPSERT_COLUMNS
+            + "SELECT 'wiki', wp.id, w.project_id, wc.author_id, COALESCE(wp.title, ''), wc.text, wc.updated_on "
+            + "FROM wiki_pages wp JOIN wikis w ON w.id = wp.wiki_id "
+            + "LEFT JOIN wiki_contents wc ON wc.page_id = wp.id "
+            + "AND wc.version = (SELECT MAX(c2.version) FROM wiki_contents c2 WHERE c2.page_id = wp.id)"
+            + "<if test='pageId != null'> WHERE wp.id = #{pageId}</if>"
+            + ON_DUPLICATE_UPDATE + "</script>")
+    int upsertWikiPages(@Param("pageId") Long pageId);
+}
@@ -2,6 +2,8 @@ package com.github.jredmine.mapper.wiki;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.github.jredmine.entity.WikiContent;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
 
 /**
  * Wiki内容 Mapper 接口
@@ -9,4 +11,13 @@ import com.github.jredmine.entity.WikiContent;
  * @author panfeng
  */
 public interface WikiContentMapper extends BaseMapper<WikiContent> {
-}
\ No newline at end of file
+
+    /**
+     * 清空早于指定版本的正文，仅限已在 wiki_content_versions 中保存了历史记录的版本；
+     * 尚未压缩的旧版本正文只保存在 wiki_contents 中，不能清空
+     */
+    @Update("UPDATE wiki_contents SET text = '' "
+            + "WHERE page_id = #{pageId} AND version < #{version} AND text <> '' "
+            + "AND version IN (SELECT v.version FROM wiki_content_versions v WHERE v.page_id = #{pageId})")
+    int clearArchivedText(@Param("pageId") Long pageId, @Param("version") Integer version);
+}
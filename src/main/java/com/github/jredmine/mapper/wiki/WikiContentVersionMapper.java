@@ -2,6 +2,10 @@ package com.github.jredmine.mapper.wiki;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.github.jredmine.entity.WikiContentVersion;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
 
 /**
  * Wiki 内容版本快照 Mapper 接口
@@ -9,4 +13,31 @@ import com.github.jredmine.entity.WikiContentVersion;
  * @author panfeng
  */
 public interface WikiContentVersionMapper extends BaseMapper<WikiContentVersion> {
+
+    /**
+     * 查询解码指定版本所需的记录：从不晚于该版本的最近完整快照到该版本，按版本号升序
+     */
+    @Select("SELECT * FROM wiki_content_versions "
+            + "WHERE page_id = #{pageId} AND version <= #{version} "
+            + "AND version >= (SELECT COALESCE(MAX(s.version), 0) FROM wiki_content_versions s "
+            + "WHERE s.page_id = #{pageId} AND s.version <= #{version} "
+            + "AND (s.compression IS NULL OR s.compression <> 'zdelta')) "
+            + "ORDER BY version")
+    List<WikiContentVersion> selectDecodeChain(@Param("pageId") Long pageId, @Param("version") Integer version);
+
+    /**
+     * 按页面ID顺序查询待压缩的页面（从游标之后开始）：存在未压缩的历史记录，
+     * 或非最新版本（不是页面最新内容指针指向的记录）在 wiki_contents 中仍保存正文
+     */
+    @Select("SELECT page_id FROM ("
+            + "(SELECT DISTINCT page_id FROM wiki_content_versions "
+            + "WHERE page_id > #{afterPageId} AND (compression IS NULL OR compression = '') "
+            + "ORDER BY page_id LIMIT #{limit}) "
+            + "UNION "
+            + "(SELECT DISTINCT c.page_id FROM wiki_contents c JOIN wiki_pages p ON p.id = c.page_id "
+            + "WHERE c.page_id > #{afterPageId} AND c.text <> '' "
+            + "AND (p.latest_content_id IS NULL OR c.id <> p.latest_content_id) "
+            + "ORDER BY c.page_id LIMIT #{limit})"
+            + ") t ORDER BY page_id LIMIT #{limit}")
+    List<Long> selectPageIdsToCompact(@Param("afterPageId") long afterPageId, @Param("limit") int limit);
 }
@@ -2,6 +2,8 @@ package com.github.jredmine.mapper.wiki;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.github.jredmine.entity.WikiPage;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
 
 /**
  * Wiki页面 Mapper 接口
@@ -9,4 +11,10 @@ import com.github.jredmine.entity.WikiPage;
  * @author panfeng
  */
 public interface WikiPageMapper extends BaseMapper<WikiPage> {
-}
\ No newline at end of file
+
+    /**
+     * 加锁读取页面（SELECT ... FOR UPDATE，锁持有到事务结束），用于串行分配新版本号
+     */
+    @Select("SELECT * FROM wiki_pages WHERE id = #{id} FOR UPDATE")
+    WikiPage selectByIdForUpdate(@Param("id") Long id);
+}
@@ -23,6 +23,7 @@ public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserMapper userMapper;
     private final ProjectPermissionService projectPermissionService;
+    private final UserPrincipalCache userPrincipalCache;
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
@@ -49,6 +50,28 @@ public class CustomUserDetailsService implements UserDetailsService {
         return UserPrincipal.create(user, permissions);
     }
 
+    /**
+     * 为 JWT 认证加载用户主体，优先使用缓存
+     * 缓存命中时不执行任何 SQL 查询
+     *
+     * @param userId   Token 中的用户ID
+     * @param username Token 中的用户名
+     * @param issuedAt Token 签发时间（毫秒）
+     * @return 用户主体
+     */
+    public UserPrincipal loadUserForToken(Long userId, String username, long issuedAt) {
+        UserPrincipal cached = userPrincipalCache.get(userId, issuedAt);
+        if (cached != null && cached.getUsername().equals(username)) {
+            return cached;
+        }
+
+        UserPrincipal principal = (UserPrincipal) loadUserByUsername(username);
+        if (principal.getId().equals(userId)) {
+            userPrincipalCache.put(userId, issuedAt, principal);
+        }
+        return principal;
+    }
+
     /**
      * 根据用户ID加载用户信息
      *
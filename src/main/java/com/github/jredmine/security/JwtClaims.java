@@ -0,0 +1,61 @@
+package com.github.jredmine.security;
+
+/**
+ * 已验证的JWT声明
+ * Token签名和有效期校验通过后一次性提取的用户名、用户ID、签发时间和过期时间，
+ * 实例不可变，可在缓存中跨请求共享。
+ *
+ * @author panfeng
+ */
+public final class JwtClaims {
+
+    private final String username;
+    private final Long userId;
+    private final long issuedAt;
+    private final long expiresAt;
+
+    public JwtClaims(String username, Long userId, long issuedAt, long expiresAt) {
+        this.username = username;
+        this.userId = userId;
+        this.issuedAt = issuedAt;
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * 用户名（Token主题）
+     */
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * 用户ID
+     */
+    public Long getUserId() {
+        return userId;
+    }
+
+    /**
+     * 签发时间（毫秒），Token中没有签发时间时为 0
+     */
+    public long getIssuedAt() {
+        return issuedAt;
+    }
+
+    /**
+     * 过期时间（毫秒）
+     */
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    /**
+     * 检查是否已过期
+     *
+     * @param now 当前时间（毫秒）
+     * @return true 如果已过期
+     */
+    public boolean isExpired(long now) {
+        return expiresAt <= now;
+    }
+}
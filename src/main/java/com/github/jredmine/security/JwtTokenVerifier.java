@@ -0,0 +1,133 @@
+package com.github.jredmine.security;
+
+import com.github.jredmine.util.JwtUtils;
+import io.jsonwebtoken.JwtException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * JWT Token 验证器
+ * 每个 Token 只解析和验签一次，得到 {@link JwtClaims}；
+ * 验证通过的 Token 按其 SHA-256 摘要缓存到过期时间，缓存命中时认证只需一次摘要计算和一次查表。
+ * 验证失败的 Token 不缓存；缓存已满时先移除已过期的条目，仍不足时移除最早过期的一部分条目，不整体清空。
+ *
+ * @author panfeng
+ */
+@Slf4j
+@Component
+public class JwtTokenVerifier {
+
+    private final JwtUtils jwtUtils;
+
+    /**
+     * 缓存已满且没有过期条目时，一次移除的条目比例（按过期时间从早到晚）
+     */
+    private static final double EVICTION_RATIO = 0.1;
+
+    /**
+     * 缓存最大条目数
+     */
+    private final int maxSize;
+
+    /**
+     * Token摘要 -> 已验证的声明
+     */
+    private final Map<String, JwtClaims> cache = new ConcurrentHashMap<>();
+
+    public JwtTokenVerifier(
+            JwtUtils jwtUtils,
+            @Value("${jwt.token-cache.max-size:10000}") int maxSize) {
+        this.jwtUtils = jwtUtils;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * 验证Token
+     *
+     * @param token Token
+     * @return 已验证的声明，Token无效或已过期返回 null
+     */
+    public JwtClaims verify(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        String key = maxSize > 0 ? digest(token) : null;
+        if (key != null) {
+            JwtClaims cached = cache.get(key);
+            if (cached != null) {
+                if (!cached.isExpired(now)) {
+                    return cached;
+                }
+                cache.remove(key, cached);
+                return null;
+            }
+        }
+
+        JwtClaims claims;
+        try {
+            claims = jwtUtils.parseToken(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("JWT Token验证失败: {}", e.getMessage());
+            return null;
+        }
+        if (claims.isExpired(now)) {
+            return null;
+        }
+
+        if (key != null) {
+            if (cache.size() >= maxSize) {
+                evictExpired(now);
+                if (cache.size() >= maxSize) {
+                    int count = Math.max(1, (int) (maxSize * EVICTION_RATIO));
+                    log.debug("JWT Token缓存已满，移除最早过期的 {} 个条目，当前大小: {}", count, cache.size());
+                    evictSoonestExpiring(count);
+                }
+            }
+            cache.put(key, claims);
+        }
+        return claims;
+    }
+
+    /**
+     * 移除已过期的缓存
+     */
+    private void evictExpired(long now) {
+        cache.values().removeIf(claims -> claims.isExpired(now));
+    }
+
+    /**
+     * 移除最早过期的若干条目（剩余有效期最短，重新验证的代价最小）
+     */
+    private void evictSoonestExpiring(int count) {
+        cache.entrySet().stream()
+                .sorted(Comparator.comparingLong(entry -> entry.getValue().getExpiresAt()))
+                .limit(count)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList())
+                .forEach(cache::remove);
+    }
+
+    /**
+     * 计算Token的SHA-256摘要，缓存中不保存Token原文
+     */
+    private String digest(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("无法创建SHA-256摘要算法", e);
+        }
+    }
+}
@@ -12,14 +12,19 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.*;
 import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
  * 项目权限服务
  * 用于查询用户的项目权限
+ * 用户在项目中的权限按 (userId, projectId) 缓存为预编译的 {@link ProjectPermissionSet}，
+ * 角色权限字符串按角色只解析一次；成员或角色变更时需调用 evict* 方法使缓存失效
  *
  * @author panfeng
  */
@@ -32,15 +37,65 @@ public class ProjectPermissionService {
     private final MemberRoleMapper memberRoleMapper;
     private final RoleMapper roleMapper;
     private final ObjectMapper objectMapper;
+    private final UserPrincipalCache userPrincipalCache;
+
+    /**
+     * 权限矩阵缓存上限（用户数），超过后整体清空，防止无界增长
+     */
+    private static final int MAX_CACHED_USERS = 10000;
+
+    /**
+     * 权限矩阵：userId -> (projectId -> 预编译权限)
+     */
+    private final Map<Long, Map<Long, ProjectPermissionSet>> permissionMatrix = new ConcurrentHashMap<>();
+
+    /**
+     * 角色权限编译缓存：roleId -> 编译结果（以权限字符串作为版本标识）
+     */
+    private final Map<Integer, CompiledRole> compiledRoles = new ConcurrentHashMap<>();
 
     /**
      * 获取用户在指定项目中的所有权限
      *
      * @param userId    用户ID
      * @param projectId 项目ID
-     * @return 权限集合
+     * @return 权限集合（只读）
      */
     public Set<String> getUserProjectPermissions(Long userId, Long projectId) {
+        return getProjectPermissionSet(userId, projectId).getKeys();
+    }
+
+    /**
+     * 获取用户在指定项目中的预编译权限（命中缓存时不访问数据库）
+     *
+     * @param userId    用户ID
+     * @param projectId 项目ID
+     * @return 预编译权限
+     */
+    public ProjectPermissionSet getProjectPermissionSet(Long userId, Long projectId) {
+        if (userId == null || projectId == null) {
+            return ProjectPermissionSet.EMPTY;
+        }
+        Map<Long, ProjectPermissionSet> userEntries = permissionMatrix.get(userId);
+        if (userEntries != null) {
+            ProjectPermissionSet cached = userEntries.get(projectId);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        ProjectPermissionSet loaded = loadProjectPermissionSet(userId, projectId);
+        if (permissionMatrix.size() >= MAX_CACHED_USERS) {
+            permissionMatrix.clear();
+        }
+        permissionMatrix.computeIfAbsent(userId, k -> new ConcurrentHashMap<>()).put(projectId, loaded);
+        return loaded;
+    }
+
+    /**
+     * 从数据库加载并编译用户在项目中的权限
+     */
+    private ProjectPermissionSet loadProjectPermissionSet(Long userId, Long projectId) {
         // 查询用户是否是项目成员
         LambdaQueryWrapper<Member> memberQuery = new LambdaQueryWrapper<>();
         memberQuery.eq(Member::getUserId, userId)
@@ -48,7 +103,7 @@ public class ProjectPermissionService {
         Member member = memberMapper.selectOne(memberQuery);
 
         if (member == null) {
-            return Collections.emptySet();
+            return ProjectPermissionSet.EMPTY;
         }
 
         // 查询成员的所有角色
@@ -57,7 +112,7 @@ public class ProjectPermissionService {
         List<MemberRole> memberRoles = memberRoleMapper.selectList(memberRoleQuery);
 
         if (memberRoles.isEmpty()) {
-            return Collections.emptySet();
+            return ProjectPermissionSet.EMPTY;
         }
 
         // 获取所有角色ID
@@ -66,24 +121,14 @@ public class ProjectPermissionService {
                 .distinct()
                 .collect(Collectors.toList());
 
-        // 查询角色信息
+        // 查询角色信息，并合并各角色的预编译权限
         List<Role> roles = roleMapper.selectBatchIds(roleIds);
-
-        // 提取所有权限
-        Set<String> permissions = new HashSet<>();
+        List<ProjectPermissionSet> roleSets = new ArrayList<>(roles.size());
         for (Role role : roles) {
-            if (role.getPermissions() != null && !role.getPermissions().isEmpty()) {
-                try {
-                    // 解析权限列表（可能是 JSON 数组或序列化字符串）
-                    List<String> rolePermissions = parsePermissions(role.getPermissions());
-                    permissions.addAll(rolePermissions);
-                } catch (Exception e) {
-                    log.warn("解析角色权限失败，角色ID: {}, 权限字符串: {}", role.getId(), role.getPermissions(), e);
-                }
-            }
+            roleSets.add(compileRole(role));
         }
 
-        return permissions;
+        return ProjectPermissionSet.union(roleSets);
     }
 
     /**
@@ -129,14 +174,7 @@ public class ProjectPermissionService {
         // 提取所有权限
         Set<String> permissions = new HashSet<>();
         for (Role role : roles) {
-            if (role.getPermissions() != null && !role.getPermissions().isEmpty()) {
-                try {
-                    List<String> rolePermissions = parsePermissions(role.getPermissions());
-                    permissions.addAll(rolePermissions);
-                } catch (Exception e) {
-                    log.warn("解析角色权限失败，角色ID: {}, 权限字符串: {}", role.getId(), role.getPermissions(), e);
-                }
-            }
+            permissions.addAll(compileRole(role).getKeys());
         }
 
         return permissions;
@@ -151,8 +189,133 @@ public class ProjectPermissionService {
      * @return true 如果拥有权限，false 否则
      */
     public boolean hasPermission(Long userId, Long projectId, String permission) {
-        Set<String> permissions = getUserProjectPermissions(userId, projectId);
-        return permissions.contains(permission);
+        return getProjectPermissionSet(userId, projectId).has(permission);
+    }
+
+    /**
+     * 使指定用户在指定项目中的权限缓存失效（成员新增、移除、角色变更时调用）
+     *
+     * @param userId    用户ID
+     * @param projectId 项目ID
+     */
+    public void evictMemberPermissions(Long userId, Long projectId) {
+        if (userId == null || projectId == null) {
+            return;
+        }
+        runNowAndAfterCommit(() -> {
+            Map<Long, ProjectPermissionSet> userEntries = permissionMatrix.get(userId);
+            if (userEntries != null) {
+                userEntries.remove(projectId);
+            }
+            // 认证主体中的全局权限并集也随之变化
+            userPrincipalCache.evictUser(userId);
+        });
+    }
+
+    /**
+     * 使指定项目所有成员的权限缓存失效（项目创建、复制、删除时调用）
+     *
+     * @param projectId 项目ID
+     */
+    public void evictProjectPermissions(Long projectId) {
+        if (projectId == null) {
+            return;
+        }
+        runNowAndAfterCommit(() -> {
+            permissionMatrix.values().forEach(userEntries -> userEntries.remove(projectId));
+            userPrincipalCache.evictAll();
+        });
+    }
+
+    /**
+     * 使指定用户在所有项目中的权限缓存失效（同时清除该用户的认证主体缓存）
+     *
+     * @param userId 用户ID
+     */
+    public void evictUserPermissions(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        runNowAndAfterCommit(() -> {
+            permissionMatrix.remove(userId);
+            userPrincipalCache.evictUser(userId);
+        });
+    }
+
+    /**
+     * 角色权限变更或角色删除时调用：丢弃该角色的编译结果并清空权限矩阵
+     *
+     * @param roleId 角色ID
+     */
+    public void evictRolePermissions(Integer roleId) {
+        runNowAndAfterCommit(() -> {
+            if (roleId != null) {
+                compiledRoles.remove(roleId);
+            }
+            permissionMatrix.clear();
+            userPrincipalCache.evictAll();
+        });
+    }
+
+    /**
+     * 立即执行缓存失效；若处于事务中，提交后再执行一次，
+     * 防止事务提交前被并发请求以旧数据重新填充缓存
+     */
+    private void runNowAndAfterCommit(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        }
+    }
+
+    /**
+     * 编译角色权限；权限字符串未变化时直接复用上次的编译结果
+     *
+     * @param role 角色
+     * @return 预编译权限
+     */
+    private ProjectPermissionSet compileRole(Role role) {
+        String source = role.getPermissions();
+        CompiledRole cached = compiledRoles.get(role.getId());
+        if (cached != null && Objects.equals(cached.source, source)) {
+            return cached.permissions;
+        }
+
+        ProjectPermissionSet compiled;
+        if (source == null || source.isEmpty()) {
+            compiled = ProjectPermissionSet.EMPTY;
+        } else {
+            compiled = ProjectPermissionSet.of(parsePermissions(source));
+        }
+        if (role.getId() != null) {
+            compiledRoles.put(role.getId(), new CompiledRole(source, compiled));
+        }
+        return compiled;
+    }
+
+    /**
+     * 角色编译结果
+     */
+    private static class CompiledRole {
+        /**
+         * 原始权限字符串（作为版本标识）
+         */
+        private final String source;
+
+        /**
+         * 预编译权限
+         */
+        private final ProjectPermissionSet permissions;
+
+        private CompiledRole(String source, ProjectPermissionSet permissions) {
+            this.source = source;
+            this.permissions = permissions;
+        }
     }
 
     /**
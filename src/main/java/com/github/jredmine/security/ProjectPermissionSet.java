@@ -0,0 +1,118 @@
+package com.github.jredmine.security;
+
+import com.github.jredmine.enums.Permission;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 预编译的权限集合
+ * 系统已定义的权限以 {@link Permission} 枚举序号为下标存放在位图中，
+ * 角色中出现的其它权限键（如兼容 Redmine 的扩展权限）保存在附加集合中。
+ * 实例创建后不可变，可在多个线程间共享。
+ *
+ * @author panfeng
+ */
+public final class ProjectPermissionSet {
+
+    /**
+     * 空权限集合（非项目成员、无角色）
+     */
+    public static final ProjectPermissionSet EMPTY = new ProjectPermissionSet(new BitSet(), Collections.emptySet());
+
+    private final BitSet bits;
+    private final Set<String> extraKeys;
+    private final Set<String> allKeys;
+
+    private ProjectPermissionSet(BitSet bits, Set<String> extraKeys) {
+        this.bits = bits;
+        this.extraKeys = extraKeys;
+        Set<String> keys = new HashSet<>(extraKeys);
+        Permission[] permissions = Permission.values();
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            keys.add(permissions[i].getKey());
+        }
+        this.allKeys = Collections.unmodifiableSet(keys);
+    }
+
+    /**
+     * 根据权限键集合构建权限集合
+     *
+     * @param keys 权限键
+     * @return 权限集合
+     */
+    public static ProjectPermissionSet of(Collection<String> keys) {
+        if (keys == null || keys.isEmpty()) {
+            return EMPTY;
+        }
+        BitSet bits = new BitSet(Permission.values().length);
+        Set<String> extraKeys = new HashSet<>();
+        for (String key : keys) {
+            Permission permission = Permission.fromKey(key);
+            if (permission != null) {
+                bits.set(permission.ordinal());
+            } else if (key != null) {
+                extraKeys.add(key);
+            }
+        }
+        return new ProjectPermissionSet(bits, extraKeys);
+    }
+
+    /**
+     * 合并多个权限集合（多个角色的权限并集）
+     *
+     * @param sets 权限集合
+     * @return 合并后的权限集合
+     */
+    public static ProjectPermissionSet union(Collection<ProjectPermissionSet> sets) {
+        if (sets == null || sets.isEmpty()) {
+            return EMPTY;
+        }
+        if (sets.size() == 1) {
+            return sets.iterator().next();
+        }
+        BitSet bits = new BitSet(Permission.values().length);
+        Set<String> extraKeys = new HashSet<>();
+        for (ProjectPermissionSet set : sets) {
+            bits.or(set.bits);
+            extraKeys.addAll(set.extraKeys);
+        }
+        return new ProjectPermissionSet(bits, extraKeys);
+    }
+
+    /**
+     * 检查是否拥有指定权限
+     *
+     * @param permission 权限枚举
+     * @return true 如果拥有权限
+     */
+    public boolean has(Permission permission) {
+        return permission != null && bits.get(permission.ordinal());
+    }
+
+    /**
+     * 检查是否拥有指定权限键
+     *
+     * @param key 权限键
+     * @return true 如果拥有权限
+     */
+    public boolean has(String key) {
+        Permission permission = Permission.fromKey(key);
+        if (permission != null) {
+            return bits.get(permission.ordinal());
+        }
+        return key != null && extraKeys.contains(key);
+    }
+
+    /**
+     * 获取全部权限键（只读）
+     *
+     * @return 权限键集合
+     */
+    public Set<String> getKeys() {
+        return allKeys;
+    }
+}
@@ -26,7 +26,13 @@ public class UserPrincipal implements UserDetails {
     private final Collection<? extends GrantedAuthority> authorities;
     private final Set<String> permissions;
 
+    /**
+     * 认证时加载的用户快照（只读，对外使用时请通过 SecurityUtils 获取副本）
+     */
+    private final User user;
+
     public UserPrincipal(User user, Collection<? extends GrantedAuthority> authorities, Set<String> permissions) {
+        this.user = user;
         this.id = user.getId();
         this.username = user.getLogin();
         this.password = user.getHashedPassword() != null ? user.getHashedPassword() : "";
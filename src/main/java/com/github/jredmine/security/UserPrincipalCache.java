@@ -0,0 +1,145 @@
+package com.github.jredmine.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 用户主体缓存
+ * 按 (用户ID, Token签发时间) 缓存已解析的 {@link UserPrincipal}，
+ * 使 JWT 认证在缓存命中时不再查询用户和权限表。
+ * 用户信息、状态、成员关系或角色权限变更时需调用 evict* 方法使缓存失效。
+ *
+ * @author panfeng
+ */
+@Slf4j
+@Component
+public class UserPrincipalCache {
+
+    /**
+     * 缓存有效期（毫秒）
+     */
+    private final long ttlMillis;
+
+    /**
+     * 缓存最大条目数，超过后整体清空
+     */
+    private final int maxSize;
+
+    private final Map<PrincipalKey, CachedPrincipal> cache = new ConcurrentHashMap<>();
+
+    public UserPrincipalCache(
+            @Value("${jwt.principal-cache.ttl-seconds:300}") long ttlSeconds,
+            @Value("${jwt.principal-cache.max-size:10000}") int maxSize) {
+        this.ttlMillis = ttlSeconds * 1000L;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * 获取缓存的用户主体
+     *
+     * @param userId   用户ID
+     * @param issuedAt Token签发时间（毫秒）
+     * @return 用户主体，未命中或已过期返回 null
+     */
+    public UserPrincipal get(Long userId, long issuedAt) {
+        if (userId == null || ttlMillis <= 0) {
+            return null;
+        }
+        PrincipalKey key = new PrincipalKey(userId, issuedAt);
+        CachedPrincipal cached = cache.get(key);
+        if (cached == null) {
+            return null;
+        }
+        if (cached.expiresAt < System.currentTimeMillis()) {
+            cache.remove(key, cached);
+            return null;
+        }
+        return cached.principal;
+    }
+
+    /**
+     * 缓存用户主体
+     *
+     * @param userId    用户ID
+     * @param issuedAt  Token签发时间（毫秒）
+     * @param principal 用户主体
+     */
+    public void put(Long userId, long issuedAt, UserPrincipal principal) {
+        if (userId == null || principal == null || ttlMillis <= 0) {
+            return;
+        }
+        if (cache.size() >= maxSize) {
+            log.debug("用户主体缓存已满，清空缓存，当前大小: {}", cache.size());
+            cache.clear();
+        }
+        cache.put(new PrincipalKey(userId, issuedAt),
+                new CachedPrincipal(principal, System.currentTimeMillis() + ttlMillis));
+    }
+
+    /**
+     * 使指定用户的所有缓存失效
+     *
+     * @param userId 用户ID
+     */
+    public void evictUser(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        cache.keySet().removeIf(key -> key.userId.equals(userId));
+    }
+
+    /**
+     * 清空全部缓存（角色权限变更等影响多个用户的场景）
+     */
+    public void evictAll() {
+        cache.clear();
+    }
+
+    /**
+     * 缓存键：用户ID + Token签发时间
+     */
+    private static final class PrincipalKey {
+        private final Long userId;
+        private final long issuedAt;
+
+        private PrincipalKey(Long userId, long issuedAt) {
+            this.userId = userId;
+            this.issuedAt = issuedAt;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof PrincipalKey)) {
+                return false;
+            }
+            PrincipalKey that = (PrincipalKey) o;
+            return issuedAt == that.issuedAt && userId.equals(that.userId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, issuedAt);
+        }
+    }
+
+    /**
+     * 缓存值：用户主体 + 过期时间
+     */
+    private static final class CachedPrincipal {
+        private final UserPrincipal principal;
+        private final long expiresAt;
+
+        private CachedPrincipal(UserPrincipal principal, long expiresAt) {
+            this.principal = principal;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
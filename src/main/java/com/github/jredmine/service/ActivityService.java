@@ -11,6 +11,7 @@ import com.github.jredmine.dto.response.activity.ActivityStatsResponseDTO;
 import com.github.jredmine.dto.response.activity.CommentResponseDTO;
 import com.github.jredmine.dto.response.activity.FieldChangeDTO;
 import com.github.jredmine.exception.BusinessException;
+import com.github.jredmine.util.KeysetCursor;
 import com.github.jredmine.util.SecurityUtils;
 import com.github.jredmine.entity.*;
 import com.github.jredmine.mapper.issue.JournalMapper;
@@ -48,52 +49,52 @@ public class ActivityService {
      * 查询活动流
      */
     public PageResponse<ActivityItemResponseDTO> getActivities(ActivityQueryRequestDTO requestDTO) {
-        // 构建查询条件（不包含活动类型，因为需要动态判断）
-        LambdaQueryWrapper<Journal> queryWrapper = buildQueryWrapper(requestDTO);
-        
-        // 如果有活动类型筛选，需要查询更多数据后再筛选，所以先不分页
-        if (requestDTO.getActivityTypes() != null && !requestDTO.getActivityTypes().isEmpty()) {
-            return getActivitiesWithTypeFilter(requestDTO, queryWrapper);
+        // 游标分页：按 (created_on, id) 倒序定位，不执行 OFFSET 和 COUNT
+        if (requestDTO.isCursorPaging()) {
+            return getActivitiesByCursor(requestDTO);
         }
-        
-        // 没有活动类型筛选，直接分页查询
+
+        // 构建查询条件（活动类型在 SQL 中判断，筛选和分页都由数据库完成）
+        LambdaQueryWrapper<Journal> queryWrapper = buildQueryWrapper(requestDTO);
+
         Page<Journal> page = new Page<>(requestDTO.getCurrent(), requestDTO.getSize());
         Page<Journal> result = journalMapper.selectPage(page, queryWrapper);
         
-        // 转换为响应DTO
+        // 转换为响应DTO（只加载当前页的关联信息）
         List<ActivityItemResponseDTO> activities = convertToActivityItems(result.getRecords());
         
         return PageResponse.of(activities, result.getTotal(), result.getCurrent(), result.getSize());
     }
 
     /**
-     * 带活动类型筛选的查询（需要先查询后筛选）
+     * 游标分页查询活动流
+     * 按 (created_on, id) 倒序定位，多取一条判断是否还有下一页
      */
-    private PageResponse<ActivityItemResponseDTO> getActivitiesWithTypeFilter(
-            ActivityQueryRequestDTO requestDTO, LambdaQueryWrapper<Journal> queryWrapper) {
-        
-        // 查询所有符合其他条件的记录
-        List<Journal> allJournals = journalMapper.selectList(queryWrapper);
-        
-        // 转换为活动项并筛选活动类型
-        List<ActivityItemResponseDTO> allActivities = convertToActivityItems(allJournals);
-        List<ActivityItemResponseDTO> filteredActivities = allActivities.stream()
-                .filter(activity -> requestDTO.getActivityTypes().contains(activity.getActivityType()))
-                .collect(Collectors.toList());
-        
-        // 手动分页
-        long total = filteredActivities.size();
-        int current = requestDTO.getCurrent();
-        int size = requestDTO.getSize();
-        int startIndex = (current - 1) * size;
-        int endIndex = Math.min(startIndex + size, filteredActivities.size());
-        
-        List<ActivityItemResponseDTO> pagedActivities = new ArrayList<>();
-        if (startIndex < filteredActivities.size()) {
-            pagedActivities = filteredActivities.subList(startIndex, endIndex);
+    private PageResponse<ActivityItemResponseDTO> getActivitiesByCursor(ActivityQueryRequestDTO requestDTO) {
+        String sortKey = "activities:created_on:desc";
+        int pageSize = Math.min(requestDTO.getSize() != null ? requestDTO.getSize() : 10, KeysetCursor.MAX_PAGE_SIZE);
+
+        // 总数可选，需要时单独 COUNT
+        Long total = null;
+        if (Boolean.TRUE.equals(requestDTO.getWithTotal())) {
+            total = journalMapper.selectCount(buildQueryWrapper(requestDTO));
         }
-        
-        return PageResponse.of(pagedActivities, total, (long) current, (long) size);
+
+        LambdaQueryWrapper<Journal> queryWrapper = buildQueryWrapper(requestDTO);
+        if (StringUtils.hasText(requestDTO.getCursor())) {
+            KeysetCursor.decode(requestDTO.getCursor(), sortKey)
+                    .applySeek(queryWrapper, Journal::getCreatedOn, Journal::getId, false);
+        }
+        queryWrapper.orderByDesc(Journal::getId).last("LIMIT " + (pageSize + 1));
+        List<Journal> journals = journalMapper.selectList(queryWrapper);
+
+        String nextCursor = null;
+        if (journals.size() > pageSize) {
+            journals = journals.subList(0, pageSize);
+            Journal last = journals.get(pageSize - 1);
+            nextCursor = KeysetCursor.encode(sortKey, last.getCreatedOn(), last.getId());
+        }
+        return PageResponse.ofCursor(convertToActivityItems(journals), pageSize, nextCursor, total);
     }
 
     /**
@@ -224,29 +225,73 @@ public class ActivityService {
             });
         }
         
+        // 活动类型筛选
+        if (requestDTO.getActivityTypes() != null && !requestDTO.getActivityTypes().isEmpty()) {
+            applyActivityTypeFilter(queryWrapper, requestDTO.getActivityTypes());
+        }
+        
         // 按创建时间倒序
         queryWrapper.orderByDesc(Journal::getCreatedOn);
         
         return queryWrapper;
     }
 
+    /**
+     * 活动类型筛选
+     * 与 {@link #determineActivityType(Journal)} 的判断规则一致：有备注为 comment，
+     * 无备注但有字段变更为 field_change，其余为 update。
+     * 备注是否为空按是否含有非空白字符判断（与 StringUtils.hasText 相同，只含换行、制表符的备注视为空），
+     * 不能用只去除空格的 TRIM
+     */
+    private void applyActivityTypeFilter(LambdaQueryWrapper<Journal> queryWrapper, Collection<String> activityTypes) {
+        String hasNotes = "(journals.notes IS NOT NULL AND journals.notes REGEXP '[^[:space:]]')";
+        String noNotes = "(journals.notes IS NULL OR journals.notes NOT REGEXP '[^[:space:]]')";
+        String hasDetails = "EXISTS (SELECT 1 FROM journal_details jd WHERE jd.journal_id = journals.id)";
+
+        List<String> conditions = new ArrayList<>();
+        if (activityTypes.contains("comment")) {
+            conditions.add(hasNotes);
+        }
+        if (activityTypes.contains("field_change")) {
+            conditions.add("(" + noNotes + " AND " + hasDetails + ")");
+        }
+        if (activityTypes.contains("update")) {
+            conditions.add("(" + noNotes + " AND NOT " + hasDetails + ")");
+        }
+        if (conditions.isEmpty()) {
+            // 未知的活动类型，不匹配任何记录
+            queryWrapper.apply("1 = 0");
+            return;
+        }
+        queryWrapper.apply("(" + String.join(" OR ", conditions) + ")");
+    }
+
     /**
      * 转换为活动项DTO
+     * 用户、字段变更、关联任务和项目按 IN 查询批量加载，查询次数与记录数无关
      */
     private List<ActivityItemResponseDTO> convertToActivityItems(List<Journal> journals) {
+        if (journals == null || journals.isEmpty()) {
+            return new ArrayList<>();
+        }
+        ActivityReferences refs = loadReferences(journals);
+
         return journals.stream().map(journal -> {
             // 获取用户信息
-            User user = getUserById(journal.getUserId());
-            User updatedByUser = journal.getUpdatedById() != null ? getUserById(journal.getUpdatedById()) : null;
+            User user = refs.getUser(journal.getUserId());
+            User updatedByUser = refs.getUser(journal.getUpdatedById());
             
             // 获取关联对象信息
-            ObjectInfo objectInfo = getObjectInfo(journal.getJournalizedType(), journal.getJournalizedId());
+            ObjectInfo objectInfo = refs.getObjectInfo(journal.getJournalizedType(), journal.getJournalizedId());
             
             // 获取字段变更详情
-            List<FieldChangeDTO> changes = getFieldChanges(journal.getId());
+            List<JournalDetail> details = refs.details.getOrDefault(journal.getId(), Collections.emptyList());
+            List<FieldChangeDTO> changes = details.stream().map(this::toFieldChange).collect(Collectors.toList());
             
             // 确定活动类型
-            String activityType = determineActivityType(journal);
+            String activityType = StringUtils.hasText(journal.getNotes())
+                    ? "comment"
+                    : (details.isEmpty() ? "update" : "field_change");
             
             return ActivityItemResponseDTO.builder()
                     .id(journal.getId().longValue())
@@ -272,27 +317,106 @@ public class ActivityService {
     }
 
     /**
-     * 获取字段变更详情
+     * 批量加载一页活动引用的用户、字段变更、任务和项目
      */
-    private List<FieldChangeDTO> getFieldChanges(Integer journalId) {
-        LambdaQueryWrapper<JournalDetail> queryWrapper = new LambdaQueryWrapper<>();
-        queryWrapper.eq(JournalDetail::getJournalId, journalId);
-        
-        List<JournalDetail> details = journalDetailMapper.selectList(queryWrapper);
-        
-        return details.stream().map(detail -> {
-            String fieldLabel = getFieldLabel(detail.getPropKey());
-            
-            return FieldChangeDTO.builder()
-                    .property(detail.getProperty())
-                    .fieldName(detail.getPropKey())
-                    .fieldLabel(fieldLabel)
-                    .oldValue(detail.getOldValue())
-                    .newValue(detail.getValue())
-                    .oldValueDisplay(getValueDisplay(detail.getPropKey(), detail.getOldValue()))
-                    .newValueDisplay(getValueDisplay(detail.getPropKey(), detail.getValue()))
-                    .build();
-        }).collect(Collectors.toList());
+    private ActivityReferences loadReferences(List<Journal> journals) {
+        Set<Long> userIds = new HashSet<>();
+        Set<Integer> journalIds = new HashSet<>();
+        Set<Long> issueIds = new HashSet<>();
+        Set<Long> projectIds = new HashSet<>();
+        for (Journal journal : journals) {
+            journalIds.add(journal.getId());
+            if (journal.getUserId() != null) {
+                userIds.add(journal.getUserId().longValue());
+            }
+            if (journal.getUpdatedById() != null) {
+                userIds.add(journal.getUpdatedById().longValue());
+            }
+            if ("Issue".equals(journal.getJournalizedType())) {
+                issueIds.add(journal.getJournalizedId().longValue());
+            } else if ("Project".equals(journal.getJournalizedType())) {
+                projectIds.add(journal.getJournalizedId().longValue());
+            }
+        }
+
+        ActivityReferences refs = new ActivityReferences();
+        if (!userIds.isEmpty()) {
+            for (User user : userMapper.selectBatchIds(userIds)) {
+                refs.users.put(user.getId(), user);
+            }
+        }
+        LambdaQueryWrapper<JournalDetail> detailQuery = new LambdaQueryWrapper<>();
+        detailQuery.in(JournalDetail::getJournalId, journalIds)
+                .orderByAsc(JournalDetail::getId);
+        for (JournalDetail detail : journalDetailMapper.selectList(detailQuery)) {
+            refs.details.computeIfAbsent(detail.getJournalId(), k -> new ArrayList<>()).add(detail);
+        }
+        if (!issueIds.isEmpty()) {
+            for (Issue issue : issueMapper.selectBatchIds(issueIds)) {
+                refs.issues.put(issue.getId(), issue);
+                if (issue.getProjectId() != null) {
+                    projectIds.add(issue.getProjectId());
+                }
+            }
+        }
+        if (!projectIds.isEmpty()) {
+            for (Project project : projectMapper.selectBatchIds(projectIds)) {
+                refs.projects.put(project.getId(), project);
+            }
+        }
+        return refs;
+    }
+
+    /**
+     * 一页活动的关联数据
+     */
+    private static class ActivityReferences {
+        private final Map<Long, User> users = new HashMap<>();
+        private final Map<Integer, List<JournalDetail>> details = new HashMap<>();
+        private final Map<Long, Issue> issues = new HashMap<>();
+        private final Map<Long, Project> projects = new HashMap<>();
+
+        User getUser(Integer userId) {
+            return userId != null ? users.get(userId.longValue()) : null;
+        }
+
+        ObjectInfo getObjectInfo(String objectType, Integer objectId) {
+            ObjectInfo info = new ObjectInfo();
+            if ("Issue".equals(objectType)) {
+                Issue issue = issues.get(objectId.longValue());
+                if (issue != null) {
+                    Project project = issue.getProjectId() != null ? projects.get(issue.getProjectId()) : null;
+                    info.title = issue.getSubject();
+                    info.url = "/issues/" + objectId;
+                    info.projectId = issue.getProjectId();
+                    info.projectName = project != null ? project.getName() : null;
+                }
+            } else if ("Project".equals(objectType)) {
+                Project project = projects.get(objectId.longValue());
+                if (project != null) {
+                    info.title = project.getName();
+                    info.url = "/projects/" + project.getIdentifier();
+                    info.projectId = project.getId();
+                    info.projectName = project.getName();
+                }
+            }
+            return info;
+        }
+    }
+
+    /**
+     * 转换字段变更详情
+     */
+    private FieldChangeDTO toFieldChange(JournalDetail detail) {
+        return FieldChangeDTO.builder()
+                .property(detail.getProperty())
+                .fieldName(detail.getPropKey())
+                .fieldLabel(getFieldLabel(detail.getPropKey()))
+                .oldValue(detail.getOldValue())
+                .newValue(detail.getValue())
+                .oldValueDisplay(getValueDisplay(detail.getPropKey(), detail.getOldValue()))
+                .newValueDisplay(getValueDisplay(detail.getPropKey(), detail.getValue()))
+                .build();
     }
 
     /**
@@ -315,34 +439,6 @@ public class ActivityService {
         return "update";
     }
 
-    /**
-     * 获取关联对象信息
-     */
-    private ObjectInfo getObjectInfo(String objectType, Integer objectId) {
-        ObjectInfo info = new ObjectInfo();
-        
-        if ("Issue".equals(objectType)) {
-            Issue issue = issueMapper.selectById(objectId);
-            if (issue != null) {
-                info.title = issue.getSubject();
-                info.url = "/issues/" + objectId;
-                info.projectId = issue.getProjectId().longValue();
-                info.projectName = getProjectName(issue.getProjectId().longValue());
-            }
-        } else if ("Project".equals(objectType)) {
-            Project project = projectMapper.selectById(objectId);
-            if (project != null) {
-                info.title = project.getName();
-                info.url = "/projects/" + project.getIdentifier();
-                info.projectId = project.getId().longValue();
-                info.projectName = project.getName();
-            }
-        }
-        // TODO: 添加其他对象类型的处理
-        
-        return info;
-    }
-
     /**
      * 对象信息内部类
      */
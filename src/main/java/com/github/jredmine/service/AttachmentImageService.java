@@ -0,0 +1,543 @@
+package com.github.jredmine.service;
+
+import com.github.jredmine.enums.SettingKey;
+import com.github.jredmine.exception.BusinessException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.coobird.thumbnailator.Thumbnails;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 附件图片处理服务
+ * 水印在保存原图之前同步添加，保存的文件与附件记录的大小、摘要一致；
+ * 上传后在后台线程池中生成多尺寸缩略图（JPG，运行环境支持时额外生成 WebP），上传请求不等待缩略图生成；
+ * 云存储的缩略图读取后保存在本地磁盘缓存中，重复访问不再请求云存储
+ *
+ * @author panfeng
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AttachmentImageService {
+
+    private final SettingService settingService;
+    private final OssService ossService;
+    private final CosService cosService;
+    private final AttachmentThumbnailCache thumbnailCache;
+
+    @Value("${attachment.thumbnail.enabled:true}")
+    private Boolean thumbnailEnabled;
+
+    @Value("${attachment.thumbnail.width:200}")
+    private Integer thumbnailWidth;
+
+    @Value("${attachment.thumbnail.height:200}")
+    private Integer thumbnailHeight;
+
+    /**
+     * 额外的缩略图尺寸（最长边像素，逗号分隔）
+     */
+    @Value("${attachment.thumbnail.extra-sizes:400,800}")
+    private String extraSizes;
+
+    /**
+     * 默认尺寸（thumbnail.width x thumbnail.height），文件名与历史缩略图保持一致
+     */
+    private static final int DEFAULT_SIZE = 0;
+
+    private static final String WEBP_EXTENSION = ".webp";
+
+    /**
+     * 运行环境是否提供 WebP 编码器（如 webp-imageio 插件）
+     */
+    private static final boolean WEBP_SUPPORTED = ImageIO.getImageWritersByFormatName("webp").hasNext();
+
+    /**
+     * 是否启用缩略图
+     */
+    public boolean isThumbnailEnabled() {
+        return Boolean.TRUE.equals(thumbnailEnabled);
+    }
+
+    /**
+     * 为上传的图片添加水印（同步执行，在保存文件和计算摘要之前）
+     * 水印图片写入新的临时文件，由调用方保存后删除；未启用水印或图片无法添加水印时返回 null，按原内容保存
+     *
+     * @param file             上传的文件
+     * @param originalFilename 原始文件名（用于确定图片格式）
+     * @return 添加水印后的临时文件
+     */
+    public Path watermarkToTempFile(MultipartFile file, String originalFilename) {
+        if (!isWatermarkEnabled()) {
+            return null;
+        }
+        Path tempFile = null;
+        try {
+            BufferedImage image;
+            try (InputStream in = file.getInputStream()) {
+                image = ImageIO.read(in);
+            }
+            if (image == null) {
+                throw new IOException("无法读取图片文件");
+            }
+            drawWatermark(image);
+            String formatName = getImageFormat(originalFilename);
+            tempFile = Files.createTempFile("watermark_", "." + formatName);
+            if (!ImageIO.write(image, formatName, tempFile.toFile())) {
+                throw new IOException("不支持写入图片格式: " + formatName);
+            }
+            log.debug("水印添加成功: {}", originalFilename);
+            return tempFile;
+        } catch (Exception e) {
+            log.warn("添加水印失败，按原图保存: filename={}, error={}", originalFilename, e.getMessage());
+            if (tempFile != null) {
+                tempFile.toFile().delete();
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 生成上传图片的全部尺寸缩略图（后台执行）
+     * 任务被丢弃或失败时不影响附件，缩略图会在首次访问时补生成
+     *
+     * @param storageType    存储类型（local/oss/cos）
+     * @param localDirectory 本地存储目录，云存储为 null
+     * @param diskDirectory  存储目录（对象键前缀）
+     * @param diskFilename   存储文件名
+     * @param contentType    文件类型
+     */
+    @Async("imageProcessingExecutor")
+    public void generateThumbnailsAsync(String storageType, Path localDirectory, String diskDirectory,
+                                        String diskFilename, String contentType) {
+        if (!isThumbnailEnabled()) {
+            return;
+        }
+
+        File original = null;
+        boolean cloud = localDirectory == null;
+        try {
+            original = cloud ? downloadToTempFile(storageType, diskDirectory + "/" + diskFilename, diskFilename)
+                    : localDirectory.resolve(diskFilename).toFile();
+            generateThumbnails(original, storageType, localDirectory, diskDirectory, diskFilename);
+        } catch (Exception e) {
+            log.warn("生成缩略图失败: file={}/{}, error={}", diskDirectory, diskFilename, e.getMessage());
+        } finally {
+            if (cloud && original != null) {
+                original.delete();
+            }
+        }
+    }
+
+    /**
+     * 获取缩略图
+     * 本地存储直接返回缩略图文件；云存储优先读取本地缓存，未命中时下载一次并缓存。
+     * 缩略图不存在（历史附件或后台任务尚未完成）时同步生成全部尺寸。
+     *
+     * @param storageType    存储类型（local/oss/cos）
+     * @param localDirectory 本地存储目录，云存储为 null
+     * @param diskDirectory  存储目录（对象键前缀）
+     * @param diskFilename   存储文件名
+     * @param size           期望的最长边像素，null 表示默认尺寸
+     * @param acceptWebp     客户端是否接受 WebP
+     * @return 缩略图资源（文件名以 .webp 结尾的为 WebP）；云存储返回已打开的缓存文件流，只能读取一次
+     */
+    public Resource getThumbnail(String storageType, Path localDirectory, String diskDirectory, String diskFilename,
+                                 Integer size, boolean acceptWebp) {
+        String thumbnailFilename = thumbnailFilename(diskFilename, resolveSize(size), acceptWebp && WEBP_SUPPORTED);
+
+        if (localDirectory != null) {
+            Path thumbnailPath = localDirectory.resolve(thumbnailFilename);
+            if (!Files.exists(thumbnailPath)) {
+                File originalFile = localDirectory.resolve(diskFilename).toFile();
+                if (!originalFile.exists()) {
+                    throw new BusinessException("原文件不存在");
+                }
+                try {
+                    generateThumbnails(originalFile, storageType, localDirectory, diskDirectory, diskFilename);
+                } catch (IOException e) {
+                    log.error("生成缩略图失败: file={}/{}, error={}", diskDirectory, diskFilename, e.getMessage(), e);
+                    throw new BusinessException("生成缩略图失败: " + e.getMessage());
+                }
+            }
+            if (!Files.exists(thumbnailPath)) {
+                throw new BusinessException("缩略图不存在");
+            }
+            return new FileSystemResource(thumbnailPath);
+        }
+
+        // 云存储：本地缓存（缓存文件可能被并发写入淘汰，只使用在缓存锁内打开的流）
+        String cacheKey = cacheKey(storageType, diskDirectory, thumbnailFilename);
+        InputStream cached = thumbnailCache.open(cacheKey);
+        if (cached != null) {
+            return cachedResource(cached, thumbnailFilename);
+        }
+
+        try (InputStream in = download(storageType, diskDirectory + "/" + thumbnailFilename)) {
+            thumbnailCache.put(cacheKey, in);
+        } catch (Exception e) {
+            log.debug("{}缩略图不存在，重新生成: {}/{}", storageType.toUpperCase(), diskDirectory, thumbnailFilename);
+        }
+        cached = thumbnailCache.open(cacheKey);
+        if (cached != null) {
+            return cachedResource(cached, thumbnailFilename);
+        }
+
+        File tempOriginal = null;
+        try {
+            tempOriginal = downloadToTempFile(storageType, diskDirectory + "/" + diskFilename, diskFilename);
+            generateThumbnails(tempOriginal, storageType, null, diskDirectory, diskFilename);
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("生成{}缩略图失败: file={}/{}, error={}", storageType.toUpperCase(),
+                    diskDirectory, diskFilename, e.getMessage(), e);
+            throw new BusinessException("生成缩略图失败: " + e.getMessage());
+        } finally {
+            if (tempOriginal != null) {
+                tempOriginal.delete();
+            }
+        }
+
+        cached = thumbnailCache.open(cacheKey);
+        if (cached == null) {
+            throw new BusinessException("缩略图不存在");
+        }
+        return cachedResource(cached, thumbnailFilename);
+    }
+
+    /**
+     * 包装缓存文件流，保留缩略图文件名用于判断响应类型
+     */
+    private Resource cachedResource(InputStream in, String thumbnailFilename) {
+        return new InputStreamResource(in) {
+            @Override
+            public String getFilename() {
+                return thumbnailFilename;
+            }
+        };
+    }
+
+    /**
+     * 删除图片的全部缩略图（包括本地缓存）
+     *
+     * @param storageType    存储类型（local/oss/cos）
+     * @param localDirectory 本地存储目录，云存储为 null
+     * @param diskDirectory  存储目录（对象键前缀）
+     * @param diskFilename   存储文件名
+     */
+    public void deleteThumbnails(String storageType, Path localDirectory, String diskDirectory, String diskFilename)
+            throws IOException {
+        for (String thumbnailFilename : allThumbnailFilenames(diskFilename)) {
+            if (localDirectory != null) {
+                Files.deleteIfExists(localDirectory.resolve(thumbnailFilename));
+                continue;
+            }
+            String objectKey = diskDirectory + "/" + thumbnailFilename;
+            if ("oss".equals(storageType)) {
+                ossService.deleteFile(objectKey);
+            } else {
+                cosService.deleteFile(objectKey);
+            }
+            thumbnailCache.evict(cacheKey(storageType, diskDirectory, thumbnailFilename));
+        }
+    }
+
+    /**
+     * 生成全部尺寸和格式的缩略图
+     * 原图只解码一次；本地存储写入原图所在目录，云存储上传后同时写入本地缓存
+     */
+    private void generateThumbnails(File originalFile, String storageType, Path localDirectory,
+                                    String diskDirectory, String diskFilename) throws IOException {
+        BufferedImage originalImage = ImageIO.read(originalFile);
+        if (originalImage == null) {
+            throw new IOException("无法读取图片文件");
+        }
+
+        for (int size : thumbnailSizes()) {
+            int targetWidth = size == DEFAULT_SIZE ? thumbnailWidth : size;
+            int targetHeight = size == DEFAULT_SIZE ? thumbnailHeight : size;
+            // 计算缩放比例，保持宽高比；原图较小时不放大
+            double ratio = Math.min(1.0, Math.min((double) targetWidth / originalImage.getWidth(),
+                    (double) targetHeight / originalImage.getHeight()));
+            int scaledWidth = Math.max(1, (int) (originalImage.getWidth() * ratio));
+            int scaledHeight = Math.max(1, (int) (originalImage.getHeight() * ratio));
+
+            for (boolean webp : WEBP_SUPPORTED ? new boolean[]{false, true} : new boolean[]{false}) {
+                String thumbnailFilename = thumbnailFilename(diskFilename, size, webp);
+                File target = localDirectory != null ? localDirectory.resolve(thumbnailFilename).toFile()
+                        : File.createTempFile("thumb_", "_" + thumbnailFilename);
+                try {
+                    Thumbnails.of(originalImage)
+                            .size(scaledWidth, scaledHeight)
+                            .outputFormat(webp ? "webp" : "jpg") // 默认输出JPG格式，减小文件大小
+                            .outputQuality(0.85f) // 质量85%，平衡文件大小和图片质量
+                            .toFile(target);
+
+                    if (localDirectory == null) {
+                        upload(storageType, target, diskDirectory + "/" + thumbnailFilename,
+                                webp ? "image/webp" : "image/jpeg");
+                        thumbnailCache.put(cacheKey(storageType, diskDirectory, thumbnailFilename), target.toPath());
+                    }
+                } finally {
+                    if (localDirectory == null) {
+                        target.delete();
+                    }
+                }
+            }
+        }
+        log.debug("缩略图生成成功: storageType={}, file={}/{}", storageType, diskDirectory, diskFilename);
+    }
+
+    /**
+     * 选择最接近的缩略图尺寸：不超过默认尺寸时使用默认尺寸，否则取不小于期望值的最小额外尺寸
+     */
+    private int resolveSize(Integer size) {
+        if (size == null || size <= Math.max(thumbnailWidth, thumbnailHeight)) {
+            return DEFAULT_SIZE;
+        }
+        List<Integer> sizes = parseExtraSizes();
+        for (int candidate : sizes) {
+            if (candidate >= size) {
+                return candidate;
+            }
+        }
+        return sizes.isEmpty() ? DEFAULT_SIZE : sizes.get(sizes.size() - 1);
+    }
+
+    private List<Integer> thumbnailSizes() {
+        List<Integer> sizes = new ArrayList<>();
+        sizes.add(DEFAULT_SIZE);
+        sizes.addAll(parseExtraSizes());
+        return sizes;
+    }
+
+    private List<Integer> parseExtraSizes() {
+        if (!StringUtils.hasText(extraSizes)) {
+            return new ArrayList<>();
+        }
+        return Arrays.stream(extraSizes.split(","))
+                .map(String::trim)
+                .filter(value -> value.matches("\\d+"))
+                .map(Integer::valueOf)
+                .filter(value -> value > Math.max(thumbnailWidth, thumbnailHeight))
+                .distinct()
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    private List<String> allThumbnailFilenames(String diskFilename) {
+        List<String> filenames = new ArrayList<>();
+        for (int size : thumbnailSizes()) {
+            filenames.add(thumbnailFilename(diskFilename, size, false));
+            // WebP 缩略图可能由其它实例生成，删除时不依赖本机是否支持
+            filenames.add(thumbnailFilename(diskFilename, size, true));
+        }
+        return filenames;
+    }
+
+    /**
+     * 缩略图文件名：默认尺寸为 thumb_文件名，其它尺寸为 thumb_尺寸_文件名，WebP 追加 .webp
+     */
+    private String thumbnailFilename(String diskFilename, int size, boolean webp) {
+        String filename = size == DEFAULT_SIZE ? "thumb_" + diskFilename : "thumb_" + size + "_" + diskFilename;
+        return webp ? filename + WEBP_EXTENSION : filename;
+    }
+
+    private String cacheKey(String storageType, String diskDirectory, String thumbnailFilename) {
+        return storageType + "/" + diskDirectory + "/" + thumbnailFilename;
+    }
+
+    private InputStream download(String storageType, String objectKey) {
+        return "oss".equals(storageType) ? ossService.downloadFile(objectKey) : cosService.downloadFile(objectKey);
+    }
+
+    private File downloadToTempFile(String storageType, String objectKey, String diskFilename) throws IOException {
+        File tempFile = File.createTempFile(storageType + "_", "_" + diskFilename);
+        try (InputStream in = download(storageType, objectKey)) {
+            Files.copy(in, tempFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            return tempFile;
+        } catch (IOException | RuntimeException e) {
+            tempFile.delete();
+            throw e;
+        }
+    }
+
+    private void upload(String storageType, File file, String objectKey, String contentType) throws IOException {
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            if ("oss".equals(storageType)) {
+                ossService.uploadFile(in, objectKey, contentType, file.length());
+            } else {
+                cosService.uploadFile(in, objectKey, contentType, file.length());
+            }
+        }
+    }
+
+    /**
+     * 判断是否启用水印
+     */
+    private boolean isWatermarkEnabled() {
+        try {
+            String value = settingService.getSetting(SettingKey.WATERMARK_ENABLED.getKey());
+            return "true".equalsIgnoreCase(value);
+        } catch (Exception e) {
+            log.warn("获取水印配置失败，使用默认值false: {}", e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * 获取水印配置
+     */
+    private String getWatermarkText() {
+        try {
+            String value = settingService.getSetting(SettingKey.WATERMARK_TEXT.getKey());
+            return value != null ? value : "JRedmine";
+        } catch (Exception e) {
+            log.warn("获取水印文本失败，使用默认值: {}", e.getMessage());
+            return "JRedmine";
+        }
+    }
+    
+    private String getWatermarkPosition() {
+        try {
+            String value = settingService.getSetting(SettingKey.WATERMARK_POSITION.getKey());
+            return value != null ? value : "bottom-right";
+        } catch (Exception e) {
+            return "bottom-right";
+        }
+    }
+    
+    private float getWatermarkOpacity() {
+        try {
+            String value = settingService.getSetting(SettingKey.WATERMARK_OPACITY.getKey());
+            return value != null ? Float.parseFloat(value) : 0.5f;
+        } catch (Exception e) {
+            return 0.5f;
+        }
+    }
+    
+    private int getWatermarkFontSize() {
+        try {
+            String value = settingService.getSetting(SettingKey.WATERMARK_FONT_SIZE.getKey());
+            return value != null ? Integer.parseInt(value) : 24;
+        } catch (Exception e) {
+            return 24;
+        }
+    }
+    
+    /**
+     * 在图片上绘制水印
+     */
+    private void drawWatermark(BufferedImage originalImage) {
+        // 创建Graphics2D对象
+        Graphics2D g2d = (Graphics2D) originalImage.getGraphics();
+        
+        // 设置抗锯齿
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        
+        // 设置透明度
+        float opacity = getWatermarkOpacity();
+        AlphaComposite alphaComposite = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, opacity);
+        g2d.setComposite(alphaComposite);
+        
+        // 设置字体和颜色
+        int fontSize = getWatermarkFontSize();
+        Font font = new Font("Arial", Font.BOLD, fontSize);
+        g2d.setFont(font);
+        g2d.setColor(Color.WHITE);
+        
+        // 获取水印文本
+        String watermarkText = getWatermarkText();
+        
+        // 计算文本尺寸
+        FontMetrics fontMetrics = g2d.getFontMetrics();
+        Rectangle2D textBounds = fontMetrics.getStringBounds(watermarkText, g2d);
+        int textWidth = (int) textBounds.getWidth();
+        int textHeight = (int) textBounds.getHeight();
+        
+        // 计算水印位置
+        int imageWidth = originalImage.getWidth();
+        int imageHeight = originalImage.getHeight();
+        int x, y;
+        
+        String position = getWatermarkPosition();
+        int padding = 20; // 边距
+        
+        switch (position.toLowerCase()) {
+            case "top-left":
+                x = padding;
+                y = padding + textHeight;
+                break;
+            case "top-right":
+                x = imageWidth - textWidth - padding;
+                y = padding + textHeight;
+                break;
+            case "bottom-left":
+                x = padding;
+                y = imageHeight - padding;
+                break;
+            case "bottom-right":
+                x = imageWidth - textWidth - padding;
+                y = imageHeight - padding;
+                break;
+            case "center":
+                x = (imageWidth - textWidth) / 2;
+                y = (imageHeight + textHeight) / 2;
+                break;
+            default:
+                x = imageWidth - textWidth - padding;
+                y = imageHeight - padding;
+        }
+        
+        // 绘制文本阴影（增强可读性）
+        g2d.setColor(new Color(0, 0, 0, (int) (opacity * 128)));
+        g2d.drawString(watermarkText, x + 2, y + 2);
+        
+        // 绘制水印文本
+        g2d.setColor(Color.WHITE);
+        g2d.drawString(watermarkText, x, y);
+        
+        // 释放资源
+        g2d.dispose();
+    }
+    
+    /**
+     * 获取图片格式
+     */
+    private String getImageFormat(String originalFilename) {
+        String filename = originalFilename != null ? originalFilename.toLowerCase() : "";
+        if (filename.endsWith(".png")) {
+            return "png";
+        } else if (filename.endsWith(".gif")) {
+            return "gif";
+        } else if (filename.endsWith(".bmp")) {
+            return "bmp";
+        } else {
+            return "jpg"; // 默认JPG
+        }
+    }
+}
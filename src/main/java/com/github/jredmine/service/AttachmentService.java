@@ -1,6 +1,7 @@
 package com.github.jredmine.service;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.github.jredmine.dto.request.attachment.AttachmentQueryRequestDTO;
@@ -11,46 +12,69 @@ import com.github.jredmine.dto.response.attachment.AttachmentBatchUploadResponse
 import com.github.jredmine.dto.response.attachment.AttachmentResponseDTO;
 import com.github.jredmine.dto.response.user.UserSimpleResponseDTO;
 import com.github.jredmine.entity.Attachment;
+import com.github.jredmine.entity.AttachmentBlob;
 import com.github.jredmine.entity.User;
 import com.github.jredmine.exception.BusinessException;
 import com.github.jredmine.enums.SettingKey;
+import com.github.jredmine.mapper.AttachmentBlobMapper;
 import com.github.jredmine.mapper.AttachmentMapper;
 import com.github.jredmine.mapper.user.UserMapper;
 import com.github.jredmine.service.SettingService;
 import com.github.jredmine.util.SecurityUtils;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
+import java.security.DigestInputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
-import net.coobird.thumbnailator.Thumbnails;
-
-import javax.imageio.ImageIO;
-import java.awt.*;
-import java.awt.geom.Rectangle2D;
-import java.awt.image.BufferedImage;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 import java.util.stream.Collectors;
 
 /**
@@ -70,6 +94,13 @@ public class AttachmentService {
     private final SettingService settingService;
     private final OssService ossService;
     private final CosService cosService;
+    private final AttachmentBlobMapper attachmentBlobMapper;
+    private final AttachmentImageService attachmentImageService;
+    private final PlatformTransactionManager transactionManager;
+    /**
+     * 批量下载预读线程池（线程数和队列有界，所有请求共享，见 AsyncConfig#zipPrefetchExecutor）
+     */
+    private final ThreadPoolTaskExecutor zipPrefetchExecutor;
 
     @Value("${attachment.storage.path:files}")
     private String storagePath;
@@ -95,14 +126,43 @@ public class AttachmentService {
     @Value("${attachment.allowed-extensions:}")
     private String allowedExtensions;
 
-    @Value("${attachment.thumbnail.enabled:true}")
-    private Boolean thumbnailEnabled;
+    /**
+     * 是否按内容摘要去重存储（相同内容只保存一份，按引用计数删除）
+     */
+    @Value("${attachment.dedup.enabled:true}")
+    private Boolean dedupEnabled;
+
+    /**
+     * 内容寻址存储的根目录
+     */
+    private static final String CONTENT_ADDRESSED_DIRECTORY = "sha256";
+
+    /**
+     * 本地上传临时文件目录（与存储目录在同一文件系统，便于原子移动）
+     */
+    private static final String TEMP_DIRECTORY = "tmp";
+
+    /**
+     * 批量下载时提前读取的云存储文件数及单个文件大小上限
+     */
+    private static final int ZIP_PREFETCH_WINDOW = 4;
+    private static final long ZIP_PREFETCH_MAX_BYTES = 8L * 1024 * 1024;
+
+    /**
+     * 所有批量下载请求合计的预读内存上限（字节），超出时后续文件轮到时直接按流读取
+     */
+    @Value("${attachment.batch-download.prefetch-budget-bytes:67108864}")
+    private Integer zipPrefetchBudgetBytes;
 
-    @Value("${attachment.thumbnail.width:200}")
-    private Integer thumbnailWidth;
+    /**
+     * 预读内存配额，按文件大小获取，文件写入ZIP或取消预读后归还
+     */
+    private Semaphore zipPrefetchBudget;
 
-    @Value("${attachment.thumbnail.height:200}")
-    private Integer thumbnailHeight;
+    @PostConstruct
+    public void init() {
+        zipPrefetchBudget = new Semaphore(zipPrefetchBudgetBytes);
+    }
 
     /**
      * 获取存储类型（local/oss/cos）
@@ -161,6 +221,23 @@ public class AttachmentService {
     private boolean isCloudStorage(Attachment attachment) {
         return isOssStorage(attachment) || isCosStorage(attachment);
     }
+
+    /**
+     * 获取附件实际使用的存储类型（local/oss/cos）
+     */
+    private String getStorageTypeOf(Attachment attachment) {
+        if (isOssStorage(attachment)) {
+            return "oss";
+        }
+        return isCosStorage(attachment) ? "cos" : "local";
+    }
+
+    /**
+     * 判断存储类型是否为云存储（OSS或COS）
+     */
+    private boolean isCloudStorageType(String storageType) {
+        return "oss".equals(storageType) || "cos".equals(storageType);
+    }
     
     /**
      * 从云存储下载文件到临时文件（通用方法）
@@ -211,103 +288,203 @@ public class AttachmentService {
         // 1. 验证文件
         validateFile(file);
 
-        // 2. 生成存储文件名和路径
+        // 2. 保存文件（根据存储类型选择本地、OSS或COS），写入的同时计算 SHA-256 摘要
         String originalFilename = file.getOriginalFilename();
-        String diskFilename = generateDiskFilename(originalFilename);
-        String diskDirectory = generateDiskDirectory();
-
-        // 3. 计算文件摘要
-        String digest = calculateFileDigest(file);
-
-        // 4. 保存文件（根据存储类型选择本地、OSS或COS）
-        String objectKey = diskDirectory + "/" + diskFilename;
-        
-        if (isOssStorage()) {
-            // OSS存储
-            try {
-                uploadToOss(file, objectKey, originalFilename, diskDirectory, diskFilename);
-                log.debug("文件上传到OSS成功: objectKey={}", objectKey);
-            } catch (Exception e) {
-                log.error("上传文件到OSS失败: objectKey={}, error={}", objectKey, e.getMessage(), e);
-                throw new BusinessException("上传文件到OSS失败: " + e.getMessage());
-            }
-        } else if (isCosStorage()) {
-            // COS存储
-            try {
-                uploadToCos(file, objectKey, originalFilename, diskDirectory, diskFilename);
-                log.debug("文件上传到COS成功: objectKey={}", objectKey);
-            } catch (Exception e) {
-                log.error("上传文件到COS失败: objectKey={}, error={}", objectKey, e.getMessage(), e);
-                throw new BusinessException("上传文件到COS失败: " + e.getMessage());
+        // 记录存储类型（快照，避免配置变更后无法找到文件）
+        String storageType = getStorageType().toLowerCase();
+        String diskFilename;
+        String diskDirectory;
+        String digest;
+        long filesize;
+
+        // 图片水印在保存之前同步添加，保存的内容与记录的大小、摘要一致
+        Path watermarked = isImageFile(file.getContentType(), originalFilename)
+                ? attachmentImageService.watermarkToTempFile(file, originalFilename) : null;
+        try {
+            InputStreamSource content = watermarked != null ? new FileSystemResource(watermarked) : file;
+            filesize = watermarked != null ? watermarked.toFile().length() : file.getSize();
+            if (Boolean.TRUE.equals(dedupEnabled)) {
+                // 内容寻址存储：相同内容复用已存储的文件
+                AttachmentBlob blob = storeContentAddressed(content, filesize, file.getContentType(),
+                        originalFilename, storageType);
+                diskDirectory = blob.getDiskDirectory();
+                diskFilename = blob.getDiskFilename();
+                digest = blob.getDigest();
+            } else {
+                diskFilename = generateDiskFilename(originalFilename);
+                diskDirectory = generateDiskDirectory();
+                digest = storeFile(content, filesize, file.getContentType(), originalFilename, storageType,
+                        diskDirectory, diskFilename);
             }
-        } else {
-            // 本地存储
-            Path baseStoragePath = getStoragePath();
-            Path fullPath = baseStoragePath.resolve(diskDirectory);
-            try {
-                // 确保目录存在
-                Files.createDirectories(fullPath);
-                Path filePath = fullPath.resolve(diskFilename);
-                // 写入文件
-                file.transferTo(filePath.toFile());
-                log.debug("文件保存成功: {}", filePath.toAbsolutePath());
-
-                // 如果是图片文件，处理图片（生成缩略图、添加水印）
-                if (isImageFile(file.getContentType(), originalFilename)) {
-                    // 生成缩略图
-                    if (thumbnailEnabled) {
-                        try {
-                            generateThumbnail(filePath.toFile(), fullPath, diskFilename);
-                        } catch (Exception e) {
-                            log.warn("生成缩略图失败: filename={}, error={}", originalFilename, e.getMessage());
-                        }
-                    }
-                    
-                    // 添加水印
-                    if (isWatermarkEnabled()) {
-                        try {
-                            addWatermark(filePath.toFile());
-                        } catch (Exception e) {
-                            log.warn("添加水印失败: filename={}, error={}", originalFilename, e.getMessage());
-                        }
-                    }
+        } finally {
+            if (watermarked != null) {
+                try {
+                    Files.deleteIfExists(watermarked);
+                } catch (IOException e) {
+                    log.warn("清理临时文件失败: {}", watermarked);
                 }
-            } catch (IOException e) {
-                log.error("保存文件失败: path={}, error={}", fullPath.toAbsolutePath(), e.getMessage(), e);
-                throw new BusinessException("文件保存失败: " + e.getMessage());
             }
         }
 
-        // 5. 创建附件记录
+        // 3. 创建附件记录
         Attachment attachment = new Attachment();
         attachment.setContainerId(request.getContainerId());
         attachment.setContainerType(request.getContainerType());
         attachment.setFilename(originalFilename);
         attachment.setDiskFilename(diskFilename);
         attachment.setDiskDirectory(diskDirectory);
-        attachment.setFilesize(file.getSize());
+        attachment.setFilesize(filesize);
         attachment.setContentType(file.getContentType());
         attachment.setDigest(digest);
         attachment.setDownloads(0);
         attachment.setAuthorId(currentUserId);
         attachment.setDescription(request.getDescription());
         attachment.setCreatedOn(LocalDateTime.now());
-        // 记录存储类型（快照，避免配置变更后无法找到文件）
-        String storageType = getStorageType();
-        attachment.setStorageType(storageType != null ? storageType : "local");
+        attachment.setStorageType(storageType);
 
         attachmentMapper.insert(attachment);
 
         log.info("上传附件成功: id={}, filename={}, size={}",
-                attachment.getId(), originalFilename, file.getSize());
+                attachment.getId(), originalFilename, filesize);
 
         return convertToResponseDTO(attachment);
     }
 
+    /**
+     * 以随机文件名保存文件（按日期分目录），返回文件摘要
+     * 流式写入，写入的同时计算 SHA-256 摘要，文件只读取一遍
+     */
+    private String storeFile(InputStreamSource content, long size, String contentType, String originalFilename,
+                             String storageType, String diskDirectory, String diskFilename) {
+        String objectKey = diskDirectory + "/" + diskFilename;
+        if (isCloudStorageType(storageType)) {
+            // 云存储（OSS/COS）
+            try (Sha256InputStream in = new Sha256InputStream(content.getInputStream())) {
+                uploadToCloud(in, objectKey, contentType, size, storageType);
+                log.debug("文件上传到{}成功: objectKey={}", storageType.toUpperCase(), objectKey);
+                scheduleImageProcessing(storageType, diskDirectory, diskFilename, contentType, originalFilename);
+                return in.hexDigest();
+            } catch (Exception e) {
+                log.error("上传文件到{}失败: objectKey={}, error={}", storageType.toUpperCase(), objectKey, e.getMessage(), e);
+                throw new BusinessException("上传文件到" + storageType.toUpperCase() + "失败: " + e.getMessage());
+            }
+        }
+
+        // 本地存储
+        Path fullPath = getStoragePath().resolve(diskDirectory);
+        try {
+            // 确保目录存在
+            Files.createDirectories(fullPath);
+            Path filePath = fullPath.resolve(diskFilename);
+            // 流式写入文件（固定大小缓冲区），同时计算摘要
+            String digest;
+            try (Sha256InputStream in = new Sha256InputStream(content.getInputStream())) {
+                Files.copy(in, filePath);
+                digest = in.hexDigest();
+            }
+            log.debug("文件保存成功: {}", filePath.toAbsolutePath());
+            scheduleImageProcessing(storageType, diskDirectory, diskFilename, contentType, originalFilename);
+            return digest;
+        } catch (IOException e) {
+            log.error("保存文件失败: path={}, error={}", fullPath.toAbsolutePath(), e.getMessage(), e);
+            throw new BusinessException("文件保存失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 内容寻址保存文件
+     * 先边写临时文件边计算摘要，再登记引用：引用计数先加一（不存在时插入）并对该行加锁直到上传事务结束，
+     * 已有引用时直接复用文件，只有首个引用才写入或上传文件；
+     * 回收文件时在同一行锁下确认无记录后才删除，已登记的引用不会丢失文件。
+     * 新内容保存到 sha256/xx/yy/摘要.扩展名，缩略图随文件一起复用
+     */
+    private AttachmentBlob storeContentAddressed(InputStreamSource content, long size, String contentType,
+                                                 String originalFilename, String storageType) {
+        boolean cloud = isCloudStorageType(storageType);
+        Path tempFile = null;
+        try {
+            // 本地存储的临时文件放在存储目录下，保证之后可以原子移动到目标位置
+            if (cloud) {
+                tempFile = Files.createTempFile("upload_", ".tmp");
+            } else {
+                Path tempDirectory = Files.createDirectories(getStoragePath().resolve(TEMP_DIRECTORY));
+                tempFile = Files.createTempFile(tempDirectory, "upload_", ".tmp");
+            }
+            String digest;
+            try (Sha256InputStream in = new Sha256InputStream(content.getInputStream())) {
+                Files.copy(in, tempFile, StandardCopyOption.REPLACE_EXISTING);
+                digest = in.hexDigest();
+            }
+
+            AttachmentBlob blob = new AttachmentBlob();
+            blob.setStorageType(storageType);
+            blob.setDigest(digest);
+            blob.setDiskDirectory(CONTENT_ADDRESSED_DIRECTORY + "/" + digest.substring(0, 2) + "/" + digest.substring(2, 4));
+            blob.setDiskFilename(digest + getLowerCaseExtension(originalFilename));
+            blob.setFilesize(size);
+            // 先增加引用再加锁读取，行锁持有到事务结束，期间回收方无法删除该文件
+            attachmentBlobMapper.upsertRef(blob);
+            AttachmentBlob stored = attachmentBlobMapper.selectForUpdate(storageType, digest);
+            if (stored.getRefCount() > 1) {
+                log.debug("附件内容已存在，复用文件: digest={}, path={}/{}", digest,
+                        stored.getDiskDirectory(), stored.getDiskFilename());
+                return stored;
+            }
+
+            // 首个引用：写入内容寻址路径
+            if (cloud) {
+                String objectKey = stored.getDiskDirectory() + "/" + stored.getDiskFilename();
+                try (InputStream in = Files.newInputStream(tempFile)) {
+                    uploadToCloud(in, objectKey, contentType, size, storageType);
+                }
+                log.debug("文件上传到{}成功: objectKey={}", storageType.toUpperCase(), objectKey);
+                scheduleImageProcessing(storageType, stored.getDiskDirectory(), stored.getDiskFilename(),
+                        contentType, originalFilename);
+            } else {
+                Path directory = Files.createDirectories(getStoragePath().resolve(stored.getDiskDirectory()));
+                Path target = directory.resolve(stored.getDiskFilename());
+                // 此前上传事务回滚时可能遗留相同内容的文件，直接复用
+                if (!Files.exists(target)) {
+                    Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE);
+                    scheduleImageProcessing(storageType, stored.getDiskDirectory(), stored.getDiskFilename(),
+                            contentType, originalFilename);
+                }
+                log.debug("文件保存成功: {}", target.toAbsolutePath());
+            }
+            return stored;
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("保存文件失败: storageType={}, filename={}, error={}", storageType, originalFilename, e.getMessage(), e);
+            throw new BusinessException("文件保存失败: " + e.getMessage());
+        } finally {
+            if (tempFile != null) {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (IOException e) {
+                    log.warn("清理临时文件失败: {}", tempFile);
+                }
+            }
+        }
+    }
+
+    /**
+     * 图片文件提交后台生成缩略图，不阻塞上传请求（水印在保存前同步添加）
+     */
+    private void scheduleImageProcessing(String storageType, String diskDirectory, String diskFilename,
+                                         String contentType, String originalFilename) {
+        if (!isImageFile(contentType, originalFilename)) {
+            return;
+        }
+        Path localDirectory = isCloudStorageType(storageType) ? null : getStoragePath().resolve(diskDirectory);
+        attachmentImageService.generateThumbnailsAsync(storageType, localDirectory, diskDirectory, diskFilename, contentType);
+    }
+
     /**
      * 批量上传附件
+     * 每个文件在独立事务中上传：单个文件失败时回滚其引用计数和附件记录，不影响其他文件，
+     * 内容的行锁也在该文件上传完成后即释放
      */
-    @Transactional(rollbackFor = Exception.class)
     public AttachmentBatchUploadResponseDTO batchUploadAttachments(
             List<MultipartFile> files,
             String containerType,
@@ -316,6 +493,8 @@ public class AttachmentService {
 
         List<AttachmentResponseDTO> successes = new ArrayList<>();
         List<AttachmentBatchUploadResponseDTO.FailureDetail> failures = new ArrayList<>();
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
 
         for (MultipartFile file : files) {
             try {
@@ -326,7 +505,7 @@ public class AttachmentService {
                 request.setDescription(description);
 
                 // 上传单个文件
-                AttachmentResponseDTO attachment = uploadAttachment(file, request);
+                AttachmentResponseDTO attachment = template.execute(status -> uploadAttachment(file, request));
                 successes.add(attachment);
 
             } catch (Exception e) {
@@ -457,7 +636,7 @@ public class AttachmentService {
         }
 
         attachmentMapper.deleteById(id);
-        deletePhysicalFile(attachment);
+        releaseStorage(attachment);
         log.info("删除附件成功: id={}", id);
     }
 
@@ -476,7 +655,7 @@ public class AttachmentService {
             throw new BusinessException("附件不属于该容器");
         }
         attachmentMapper.deleteById(attachmentId);
-        deletePhysicalFile(attachment);
+        releaseStorage(attachment);
         log.info("删除附件成功（按容器校验）: id={}, containerType={}, containerId={}", attachmentId, containerType, containerId);
     }
 
@@ -497,7 +676,7 @@ public class AttachmentService {
         List<Attachment> list = attachmentMapper.selectList(wrapper);
         for (Attachment att : list) {
             attachmentMapper.deleteById(att.getId());
-            deletePhysicalFile(att);
+            releaseStorage(att);
         }
         if (!list.isEmpty()) {
             log.info("按容器删除附件: containerType={}, containerId={}, 数量={}", containerType, containerId, list.size());
@@ -505,242 +684,469 @@ public class AttachmentService {
     }
 
     /**
-     * 删除附件的物理文件（OSS/COS/本地），不删数据库记录。
+     * 释放附件占用的存储
+     * 物理文件在事务提交后删除，事务回滚时文件保持不变；
+     * 内容寻址存储的文件在最后一个引用删除后才删除，其余附件直接删除
      */
-    private void deletePhysicalFile(Attachment attachment) {
+    private void releaseStorage(Attachment attachment) {
+        if (!isContentAddressed(attachment)) {
+            runAfterCommit(() -> deletePhysicalFile(attachment));
+            return;
+        }
+        String storageType = getStorageTypeOf(attachment);
+        attachmentBlobMapper.decrementRef(storageType, attachment.getDigest());
+        if (attachmentBlobMapper.deleteUnreferenced(storageType, attachment.getDigest()) == 0) {
+            log.debug("附件文件仍被引用，保留文件: attachmentId={}, digest={}", attachment.getId(), attachment.getDigest());
+            return;
+        }
+        runAfterCommit(() -> deleteUnreferencedFile(attachment));
+    }
+
+    /**
+     * 删除已无引用的内容寻址文件
+     * 在新事务中对该内容加锁并确认仍无记录后再删除：并发上传相同内容的事务已登记引用时，
+     * 等其提交后能看到记录，保留文件；上传方则等待本事务结束后再写入文件
+     */
+    private void deleteUnreferencedFile(Attachment attachment) {
+        String storageType = getStorageTypeOf(attachment);
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
         try {
-            if (isOssStorage(attachment)) {
-                String objectKey = attachment.getDiskDirectory() + "/" + attachment.getDiskFilename();
-                ossService.deleteFile(objectKey);
-                if (isImageFile(attachment.getContentType(), attachment.getFilename())) {
-                    String thumbnailKey = attachment.getDiskDirectory() + "/thumb_" + attachment.getDiskFilename();
-                    ossService.deleteFile(thumbnailKey);
-                }
-            } else if (isCosStorage(attachment)) {
-                String objectKey = attachment.getDiskDirectory() + "/" + attachment.getDiskFilename();
-                cosService.deleteFile(objectKey);
-                if (isImageFile(attachment.getContentType(), attachment.getFilename())) {
-                    String thumbnailKey = attachment.getDiskDirectory() + "/thumb_" + attachment.getDiskFilename();
-                    cosService.deleteFile(thumbnailKey);
-                }
-            } else {
-                Path baseStoragePath = getStoragePath();
-                Path filePath = baseStoragePath.resolve(attachment.getDiskDirectory())
-                        .resolve(attachment.getDiskFilename());
-                Files.deleteIfExists(filePath);
-                if (isImageFile(attachment.getContentType(), attachment.getFilename())) {
-                    Path thumbnailPath = baseStoragePath.resolve(attachment.getDiskDirectory())
-                            .resolve("thumb_" + attachment.getDiskFilename());
-                    Files.deleteIfExists(thumbnailPath);
+            template.executeWithoutResult(status -> {
+                if (attachmentBlobMapper.selectForUpdate(storageType, attachment.getDigest()) != null) {
+                    log.debug("附件内容已被重新引用，保留文件: attachmentId={}, digest={}",
+                            attachment.getId(), attachment.getDigest());
+                    return;
                 }
+                deletePhysicalFile(attachment);
+            });
+        } catch (Exception e) {
+            log.error("回收附件文件失败: attachmentId={}, digest={}, {}", attachment.getId(), attachment.getDigest(),
+                    e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 在当前事务提交后执行，不在事务中时立即执行
+     */
+    private void runAfterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
             }
+        });
+    }
+
+    private boolean isContentAddressed(Attachment attachment) {
+        return StringUtils.hasText(attachment.getDigest()) && attachment.getDiskDirectory() != null
+                && attachment.getDiskDirectory().startsWith(CONTENT_ADDRESSED_DIRECTORY + "/");
+    }
+
+    /**
+     * 删除物理文件（包括缩略图）
+     */
+    private void deletePhysicalFile(Attachment attachment) {
+        try {
+            deleteStoredFile(getStorageTypeOf(attachment), attachment.getDiskDirectory(), attachment.getDiskFilename(),
+                    isImageFile(attachment.getContentType(), attachment.getFilename()));
         } catch (Exception e) {
             log.error("删除文件失败: attachmentId={}, {}", attachment.getId(), e.getMessage(), e);
         }
     }
 
+    private void deleteStoredFile(String storageType, String diskDirectory, String diskFilename, boolean isImage)
+            throws IOException {
+        Path localDirectory = null;
+        if ("oss".equals(storageType)) {
+            ossService.deleteFile(diskDirectory + "/" + diskFilename);
+        } else if ("cos".equals(storageType)) {
+            cosService.deleteFile(diskDirectory + "/" + diskFilename);
+        } else {
+            localDirectory = getStoragePath().resolve(diskDirectory);
+            Files.deleteIfExists(localDirectory.resolve(diskFilename));
+        }
+        if (isImage) {
+            attachmentImageService.deleteThumbnails(storageType, localDirectory, diskDirectory, diskFilename);
+        }
+    }
+
     /**
-     * 下载附件（获取文件）
-     * 注意：OSS存储时，会先下载到临时文件
+     * 打开附件下载
+     * 只解析文件位置，不复制文件；由调用方按需读取全部或部分内容（支持 Range 请求）。
+     * 长度取自实际存储的文件（本地文件大小或云存储对象元数据），不使用附件记录中的大小
      */
-    public File downloadAttachment(Long id) {
+    public DownloadTarget openDownload(Long id) {
         Attachment attachment = attachmentMapper.selectById(id);
         if (attachment == null) {
             throw new BusinessException("附件不存在");
         }
 
-        // 增加下载次数
-        attachment.setDownloads(attachment.getDownloads() + 1);
-        attachmentMapper.updateById(attachment);
-
-        if (isOssStorage(attachment)) {
-            // OSS存储：下载到临时文件
-            return downloadFromCloud(attachment, "oss");
-        } else if (isCosStorage(attachment)) {
-            // COS存储：下载到临时文件
-            return downloadFromCloud(attachment, "cos");
+        String storageType = getStorageTypeOf(attachment);
+        String objectKey = attachment.getDiskDirectory() + "/" + attachment.getDiskFilename();
+        Path localPath = null;
+        long length;
+        if (isCloudStorageType(storageType)) {
+            length = "oss".equals(storageType) ? ossService.getFileLength(objectKey) : cosService.getFileLength(objectKey);
         } else {
-            // 本地存储
-            Path baseStoragePath = getStoragePath();
-            Path filePath = baseStoragePath.resolve(attachment.getDiskDirectory())
+            localPath = getStoragePath().resolve(attachment.getDiskDirectory())
                     .resolve(attachment.getDiskFilename());
-            File file = filePath.toFile();
-
-            if (!file.exists()) {
-                log.error("文件不存在: {}", filePath);
+            if (!Files.isRegularFile(localPath)) {
+                log.error("文件不存在: {}", localPath);
                 throw new BusinessException("文件不存在");
             }
+            try {
+                length = Files.size(localPath);
+            } catch (IOException e) {
+                log.error("读取文件大小失败: path={}, error={}", localPath, e.getMessage(), e);
+                throw new BusinessException("读取文件失败");
+            }
+        }
 
-            return file;
+        long lastModified = attachment.getCreatedOn() != null
+                ? attachment.getCreatedOn().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : -1L;
+        return new DownloadTarget(attachment.getId(), attachment.getFilename(), attachment.getContentType(),
+                length, storedContentEtag(attachment, length), lastModified, storageType, objectKey, localPath);
+    }
+
+    /**
+     * 存储内容的强 ETag（SHA-256 摘要）
+     * 摘要只有在与实际存储的文件对应时才可用：历史附件无摘要，
+     * 或文件在计算摘要后被改写（如旧版本上传后才添加水印的图片，大小与记录不一致）时返回 null
+     */
+    private String storedContentEtag(Attachment attachment, long storedLength) {
+        if (!StringUtils.hasText(attachment.getDigest())) {
+            return null;
         }
+        if (attachment.getFilesize() == null || attachment.getFilesize() != storedLength) {
+            log.debug("附件文件大小与记录不一致，不使用摘要作为ETag: attachmentId={}, recorded={}, stored={}",
+                    attachment.getId(), attachment.getFilesize(), storedLength);
+            return null;
+        }
+        return "\"" + attachment.getDigest() + "\"";
     }
 
     /**
-     * 批量下载附件（打包为ZIP）
+     * 增加下载次数（原子更新，不读取附件记录）
      */
-    public File batchDownloadAttachments(List<Long> attachmentIds) {
-        if (attachmentIds == null || attachmentIds.isEmpty()) {
-            throw new BusinessException("附件ID列表不能为空");
+    public void recordDownload(Long id) {
+        LambdaUpdateWrapper<Attachment> wrapper = new LambdaUpdateWrapper<>();
+        wrapper.eq(Attachment::getId, id)
+                .setSql("downloads = downloads + 1");
+        attachmentMapper.update(null, wrapper);
+    }
+
+    /**
+     * 生成云存储附件的预签名下载地址，本地存储返回 null
+     * 只读取附件记录，不请求对象元数据
+     *
+     * @param id               附件ID
+     * @param expiresInSeconds 有效期（秒）
+     * @return 预签名URL
+     */
+    public String getPresignedDownloadUrl(Long id, long expiresInSeconds) {
+        Attachment attachment = attachmentMapper.selectById(id);
+        if (attachment == null) {
+            throw new BusinessException("附件不存在");
         }
+        String objectKey = attachment.getDiskDirectory() + "/" + attachment.getDiskFilename();
+        String storageType = getStorageTypeOf(attachment);
+        if ("oss".equals(storageType)) {
+            return ossService.generatePresignedUrl(objectKey, expiresInSeconds);
+        }
+        if ("cos".equals(storageType)) {
+            return cosService.generatePresignedUrl(objectKey, expiresInSeconds);
+        }
+        return null;
+    }
 
-        // 查询所有附件
-        List<Attachment> attachments = new ArrayList<>();
-        for (Long id : attachmentIds) {
-            Attachment attachment = attachmentMapper.selectById(id);
-            if (attachment != null) {
-                attachments.add(attachment);
+    /**
+     * 将附件的指定字节区间写入输出流
+     * 本地文件使用 FileChannel.transferTo，云存储按区间读取对象流，均不经过临时文件
+     *
+     * @param target 下载目标
+     * @param out    输出流
+     * @param start  起始字节
+     * @param length 字节数
+     */
+    public void writeRange(DownloadTarget target, OutputStream out, long start, long length) throws IOException {
+        if (length <= 0) {
+            return;
+        }
+        if (target.getLocalPath() != null) {
+            try (FileChannel channel = FileChannel.open(target.getLocalPath(), StandardOpenOption.READ)) {
+                WritableByteChannel outChannel = Channels.newChannel(out);
+                long position = start;
+                long remaining = length;
+                while (remaining > 0) {
+                    long transferred = channel.transferTo(position, remaining, outChannel);
+                    if (transferred <= 0) {
+                        break;
+                    }
+                    position += transferred;
+                    remaining -= transferred;
+                }
             }
+            return;
         }
 
-        if (attachments.isEmpty()) {
-            throw new BusinessException("未找到任何附件");
+        long end = start + length - 1;
+        InputStream in = "oss".equals(target.getStorageType())
+                ? ossService.downloadFile(target.getObjectKey(), start, end)
+                : cosService.downloadFile(target.getObjectKey(), start, end);
+        try (in) {
+            in.transferTo(out);
         }
+    }
 
-        // 创建临时ZIP文件（使用系统临时目录）
-        Path tempDir = Paths.get(System.getProperty("java.io.tmpdir"));
-        // 确保临时目录存在
-        try {
-            Files.createDirectories(tempDir);
-        } catch (IOException e) {
-            log.error("创建临时目录失败: {}", tempDir, e);
-            throw new BusinessException("创建临时目录失败: " + e.getMessage());
+    /**
+     * 附件下载目标（文件位置与缓存校验信息）
+     */
+    @Getter
+    public static class DownloadTarget {
+        private final Long attachmentId;
+        private final String filename;
+        private final String contentType;
+        private final long length;
+        /**
+         * 强 ETag（存储内容的 SHA-256 摘要），摘要缺失或与存储的文件不对应时为 null
+         */
+        private final String etag;
+        private final long lastModified;
+        private final String storageType;
+        private final String objectKey;
+        /**
+         * 本地文件路径，云存储为 null
+         */
+        private final Path localPath;
+
+        private DownloadTarget(Long attachmentId, String filename, String contentType, long length, String etag,
+                               long lastModified, String storageType, String objectKey, Path localPath) {
+            this.attachmentId = attachmentId;
+            this.filename = filename;
+            this.contentType = contentType;
+            this.length = length;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.storageType = storageType;
+            this.objectKey = objectKey;
+            this.localPath = localPath;
         }
 
-        String zipFilename = "attachments_" + System.currentTimeMillis() + "_"
-                + UUID.randomUUID().toString().substring(0, 8) + ".zip";
-        Path zipPath = tempDir.resolve(zipFilename);
-
-        int successCount = 0;
-        try {
-            // 创建ZIP输出流
-            try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(zipPath.toFile()))) {
-                byte[] buffer = new byte[8192];
-
-                // 用于处理同名文件
-                Set<String> usedNames = new HashSet<>();
-
-                for (Attachment attachment : attachments) {
-                    InputStream fileInputStream = null;
-                    File tempFile = null;
-                    
-                    try {
-                        // 根据存储类型获取文件流
-                        if (isOssStorage(attachment) || isCosStorage(attachment)) {
-                            // 云存储（OSS或COS）：下载到临时文件
-                            String cloudType = isOssStorage(attachment) ? "oss" : "cos";
-                            try {
-                                tempFile = downloadFromCloud(attachment, cloudType);
-                                fileInputStream = new FileInputStream(tempFile);
-                            } catch (Exception e) {
-                                log.warn("从{}下载文件失败，跳过: attachmentId={}, error={}", 
-                                        cloudType.toUpperCase(), attachment.getId(), e.getMessage());
-                                continue;
-                            }
-                        } else {
-                            // 本地存储
-                            Path baseStoragePath = getStoragePath();
-                            Path filePath = baseStoragePath.resolve(attachment.getDiskDirectory())
-                                    .resolve(attachment.getDiskFilename());
-                            File file = filePath.toFile();
-
-                            if (!file.exists()) {
-                                log.warn("文件不存在，跳过: attachmentId={}, path={}", attachment.getId(), filePath);
-                                continue;
-                            }
-                            
-                            fileInputStream = new FileInputStream(file);
-                        }
-
-                        // 处理同名文件：如果ZIP内已有同名文件，添加序号
-                        String entryName = attachment.getFilename();
-                        if (entryName == null || entryName.isEmpty()) {
-                            entryName = "unnamed_" + attachment.getId();
-                        }
-
-                        int counter = 1;
-                        String originalEntryName = entryName;
-                        while (usedNames.contains(entryName)) {
-                            int lastDot = originalEntryName.lastIndexOf('.');
-                            if (lastDot > 0) {
-                                String nameWithoutExt = originalEntryName.substring(0, lastDot);
-                                String ext = originalEntryName.substring(lastDot);
-                                entryName = nameWithoutExt + "_" + counter + ext;
-                            } else {
-                                entryName = originalEntryName + "_" + counter;
-                            }
-                            counter++;
-                        }
-                        usedNames.add(entryName);
-
-                        // 创建ZIP条目（使用处理后的文件名）
-                        ZipEntry entry = new ZipEntry(entryName);
-                        zos.putNextEntry(entry);
-
-                        // 写入文件内容
-                        try (InputStream is = fileInputStream) {
-                            int len;
-                            while ((len = is.read(buffer)) > 0) {
-                                zos.write(buffer, 0, len);
-                            }
-                        }
+        public boolean isCloud() {
+            return localPath == null;
+        }
+    }
 
-                        zos.closeEntry();
-                        successCount++;
+    /**
+     * 校验批量下载请求并批量查询附件元数据（在写出响应头之前调用）
+     *
+     * @param attachmentIds 附件ID列表
+     * @return 按请求顺序排列的附件（已去重，不存在的附件被忽略）
+     */
+    public List<Attachment> prepareBatchDownload(List<Long> attachmentIds) {
+        if (attachmentIds == null || attachmentIds.isEmpty()) {
+            throw new BusinessException("附件ID列表不能为空");
+        }
 
-                        // 清理临时文件
-                        if (tempFile != null && tempFile.exists()) {
-                            tempFile.delete();
-                        }
+        // 批量查询附件，按请求顺序排列
+        Set<Long> uniqueIds = new LinkedHashSet<>(attachmentIds);
+        Map<Long, Attachment> attachmentMap = attachmentMapper.selectBatchIds(uniqueIds).stream()
+                .collect(Collectors.toMap(Attachment::getId, a -> a));
+        List<Attachment> attachments = uniqueIds.stream()
+                .map(attachmentMap::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        if (attachments.isEmpty()) {
+            throw new BusinessException("未找到任何附件");
+        }
+        return attachments;
+    }
 
-                        // 增加下载次数
-                        attachment.setDownloads(attachment.getDownloads() + 1);
-                        attachmentMapper.updateById(attachment);
-
-                    } catch (Exception e) {
-                        log.error("处理附件失败: attachmentId={}, error={}", attachment.getId(), e.getMessage(), e);
-                        // 继续处理下一个文件
-                    } finally {
-                        // 确保关闭流
-                        if (fileInputStream != null) {
-                            try {
-                                fileInputStream.close();
-                            } catch (IOException e) {
-                                log.warn("关闭文件流失败: {}", e.getMessage());
-                            }
-                        }
-                        // 清理临时文件
-                        if (tempFile != null && tempFile.exists()) {
-                            tempFile.delete();
+    /**
+     * 批量下载附件（打包为ZIP，直接写入输出流）
+     * ZIP 条目边读边写，不生成临时文件；
+     * 云存储的小文件由共享的有界线程池提前并行读取，预读占用的内存受全局配额限制，
+     * 线程池队列已满或配额不足时不预读，轮到时直接按流写入；打包完成后一次批量更新下载次数
+     *
+     * @param attachments 附件列表（{@link #prepareBatchDownload} 的结果，按列表顺序写入ZIP）
+     * @param out         输出流（调用方负责关闭）
+     */
+    public void writeBatchDownload(List<Attachment> attachments, OutputStream out) throws IOException {
+        Map<Integer, Future<byte[]>> prefetched = new HashMap<>();
+        List<Long> downloadedIds = new ArrayList<>();
+        // 用于处理同名文件
+        Set<String> usedNames = new HashSet<>();
+        ZipOutputStream zos = new ZipOutputStream(out);
+        try {
+            for (int i = 0; i < attachments.size(); i++) {
+                Attachment attachment = attachments.get(i);
+                // 提前读取后续的云存储文件
+                for (int j = i; j < Math.min(i + ZIP_PREFETCH_WINDOW, attachments.size()); j++) {
+                    if (!prefetched.containsKey(j)) {
+                        Future<byte[]> future = submitPrefetch(attachments.get(j));
+                        if (future != null) {
+                            prefetched.put(j, future);
                         }
                     }
                 }
-            }
 
-            if (successCount == 0) {
-                // 清理临时文件
+                Future<byte[]> future = prefetched.remove(i);
+                InputStream in;
                 try {
-                    Files.deleteIfExists(zipPath);
-                } catch (IOException ex) {
-                    log.error("清理临时文件失败: {}", ex.getMessage());
+                    in = openZipEntrySource(attachment, future);
+                } finally {
+                    if (future != null) {
+                        releasePrefetchBudget(attachment);
+                    }
+                }
+                if (in == null) {
+                    continue;
+                }
+                // 条目已开始写入后出错（如客户端断开）无法跳过，直接中止
+                try (in) {
+                    zos.putNextEntry(new ZipEntry(nextZipEntryName(attachment, usedNames)));
+                    in.transferTo(zos);
+                    zos.closeEntry();
+                    downloadedIds.add(attachment.getId());
                 }
+            }
+
+            if (downloadedIds.isEmpty()) {
                 throw new BusinessException("没有成功打包任何文件");
             }
+            zos.finish();
+            zos.flush();
+        } finally {
+            prefetched.forEach((index, future) -> {
+                future.cancel(true);
+                releasePrefetchBudget(attachments.get(index));
+            });
+            // 已写出的文件计入下载次数（一次批量更新）
+            if (!downloadedIds.isEmpty()) {
+                LambdaUpdateWrapper<Attachment> wrapper = new LambdaUpdateWrapper<>();
+                wrapper.in(Attachment::getId, downloadedIds)
+                        .setSql("downloads = downloads + 1");
+                attachmentMapper.update(null, wrapper);
+            }
+        }
+
+        log.info("批量下载附件打包完成: 总文件数={}, 成功数={}", attachments.size(), downloadedIds.size());
+    }
 
-            log.info("批量下载附件打包完成: zipPath={}, 总文件数={}, 成功数={}", zipPath, attachments.size(), successCount);
-            return zipPath.toFile();
+    /**
+     * 提交云存储文件的预读任务；不可预读、预读配额不足或线程池队列已满时返回 null
+     */
+    private Future<byte[]> submitPrefetch(Attachment attachment) {
+        if (!isPrefetchable(attachment) || !zipPrefetchBudget.tryAcquire(attachment.getFilesize().intValue())) {
+            return null;
+        }
+        try {
+            return zipPrefetchExecutor.submit(() -> readCloudObject(attachment));
+        } catch (TaskRejectedException e) {
+            releasePrefetchBudget(attachment);
+            log.debug("批量下载预读队列已满，轮到时直接读取: attachmentId={}", attachment.getId());
+            return null;
+        }
+    }
 
-        } catch (BusinessException e) {
-            throw e;
+    private void releasePrefetchBudget(Attachment attachment) {
+        zipPrefetchBudget.release(attachment.getFilesize().intValue());
+    }
+
+    /**
+     * 打开ZIP条目的数据源，文件不存在或读取失败时返回 null（跳过该文件）
+     */
+    private InputStream openZipEntrySource(Attachment attachment, Future<byte[]> prefetched) {
+        try {
+            if (prefetched != null) {
+                return new ByteArrayInputStream(prefetched.get());
+            }
+            return openContent(attachment);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("批量下载被中断");
         } catch (Exception e) {
-            log.error("批量下载附件打包失败: {}", e.getMessage(), e);
-            // 清理临时文件
-            try {
-                Files.deleteIfExists(zipPath);
-            } catch (IOException ex) {
-                log.error("清理临时文件失败: {}", ex.getMessage());
+            log.warn("读取文件失败，跳过: attachmentId={}, storageType={}, error={}",
+                    attachment.getId(), getStorageTypeOf(attachment), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 打开附件的完整内容（读取到存储文件的末尾，不依赖附件记录中的大小）
+     *
+     * @param attachment 附件
+     * @return 文件输入流（调用方负责关闭）
+     * @throws BusinessException 文件不存在或读取失败
+     */
+    public InputStream openContent(Attachment attachment) {
+        String storageType = getStorageTypeOf(attachment);
+        String objectKey = attachment.getDiskDirectory() + "/" + attachment.getDiskFilename();
+        if ("oss".equals(storageType)) {
+            return ossService.downloadFile(objectKey);
+        }
+        if ("cos".equals(storageType)) {
+            return cosService.downloadFile(objectKey);
+        }
+        Path filePath = getStoragePath().resolve(attachment.getDiskDirectory())
+                .resolve(attachment.getDiskFilename());
+        if (!Files.isRegularFile(filePath)) {
+            throw new BusinessException("文件不存在");
+        }
+        try {
+            return Files.newInputStream(filePath);
+        } catch (IOException e) {
+            log.error("读取文件失败: path={}, error={}", filePath, e.getMessage(), e);
+            throw new BusinessException("读取文件失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 云存储中不超过预读上限的文件可提前读取到内存
+     */
+    private boolean isPrefetchable(Attachment attachment) {
+        return isCloudStorage(attachment) && attachment.getFilesize() != null
+                && attachment.getFilesize() <= ZIP_PREFETCH_MAX_BYTES;
+    }
+
+    private byte[] readCloudObject(Attachment attachment) throws IOException {
+        String objectKey = attachment.getDiskDirectory() + "/" + attachment.getDiskFilename();
+        InputStream in = isOssStorage(attachment) ? ossService.downloadFile(objectKey) : cosService.downloadFile(objectKey);
+        try (in) {
+            return in.readAllBytes();
+        }
+    }
+
+    /**
+     * 生成ZIP条目名称：如果ZIP内已有同名文件，添加序号
+     */
+    private String nextZipEntryName(Attachment attachment, Set<String> usedNames) {
+        String entryName = attachment.getFilename();
+        if (entryName == null || entryName.isEmpty()) {
+            entryName = "unnamed_" + attachment.getId();
+        }
+
+        int counter = 1;
+        String originalEntryName = entryName;
+        while (usedNames.contains(entryName)) {
+            int lastDot = originalEntryName.lastIndexOf('.');
+            if (lastDot > 0) {
+                String nameWithoutExt = originalEntryName.substring(0, lastDot);
+                String ext = originalEntryName.substring(lastDot);
+                entryName = nameWithoutExt + "_" + counter + ext;
+            } else {
+                entryName = originalEntryName + "_" + counter;
             }
-            throw new BusinessException("批量下载打包失败: " + e.getMessage());
+            counter++;
         }
+        usedNames.add(entryName);
+        return entryName;
     }
 
     /**
@@ -787,6 +1193,16 @@ public class AttachmentService {
         return UUID.randomUUID().toString() + extension;
     }
 
+    /**
+     * 获取小写的文件扩展名（包含点号），无扩展名时返回空字符串
+     */
+    private String getLowerCaseExtension(String originalFilename) {
+        if (originalFilename == null || !originalFilename.contains(".")) {
+            return "";
+        }
+        return originalFilename.substring(originalFilename.lastIndexOf(".")).toLowerCase();
+    }
+
     /**
      * 生成磁盘目录（按日期分目录）
      */
@@ -797,24 +1213,33 @@ public class AttachmentService {
     }
 
     /**
-     * 计算文件摘要（SHA-256）
+     * 边读取边计算 SHA-256 摘要的输入流
+     * 不支持 mark/reset，避免云存储 SDK 重试时重复读取的数据被计入摘要
      */
-    private String calculateFileDigest(MultipartFile file) {
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(file.getBytes());
-            StringBuilder hexString = new StringBuilder();
-            for (byte b : hash) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) {
-                    hexString.append('0');
-                }
-                hexString.append(hex);
+    private static class Sha256InputStream extends DigestInputStream {
+
+        Sha256InputStream(InputStream in) {
+            super(in, newSha256());
+        }
+
+        private static MessageDigest newSha256() {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 不可用", e);
             }
-            return hexString.toString();
-        } catch (NoSuchAlgorithmException | IOException e) {
-            log.error("计算文件摘要失败: {}", e.getMessage(), e);
-            return "";
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        /**
+         * 已读取内容的摘要（十六进制）
+         */
+        String hexDigest() {
+            return HexFormat.of().formatHex(getMessageDigest().digest());
         }
     }
 
@@ -839,7 +1264,7 @@ public class AttachmentService {
         dto.setIsImage(isImage);
 
         // 如果是图片，设置缩略图URL
-        if (isImage && thumbnailEnabled) {
+        if (isImage && attachmentImageService.isThumbnailEnabled()) {
             dto.setThumbnailUrl("/api/attachments/" + attachment.getId() + "/thumbnail");
         }
 
@@ -879,196 +1304,23 @@ public class AttachmentService {
         return false;
     }
 
-    /**
-     * 上传文件到OSS（处理图片的缩略图和水印）
-     */
-    private void uploadToOss(MultipartFile file, String objectKey, String originalFilename, 
-                            String diskDirectory, String diskFilename) throws Exception {
-        // 如果是图片文件，需要先处理（缩略图、水印）
-        InputStream uploadStream = file.getInputStream();
-        
-        if (isImageFile(file.getContentType(), originalFilename)) {
-            // 先保存到临时文件进行处理
-            File tempFile = File.createTempFile("upload_", "_" + diskFilename);
-            try {
-                file.transferTo(tempFile);
-                
-                // 处理图片（缩略图、水印）
-                if (thumbnailEnabled) {
-                    try {
-                        generateThumbnailForCloud(tempFile, diskDirectory, diskFilename, "oss");
-                    } catch (Exception e) {
-                        log.warn("生成缩略图失败: filename={}, error={}", originalFilename, e.getMessage());
-                    }
-                }
-                
-                if (isWatermarkEnabled()) {
-                    try {
-                        addWatermark(tempFile);
-                    } catch (Exception e) {
-                        log.warn("添加水印失败: filename={}, error={}", originalFilename, e.getMessage());
-                    }
-                }
-                
-                // 上传处理后的文件到OSS
-                try (FileInputStream fis = new FileInputStream(tempFile)) {
-                    ossService.uploadFile(fis, objectKey, file.getContentType(), tempFile.length());
-                }
-            } finally {
-                // 清理临时文件
-                tempFile.delete();
-            }
+    private void uploadToCloud(InputStream in, String objectKey, String contentType, long size, String cloudType) {
+        if ("oss".equals(cloudType)) {
+            ossService.uploadFile(in, objectKey, contentType, size);
         } else {
-            // 非图片文件直接上传
-            ossService.uploadFile(uploadStream, objectKey, file.getContentType(), file.getSize());
+            cosService.uploadFile(in, objectKey, contentType, size);
         }
     }
     
-    /**
-     * 上传文件到COS（处理图片的缩略图和水印）
-     */
-    private void uploadToCos(MultipartFile file, String objectKey, String originalFilename, 
-                            String diskDirectory, String diskFilename) throws Exception {
-        // 如果是图片文件，需要先处理（缩略图、水印）
-        InputStream uploadStream = file.getInputStream();
-        
-        if (isImageFile(file.getContentType(), originalFilename)) {
-            // 先保存到临时文件进行处理
-            File tempFile = File.createTempFile("upload_", "_" + diskFilename);
-            try {
-                file.transferTo(tempFile);
-                
-                // 处理图片（缩略图、水印）
-                if (thumbnailEnabled) {
-                    try {
-                        generateThumbnailForCloud(tempFile, diskDirectory, diskFilename, "cos");
-                    } catch (Exception e) {
-                        log.warn("生成缩略图失败: filename={}, error={}", originalFilename, e.getMessage());
-                    }
-                }
-                
-                if (isWatermarkEnabled()) {
-                    try {
-                        addWatermark(tempFile);
-                    } catch (Exception e) {
-                        log.warn("添加水印失败: filename={}, error={}", originalFilename, e.getMessage());
-                    }
-                }
-                
-                // 上传处理后的文件到COS
-                try (FileInputStream fis = new FileInputStream(tempFile)) {
-                    cosService.uploadFile(fis, objectKey, file.getContentType(), tempFile.length());
-                }
-            } finally {
-                // 清理临时文件
-                tempFile.delete();
-            }
-        } else {
-            // 非图片文件直接上传
-            cosService.uploadFile(uploadStream, objectKey, file.getContentType(), file.getSize());
-        }
-    }
-    
-    /**
-     * 为云存储（OSS/COS）生成缩略图
-     */
-    private void generateThumbnailForCloud(File originalFile, String diskDirectory, String diskFilename, String cloudType) throws IOException {
-        // 先保存到临时文件
-        File tempThumbnail = File.createTempFile("thumb_", "_" + diskFilename);
-        try {
-            // 生成缩略图到临时文件
-            BufferedImage originalImage = ImageIO.read(originalFile);
-            if (originalImage == null) {
-                throw new IOException("无法读取图片文件");
-            }
-
-            int originalWidth = originalImage.getWidth();
-            int originalHeight = originalImage.getHeight();
-            int targetWidth = thumbnailWidth;
-            int targetHeight = thumbnailHeight;
-
-            if (originalWidth <= targetWidth && originalHeight <= targetHeight) {
-                log.debug("原图尺寸较小，不生成缩略图: {}x{}", originalWidth, originalHeight);
-                return;
-            }
-
-            double widthRatio = (double) targetWidth / originalWidth;
-            double heightRatio = (double) targetHeight / originalHeight;
-            double ratio = Math.min(widthRatio, heightRatio);
-
-            int scaledWidth = (int) (originalWidth * ratio);
-            int scaledHeight = (int) (originalHeight * ratio);
-
-            Thumbnails.of(originalFile)
-                    .size(scaledWidth, scaledHeight)
-                    .outputFormat("jpg")
-                    .outputQuality(0.85f)
-                    .toFile(tempThumbnail);
-
-            // 上传缩略图到云存储
-            String thumbnailKey = diskDirectory + "/thumb_" + diskFilename;
-            try (FileInputStream fis = new FileInputStream(tempThumbnail)) {
-                if ("oss".equals(cloudType)) {
-                    ossService.uploadFile(fis, thumbnailKey, "image/jpeg", tempThumbnail.length());
-                } else if ("cos".equals(cloudType)) {
-                    cosService.uploadFile(fis, thumbnailKey, "image/jpeg", tempThumbnail.length());
-                }
-            }
-            
-            log.debug("{}缩略图生成成功: {}", cloudType.toUpperCase(), thumbnailKey);
-        } finally {
-            tempThumbnail.delete();
-        }
-    }
-
-    /**
-     * 生成缩略图（本地存储）
-     */
-    private void generateThumbnail(File originalFile, Path directory, String diskFilename) throws IOException {
-        String thumbnailFilename = "thumb_" + diskFilename;
-        Path thumbnailPath = directory.resolve(thumbnailFilename);
-
-        // 读取原图
-        BufferedImage originalImage = ImageIO.read(originalFile);
-        if (originalImage == null) {
-            throw new IOException("无法读取图片文件");
-        }
-
-        // 计算缩略图尺寸（保持宽高比）
-        int originalWidth = originalImage.getWidth();
-        int originalHeight = originalImage.getHeight();
-
-        int targetWidth = thumbnailWidth;
-        int targetHeight = thumbnailHeight;
-
-        // 如果原图比缩略图小，不生成缩略图
-        if (originalWidth <= targetWidth && originalHeight <= targetHeight) {
-            log.debug("原图尺寸较小，不生成缩略图: {}x{}", originalWidth, originalHeight);
-            return;
-        }
-
-        // 计算缩放比例，保持宽高比
-        double widthRatio = (double) targetWidth / originalWidth;
-        double heightRatio = (double) targetHeight / originalHeight;
-        double ratio = Math.min(widthRatio, heightRatio);
-
-        int scaledWidth = (int) (originalWidth * ratio);
-        int scaledHeight = (int) (originalHeight * ratio);
-
-        // 生成缩略图
-        Thumbnails.of(originalFile)
-                .size(scaledWidth, scaledHeight)
-                .outputFormat("jpg") // 统一输出为JPG格式，减小文件大小
-                .outputQuality(0.85f) // 质量85%，平衡文件大小和图片质量
-                .toFile(thumbnailPath.toFile());
-
-        log.debug("缩略图生成成功: {}", thumbnailPath);
-    }
-
     /**
      * 获取缩略图文件
+     *
+     * @param attachmentId 附件ID
+     * @param size         期望的最长边像素，null 表示默认尺寸
+     * @param acceptWebp   客户端是否接受 WebP
+     * @return 缩略图资源（文件名以 .webp 结尾的为 WebP）
      */
-    public File getThumbnail(Long attachmentId) {
+    public Resource getThumbnail(Long attachmentId, Integer size, boolean acceptWebp) {
         Attachment attachment = attachmentMapper.selectById(attachmentId);
         if (attachment == null) {
             throw new BusinessException("附件不存在");
@@ -1079,112 +1331,11 @@ public class AttachmentService {
             throw new BusinessException("该附件不是图片文件，无法生成缩略图");
         }
 
-        if (isOssStorage(attachment) || isCosStorage(attachment)) {
-            // 云存储（OSS或COS）
-            String cloudType = isOssStorage(attachment) ? "oss" : "cos";
-            String thumbnailKey = attachment.getDiskDirectory() + "/thumb_" + attachment.getDiskFilename();
-            
-            // 检查缩略图是否存在
-            boolean thumbnailExists;
-            if ("oss".equals(cloudType)) {
-                thumbnailExists = ossService.fileExists(thumbnailKey);
-            } else {
-                thumbnailExists = cosService.fileExists(thumbnailKey);
-            }
-            
-            if (!thumbnailExists) {
-                // 如果不存在，尝试生成
-                String originalKey = attachment.getDiskDirectory() + "/" + attachment.getDiskFilename();
-                boolean originalExists;
-                if ("oss".equals(cloudType)) {
-                    originalExists = ossService.fileExists(originalKey);
-                } else {
-                    originalExists = cosService.fileExists(originalKey);
-                }
-                
-                if (!originalExists) {
-                    throw new BusinessException("原文件不存在");
-                }
-                
-                // 下载原文件到临时文件
-                try {
-                    File tempOriginal = downloadFromCloud(attachment, cloudType);
-                    tempOriginal.deleteOnExit();
-                    
-                    // 生成缩略图并上传到云存储
-                    generateThumbnailForCloud(tempOriginal, attachment.getDiskDirectory(), 
-                            attachment.getDiskFilename(), cloudType);
-                    tempOriginal.delete();
-                } catch (Exception e) {
-                    log.error("生成{}缩略图失败: attachmentId={}, error={}", cloudType.toUpperCase(), 
-                            attachmentId, e.getMessage(), e);
-                    throw new BusinessException("生成缩略图失败: " + e.getMessage());
-                }
-            }
-            
-            // 下载缩略图到临时文件
-            try {
-                InputStream thumbnailStream;
-                if ("oss".equals(cloudType)) {
-                    thumbnailStream = ossService.downloadFile(thumbnailKey);
-                } else {
-                    thumbnailStream = cosService.downloadFile(thumbnailKey);
-                }
-                
-                File tempThumbnail = File.createTempFile(cloudType + "_thumb_", "_" + attachment.getDiskFilename());
-                tempThumbnail.deleteOnExit();
-                
-                try (FileOutputStream fos = new FileOutputStream(tempThumbnail)) {
-                    byte[] buffer = new byte[8192];
-                    int bytesRead;
-                    while ((bytesRead = thumbnailStream.read(buffer)) != -1) {
-                        fos.write(buffer, 0, bytesRead);
-                    }
-                } finally {
-                    thumbnailStream.close();
-                }
-                
-                return tempThumbnail;
-            } catch (Exception e) {
-                log.error("从{}下载缩略图失败: attachmentId={}, error={}", cloudType.toUpperCase(), 
-                        attachmentId, e.getMessage(), e);
-                throw new BusinessException("获取缩略图失败: " + e.getMessage());
-            }
-        } else {
-            // 本地存储
-            Path baseStoragePath = getStoragePath();
-            String thumbnailFilename = "thumb_" + attachment.getDiskFilename();
-            Path thumbnailPath = baseStoragePath.resolve(attachment.getDiskDirectory())
-                    .resolve(thumbnailFilename);
-
-            File thumbnailFile = thumbnailPath.toFile();
-
-            // 如果缩略图不存在，尝试生成
-            if (!thumbnailFile.exists()) {
-                Path originalFilePath = baseStoragePath.resolve(attachment.getDiskDirectory())
-                        .resolve(attachment.getDiskFilename());
-                File originalFile = originalFilePath.toFile();
-
-                if (!originalFile.exists()) {
-                    throw new BusinessException("原文件不存在");
-                }
-
-                try {
-                    generateThumbnail(originalFile, baseStoragePath.resolve(attachment.getDiskDirectory()),
-                            attachment.getDiskFilename());
-                    thumbnailFile = thumbnailPath.toFile();
-                } catch (IOException e) {
-                    log.error("生成缩略图失败: attachmentId={}, error={}", attachmentId, e.getMessage(), e);
-                    throw new BusinessException("生成缩略图失败: " + e.getMessage());
-                }
-            }
-
-            if (!thumbnailFile.exists()) {
-                throw new BusinessException("缩略图不存在");
-            }
-
-            return thumbnailFile;
-        }
+        String storageType = getStorageTypeOf(attachment);
+        Path localDirectory = isCloudStorageType(storageType) ? null
+                : getStoragePath().resolve(attachment.getDiskDirectory());
+        return attachmentImageService.getThumbnail(storageType, localDirectory, attachment.getDiskDirectory(),
+                attachment.getDiskFilename(), size, acceptWebp);
     }
 
     /**
@@ -1242,162 +1393,4 @@ public class AttachmentService {
             return file;
         }
     }
-    
-    /**
-     * 判断是否启用水印
-     */
-    private boolean isWatermarkEnabled() {
-        try {
-            String value = settingService.getSetting(SettingKey.WATERMARK_ENABLED.getKey());
-            return "true".equalsIgnoreCase(value);
-        } catch (Exception e) {
-            log.warn("获取水印配置失败，使用默认值false: {}", e.getMessage());
-            return false;
-        }
-    }
-    
-    /**
-     * 获取水印配置
-     */
-    private String getWatermarkText() {
-        try {
-            String value = settingService.getSetting(SettingKey.WATERMARK_TEXT.getKey());
-            return value != null ? value : "JRedmine";
-        } catch (Exception e) {
-            log.warn("获取水印文本失败，使用默认值: {}", e.getMessage());
-            return "JRedmine";
-        }
-    }
-    
-    private String getWatermarkPosition() {
-        try {
-            String value = settingService.getSetting(SettingKey.WATERMARK_POSITION.getKey());
-            return value != null ? value : "bottom-right";
-        } catch (Exception e) {
-            return "bottom-right";
-        }
-    }
-    
-    private float getWatermarkOpacity() {
-        try {
-            String value = settingService.getSetting(SettingKey.WATERMARK_OPACITY.getKey());
-            return value != null ? Float.parseFloat(value) : 0.5f;
-        } catch (Exception e) {
-            return 0.5f;
-        }
-    }
-    
-    private int getWatermarkFontSize() {
-        try {
-            String value = settingService.getSetting(SettingKey.WATERMARK_FONT_SIZE.getKey());
-            return value != null ? Integer.parseInt(value) : 24;
-        } catch (Exception e) {
-            return 24;
-        }
-    }
-    
-    /**
-     * 添加水印
-     */
-    private void addWatermark(File imageFile) throws IOException {
-        // 读取原图
-        BufferedImage originalImage = ImageIO.read(imageFile);
-        if (originalImage == null) {
-            throw new IOException("无法读取图片文件");
-        }
-        
-        // 创建Graphics2D对象
-        Graphics2D g2d = (Graphics2D) originalImage.getGraphics();
-        
-        // 设置抗锯齿
-        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
-        
-        // 设置透明度
-        float opacity = getWatermarkOpacity();
-        AlphaComposite alphaComposite = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, opacity);
-        g2d.setComposite(alphaComposite);
-        
-        // 设置字体和颜色
-        int fontSize = getWatermarkFontSize();
-        Font font = new Font("Arial", Font.BOLD, fontSize);
-        g2d.setFont(font);
-        g2d.setColor(Color.WHITE);
-        
-        // 获取水印文本
-        String watermarkText = getWatermarkText();
-        
-        // 计算文本尺寸
-        FontMetrics fontMetrics = g2d.getFontMetrics();
-        Rectangle2D textBounds = fontMetrics.getStringBounds(watermarkText, g2d);
-        int textWidth = (int) textBounds.getWidth();
-        int textHeight = (int) textBounds.getHeight();
-        
-        // 计算水印位置
-        int imageWidth = originalImage.getWidth();
-        int imageHeight = originalImage.getHeight();
-        int x, y;
-        
-        String position = getWatermarkPosition();
-        int padding = 20; // 边距
-        
-        switch (position.toLowerCase()) {
-            case "top-left":
-                x = padding;
-                y = padding + textHeight;
-                break;
-            case "top-right":
-                x = imageWidth - textWidth - padding;
-                y = padding + textHeight;
-                break;
-            case "bottom-left":
-                x = padding;
-                y = imageHeight - padding;
-                break;
-            case "bottom-right":
-                x = imageWidth - textWidth - padding;
-                y = imageHeight - padding;
-                break;
-            case "center":
-                x = (imageWidth - textWidth) / 2;
-                y = (imageHeight + textHeight) / 2;
-                break;
-            default:
-                x = imageWidth - textWidth - padding;
-                y = imageHeight - padding;
-        }
-        
-        // 绘制文本阴影（增强可读性）
-        g2d.setColor(new Color(0, 0, 0, (int) (opacity * 128)));
-        g2d.drawString(watermarkText, x + 2, y + 2);
-        
-        // 绘制水印文本
-        g2d.setColor(Color.WHITE);
-        g2d.drawString(watermarkText, x, y);
-        
-        // 释放资源
-        g2d.dispose();
-        
-        // 保存图片
-        String formatName = getImageFormat(imageFile);
-        ImageIO.write(originalImage, formatName, imageFile);
-        
-        log.debug("水印添加成功: {}", imageFile.getName());
-    }
-    
-    /**
-     * 获取图片格式
-     */
-    private String getImageFormat(File imageFile) {
-        String filename = imageFile.getName().toLowerCase();
-        if (filename.endsWith(".png")) {
-            return "png";
-        } else if (filename.endsWith(".gif")) {
-            return "gif";
-        } else if (filename.endsWith(".bmp")) {
-            return "bmp";
-        } else {
-            return "jpg"; // 默认JPG
-        }
-    }
 }
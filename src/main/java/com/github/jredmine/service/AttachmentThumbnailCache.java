@@ -0,0 +1,203 @@
+package com.github.jredmine.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 缩略图本地磁盘缓存
+ * 缓存云存储（OSS/COS）中的缩略图，按最近访问顺序（LRU）淘汰，总大小超过上限时删除最久未访问的文件。
+ * 缓存文件名由缓存键计算得出，重启后按文件修改时间重建访问顺序。
+ *
+ * @author panfeng
+ */
+@Slf4j
+@Component
+public class AttachmentThumbnailCache {
+
+    private static final String TEMP_FILE_PREFIX = "put_";
+
+    /**
+     * 缓存目录
+     */
+    private final Path directory;
+
+    /**
+     * 缓存总大小上限（字节）
+     */
+    private final long maxBytes;
+
+    /**
+     * 缓存文件名 -> 文件大小，按访问顺序排列
+     */
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long totalBytes;
+
+    public AttachmentThumbnailCache(
+            @Value("${attachment.thumbnail.cache.path:}") String path,
+            @Value("${attachment.thumbnail.cache.max-size:268435456}") long maxBytes) {
+        this.directory = StringUtils.hasText(path) ? Paths.get(path)
+                : Paths.get(System.getProperty("java.io.tmpdir"), "jredmine-thumbnails");
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * 加载已有的缓存文件
+     */
+    @PostConstruct
+    public void init() {
+        try {
+            Files.createDirectories(directory);
+            List<Path> files;
+            try (Stream<Path> stream = Files.list(directory)) {
+                files = stream.filter(Files::isRegularFile)
+                        .filter(file -> !file.getFileName().toString().startsWith(TEMP_FILE_PREFIX))
+                        .sorted(Comparator.comparingLong(this::lastModified))
+                        .collect(Collectors.toList());
+            }
+            synchronized (this) {
+                for (Path file : files) {
+                    long size = Files.size(file);
+                    entries.put(file.getFileName().toString(), size);
+                    totalBytes += size;
+                }
+                evictIfNecessary();
+            }
+            log.info("缩略图缓存已加载: directory={}, 文件数={}, 大小={}", directory, entries.size(), totalBytes);
+        } catch (IOException e) {
+            log.warn("加载缩略图缓存失败: directory={}, error={}", directory, e.getMessage());
+        }
+    }
+
+    /**
+     * 打开缓存文件
+     * 在锁内打开文件，之后即使被并发写入淘汰删除，已打开的流仍可完整读取
+     *
+     * @param key 缓存键
+     * @return 文件输入流（由调用方关闭），未命中返回 null
+     */
+    public synchronized InputStream open(String key) {
+        String filename = toFilename(key);
+        if (entries.get(filename) == null) {
+            return null;
+        }
+        try {
+            return Files.newInputStream(directory.resolve(filename));
+        } catch (NoSuchFileException e) {
+            totalBytes -= entries.remove(filename);
+            return null;
+        } catch (IOException e) {
+            log.warn("读取缩略图缓存文件失败: {}, error={}", filename, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 将输入流写入缓存
+     *
+     * @param key 缓存键
+     * @param in  数据流（由调用方关闭）
+     * @return 缓存文件路径
+     */
+    public Path put(String key, InputStream in) throws IOException {
+        Path tempFile = Files.createTempFile(directory, TEMP_FILE_PREFIX, ".tmp");
+        try {
+            Files.copy(in, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            return put(key, tempFile);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * 将文件移动到缓存
+     *
+     * @param key    缓存键
+     * @param source 源文件（移动后不再存在）
+     * @return 缓存文件路径
+     */
+    public Path put(String key, Path source) throws IOException {
+        String filename = toFilename(key);
+        Path target = directory.resolve(filename);
+        long size = Files.size(source);
+        synchronized (this) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+            Long previous = entries.put(filename, size);
+            totalBytes += size - (previous != null ? previous : 0L);
+            evictIfNecessary();
+        }
+        return target;
+    }
+
+    /**
+     * 删除缓存
+     *
+     * @param key 缓存键
+     */
+    public synchronized void evict(String key) {
+        String filename = toFilename(key);
+        Long size = entries.remove(filename);
+        if (size != null) {
+            totalBytes -= size;
+            deleteQuietly(directory.resolve(filename));
+        }
+    }
+
+    /**
+     * 淘汰最久未访问的文件，直到总大小不超过上限（至少保留最近写入的一个文件）
+     */
+    private void evictIfNecessary() {
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && entries.size() > 1 && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            iterator.remove();
+            totalBytes -= eldest.getValue();
+            deleteQuietly(directory.resolve(eldest.getKey()));
+        }
+    }
+
+    /**
+     * 缓存键转换为文件名（保留扩展名，便于按文件类型返回）
+     */
+    private String toFilename(String key) {
+        int lastDot = key.lastIndexOf('.');
+        String extension = lastDot > key.lastIndexOf('/') ? key.substring(lastDot).toLowerCase() : "";
+        return UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8)) + extension;
+    }
+
+    private long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("删除缩略图缓存文件失败: {}", file);
+        }
+    }
+}
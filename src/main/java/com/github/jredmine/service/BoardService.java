@@ -6,16 +6,12 @@ import com.github.jredmine.dto.request.board.BoardUpdateRequestDTO;
 import com.github.jredmine.dto.response.board.BoardDetailResponseDTO;
 import com.github.jredmine.dto.response.board.BoardListItemResponseDTO;
 import com.github.jredmine.entity.Board;
-import com.github.jredmine.entity.EnabledModule;
 import com.github.jredmine.entity.Message;
-import com.github.jredmine.entity.Project;
 import com.github.jredmine.enums.ProjectModule;
 import com.github.jredmine.enums.ResultCode;
 import com.github.jredmine.exception.BusinessException;
 import com.github.jredmine.mapper.BoardMapper;
 import com.github.jredmine.mapper.MessageMapper;
-import com.github.jredmine.mapper.project.EnabledModuleMapper;
-import com.github.jredmine.mapper.project.ProjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -36,21 +32,14 @@ public class BoardService {
 
     private final BoardMapper boardMapper;
     private final MessageMapper messageMapper;
-    private final EnabledModuleMapper enabledModuleMapper;
-    private final ProjectMapper projectMapper;
+    private final ProjectMetadataRegistry projectMetadataRegistry;
 
     /**
      * 板块列表（含统计）：按项目查询所有板块，按 position、name 排序。
      * 要求项目存在且已启用论坛模块。lastMessageSubject、lastMessageUpdatedOn 待消息模块实现后可填充。
      */
     public List<BoardListItemResponseDTO> listBoards(Long projectId) {
-        Project project = projectMapper.selectById(projectId);
-        if (project == null) {
-            throw new BusinessException(ResultCode.PROJECT_NOT_FOUND);
-        }
-        if (!isBoardsEnabledForProject(projectId)) {
-            throw new BusinessException(ResultCode.BOARDS_NOT_ENABLED);
-        }
+        projectMetadataRegistry.requireModule(projectId, ProjectModule.BOARDS, ResultCode.BOARDS_NOT_ENABLED);
         LambdaQueryWrapper<Board> wrapper = new LambdaQueryWrapper<>();
         wrapper.eq(Board::getProjectId, projectId.intValue())
                 .orderByAsc(Board::getPosition)
@@ -66,13 +55,7 @@ public class BoardService {
      * 要求板块属于当前项目且项目已启用论坛模块。
      */
     public BoardDetailResponseDTO getDetail(Long projectId, Integer boardId) {
-        Project project = projectMapper.selectById(projectId);
-        if (project == null) {
-            throw new BusinessException(ResultCode.PROJECT_NOT_FOUND);
-        }
-        if (!isBoardsEnabledForProject(projectId)) {
-            throw new BusinessException(ResultCode.BOARDS_NOT_ENABLED);
-        }
+        projectMetadataRegistry.requireModule(projectId, ProjectModule.BOARDS, ResultCode.BOARDS_NOT_ENABLED);
         Board board = getBoardByProjectAndId(projectId, boardId);
         return toDetailResponse(board);
     }
@@ -82,13 +65,7 @@ public class BoardService {
      */
     @Transactional(rollbackFor = Exception.class)
     public void delete(Long projectId, Integer boardId) {
-        Project project = projectMapper.selectById(projectId);
-        if (project == null) {
-            throw new BusinessException(ResultCode.PROJECT_NOT_FOUND);
-        }
-        if (!isBoardsEnabledForProject(projectId)) {
-            throw new BusinessException(ResultCode.BOARDS_NOT_ENABLED);
-        }
+        projectMetadataRegistry.requireModule(projectId, ProjectModule.BOARDS, ResultCode.BOARDS_NOT_ENABLED);
         Board board = getBoardByProjectAndId(projectId, boardId);
         LambdaQueryWrapper<Message> msgWrapper = new LambdaQueryWrapper<>();
         msgWrapper.eq(Message::getBoardId, boardId);
@@ -103,10 +80,7 @@ public class BoardService {
      * 检查项目是否启用了论坛模块
      */
     public boolean isBoardsEnabledForProject(Long projectId) {
-        LambdaQueryWrapper<EnabledModule> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(EnabledModule::getProjectId, projectId)
-                .eq(EnabledModule::getName, ProjectModule.BOARDS.getCode());
-        return enabledModuleMapper.selectCount(wrapper) > 0;
+        return projectMetadataRegistry.isModuleEnabled(projectId, ProjectModule.BOARDS);
     }
 
     /**
@@ -118,13 +92,7 @@ public class BoardService {
         if (dto == null || dto.getName() == null || dto.getName().isBlank()) {
             throw new BusinessException(ResultCode.PARAM_INVALID, "板块名称不能为空");
         }
-        Project project = projectMapper.selectById(projectId);
-        if (project == null) {
-            throw new BusinessException(ResultCode.PROJECT_NOT_FOUND);
-        }
-        if (!isBoardsEnabledForProject(projectId)) {
-            throw new BusinessException(ResultCode.BOARDS_NOT_ENABLED);
-        }
+        projectMetadataRegistry.requireModule(projectId, ProjectModule.BOARDS, ResultCode.BOARDS_NOT_ENABLED);
         String name = dto.getName().trim();
         LambdaQueryWrapper<Board> existWrapper = new LambdaQueryWrapper<>();
         existWrapper.eq(Board::getProjectId, projectId.intValue()).eq(Board::getName, name);
@@ -160,13 +128,7 @@ public class BoardService {
         if (dto == null) {
             throw new BusinessException(ResultCode.PARAM_INVALID, "更新内容不能为空");
         }
-        Project project = projectMapper.selectById(projectId);
-        if (project == null) {
-            throw new BusinessException(ResultCode.PROJECT_NOT_FOUND);
-        }
-        if (!isBoardsEnabledForProject(projectId)) {
-            throw new BusinessException(ResultCode.BOARDS_NOT_ENABLED);
-        }
+        projectMetadataRegistry.requireModule(projectId, ProjectModule.BOARDS, ResultCode.BOARDS_NOT_ENABLED);
         Board board = getBoardByProjectAndId(projectId, boardId);
         if (dto.getName() != null) {
             String name = dto.getName().trim();
@@ -0,0 +1,397 @@
+package com.github.jredmine.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.github.jredmine.dto.aggregate.IssueAttributeChangeDTO;
+import com.github.jredmine.entity.BurndownSnapshot;
+import com.github.jredmine.entity.Issue;
+import com.github.jredmine.entity.IssueStatus;
+import com.github.jredmine.mapper.issue.BurndownSnapshotMapper;
+import com.github.jredmine.mapper.issue.IssueMapper;
+import com.github.jredmine.mapper.issue.JournalDetailMapper;
+import com.github.jredmine.mapper.workflow.IssueStatusMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * 燃尽图每日快照服务
+ * 按 项目 × 版本 × 日期 保存当日结束时的任务总数、未关闭数、已关闭数和剩余预估工时：
+ * <ul>
+ *     <li>定时任务根据 issue_counters 覆盖写入当天的快照，最后一次执行的结果即为当天的最终值；
+ *     已不在 issue_counters 中（如计数器重建后没有任务）的组合写入零值快照</li>
+ *     <li>历史回放未完成时，按任务ID分批读取任务及其状态、版本、预估工时、项目变更记录，回放出历史每日快照，
+ *     全部写入后在 burndown_snapshot_state 中记录完成；中途失败时下次定时任务重新回放</li>
+ * </ul>
+ * 燃尽图、燃尽/燃起图只需读取图表范围内的快照行，重新打开的任务和范围变化都能体现。
+ * 快照未启用或历史回放尚未完成时 {@link #isSnapshotAvailable()} 返回 false，由调用方使用其它数据源。
+ *
+ * @author panfeng
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BurndownSnapshotService {
+
+    private static final int REPLAY_BATCH_SIZE = 1000;
+    private static final int WRITE_BATCH_SIZE = 500;
+
+    private static final String PROP_STATUS = "status_id";
+    private static final String PROP_VERSION = "fixed_version_id";
+    private static final String PROP_ESTIMATED_HOURS = "estimated_hours";
+    private static final String PROP_PROJECT = "project_id";
+    private static final List<String> REPLAYED_PROPS =
+            List.of(PROP_STATUS, PROP_VERSION, PROP_ESTIMATED_HOURS, PROP_PROJECT);
+
+    private final BurndownSnapshotMapper burndownSnapshotMapper;
+    private final IssueMapper issueMapper;
+    private final JournalDetailMapper journalDetailMapper;
+    private final IssueStatusMapper issueStatusMapper;
+
+    /**
+     * 是否启用定时快照
+     */
+    @Value("${report.burndown.snapshot.enabled:true}")
+    private Boolean enabled;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    /**
+     * 历史回放已完成（完成后不会再变为未完成，缓存以免每次查询报表都读取状态表）
+     */
+    private volatile boolean backfillCompleted;
+
+    /**
+     * 写入当天快照；历史回放未完成时先回放历史
+     */
+    @Scheduled(initialDelayString = "${report.burndown.snapshot.initial-delay-ms:60000}",
+            fixedDelayString = "${report.burndown.snapshot.interval-ms:600000}")
+    public void captureSnapshots() {
+        if (!Boolean.TRUE.equals(enabled) || !running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            LocalDate today = LocalDate.now();
+            if (!isBackfillCompleted()) {
+                backfill(today);
+                burndownSnapshotMapper.markBackfillCompleted(today);
+                backfillCompleted = true;
+            }
+            int rows = burndownSnapshotMapper.upsertFromCounters(today);
+            // 计数器中已没有任务的 项目 × 版本 写入零值，报表不再沿用其之前的快照
+            int cleared = burndownSnapshotMapper.upsertZeroForMissingCounters(today);
+            log.debug("燃尽图快照已更新: date={}, rows={}, cleared={}", today, rows, cleared);
+        } catch (Exception e) {
+            log.error("燃尽图快照更新失败: {}", e.getMessage(), e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * 快照是否可用于报表：已启用定时快照且历史回放已完成
+     */
+    public boolean isSnapshotAvailable() {
+        return Boolean.TRUE.equals(enabled) && isBackfillCompleted();
+    }
+
+    private boolean isBackfillCompleted() {
+        if (!backfillCompleted && burndownSnapshotMapper.isBackfillCompleted()) {
+            backfillCompleted = true;
+        }
+        return backfillCompleted;
+    }
+
+    /**
+     * 根据任务活动记录回放历史每日快照（已存在的快照会被覆盖）
+     * 任务按ID分批读取，每批只查询本批任务的变更记录；内存中只保留按 项目 × 版本 × 日期 汇总的增量
+     *
+     * @param today 回放截止日期
+     * @return 写入的快照行数
+     */
+    public int backfill(LocalDate today) {
+        long startTime = System.currentTimeMillis();
+        Set<Integer> closedStatusIds = issueStatusMapper.selectList(null).stream()
+                .filter(s -> Boolean.TRUE.equals(s.getIsClosed()))
+                .map(IssueStatus::getId)
+                .collect(Collectors.toSet());
+
+        // 项目ID -> 版本ID -> 日期 -> 当日增量
+        Map<Long, Map<Long, TreeMap<LocalDate, SnapshotDelta>>> deltas = new HashMap<>();
+        long lastId = 0L;
+        long issueCount = 0L;
+        while (true) {
+            LambdaQueryWrapper<Issue> wrapper = new LambdaQueryWrapper<>();
+            wrapper.select(Issue::getId, Issue::getProjectId, Issue::getFixedVersionId, Issue::getStatusId,
+                            Issue::getEstimatedHours, Issue::getCreatedOn)
+                    .gt(Issue::getId, lastId)
+                    .orderByAsc(Issue::getId)
+                    .last("LIMIT " + REPLAY_BATCH_SIZE);
+            List<Issue> issues = issueMapper.selectList(wrapper);
+            if (issues.isEmpty()) {
+                break;
+            }
+            List<Long> issueIds = issues.stream().map(Issue::getId).collect(Collectors.toList());
+            Map<Long, List<IssueAttributeChangeDTO>> changesByIssue = journalDetailMapper
+                    .selectAttributeChanges(issueIds, REPLAYED_PROPS).stream()
+                    .collect(Collectors.groupingBy(IssueAttributeChangeDTO::getIssueId));
+            for (Issue issue : issues) {
+                replayIssue(issue, changesByIssue.getOrDefault(issue.getId(), Collections.emptyList()),
+                        closedStatusIds, deltas, today);
+            }
+            issueCount += issues.size();
+            if (issues.size() < REPLAY_BATCH_SIZE) {
+                break;
+            }
+            lastId = issues.get(issues.size() - 1).getId();
+        }
+
+        int written = writeSnapshots(deltas, today);
+        log.info("燃尽图历史快照回放完成: 任务数={}, 快照行数={}, 耗时={}ms",
+                issueCount, written, System.currentTimeMillis() - startTime);
+        return written;
+    }
+
+    /**
+     * 查询项目（或项目的某个版本）在日期范围内的每日快照，多个版本按日期合计
+     * 某个版本在某天没有快照时沿用其之前最近一天的快照
+     *
+     * @param projectId 项目ID
+     * @param versionId 版本ID（为空时合计项目下全部版本）
+     * @param from      开始日期
+     * @param to        结束日期
+     * @return 从 from 到 to 每天一条的快照（没有数据的日期各项为 0）
+     */
+    public List<BurndownSnapshot> getDailySnapshots(Long projectId, Long versionId, LocalDate from, LocalDate to) {
+        int days = (int) ChronoUnit.DAYS.between(from, to) + 1;
+        if (days <= 0) {
+            return Collections.emptyList();
+        }
+        long[] total = new long[days];
+        long[] open = new long[days];
+        long[] closed = new long[days];
+        double[] hours = new double[days];
+
+        List<BurndownSnapshot> rows = burndownSnapshotMapper.selectRange(projectId, versionId, from, to);
+        for (int i = 0; i < rows.size(); i++) {
+            BurndownSnapshot row = rows.get(i);
+            BurndownSnapshot next = i + 1 < rows.size() ? rows.get(i + 1) : null;
+            boolean sameVersion = next != null && next.getVersionId().equals(row.getVersionId());
+            int startIndex = Math.max(0, (int) ChronoUnit.DAYS.between(from, row.getSnapshotDate()));
+            int endIndex = sameVersion
+                    ? (int) ChronoUnit.DAYS.between(from, next.getSnapshotDate()) - 1
+                    : days - 1;
+            for (int d = startIndex; d <= endIndex && d < days; d++) {
+                total[d] += toInt(row.getTotalCount());
+                open[d] += toInt(row.getOpenCount());
+                closed[d] += toInt(row.getClosedCount());
+                hours[d] += row.getRemainingHours() != null ? row.getRemainingHours() : 0.0;
+            }
+        }
+
+        List<BurndownSnapshot> result = new ArrayList<>(days);
+        for (int d = 0; d < days; d++) {
+            BurndownSnapshot snapshot = new BurndownSnapshot();
+            snapshot.setProjectId(projectId);
+            snapshot.setVersionId(versionId);
+            snapshot.setSnapshotDate(from.plusDays(d));
+            snapshot.setTotalCount((int) total[d]);
+            snapshot.setOpenCount((int) open[d]);
+            snapshot.setClosedCount((int) closed[d]);
+            snapshot.setRemainingHours(hours[d]);
+            result.add(snapshot);
+        }
+        return result;
+    }
+
+    /**
+     * 回放单个任务：创建当天计入初始状态，之后每次变更从旧状态移出、计入新状态
+     * 初始值取每个属性第一次变更的旧值，没有变更记录的属性取当前值
+     */
+    private void replayIssue(Issue issue, List<IssueAttributeChangeDTO> changes, Set<Integer> closedStatusIds,
+                             Map<Long, Map<Long, TreeMap<LocalDate, SnapshotDelta>>> deltas, LocalDate today) {
+        IssueState state = new IssueState(issue.getProjectId(),
+                issue.getFixedVersionId() != null ? issue.getFixedVersionId() : 0L,
+                issue.getStatusId(),
+                issue.getEstimatedHours() != null ? issue.getEstimatedHours().doubleValue() : 0.0);
+        Set<String> seen = new HashSet<>();
+        for (IssueAttributeChangeDTO change : changes) {
+            if (seen.add(change.getPropKey())) {
+                state = state.with(change.getPropKey(), change.getOldValue());
+            }
+        }
+
+        LocalDate createdDate = issue.getCreatedOn() != null ? issue.getCreatedOn().toLocalDate() : today;
+        addDelta(deltas, state, createdDate, 1, closedStatusIds, today);
+        for (IssueAttributeChangeDTO change : changes) {
+            IssueState next = state.with(change.getPropKey(), change.getValue());
+            if (next == state || change.getChangedOn() == null) {
+                continue;
+            }
+            LocalDate changedDate = change.getChangedOn().toLocalDate();
+            if (changedDate.isBefore(createdDate)) {
+                changedDate = createdDate;
+            }
+            addDelta(deltas, state, changedDate, -1, closedStatusIds, today);
+            addDelta(deltas, next, changedDate, 1, closedStatusIds, today);
+            state = next;
+        }
+    }
+
+    private void addDelta(Map<Long, Map<Long, TreeMap<LocalDate, SnapshotDelta>>> deltas, IssueState state,
+                          LocalDate date, int sign, Set<Integer> closedStatusIds, LocalDate today) {
+        if (state.projectId == null || date.isAfter(today)) {
+            return;
+        }
+        SnapshotDelta delta = deltas.computeIfAbsent(state.projectId, k -> new HashMap<>())
+                .computeIfAbsent(state.versionId, k -> new TreeMap<>())
+                .computeIfAbsent(date, k -> new SnapshotDelta());
+        delta.total += sign;
+        if (state.statusId != null && closedStatusIds.contains(state.statusId)) {
+            delta.closed += sign;
+        } else {
+            delta.open += sign;
+            delta.remainingHours += sign * state.estimatedHours;
+        }
+    }
+
+    /**
+     * 将增量按日期累加为每日快照并分批写入（从第一条增量的日期到截止日期，每天一行）
+     */
+    private int writeSnapshots(Map<Long, Map<Long, TreeMap<LocalDate, SnapshotDelta>>> deltas, LocalDate today) {
+        int written = 0;
+        List<BurndownSnapshot> buffer = new ArrayList<>(WRITE_BATCH_SIZE);
+        for (Map.Entry<Long, Map<Long, TreeMap<LocalDate, SnapshotDelta>>> projectEntry : deltas.entrySet()) {
+            for (Map.Entry<Long, TreeMap<LocalDate, SnapshotDelta>> versionEntry : projectEntry.getValue().entrySet()) {
+                TreeMap<LocalDate, SnapshotDelta> days = versionEntry.getValue();
+                SnapshotDelta running = new SnapshotDelta();
+                for (LocalDate date = days.firstKey(); !date.isAfter(today); date = date.plusDays(1)) {
+                    SnapshotDelta delta = days.get(date);
+                    if (delta != null) {
+                        running.total += delta.total;
+                        running.open += delta.open;
+                        running.closed += delta.closed;
+                        running.remainingHours += delta.remainingHours;
+                    }
+                    BurndownSnapshot snapshot = new BurndownSnapshot();
+                    snapshot.setProjectId(projectEntry.getKey());
+                    snapshot.setVersionId(versionEntry.getKey());
+                    snapshot.setSnapshotDate(date);
+                    snapshot.setTotalCount((int) Math.max(0, running.total));
+                    snapshot.setOpenCount((int) Math.max(0, running.open));
+                    snapshot.setClosedCount((int) Math.max(0, running.closed));
+                    snapshot.setRemainingHours(Math.max(0.0, running.remainingHours));
+                    buffer.add(snapshot);
+                    if (buffer.size() >= WRITE_BATCH_SIZE) {
+                        written += flush(buffer);
+                    }
+                }
+            }
+        }
+        written += flush(buffer);
+        return written;
+    }
+
+    private int flush(List<BurndownSnapshot> buffer) {
+        if (buffer.isEmpty()) {
+            return 0;
+        }
+        burndownSnapshotMapper.upsertBatch(buffer);
+        int size = buffer.size();
+        buffer.clear();
+        return size;
+    }
+
+    private static int toInt(Integer value) {
+        return value != null ? value : 0;
+    }
+
+    /**
+     * 回放过程中任务在某一时刻的状态（不可变）
+     */
+    private static final class IssueState {
+        private final Long projectId;
+        private final long versionId;
+        private final Integer statusId;
+        private final double estimatedHours;
+
+        private IssueState(Long projectId, long versionId, Integer statusId, double estimatedHours) {
+            this.projectId = projectId;
+            this.versionId = versionId;
+            this.statusId = statusId;
+            this.estimatedHours = estimatedHours;
+        }
+
+        /**
+         * 应用一次属性变更，不影响回放维度的属性返回自身
+         */
+        private IssueState with(String propKey, String value) {
+            switch (propKey) {
+                case PROP_STATUS:
+                    return new IssueState(projectId, versionId, parseInteger(value), estimatedHours);
+                case PROP_VERSION:
+                    Long version = parseLong(value);
+                    return new IssueState(projectId, version != null ? version : 0L, statusId, estimatedHours);
+                case PROP_ESTIMATED_HOURS:
+                    return new IssueState(projectId, versionId, statusId, parseDouble(value));
+                case PROP_PROJECT:
+                    Long project = parseLong(value);
+                    return project != null ? new IssueState(project, versionId, statusId, estimatedHours) : this;
+                default:
+                    return this;
+            }
+        }
+
+        private static Integer parseInteger(String value) {
+            Long parsed = parseLong(value);
+            return parsed != null ? parsed.intValue() : null;
+        }
+
+        private static Long parseLong(String value) {
+            if (!StringUtils.hasText(value)) {
+                return null;
+            }
+            try {
+                return Long.parseLong(value.trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        private static double parseDouble(String value) {
+            if (!StringUtils.hasText(value)) {
+                return 0.0;
+            }
+            try {
+                return Double.parseDouble(value.trim());
+            } catch (NumberFormatException e) {
+                return 0.0;
+            }
+        }
+    }
+
+    /**
+     * 某个 项目 × 版本 在某天的增量（回放时）或累计值（写入时）
+     */
+    private static final class SnapshotDelta {
+        private long total;
+        private long open;
+        private long closed;
+        private double remainingHours;
+    }
+}
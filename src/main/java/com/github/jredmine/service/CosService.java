@@ -5,6 +5,7 @@ import com.qcloud.cos.ClientConfig;
 import com.qcloud.cos.auth.BasicCOSCredentials;
 import com.qcloud.cos.auth.COSCredentials;
 import com.qcloud.cos.http.HttpProtocol;
+import com.qcloud.cos.model.GetObjectRequest;
 import com.qcloud.cos.model.ObjectMetadata;
 import com.qcloud.cos.model.PutObjectRequest;
 import com.qcloud.cos.region.Region;
@@ -140,6 +141,29 @@ public class CosService {
         }
     }
 
+    /**
+     * 从COS读取文件的指定字节区间（直接返回对象流，不检查对象是否存在）
+     *
+     * @param objectKey COS对象键
+     * @param start     起始字节（包含）
+     * @param end       结束字节（包含）
+     * @return 文件输入流
+     */
+    public InputStream downloadFile(String objectKey, long start, long end) {
+        try {
+            COSClient client = getCosClient();
+            String fullObjectKey = objectKey.startsWith(pathPrefix) ? objectKey : buildObjectKey(objectKey);
+
+            GetObjectRequest request = new GetObjectRequest(bucketName, fullObjectKey);
+            request.setRange(start, end);
+            return client.getObject(request).getObjectContent();
+
+        } catch (Exception e) {
+            log.error("从COS下载文件失败: objectKey={}, range={}-{}, error={}", objectKey, start, end, e.getMessage(), e);
+            throw new BusinessException("从COS下载文件失败: " + e.getMessage());
+        }
+    }
+
     /**
      * 从COS删除文件
      *
@@ -166,6 +190,23 @@ public class CosService {
         }
     }
 
+    /**
+     * 读取COS对象的实际大小（只请求对象元数据，不下载内容）
+     *
+     * @param objectKey COS对象键
+     * @return 对象字节数
+     */
+    public long getFileLength(String objectKey) {
+        try {
+            COSClient client = getCosClient();
+            String fullObjectKey = objectKey.startsWith(pathPrefix) ? objectKey : buildObjectKey(objectKey);
+            return client.getObjectMetadata(bucketName, fullObjectKey).getContentLength();
+        } catch (Exception e) {
+            log.error("读取COS文件元数据失败: objectKey={}, error={}", objectKey, e.getMessage(), e);
+            throw new BusinessException("读取COS文件信息失败: " + e.getMessage());
+        }
+    }
+
     /**
      * 检查COS文件是否存在
      *
@@ -12,15 +12,11 @@ import com.github.jredmine.dto.response.document.DocumentCategoryResponseDTO;
 import com.github.jredmine.dto.response.document.DocumentDetailResponseDTO;
 import com.github.jredmine.dto.response.document.DocumentListItemResponseDTO;
 import com.github.jredmine.entity.Document;
-import com.github.jredmine.entity.EnabledModule;
 import com.github.jredmine.entity.Enumeration;
-import com.github.jredmine.entity.Project;
 import com.github.jredmine.enums.ProjectModule;
 import com.github.jredmine.enums.ResultCode;
 import com.github.jredmine.exception.BusinessException;
 import com.github.jredmine.mapper.DocumentMapper;
-import com.github.jredmine.mapper.project.EnabledModuleMapper;
-import com.github.jredmine.mapper.project.ProjectMapper;
 import com.github.jredmine.mapper.workflow.EnumerationMapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import lombok.RequiredArgsConstructor;
@@ -49,8 +45,7 @@ public class DocumentService {
     private static final int DETAIL_ATTACHMENT_PAGE_SIZE = 200;
 
     private final DocumentMapper documentMapper;
-    private final EnabledModuleMapper enabledModuleMapper;
-    private final ProjectMapper projectMapper;
+    private final ProjectMetadataRegistry projectMetadataRegistry;
     private final EnumerationMapper enumerationMapper;
     private final AttachmentService attachmentService;
 
@@ -59,13 +54,7 @@ public class DocumentService {
      * 要求项目存在且已启用文档模块。
      */
     public List<DocumentCategoryResponseDTO> listDocumentCategories(Long projectId) {
-        Project project = projectMapper.selectById(projectId);
-        if (project == null) {
-            throw new BusinessException(ResultCode.PROJECT_NOT_FOUND);
-        }
-        if (!isDocumentsEnabledForProject(projectId)) {
-            throw new BusinessException(ResultCode.DOCUMENTS_NOT_ENABLED);
-        }
+        projectMetadataRegistry.requireModule(projectId, ProjectModule.DOCUMENTS, ResultCode.DOCUMENTS_NOT_ENABLED);
         LambdaQueryWrapper<Enumeration> wrapper = new LambdaQueryWrapper<>();
         wrapper.eq(Enumeration::getType, ENUM_TYPE_DOCUMENT_CATEGORY)
                 .eq(Enumeration::getActive, true)
@@ -92,13 +81,7 @@ public class DocumentService {
         if (dto == null || dto.getName() == null || dto.getName().isBlank()) {
             throw new BusinessException(ResultCode.PARAM_INVALID, "分类名称不能为空");
         }
-        Project project = projectMapper.selectById(projectId);
-        if (project == null) {
-            throw new BusinessException(ResultCode.PROJECT_NOT_FOUND);
-        }
-        if (!isDocumentsEnabledForProject(projectId)) {
-            throw new BusinessException(ResultCode.DOCUMENTS_NOT_ENABLED);
-        }
+        projectMetadataRegistry.requireModule(projectId, ProjectModule.DOCUMENTS, ResultCode.DOCUMENTS_NOT_ENABLED);
         String name = dto.getName().trim();
         LambdaQueryWrapper<Enumeration> existWrapper = new LambdaQueryWrapper<>();
         existWrapper.eq(Enumeration::getType, ENUM_TYPE_DOCUMENT_CATEGORY)
@@ -133,13 +116,7 @@ public class DocumentService {
         if (dto == null) {
             throw new BusinessException(ResultCode.PARAM_INVALID, "更新内容不能为空");
         }
-        Project project = projectMapper.selectById(projectId);
-        if (project == null) {
-            throw new BusinessException(ResultCode.PROJECT_NOT_FOUND);
-        }
-        if (!isDocumentsEnabledForProject(projectId)) {
-            throw new BusinessException(ResultCode.DOCUMENTS_NOT_ENABLED);
-        }
+        projectMetadataRegistry.requireModule(projectId, ProjectModule.DOCUMENTS, ResultCode.DOCUMENTS_NOT_ENABLED);
         Enumeration cat = getProjectDocumentCategoryOrThrow(projectId, categoryId);
         if (dto.getName() != null) {
             String name = dto.getName().trim();
@@ -174,13 +151,7 @@ public class DocumentService {
      */
     @Transactional(rollbackFor = Exception.class)
     public void deleteDocumentCategory(Long projectId, Integer categoryId) {
-        Project project = projectMapper.selectById(projectId);
-        if (project == null) {
-            throw new BusinessException(ResultCode.PROJECT_NOT_FOUND);
-        }
-        if (!isDocumentsEnabledForProject(projectId)) {
-            throw new BusinessException(ResultCode.DOCUMENTS_NOT_ENABLED);
-        }
+        projectMetadataRegistry.requireModule(projectId, ProjectModule.DOCUMENTS, ResultCode.DOCUMENTS_NOT_ENABLED);
         Enumeration cat = getProjectDocumentCategoryOrThrow(projectId, categoryId);
         LambdaQueryWrapper<Document> docWrapper = new LambdaQueryWrapper<>();
         docWrapper.eq(Document::getProjectId, projectId.intValue()).eq(Document::getCategoryId, categoryId);
@@ -217,13 +188,7 @@ public class DocumentService {
      */
     public PageResponse<DocumentListItemResponseDTO> listDocuments(Long projectId, Integer categoryId,
             String keyword, Integer current, Integer size) {
-        Project project = projectMapper.selectById(projectId);
-        if (project == null) {
-            throw new BusinessException(ResultCode.PROJECT_NOT_FOUND);
-        }
-        if (!isDocumentsEnabledForProject(projectId)) {
-            throw new BusinessException(ResultCode.DOCUMENTS_NOT_ENABLED);
-        }
+        projectMetadataRegistry.requireModule(projectId, ProjectModule.DOCUMENTS, ResultCode.DOCUMENTS_NOT_ENABLED);
         LambdaQueryWrapper<Document> wrapper = new LambdaQueryWrapper<>();
         wrapper.eq(Document::getProjectId, projectId.intValue());
         if (categoryId != null && categoryId > 0) {
@@ -249,10 +214,7 @@ public class DocumentService {
      * 检查项目是否启用了文档模块
      */
     public boolean isDocumentsEnabledForProject(Long projectId) {
-        LambdaQueryWrapper<EnabledModule> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(EnabledModule::getProjectId, projectId)
-                .eq(EnabledModule::getName, ProjectModule.DOCUMENTS.getCode());
-        return enabledModuleMapper.selectCount(wrapper) > 0;
+        return projectMetadataRegistry.isModuleEnabled(projectId, ProjectModule.DOCUMENTS);
     }
 
     /**
@@ -264,13 +226,7 @@ public class DocumentService {
         if (dto == null || dto.getTitle() == null || dto.getTitle().isBlank()) {
             throw new BusinessException(ResultCode.PARAM_INVALID, "文档标题不能为空");
         }
-        Project project = projectMapper.selectById(projectId);
-        if (project == null) {
-            throw new BusinessException(ResultCode.PROJECT_NOT_FOUND);
-        }
-        if (!isDocumentsEnabledForProject(projectId)) {
-            throw new BusinessException(ResultCode.DOCUMENTS_NOT_ENABLED);
-        }
+        projectMetadataRegistry.requireModule(projectId, ProjectModule.DOCUMENTS, ResultCode.DOCUMENTS_NOT_ENABLED);
         String title = dto.getTitle().trim();
         Integer categoryId = dto.getCategoryId() != null ? dto.getCategoryId() : 0;
         if (categoryId < 0) {
@@ -300,13 +256,7 @@ public class DocumentService {
         if (dto == null) {
             throw new BusinessException(ResultCode.PARAM_INVALID, "更新内容不能为空");
         }
-        Project project = projectMapper.selectById(projectId);
-        if (project == null) {
-            throw new BusinessException(ResultCode.PROJECT_NOT_FOUND);
-        }
-        if (!isDocumentsEnabledForProject(projectId)) {
-            throw new BusinessException(ResultCode.DOCUMENTS_NOT_ENABLED);
-        }
+        projectMetadataRegistry.requireModule(projectId, ProjectModule.DOCUMENTS, ResultCode.DOCUMENTS_NOT_ENABLED);
         Document doc = getDocumentByProjectAndId(projectId, documentId);
         if (dto.getTitle() != null) {
             String title = dto.getTitle().trim();
@@ -335,13 +285,7 @@ public class DocumentService {
      * 要求文档属于当前项目且项目已启用文档模块。
      */
     public DocumentDetailResponseDTO getDetail(Long projectId, Integer documentId) {
-        Project project = projectMapper.selectById(projectId);
-        if (project == null) {
-            throw new BusinessException(ResultCode.PROJECT_NOT_FOUND);
-        }
-        if (!isDocumentsEnabledForProject(projectId)) {
-            throw new BusinessException(ResultCode.DOCUMENTS_NOT_ENABLED);
-        }
+        projectMetadataRegistry.requireModule(projectId, ProjectModule.DOCUMENTS, ResultCode.DOCUMENTS_NOT_ENABLED);
         Document doc = getDocumentByProjectAndId(projectId, documentId);
         DocumentDetailResponseDTO detail = toDetailResponse(doc, projectId.longValue());
         fillAttachments(detail, documentId);
@@ -354,13 +298,7 @@ public class DocumentService {
      */
     @Transactional(rollbackFor = Exception.class)
     public void delete(Long projectId, Integer documentId) {
-        Project project = projectMapper.selectById(projectId);
-        if (project == null) {
-            throw new BusinessException(ResultCode.PROJECT_NOT_FOUND);
-        }
-        if (!isDocumentsEnabledForProject(projectId)) {
-            throw new BusinessException(ResultCode.DOCUMENTS_NOT_ENABLED);
-        }
+        projectMetadataRegistry.requireModule(projectId, ProjectModule.DOCUMENTS, ResultCode.DOCUMENTS_NOT_ENABLED);
         Document doc = getDocumentByProjectAndId(projectId, documentId);
         attachmentService.deleteAttachmentsByContainer(CONTAINER_TYPE_DOCUMENT, documentId.longValue());
         documentMapper.deleteById(documentId);
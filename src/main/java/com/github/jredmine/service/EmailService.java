@@ -3,11 +3,17 @@ package com.github.jredmine.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * 邮件服务
  *
@@ -69,141 +75,104 @@ public class EmailService {
     }
 
     /**
-     * 发送任务分配通知邮件
-     * 异步执行，不阻塞主线程
-     *
-     * @param toEmail      收件人邮箱
-     * @param assigneeName 指派人姓名
-     * @param issueId      任务ID
-     * @param issueSubject 任务标题
-     * @param projectName  项目名称
-     * @param assignerName 分配人姓名（可选）
+     * 是否已配置发件邮箱
      */
-    @Async
-    public void sendIssueAssignmentEmail(String toEmail, String assigneeName, Long issueId,
-            String issueSubject, String projectName, String assignerName) {
-        try {
-            // 检查邮件配置是否有效
-            if (fromEmail == null || fromEmail.trim().isEmpty()) {
-                log.warn("邮件配置未设置（spring.mail.username），跳过邮件发送，任务ID: {}", issueId);
-                return;
-            }
+    public boolean isConfigured() {
+        return fromEmail != null && !fromEmail.trim().isEmpty();
+    }
 
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(fromEmail);
-            message.setTo(toEmail);
-            message.setSubject(String.format("任务分配通知 - %s", issueSubject));
+    /**
+     * 创建使用系统发件人的文本邮件
+     *
+     * @param toEmail 收件人邮箱
+     * @param subject 主题
+     * @param text    正文
+     * @return 邮件
+     */
+    public SimpleMailMessage createMessage(String toEmail, String subject, String text) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom(fromEmail);
+        message.setTo(toEmail);
+        message.setSubject(subject);
+        message.setText(text);
+        return message;
+    }
 
-            String emailContent = String.format(
-                    """
-                            您好 %s，
-                            
-                            您已被分配了一个新任务：
-                            
-                            任务ID: #%d
-                            任务标题: %s
-                            所属项目: %s
-                            """,
-                    assigneeName, issueId, issueSubject, projectName);
-
-            if (assignerName != null && !assignerName.trim().isEmpty()) {
-                emailContent += String.format("分配人: %s\n", assignerName);
+    /**
+     * 同步批量发送邮件，同一批邮件复用一个 SMTP 连接
+     * 由通知分发任务在后台线程调用，不在请求线程中执行
+     *
+     * @param messages 邮件列表
+     * @return 发送失败的邮件及原因，全部成功时为空
+     */
+    public Map<SimpleMailMessage, Exception> sendBatch(List<SimpleMailMessage> messages) {
+        Map<SimpleMailMessage, Exception> failures = new IdentityHashMap<>();
+        if (messages.isEmpty()) {
+            return failures;
+        }
+        try {
+            mailSender.send(messages.toArray(new SimpleMailMessage[0]));
+        } catch (MailSendException e) {
+            // 连接失败时所有邮件都会出现在失败列表中
+            e.getFailedMessages().forEach((message, cause) -> {
+                if (message instanceof SimpleMailMessage simpleMessage) {
+                    failures.put(simpleMessage, cause);
+                }
+            });
+            if (failures.isEmpty()) {
+                // 邮件已发出，仅关闭连接失败
+                log.warn("关闭邮件服务器连接失败: {}", e.getMessage());
             }
-
-            emailContent += """
-                    
-                    请及时查看并处理该任务。
-                    
-                    此邮件由系统自动发送，请勿回复。""";
-
-            message.setText(emailContent);
-
-            mailSender.send(message);
-            log.info("任务分配通知邮件发送成功，收件人: {}, 任务ID: {}", toEmail, issueId);
-        } catch (org.springframework.mail.MailException e) {
-            // 邮件发送失败不应该影响任务分配流程，只记录错误日志
-            log.error("任务分配通知邮件发送失败，收件人: {}, 任务ID: {}。错误: {}。请检查邮件服务器配置（spring.mail.host, spring.mail.port等）",
-                    toEmail, issueId, e.getMessage(), e);
-        } catch (Exception e) {
-            // 其他异常
-            log.error("任务分配通知邮件发送失败，收件人: {}, 任务ID: {}", toEmail, issueId, e);
+        } catch (MailException e) {
+            messages.forEach(message -> failures.put(message, e));
         }
+        log.info("批量发送邮件完成，总数: {}, 失败: {}", messages.size(), failures.size());
+        return failures;
     }
 
     /**
-     * 发送任务变更通知邮件
+     * 发送 Wiki 导出完成通知邮件
      * 异步执行，不阻塞主线程
      *
-     * @param toEmail      收件人邮箱
+     * @param toEmail       收件人邮箱
      * @param recipientName 收件人姓名
-     * @param issueId      任务ID
-     * @param issueSubject 任务标题
-     * @param projectName  项目名称
-     * @param updaterName  更新人姓名
-     * @param changesSummary 变更摘要
-     * @param notes        备注信息（可选）
+     * @param projectName   项目名称
+     * @param downloadPath  下载地址
      */
     @Async
-    public void sendIssueUpdateEmail(String toEmail, String recipientName, Long issueId,
-            String issueSubject, String projectName, String updaterName, 
-            String changesSummary, String notes) {
+    public void sendWikiExportReadyEmail(String toEmail, String recipientName, String projectName,
+            String downloadPath) {
         try {
             // 检查邮件配置是否有效
             if (fromEmail == null || fromEmail.trim().isEmpty()) {
-                log.warn("邮件配置未设置（spring.mail.username），跳过邮件发送，任务ID: {}", issueId);
+                log.warn("邮件配置未设置（spring.mail.username），跳过邮件发送，收件人: {}", toEmail);
                 return;
             }
 
             SimpleMailMessage message = new SimpleMailMessage();
             message.setFrom(fromEmail);
             message.setTo(toEmail);
-            message.setSubject(String.format("任务更新通知 - %s", issueSubject));
+            message.setSubject(String.format("Wiki 导出完成 - %s", projectName));
 
-            StringBuilder emailContent = new StringBuilder();
-            emailContent.append(String.format(
+            String emailContent = String.format(
                     """
                             您好 %s，
                             
-                            任务已更新：
+                            项目「%s」的 Wiki 导出文件已生成，可通过以下地址下载：
                             
-                            任务ID: #%d
-                            任务标题: %s
-                            所属项目: %s
-                            更新人: %s
-                            """,
-                    recipientName, issueId, issueSubject, projectName, updaterName));
-
-            // 添加变更摘要
-            if (changesSummary != null && !changesSummary.trim().isEmpty()) {
-                emailContent.append("\n变更内容:\n");
-                emailContent.append(changesSummary);
-                emailContent.append("\n");
-            }
-
-            // 添加备注信息
-            if (notes != null && !notes.trim().isEmpty()) {
-                emailContent.append("\n备注: ");
-                emailContent.append(notes);
-                emailContent.append("\n");
-            }
-
-            emailContent.append("""
-                    
-                    请查看任务详情。
-                    
-                    此邮件由系统自动发送，请勿回复。""");
+                            %s
+                            
+                            导出文件将在一段时间后自动删除，请及时下载。
+                            
+                            此邮件由系统自动发送，请勿回复。""",
+                    recipientName, projectName, downloadPath);
 
-            message.setText(emailContent.toString());
+            message.setText(emailContent);
 
             mailSender.send(message);
-            log.info("任务更新通知邮件发送成功，收件人: {}, 任务ID: {}", toEmail, issueId);
-        } catch (org.springframework.mail.MailException e) {
-            // 邮件发送失败不应该影响任务更新流程，只记录错误日志
-            log.error("任务更新通知邮件发送失败，收件人: {}, 任务ID: {}。错误: {}。请检查邮件服务器配置（spring.mail.host, spring.mail.port等）",
-                    toEmail, issueId, e.getMessage(), e);
+            log.info("Wiki 导出完成通知邮件发送成功，收件人: {}", toEmail);
         } catch (Exception e) {
-            // 其他异常
-            log.error("任务更新通知邮件发送失败，收件人: {}, 任务ID: {}", toEmail, issueId, e);
+            log.error("Wiki 导出完成通知邮件发送失败，收件人: {}", toEmail, e);
         }
     }
 }
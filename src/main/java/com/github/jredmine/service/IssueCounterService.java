@@ -0,0 +1,188 @@
+package com.github.jredmine.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.github.jredmine.entity.Issue;
+import com.github.jredmine.entity.IssueCounter;
+import com.github.jredmine.mapper.issue.IssueCounterMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 任务计数器服务
+ * 任务创建、更新、删除时在同一事务内按维度累加增量，统计接口直接读取计数器，
+ * 不再扫描任务表。计数器与任务表出现偏差时可由管理员调用 {@link #rebuild(Long)} 重建。
+ *
+ * @author panfeng
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IssueCounterService {
+
+    private final IssueCounterMapper issueCounterMapper;
+
+    /**
+     * 任务创建后累加计数
+     *
+     * @param issue 新任务
+     */
+    public void onIssueCreated(Issue issue) {
+        IssueCounter delta = contributionOf(issue, 1);
+        if (delta != null) {
+            issueCounterMapper.upsertDelta(delta);
+        }
+    }
+
+    /**
+     * 批量创建任务后累加计数（相同维度的任务合并为一次累加）
+     *
+     * @param issues 新任务
+     */
+    public void onIssuesCreated(Collection<Issue> issues) {
+        Map<List<Object>, IssueCounter> deltas = new LinkedHashMap<>();
+        for (Issue issue : issues) {
+            IssueCounter contribution = contributionOf(issue, 1);
+            if (contribution == null) {
+                continue;
+            }
+            List<Object> bucket = List.of(contribution.getProjectId(), contribution.getVersionId(),
+                    contribution.getTrackerId(), contribution.getStatusId(), contribution.getIsPrivate());
+            IssueCounter delta = deltas.get(bucket);
+            if (delta == null) {
+                deltas.put(bucket, contribution);
+                continue;
+            }
+            delta.setIssueCount(delta.getIssueCount() + contribution.getIssueCount());
+            delta.setDoneCount(delta.getDoneCount() + contribution.getDoneCount());
+            delta.setStartedCount(delta.getStartedCount() + contribution.getStartedCount());
+            delta.setEstimatedHoursSum(delta.getEstimatedHoursSum() + contribution.getEstimatedHoursSum());
+            delta.setDoneRatioSum(delta.getDoneRatioSum() + contribution.getDoneRatioSum());
+        }
+        deltas.values().forEach(issueCounterMapper::upsertDelta);
+    }
+
+    /**
+     * 任务删除后扣减计数
+     *
+     * @param issue 被删除的任务
+     */
+    public void onIssueDeleted(Issue issue) {
+        IssueCounter delta = contributionOf(issue, -1);
+        if (delta != null) {
+            issueCounterMapper.upsertDelta(delta);
+        }
+    }
+
+    /**
+     * 任务更新后调整计数（从旧维度扣减，向新维度累加）
+     *
+     * @param oldIssue 更新前的任务快照
+     * @param newIssue 更新后的任务
+     */
+    public void onIssueChanged(Issue oldIssue, Issue newIssue) {
+        IssueCounter before = contributionOf(oldIssue, -1);
+        IssueCounter after = contributionOf(newIssue, 1);
+        if (before != null && after != null && sameBucket(before, after)) {
+            // 维度未变化，只需调整合计值
+            IssueCounter delta = new IssueCounter();
+            delta.setProjectId(after.getProjectId());
+            delta.setVersionId(after.getVersionId());
+            delta.setTrackerId(after.getTrackerId());
+            delta.setStatusId(after.getStatusId());
+            delta.setIsPrivate(after.getIsPrivate());
+            delta.setIssueCount(0);
+            delta.setDoneCount(before.getDoneCount() + after.getDoneCount());
+            delta.setStartedCount(before.getStartedCount() + after.getStartedCount());
+            delta.setEstimatedHoursSum(before.getEstimatedHoursSum() + after.getEstimatedHoursSum());
+            delta.setDoneRatioSum(before.getDoneRatioSum() + after.getDoneRatioSum());
+            if (delta.getDoneCount() != 0 || delta.getStartedCount() != 0
+                    || delta.getEstimatedHoursSum() != 0 || delta.getDoneRatioSum() != 0) {
+                issueCounterMapper.upsertDelta(delta);
+            }
+            return;
+        }
+        if (before != null) {
+            issueCounterMapper.upsertDelta(before);
+        }
+        if (after != null) {
+            issueCounterMapper.upsertDelta(after);
+        }
+    }
+
+    /**
+     * 查询项目的计数器（仅返回任务数量大于 0 的行）
+     *
+     * @param projectIds 项目ID集合（为 null 时不过滤项目）
+     * @param versionId  版本ID（为空时不过滤版本）
+     * @return 计数器列表
+     */
+    public List<IssueCounter> listCounters(Collection<Long> projectIds, Long versionId) {
+        if (projectIds != null && projectIds.isEmpty()) {
+            return List.of();
+        }
+        LambdaQueryWrapper<IssueCounter> query = new LambdaQueryWrapper<>();
+        query.in(projectIds != null, IssueCounter::getProjectId, projectIds)
+                .eq(versionId != null, IssueCounter::getVersionId, versionId)
+                .gt(IssueCounter::getIssueCount, 0);
+        return issueCounterMapper.selectList(query);
+    }
+
+    /**
+     * 根据任务表重建计数器
+     *
+     * @param projectId 项目ID（为空时重建全部项目）
+     * @return 重建后的计数器行数
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public int rebuild(Long projectId) {
+        log.info("开始重建任务计数器，项目ID: {}", projectId);
+        int deleted = issueCounterMapper.deleteByProject(projectId);
+        int inserted = issueCounterMapper.insertFromIssues(projectId);
+        log.info("任务计数器重建完成，项目ID: {}, 删除行数: {}, 生成行数: {}", projectId, deleted, inserted);
+        return inserted;
+    }
+
+    /**
+     * 计算单个任务对计数器的贡献
+     *
+     * @param issue 任务
+     * @param sign  1 表示累加，-1 表示扣减
+     * @return 计数器增量，任务缺少维度字段时返回 null
+     */
+    private IssueCounter contributionOf(Issue issue, int sign) {
+        if (issue == null || issue.getProjectId() == null || issue.getTrackerId() == null
+                || issue.getStatusId() == null) {
+            return null;
+        }
+        int doneRatio = issue.getDoneRatio() != null ? issue.getDoneRatio() : 0;
+        IssueCounter delta = new IssueCounter();
+        delta.setProjectId(issue.getProjectId());
+        delta.setVersionId(issue.getFixedVersionId() != null ? issue.getFixedVersionId() : 0L);
+        delta.setTrackerId(issue.getTrackerId());
+        delta.setStatusId(issue.getStatusId());
+        delta.setIsPrivate(Boolean.TRUE.equals(issue.getIsPrivate()));
+        delta.setIssueCount(sign);
+        delta.setDoneCount(doneRatio >= 100 ? sign : 0);
+        delta.setStartedCount(doneRatio > 0 && doneRatio < 100 ? sign : 0);
+        delta.setEstimatedHoursSum(issue.getEstimatedHours() != null
+                ? sign * issue.getEstimatedHours().doubleValue() : 0.0);
+        delta.setDoneRatioSum((long) sign * doneRatio);
+        return delta;
+    }
+
+    private boolean sameBucket(IssueCounter a, IssueCounter b) {
+        return Objects.equals(a.getProjectId(), b.getProjectId())
+                && Objects.equals(a.getVersionId(), b.getVersionId())
+                && Objects.equals(a.getTrackerId(), b.getTrackerId())
+                && Objects.equals(a.getStatusId(), b.getStatusId())
+                && Objects.equals(a.getIsPrivate(), b.getIsPrivate());
+    }
+}
@@ -0,0 +1,128 @@
+package com.github.jredmine.service;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * 任务导出流式写出器
+ * CSV 逐行写入输出流；Excel 使用 SXSSFWorkbook，内存中只保留滑动窗口内的行，
+ * 其余行落盘到临时文件，导出行数不影响堆内存占用。
+ *
+ * @author panfeng
+ */
+final class IssueExportWriter {
+
+    /**
+     * 导出表头
+     */
+    static final String[] HEADERS = {"任务ID", "项目名称", "跟踪器", "任务标题", "状态", "优先级", "指派人", "创建者",
+            "创建时间", "更新时间", "截止日期", "完成度", "是否私有"};
+
+    /**
+     * Excel 内存中保留的行数
+     */
+    private static final int EXCEL_WINDOW_SIZE = 200;
+
+    private final OutputStream outputStream;
+    private final CSVPrinter csvPrinter;
+    private final SXSSFWorkbook workbook;
+    private final Sheet sheet;
+    private int rowIndex;
+
+    private IssueExportWriter(OutputStream outputStream, boolean excel) throws IOException {
+        this.outputStream = outputStream;
+        if (excel) {
+            this.csvPrinter = null;
+            this.workbook = new SXSSFWorkbook(EXCEL_WINDOW_SIZE);
+            this.sheet = workbook.createSheet("任务列表");
+            CellStyle headerStyle = workbook.createCellStyle();
+            Font headerFont = workbook.createFont();
+            headerFont.setBold(true);
+            headerStyle.setFont(headerFont);
+            Row header = sheet.createRow(rowIndex++);
+            for (int i = 0; i < HEADERS.length; i++) {
+                Cell cell = header.createCell(i);
+                cell.setCellValue(HEADERS[i]);
+                cell.setCellStyle(headerStyle);
+            }
+        } else {
+            this.workbook = null;
+            this.sheet = null;
+            // BOM，确保 Excel 正确识别 UTF-8
+            outputStream.write(new byte[]{(byte) 0xEF, (byte) 0xBB, (byte) 0xBF});
+            this.csvPrinter = new CSVPrinter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8),
+                    CSVFormat.DEFAULT.withHeader(HEADERS));
+        }
+    }
+
+    /**
+     * 创建写出器
+     *
+     * @param outputStream 输出流（由调用方负责关闭）
+     * @param excel        true 导出 Excel（xlsx），false 导出 CSV
+     */
+    static IssueExportWriter open(OutputStream outputStream, boolean excel) throws IOException {
+        return new IssueExportWriter(outputStream, excel);
+    }
+
+    /**
+     * 写出一行
+     */
+    void writeRow(List<String> values) throws IOException {
+        if (csvPrinter != null) {
+            csvPrinter.printRecord(values);
+            return;
+        }
+        Row row = sheet.createRow(rowIndex++);
+        for (int i = 0; i < values.size(); i++) {
+            row.createCell(i).setCellValue(values.get(i));
+        }
+    }
+
+    /**
+     * 一批数据写完后刷新（CSV 立即推送给客户端）
+     */
+    void flush() throws IOException {
+        if (csvPrinter != null) {
+            csvPrinter.flush();
+        }
+    }
+
+    /**
+     * 结束写出并释放临时文件
+     */
+    void finish() throws IOException {
+        if (csvPrinter != null) {
+            csvPrinter.flush();
+            return;
+        }
+        try {
+            workbook.write(outputStream);
+            outputStream.flush();
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    /**
+     * 导出中途失败时释放临时文件
+     */
+    void discard() {
+        if (workbook != null) {
+            workbook.dispose();
+        }
+    }
+}
@@ -0,0 +1,477 @@
+package com.github.jredmine.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.extension.toolkit.Db;
+import com.github.jredmine.dto.response.issue.IssueImportResultDTO;
+import com.github.jredmine.entity.Enumeration;
+import com.github.jredmine.entity.Issue;
+import com.github.jredmine.entity.IssueStatus;
+import com.github.jredmine.entity.Journal;
+import com.github.jredmine.entity.Tracker;
+import com.github.jredmine.entity.User;
+import com.github.jredmine.enums.ResultCode;
+import com.github.jredmine.exception.BusinessException;
+import com.github.jredmine.mapper.TrackerMapper;
+import com.github.jredmine.mapper.issue.IssueMapper;
+import com.github.jredmine.mapper.user.UserMapper;
+import com.github.jredmine.mapper.workflow.EnumerationMapper;
+import com.github.jredmine.mapper.workflow.IssueStatusMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * 任务批量导入服务
+ * <ul>
+ *     <li>使用 POI 事件模型（SAX）逐行读取工作表，不在内存中构建整个工作簿</li>
+ *     <li>跟踪器、状态、优先级在导入开始时一次加载；指派人按批次一次查询并缓存</li>
+ *     <li>每批数据在内存中校验后，任务和创建日志以 JDBC 批量写入，每批单独提交事务</li>
+ *     <li>某一批写入失败只影响该批数据，已提交的批次保留</li>
+ * </ul>
+ *
+ * @author panfeng
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IssueImportService {
+
+    /**
+     * 错误明细的最大记录数（超过后只计数）
+     */
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final int DEFAULT_TRACKER_ID = 1;
+    private static final int DEFAULT_STATUS_ID = 1;
+    private static final int DEFAULT_PRIORITY_ID = 2;
+    private static final int COLUMN_COUNT = 10;
+
+    private final IssueMapper issueMapper;
+    private final TrackerMapper trackerMapper;
+    private final IssueStatusMapper issueStatusMapper;
+    private final EnumerationMapper enumerationMapper;
+    private final UserMapper userMapper;
+    private final IssueCounterService issueCounterService;
+    private final SearchIndexService searchIndexService;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * 每批导入的行数（每批一次事务提交）
+     */
+    @Value("${issue.import.batch-size:1000}")
+    private Integer batchSize;
+
+    /**
+     * 从 xlsx 文件导入任务（第一个工作表，第一行为标题行）
+     *
+     * @param projectId     项目ID
+     * @param currentUserId 导入人ID
+     * @param file          xlsx 文件
+     * @param filename      文件名（用于日志）
+     * @return 导入结果
+     */
+    public IssueImportResultDTO importIssues(Long projectId, Long currentUserId, Path file, String filename)
+            throws Exception {
+        long startTime = System.currentTimeMillis();
+        ImportContext context = new ImportContext(projectId, currentUserId);
+        context.loadLookups();
+
+        try (OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            StylesTable styles = reader.getStylesTable();
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                throw new BusinessException(ResultCode.PARAM_INVALID, "Excel 文件中没有工作表");
+            }
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(styles, strings, new RowCollector(context),
+                        new ImportDataFormatter(), false));
+                parser.parse(new InputSource(sheet));
+            }
+        }
+        context.flush();
+
+        IssueImportResultDTO result = context.result;
+        result.setElapsedMillis(System.currentTimeMillis() - startTime);
+        log.info("任务导入完成，文件: {}, 总数: {}, 成功: {}, 失败: {}, 跳过: {}, 批次: {}, 耗时: {}ms",
+                filename, result.getTotal(), result.getSuccess(), result.getFailed(), result.getSkipped(),
+                result.getBatches(), result.getElapsedMillis());
+        return result;
+    }
+
+    /**
+     * 一次导入的状态：名称映射、当前批次和导入结果
+     */
+    private final class ImportContext {
+        private final Long projectId;
+        private final Long currentUserId;
+        private final IssueImportResultDTO result = new IssueImportResultDTO();
+        private final List<ImportRow> pending = new ArrayList<>();
+        private final Map<String, Integer> trackerIds = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        private final Map<String, Integer> statusIds = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        private final Map<String, Integer> priorityIds = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        private final Map<String, Long> userIds = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        private final Set<String> missingLogins = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+        private ImportContext(Long projectId, Long currentUserId) {
+            this.projectId = projectId;
+            this.currentUserId = currentUserId;
+        }
+
+        /**
+         * 一次加载跟踪器、状态和优先级
+         */
+        private void loadLookups() {
+            for (Tracker tracker : trackerMapper.selectList(null)) {
+                trackerIds.putIfAbsent(tracker.getName(), tracker.getId().intValue());
+            }
+            for (IssueStatus status : issueStatusMapper.selectList(null)) {
+                statusIds.putIfAbsent(status.getName(), status.getId());
+            }
+            LambdaQueryWrapper<Enumeration> query = new LambdaQueryWrapper<>();
+            query.eq(Enumeration::getType, "IssuePriority");
+            for (Enumeration priority : enumerationMapper.selectList(query)) {
+                priorityIds.putIfAbsent(priority.getName(), priority.getId());
+            }
+        }
+
+        private void addRow(ImportRow row) {
+            result.setTotal(result.getTotal() + 1);
+            if (row.isBlank()) {
+                result.incrementSkipped();
+                return;
+            }
+            pending.add(row);
+            if (pending.size() >= Math.max(1, batchSize)) {
+                flush();
+            }
+        }
+
+        /**
+         * 校验并写入当前批次
+         */
+        private void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            resolveUsers();
+            List<Issue> issues = new ArrayList<>(pending.size());
+            List<ImportRow> accepted = new ArrayList<>(pending.size());
+            for (ImportRow row : pending) {
+                Issue issue = toIssue(row);
+                if (issue != null) {
+                    issues.add(issue);
+                    accepted.add(row);
+                }
+            }
+            pending.clear();
+            if (issues.isEmpty()) {
+                return;
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> insertBatch(issues));
+                result.setSuccess(result.getSuccess() + issues.size());
+                result.setBatches(result.getBatches() + 1);
+                log.info("任务导入进度，项目ID: {}, 已处理行数: {}, 成功: {}, 失败: {}",
+                        projectId, result.getTotal(), result.getSuccess(), result.getFailed());
+            } catch (Exception e) {
+                log.error("任务导入批次写入失败，项目ID: {}, 行数: {}", projectId, issues.size(), e);
+                for (ImportRow row : accepted) {
+                    addError(row, "写入数据库失败: " + e.getMessage());
+                }
+            }
+        }
+
+        /**
+         * 批量写入任务、根任务ID、创建日志、计数器和搜索索引
+         */
+        private void insertBatch(List<Issue> issues) {
+            int jdbcBatchSize = Math.max(1, batchSize);
+            Db.saveBatch(issues, jdbcBatchSize);
+            List<Long> ids = issues.stream().map(Issue::getId).collect(Collectors.toList());
+            issueMapper.updateRootIdToSelf(ids);
+
+            LocalDateTime now = LocalDateTime.now();
+            List<Journal> journals = new ArrayList<>(issues.size());
+            for (Issue issue : issues) {
+                issue.setRootId(issue.getId());
+                Journal journal = new Journal();
+                journal.setJournalizedId(issue.getId().intValue());
+                journal.setJournalizedType("Issue");
+                journal.setUserId(currentUserId.intValue());
+                journal.setNotes("任务已创建");
+                journal.setPrivateNotes(false);
+                journal.setCreatedOn(now);
+                journal.setUpdatedOn(now);
+                journals.add(journal);
+            }
+            Db.saveBatch(journals, jdbcBatchSize);
+
+            issueCounterService.onIssuesCreated(issues);
+            searchIndexService.indexIssues(ids);
+        }
+
+        /**
+         * 一次查询当前批次中尚未解析的指派人登录名
+         */
+        private void resolveUsers() {
+            Set<String> logins = new HashSet<>();
+            for (ImportRow row : pending) {
+                String login = row.get(4);
+                if (login != null && !userIds.containsKey(login) && !missingLogins.contains(login)) {
+                    logins.add(login);
+                }
+            }
+            if (logins.isEmpty()) {
+                return;
+            }
+            LambdaQueryWrapper<User> query = new LambdaQueryWrapper<>();
+            query.select(User::getId, User::getLogin).in(User::getLogin, logins);
+            for (User user : userMapper.selectList(query)) {
+                userIds.put(user.getLogin(), user.getId());
+            }
+            for (String login : logins) {
+                if (!userIds.containsKey(login) && missingLogins.add(login)) {
+                    log.warn("指派人不存在，登录名: {}", login);
+                }
+            }
+        }
+
+        /**
+         * 校验一行数据并转换为任务，校验失败时记录错误并返回 null
+         */
+        private Issue toIssue(ImportRow row) {
+            String subject = row.get(0);
+            if (subject == null) {
+                addError(row, "任务标题不能为空");
+                return null;
+            }
+
+            Issue issue = new Issue();
+            issue.setProjectId(projectId);
+            issue.setSubject(subject);
+            issue.setDescription(row.getRaw(5));
+            issue.setAuthorId(currentUserId);
+            issue.setLockVersion(0);
+            LocalDateTime now = LocalDateTime.now();
+            issue.setCreatedOn(now);
+            issue.setUpdatedOn(now);
+
+            String trackerName = row.get(1);
+            if (trackerName != null) {
+                Integer trackerId = trackerIds.get(trackerName);
+                if (trackerId == null) {
+                    addError(row, "跟踪器不存在: " + trackerName);
+                    return null;
+                }
+                issue.setTrackerId(trackerId);
+            } else {
+                issue.setTrackerId(DEFAULT_TRACKER_ID);
+            }
+
+            String statusName = row.get(2);
+            if (statusName != null) {
+                Integer statusId = statusIds.get(statusName);
+                if (statusId == null) {
+                    addError(row, "状态不存在: " + statusName);
+                    return null;
+                }
+                issue.setStatusId(statusId);
+            } else {
+                issue.setStatusId(DEFAULT_STATUS_ID);
+            }
+
+            String priorityName = row.get(3);
+            if (priorityName != null) {
+                Integer priorityId = priorityIds.get(priorityName);
+                if (priorityId == null) {
+                    addError(row, "优先级不存在: " + priorityName);
+                    return null;
+                }
+                issue.setPriorityId(priorityId);
+            } else {
+                issue.setPriorityId(DEFAULT_PRIORITY_ID);
+            }
+
+            String assignedToLogin = row.get(4);
+            if (assignedToLogin != null) {
+                Long assignedToId = userIds.get(assignedToLogin);
+                if (assignedToId != null) {
+                    issue.setAssignedToId(assignedToId);
+                }
+            }
+
+            issue.setStartDate(parseDate(row, 6, "开始日期"));
+            issue.setDueDate(parseDate(row, 7, "截止日期"));
+
+            String estimatedHours = row.get(8);
+            if (estimatedHours != null) {
+                try {
+                    issue.setEstimatedHours(Float.parseFloat(estimatedHours));
+                } catch (NumberFormatException e) {
+                    log.debug("预估工时格式错误，行: {}, 工时: {}", row.rowNumber, estimatedHours);
+                }
+            }
+
+            String doneRatio = row.get(9);
+            issue.setDoneRatio(0);
+            if (doneRatio != null) {
+                try {
+                    int value = (int) Double.parseDouble(doneRatio);
+                    if (value >= 0 && value <= 100) {
+                        issue.setDoneRatio(value);
+                    }
+                } catch (NumberFormatException e) {
+                    log.debug("完成度格式错误，行: {}, 完成度: {}", row.rowNumber, doneRatio);
+                }
+            }
+
+            issue.setIsPrivate(false);
+            // 导入的任务均为顶级任务，root_id 在插入后更新为自身 ID
+            issue.setRootId(null);
+            issue.setLft(1);
+            issue.setRgt(2);
+            return issue;
+        }
+
+        private LocalDate parseDate(ImportRow row, int column, String label) {
+            String value = row.get(column);
+            if (value == null) {
+                return null;
+            }
+            try {
+                return LocalDate.parse(value.length() > 10 ? value.substring(0, 10) : value);
+            } catch (Exception e) {
+                log.debug("{}格式错误，行: {}, 日期: {}", label, row.rowNumber, value);
+                return null;
+            }
+        }
+
+        private void addError(ImportRow row, String message) {
+            String subject = row.get(0) != null ? row.get(0) : "";
+            if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+                result.addError(row.rowNumber, subject, message);
+            } else {
+                result.setFailed(result.getFailed() + 1);
+            }
+        }
+    }
+
+    /**
+     * 工作表中的一行（只保留前 {@link #COLUMN_COUNT} 列）
+     */
+    private static final class ImportRow {
+        private final int rowNumber;
+        private final String[] values = new String[COLUMN_COUNT];
+
+        private ImportRow(int rowNumber) {
+            this.rowNumber = rowNumber;
+        }
+
+        /**
+         * 去除首尾空白后的值，空字符串返回 null
+         */
+        private String get(int column) {
+            String value = values[column];
+            if (value == null) {
+                return null;
+            }
+            value = value.trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        private String getRaw(int column) {
+            return values[column];
+        }
+
+        private boolean isBlank() {
+            for (int i = 0; i < COLUMN_COUNT; i++) {
+                if (get(i) != null) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * 逐行接收 SAX 解析结果，跳过标题行
+     */
+    private static final class RowCollector implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private final ImportContext context;
+        private ImportRow current;
+
+        private RowCollector(ImportContext context) {
+            this.context = context;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            current = rowNum > 0 ? new ImportRow(rowNum + 1) : null;
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (current != null) {
+                context.addRow(current);
+                current = null;
+            }
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            if (current == null || cellReference == null) {
+                return;
+            }
+            int column = new CellReference(cellReference).getCol();
+            if (column < COLUMN_COUNT) {
+                current.values[column] = formattedValue;
+            }
+        }
+    }
+
+    /**
+     * 单元格格式化：日期单元格输出 yyyy-MM-dd，其它数值按单元格格式输出
+     */
+    private static final class ImportDataFormatter extends DataFormatter {
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString) {
+            if (DateUtil.isADateFormat(formatIndex, formatString) && DateUtil.isValidExcelDate(value)) {
+                return DateUtil.getLocalDateTime(value).toLocalDate().toString();
+            }
+            return super.formatRawCellContents(value, formatIndex, formatString);
+        }
+    }
+}
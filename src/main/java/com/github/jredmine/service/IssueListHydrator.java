@@ -0,0 +1,205 @@
+package com.github.jredmine.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.github.jredmine.dto.response.issue.IssueListItemResponseDTO;
+import com.github.jredmine.entity.Enumeration;
+import com.github.jredmine.entity.Issue;
+import com.github.jredmine.entity.IssueStatus;
+import com.github.jredmine.entity.Project;
+import com.github.jredmine.entity.Tracker;
+import com.github.jredmine.entity.User;
+import com.github.jredmine.mapper.TrackerMapper;
+import com.github.jredmine.mapper.project.ProjectMapper;
+import com.github.jredmine.mapper.user.UserMapper;
+import com.github.jredmine.mapper.workflow.EnumerationMapper;
+import com.github.jredmine.mapper.workflow.IssueStatusMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * 任务列表关联信息批量填充器
+ * 按页收集任务引用的项目、跟踪器、状态、优先级、用户ID，每类实体只执行一次 IN 查询，
+ * 避免列表接口按行逐条 selectById 造成的 N+1 查询
+ *
+ * @author panfeng
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IssueListHydrator {
+
+    private final ProjectMapper projectMapper;
+    private final TrackerMapper trackerMapper;
+    private final IssueStatusMapper issueStatusMapper;
+    private final EnumerationMapper enumerationMapper;
+    private final UserMapper userMapper;
+
+    /**
+     * 批量转换任务列表项（用户名称使用登录名）
+     *
+     * @param issues 任务列表
+     * @return 响应 DTO 列表，顺序与入参一致
+     */
+    public List<IssueListItemResponseDTO> toListItems(List<Issue> issues) {
+        return toListItems(issues, User::getLogin);
+    }
+
+    /**
+     * 批量转换任务列表项
+     *
+     * @param issues       任务列表
+     * @param userNameFunc 用户名称生成方式
+     * @return 响应 DTO 列表，顺序与入参一致
+     */
+    public List<IssueListItemResponseDTO> toListItems(List<Issue> issues, Function<User, String> userNameFunc) {
+        if (issues == null || issues.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        ReferenceData refs = load(issues);
+        List<IssueListItemResponseDTO> dtoList = new ArrayList<>(issues.size());
+        for (Issue issue : issues) {
+            IssueListItemResponseDTO dto = new IssueListItemResponseDTO();
+            dto.setId(issue.getId());
+            dto.setTrackerId(issue.getTrackerId());
+            dto.setProjectId(issue.getProjectId());
+            dto.setSubject(issue.getSubject());
+            dto.setStatusId(issue.getStatusId());
+            dto.setPriorityId(issue.getPriorityId());
+            dto.setAssignedToId(issue.getAssignedToId());
+            dto.setAuthorId(issue.getAuthorId());
+            dto.setCreatedOn(issue.getCreatedOn());
+            dto.setUpdatedOn(issue.getUpdatedOn());
+            dto.setDueDate(issue.getDueDate());
+            dto.setDoneRatio(issue.getDoneRatio());
+            dto.setIsPrivate(issue.getIsPrivate());
+
+            dto.setProjectName(refs.getProjectName(issue.getProjectId()));
+            dto.setTrackerName(refs.getTrackerName(issue.getTrackerId()));
+            dto.setStatusName(refs.getStatusName(issue.getStatusId()));
+            dto.setPriorityName(refs.getPriorityName(issue.getPriorityId()));
+
+            User author = refs.getUser(issue.getAuthorId());
+            if (author != null) {
+                dto.setAuthorName(userNameFunc.apply(author));
+            }
+            User assignedUser = refs.getUser(issue.getAssignedToId());
+            if (assignedUser != null) {
+                dto.setAssignedToName(userNameFunc.apply(assignedUser));
+            }
+            dtoList.add(dto);
+        }
+        return dtoList;
+    }
+
+    /**
+     * 收集任务引用的所有关联ID并批量加载
+     *
+     * @param issues 任务集合
+     * @return 关联数据
+     */
+    public ReferenceData load(Collection<Issue> issues) {
+        Set<Long> projectIds = new HashSet<>();
+        Set<Integer> trackerIds = new HashSet<>();
+        Set<Integer> statusIds = new HashSet<>();
+        Set<Integer> priorityIds = new HashSet<>();
+        Set<Long> userIds = new HashSet<>();
+        for (Issue issue : issues) {
+            addIfNotNull(projectIds, issue.getProjectId());
+            addIfNotNull(trackerIds, issue.getTrackerId());
+            addIfNotNull(statusIds, issue.getStatusId());
+            if (issue.getPriorityId() != null && issue.getPriorityId() != 0) {
+                priorityIds.add(issue.getPriorityId());
+            }
+            addIfNotNull(userIds, issue.getAuthorId());
+            addIfNotNull(userIds, issue.getAssignedToId());
+        }
+
+        ReferenceData refs = new ReferenceData();
+        if (!projectIds.isEmpty()) {
+            for (Project project : projectMapper.selectBatchIds(projectIds)) {
+                refs.projects.put(project.getId(), project);
+            }
+        }
+        if (!trackerIds.isEmpty()) {
+            for (Tracker tracker : trackerMapper.selectBatchIds(trackerIds)) {
+                refs.trackers.put(tracker.getId().intValue(), tracker);
+            }
+        }
+        if (!statusIds.isEmpty()) {
+            for (IssueStatus status : issueStatusMapper.selectBatchIds(statusIds)) {
+                refs.statuses.put(status.getId(), status);
+            }
+        }
+        if (!priorityIds.isEmpty()) {
+            LambdaQueryWrapper<Enumeration> priorityQuery = new LambdaQueryWrapper<>();
+            priorityQuery.in(Enumeration::getId, priorityIds)
+                    .eq(Enumeration::getType, "IssuePriority")
+                    .eq(Enumeration::getActive, true);
+            for (Enumeration priority : enumerationMapper.selectList(priorityQuery)) {
+                refs.priorities.put(priority.getId(), priority);
+            }
+        }
+        if (!userIds.isEmpty()) {
+            for (User user : userMapper.selectBatchIds(userIds)) {
+                refs.users.put(user.getId(), user);
+            }
+        }
+
+        log.debug("批量加载任务关联信息完成，任务数: {}, 项目: {}, 跟踪器: {}, 状态: {}, 优先级: {}, 用户: {}",
+                issues.size(), refs.projects.size(), refs.trackers.size(), refs.statuses.size(),
+                refs.priorities.size(), refs.users.size());
+        return refs;
+    }
+
+    private static <T> void addIfNotNull(Set<T> set, T value) {
+        if (value != null) {
+            set.add(value);
+        }
+    }
+
+    /**
+     * 一页任务的关联数据
+     */
+    public static class ReferenceData {
+        private final Map<Long, Project> projects = new HashMap<>();
+        private final Map<Integer, Tracker> trackers = new HashMap<>();
+        private final Map<Integer, IssueStatus> statuses = new HashMap<>();
+        private final Map<Integer, Enumeration> priorities = new HashMap<>();
+        private final Map<Long, User> users = new HashMap<>();
+
+        public String getProjectName(Long projectId) {
+            Project project = projectId != null ? projects.get(projectId) : null;
+            return project != null ? project.getName() : null;
+        }
+
+        public String getTrackerName(Integer trackerId) {
+            Tracker tracker = trackerId != null ? trackers.get(trackerId) : null;
+            return tracker != null ? tracker.getName() : null;
+        }
+
+        public String getStatusName(Integer statusId) {
+            IssueStatus status = statusId != null ? statuses.get(statusId) : null;
+            return status != null ? status.getName() : null;
+        }
+
+        public String getPriorityName(Integer priorityId) {
+            Enumeration priority = priorityId != null ? priorities.get(priorityId) : null;
+            return priority != null ? priority.getName() : null;
+        }
+
+        public User getUser(Long userId) {
+            return userId != null ? users.get(userId) : null;
+        }
+    }
+}
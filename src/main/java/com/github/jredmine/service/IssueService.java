@@ -2,6 +2,7 @@ package com.github.jredmine.service;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.github.jredmine.dto.request.issue.IssueAssignRequestDTO;
 import com.github.jredmine.dto.request.issue.IssueBatchUpdateRequestDTO;
@@ -20,6 +21,7 @@ import com.github.jredmine.dto.request.issue.IssueWatcherCreateRequestDTO;
 import com.github.jredmine.dto.request.issue.IssueWatcherBatchAddRequestDTO;
 import com.github.jredmine.dto.request.issue.IssueWatcherBatchDeleteRequestDTO;
 import com.github.jredmine.dto.request.issue.IssueGanttRequestDTO;
+import com.github.jredmine.dto.aggregate.IssueGroupCountDTO;
 import com.github.jredmine.dto.response.workflow.AvailableTransitionDTO;
 import com.github.jredmine.dto.response.workflow.WorkflowTransitionResponseDTO;
 import com.github.jredmine.dto.response.PageResponse;
@@ -35,8 +37,8 @@ import com.github.jredmine.dto.response.issue.IssueImportResultDTO;
 import com.github.jredmine.dto.response.issue.IssueGanttResponseDTO;
 import com.github.jredmine.dto.response.issue.IssueGanttItemResponseDTO;
 import com.github.jredmine.dto.response.issue.IssueGanttDependencyDTO;
-import com.github.jredmine.entity.EmailAddress;
 import com.github.jredmine.entity.Issue;
+import com.github.jredmine.entity.IssueCounter;
 import com.github.jredmine.entity.IssueCategory;
 import com.github.jredmine.entity.IssueRelation;
 import com.github.jredmine.entity.IssueStatus;
@@ -66,9 +68,9 @@ import com.github.jredmine.mapper.TrackerMapper;
 import com.github.jredmine.mapper.workflow.IssueStatusMapper;
 import com.github.jredmine.mapper.workflow.WorkflowMapper;
 import com.github.jredmine.mapper.workflow.EnumerationMapper;
-import com.github.jredmine.mapper.user.EmailAddressMapper;
 import com.github.jredmine.mapper.user.UserMapper;
 import com.github.jredmine.security.ProjectPermissionService;
+import com.github.jredmine.util.KeysetCursor;
 import com.github.jredmine.util.SecurityUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -76,6 +78,7 @@ import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.slf4j.MDC;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -83,9 +86,14 @@ import com.github.jredmine.entity.Member;
 import com.github.jredmine.entity.MemberRole;
 import com.github.jredmine.mapper.project.MemberMapper;
 import com.github.jredmine.mapper.user.MemberRoleMapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -103,6 +111,11 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class IssueService {
 
+    /**
+     * 导出任务时每批加载关联信息的任务数
+     */
+    private static final int EXPORT_BATCH_SIZE = 500;
+
     private final IssueMapper issueMapper;
     private final IssueRelationMapper issueRelationMapper;
     private final IssueCategoryMapper issueCategoryMapper;
@@ -121,8 +134,11 @@ public class IssueService {
     private final SecurityUtils securityUtils;
     private final ProjectPermissionService projectPermissionService;
     private final WorkflowService workflowService;
-    private final EmailService emailService;
-    private final EmailAddressMapper emailAddressMapper;
+    private final NotificationOutboxService notificationOutboxService;
+    private final IssueListHydrator issueListHydrator;
+    private final IssueCounterService issueCounterService;
+    private final IssueImportService issueImportService;
+    private final SearchIndexService searchIndexService;
 
     /**
      * 创建任务
@@ -287,6 +303,8 @@ public class IssueService {
                 log.error("任务创建失败，插入数据库失败");
                 throw new BusinessException(ResultCode.SYSTEM_ERROR, "任务创建失败");
             }
+            issueCounterService.onIssueCreated(issue);
+            searchIndexService.indexIssue(issue.getId());
 
             // 如果是顶级任务，更新 root_id 为自己的 id
             if (issue.getParentId() == null) {
@@ -449,6 +467,11 @@ public class IssueService {
                 });
             }
 
+            // 游标分页：按 (排序字段, id) 定位，不执行 OFFSET 和 COUNT
+            if (requestDTO.isCursorPaging()) {
+                return listIssuesByCursor(queryWrapper, requestDTO, sortOrder, size);
+            }
+
             // 排序
             applyIssueListSort(queryWrapper, requestDTO.getSortBy(), sortOrder);
 
@@ -458,16 +481,16 @@ public class IssueService {
             MDC.put("total", String.valueOf(result.getTotal()));
             log.info("任务列表查询成功，共查询到 {} 条记录", result.getTotal());
 
-            // 转换为响应 DTO
-            List<IssueListItemResponseDTO> dtoList = result.getRecords().stream()
-                    .map(this::toIssueListItemResponseDTO)
-                    .toList();
+            // 转换为响应 DTO（批量填充关联信息）
+            List<IssueListItemResponseDTO> dtoList = issueListHydrator.toListItems(result.getRecords());
 
             return PageResponse.of(
                     dtoList,
                     (int) result.getTotal(),
                     (int) result.getCurrent(),
                     (int) result.getSize());
+        } catch (BusinessException e) {
+            throw e;
         } catch (Exception e) {
             log.error("任务列表查询失败", e);
             throw new BusinessException(ResultCode.SYSTEM_ERROR, "任务列表查询失败");
@@ -476,6 +499,82 @@ public class IssueService {
         }
     }
 
+    /**
+     * 游标分页查询任务列表
+     *
+     * @param queryWrapper 查询条件（不含排序）
+     * @param requestDTO   查询请求参数
+     * @param sortOrder    排序方向
+     * @param size         每页数量
+     * @return 分页响应（nextCursor 为 null 表示没有下一页）
+     */
+    private PageResponse<IssueListItemResponseDTO> listIssuesByCursor(LambdaQueryWrapper<Issue> queryWrapper,
+            IssueListRequestDTO requestDTO, String sortOrder, int size) {
+        String sortField = requestDTO.getSortBy() != null ? requestDTO.getSortBy().trim().toLowerCase() : "";
+        SFunction<Issue, ?> sortColumn = resolveIssueKeysetColumn(sortField);
+        // 与页码分页一致：未知排序字段按 ID 倒序
+        boolean ascending = (sortColumn != null || "id".equals(sortField)) && "asc".equalsIgnoreCase(sortOrder);
+        String sortKey = "issues:" + (sortColumn != null ? sortField : "id") + ":" + (ascending ? "asc" : "desc");
+        int pageSize = Math.min(size, KeysetCursor.MAX_PAGE_SIZE);
+
+        // 总数可选，避免每页执行 COUNT
+        Long total = Boolean.TRUE.equals(requestDTO.getWithTotal()) ? issueMapper.selectCount(queryWrapper) : null;
+
+        if (requestDTO.getCursor() != null && !requestDTO.getCursor().isBlank()) {
+            KeysetCursor.decode(requestDTO.getCursor(), sortKey)
+                    .applySeek(queryWrapper, sortColumn, Issue::getId, ascending);
+        }
+        if (sortColumn != null) {
+            queryWrapper.orderBy(true, ascending, sortColumn);
+        }
+        queryWrapper.orderBy(true, ascending, Issue::getId);
+        queryWrapper.last("LIMIT " + (pageSize + 1));
+
+        List<Issue> issues = issueMapper.selectList(queryWrapper);
+        String nextCursor = null;
+        if (issues.size() > pageSize) {
+            issues = issues.subList(0, pageSize);
+            Issue last = issues.get(pageSize - 1);
+            nextCursor = KeysetCursor.encode(sortKey, sortColumn != null ? sortColumn.apply(last) : null,
+                    last.getId());
+        }
+
+        log.info("任务列表游标查询成功，本页 {} 条记录，是否有下一页: {}", issues.size(), nextCursor != null);
+
+        return PageResponse.ofCursor(issueListHydrator.toListItems(issues), pageSize, nextCursor, total);
+    }
+
+    /**
+     * 获取游标分页使用的排序字段（按ID排序时返回 null）
+     * 游标定位要求排序字段非空，可为空的字段（指派人、截止日期）不支持游标分页
+     */
+    private SFunction<Issue, ?> resolveIssueKeysetColumn(String sortField) {
+        switch (sortField) {
+            case "project_id":
+                return Issue::getProjectId;
+            case "tracker_id":
+                return Issue::getTrackerId;
+            case "subject":
+                return Issue::getSubject;
+            case "status_id":
+                return Issue::getStatusId;
+            case "priority":
+            case "priority_id":
+                return Issue::getPriorityId;
+            case "done_ratio":
+                return Issue::getDoneRatio;
+            case "created_on":
+                return Issue::getCreatedOn;
+            case "updated_on":
+                return Issue::getUpdatedOn;
+            case "assigned_to_id":
+            case "due_date":
+                throw new BusinessException(ResultCode.PARAM_INVALID, "游标分页不支持按 " + sortField + " 排序");
+            default:
+                return null;
+        }
+    }
+
     /**
      * 获取任务优先级列表（IssuePriority 枚举）
      */
@@ -497,16 +596,22 @@ public class IssueService {
     }
 
     /**
-     * 导出任务列表为 CSV
+     * 导出任务列表（CSV 或 Excel），边查询边写出到输出流
+     * 任务通过流式结果集逐行读取，每 {@value #EXPORT_BATCH_SIZE} 条批量加载一次关联名称后写出，
+     * 内存占用与导出总行数无关。流式结果集会独占数据库连接，因此方法不在事务中执行，
+     * 关联信息查询使用连接池中的其它连接。
      *
-     * @param requestDTO 查询条件（复用任务列表查询参数）
-     * @return CSV 文件内容（字节数组）
+     * @param requestDTO   查询条件（复用任务列表查询参数）
+     * @param excel        true 导出 Excel（xlsx），false 导出 CSV
+     * @param outputStream 输出流（由调用方负责关闭）
      */
-    public byte[] exportIssues(IssueListRequestDTO requestDTO) {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void exportIssues(IssueListRequestDTO requestDTO, boolean excel, OutputStream outputStream) {
         MDC.put("operation", "export_issues");
 
+        IssueExportWriter writer = null;
         try {
-            log.info("开始导出任务列表");
+            log.info("开始导出任务列表，格式: {}", excel ? "xlsx" : "csv");
 
             // 获取当前用户信息
             User currentUser = securityUtils.getCurrentUser();
@@ -626,138 +731,35 @@ public class IssueService {
             String sortOrder = requestDTO.getSortOrder() != null ? requestDTO.getSortOrder() : "desc";
             applyIssueListSort(queryWrapper, requestDTO.getSortBy(), sortOrder);
 
-            // 查询所有符合条件的任务（不分页）
-            List<Issue> issues = issueMapper.selectList(queryWrapper);
-
-            // 权限过滤：私有任务仅项目成员可见
-            List<Issue> filteredIssues = new ArrayList<>();
-            for (Issue issue : issues) {
-                if (Boolean.TRUE.equals(issue.getIsPrivate()) && !isAdmin) {
-                    LambdaQueryWrapper<Member> memberQuery = new LambdaQueryWrapper<>();
-                    memberQuery.eq(Member::getUserId, currentUserId)
-                            .eq(Member::getProjectId, issue.getProjectId());
-                    Member member = memberMapper.selectOne(memberQuery);
-                    if (member == null) {
-                        continue;
-                    }
-                }
-                filteredIssues.add(issue);
-            }
-
-            log.info("任务列表导出查询成功，共查询到 {} 条记录", filteredIssues.size());
-
-            // 生成 CSV 内容
-            StringBuilder csvContent = new StringBuilder();
-            csvContent.append("\uFEFF"); // BOM，确保 Excel 正确识别 UTF-8
-
-            // CSV 表头
-            csvContent.append("任务ID,项目名称,跟踪器,任务标题,状态,优先级,指派人,创建者,创建时间,更新时间,截止日期,完成度,是否私有\n");
-
-            // 获取所有状态、跟踪器、用户信息（用于填充名称）
-            List<IssueStatus> allStatuses = issueStatusMapper.selectList(null);
-            Map<Integer, IssueStatus> statusMap = allStatuses.stream()
-                    .collect(Collectors.toMap(IssueStatus::getId, s -> s));
-
-            List<Tracker> allTrackers = trackerMapper.selectList(null);
-            Map<Integer, Tracker> trackerMap = allTrackers.stream()
-                    .collect(Collectors.toMap(t -> t.getId().intValue(), t -> t));
-
-            Set<Long> userIds = new java.util.HashSet<>();
-            for (Issue issue : filteredIssues) {
-                if (issue.getAssignedToId() != null) {
-                    userIds.add(issue.getAssignedToId());
-                }
-                if (issue.getAuthorId() != null) {
-                    userIds.add(issue.getAuthorId());
+            IssueExportWriter exportWriter = IssueExportWriter.open(outputStream, excel);
+            writer = exportWriter;
+            List<Issue> batch = new ArrayList<>(EXPORT_BATCH_SIZE);
+            long[] exported = {0};
+
+            // 流式读取任务，按批写出
+            issueMapper.streamIssues(queryWrapper, context -> {
+                Issue issue = context.getResultObject();
+                // 权限过滤：私有任务仅项目成员可见（成员项目集合已在上方一次性查出）
+                if (Boolean.TRUE.equals(issue.getIsPrivate()) && !isAdmin
+                        && !memberProjectIds.contains(issue.getProjectId())) {
+                    return;
                 }
-            }
-            Map<Long, User> userMap = new HashMap<>();
-            if (!userIds.isEmpty()) {
-                List<User> users = userMapper.selectBatchIds(userIds);
-                userMap = users.stream()
-                        .collect(Collectors.toMap(User::getId, u -> u));
-            }
-
-            Set<Long> projectIds = filteredIssues.stream()
-                    .map(Issue::getProjectId)
-                    .collect(Collectors.toSet());
-            Map<Long, Project> projectMap = new HashMap<>();
-            if (!projectIds.isEmpty()) {
-                List<Project> projects = projectMapper.selectBatchIds(projectIds);
-                projectMap = projects.stream()
-                        .collect(Collectors.toMap(Project::getId, p -> p));
-            }
-
-            // 填充 CSV 数据行
-            for (Issue issue : filteredIssues) {
-                csvContent.append(escapeCsvField(String.valueOf(issue.getId()))).append(",");
-
-                // 项目名称
-                Project project = projectMap.get(issue.getProjectId());
-                csvContent.append(escapeCsvField(project != null ? project.getName() : "")).append(",");
-
-                // 跟踪器名称
-                Tracker tracker = trackerMap.get(issue.getTrackerId());
-                csvContent.append(escapeCsvField(tracker != null ? tracker.getName() : "")).append(",");
-
-                // 任务标题
-                csvContent.append(escapeCsvField(issue.getSubject() != null ? issue.getSubject() : "")).append(",");
-
-                // 状态名称
-                IssueStatus status = statusMap.get(issue.getStatusId());
-                csvContent.append(escapeCsvField(status != null ? status.getName() : "")).append(",");
-
-                // 优先级（暂时显示ID）
-                csvContent.append(escapeCsvField("优先级 " + issue.getPriorityId())).append(",");
-
-                // 指派人名称
-                if (issue.getAssignedToId() != null) {
-                    User assignedUser = userMap.get(issue.getAssignedToId());
-                    csvContent.append(escapeCsvField(assignedUser != null ? assignedUser.getLogin() : ""));
-                } else {
-                    csvContent.append("");
+                batch.add(issue);
+                if (batch.size() >= EXPORT_BATCH_SIZE) {
+                    exported[0] += writeExportBatch(exportWriter, batch);
+                    batch.clear();
                 }
-                csvContent.append(",");
-
-                // 创建者名称
-                User author = userMap.get(issue.getAuthorId());
-                csvContent.append(escapeCsvField(author != null ? author.getLogin() : "")).append(",");
-
-                // 创建时间
-                csvContent.append(escapeCsvField(issue.getCreatedOn() != null
-                        ? issue.getCreatedOn().toString().replace("T", " ")
-                        : "")).append(",");
-
-                // 更新时间
-                csvContent.append(escapeCsvField(issue.getUpdatedOn() != null
-                        ? issue.getUpdatedOn().toString().replace("T", " ")
-                        : "")).append(",");
-
-                // 截止日期
-                csvContent.append(escapeCsvField(issue.getDueDate() != null
-                        ? issue.getDueDate().toString()
-                        : "")).append(",");
-
-                // 完成度
-                csvContent.append(escapeCsvField(issue.getDoneRatio() != null
-                        ? String.valueOf(issue.getDoneRatio())
-                        : "0")).append(",");
-
-                // 是否私有
-                csvContent.append(escapeCsvField(Boolean.TRUE.equals(issue.getIsPrivate()) ? "是" : "否"));
+            });
+            exported[0] += writeExportBatch(exportWriter, batch);
+            exportWriter.finish();
 
-                csvContent.append("\n");
-            }
-
-            // 转换为字节数组（UTF-8 编码）
-            byte[] csvBytes = csvContent.toString().getBytes(java.nio.charset.StandardCharsets.UTF_8);
-
-            log.info("任务列表导出成功，共导出 {} 条记录", filteredIssues.size());
-            return csvBytes;
+            log.info("任务列表导出成功，共导出 {} 条记录", exported[0]);
 
         } catch (BusinessException e) {
+            discardExport(writer);
             throw e;
         } catch (Exception e) {
+            discardExport(writer);
             log.error("任务列表导出失败", e);
             throw new BusinessException(ResultCode.SYSTEM_ERROR, "任务列表导出失败");
         } finally {
@@ -766,44 +768,79 @@ public class IssueService {
     }
 
     /**
-     * 转义 CSV 字段（处理逗号、引号、换行符等特殊字符）
+     * 批量加载一批任务的关联名称并写出
      *
-     * @param field 字段值
-     * @return 转义后的字段值
+     * @param writer 写出器
+     * @param issues 任务批次
+     * @return 写出的行数
      */
-    private String escapeCsvField(String field) {
-        if (field == null) {
-            return "";
+    private int writeExportBatch(IssueExportWriter writer, List<Issue> issues) {
+        if (issues.isEmpty()) {
+            return 0;
         }
-        // 如果字段包含逗号、引号、换行符，需要用引号包裹，并转义引号
-        if (field.contains(",") || field.contains("\"") || field.contains("\n") || field.contains("\r")) {
-            return "\"" + field.replace("\"", "\"\"") + "\"";
+        // 批量加载项目、跟踪器、状态、用户信息（用于填充名称）
+        IssueListHydrator.ReferenceData refs = issueListHydrator.load(issues);
+        try {
+            for (Issue issue : issues) {
+                String projectName = refs.getProjectName(issue.getProjectId());
+                String trackerName = refs.getTrackerName(issue.getTrackerId());
+                String statusName = refs.getStatusName(issue.getStatusId());
+                // 优先级（未找到名称时显示ID）
+                String priorityName = refs.getPriorityName(issue.getPriorityId());
+                User assignedUser = refs.getUser(issue.getAssignedToId());
+                User author = refs.getUser(issue.getAuthorId());
+
+                writer.writeRow(Arrays.asList(
+                        String.valueOf(issue.getId()),
+                        projectName != null ? projectName : "",
+                        trackerName != null ? trackerName : "",
+                        issue.getSubject() != null ? issue.getSubject() : "",
+                        statusName != null ? statusName : "",
+                        priorityName != null ? priorityName : "优先级 " + issue.getPriorityId(),
+                        assignedUser != null ? assignedUser.getLogin() : "",
+                        author != null ? author.getLogin() : "",
+                        issue.getCreatedOn() != null ? issue.getCreatedOn().toString().replace("T", " ") : "",
+                        issue.getUpdatedOn() != null ? issue.getUpdatedOn().toString().replace("T", " ") : "",
+                        issue.getDueDate() != null ? issue.getDueDate().toString() : "",
+                        issue.getDoneRatio() != null ? String.valueOf(issue.getDoneRatio()) : "0",
+                        Boolean.TRUE.equals(issue.getIsPrivate()) ? "是" : "否"));
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return issues.size();
+    }
+
+    private void discardExport(IssueExportWriter writer) {
+        if (writer != null) {
+            writer.discard();
         }
-        return field;
     }
 
     /**
      * 从 Excel 文件导入任务
+     * 上传文件先写入临时文件再流式读取；每批单独提交事务，不在整个导入过程中持有一个事务
      *
      * @param projectId 项目ID
      * @param file      Excel 文件
      * @return 导入结果
      */
-    @Transactional(rollbackFor = Exception.class)
     public IssueImportResultDTO importIssuesFromExcel(Long projectId, MultipartFile file) {
         MDC.put("operation", "import_issues");
         MDC.put("projectId", String.valueOf(projectId));
 
+        java.nio.file.Path tempFile = null;
         try {
             log.info("开始导入任务，项目ID: {}, 文件名: {}", projectId, file.getOriginalFilename());
 
             // 验证项目和权限
             validateProjectAndPermission(projectId);
 
-            // 使用 Workbook 处理导入
-            try (Workbook workbook = new XSSFWorkbook(file.getInputStream())) {
-                return processWorkbookImport(projectId, workbook, file.getOriginalFilename());
-            }
+            tempFile = java.nio.file.Files.createTempFile("issue-import-", ".xlsx");
+            file.transferTo(tempFile);
+            return issueImportService.importIssues(projectId, securityUtils.getCurrentUserId(), tempFile,
+                    file.getOriginalFilename());
 
         } catch (BusinessException e) {
             throw e;
@@ -811,6 +848,13 @@ public class IssueService {
             log.error("任务导入失败，项目ID: {}", projectId, e);
             throw new BusinessException(ResultCode.SYSTEM_ERROR, "任务导入失败: " + e.getMessage());
         } finally {
+            if (tempFile != null) {
+                try {
+                    java.nio.file.Files.deleteIfExists(tempFile);
+                } catch (IOException e) {
+                    log.warn("删除导入临时文件失败: {}", tempFile);
+                }
+            }
             MDC.clear();
         }
     }
@@ -822,7 +866,6 @@ public class IssueService {
      * @param filePath  Excel 文件路径
      * @return 导入结果
      */
-    @Transactional(rollbackFor = Exception.class)
     public IssueImportResultDTO importIssuesFromPath(Long projectId, String filePath) {
         MDC.put("operation", "import_issues_from_path");
         MDC.put("projectId", String.valueOf(projectId));
@@ -847,18 +890,15 @@ public class IssueService {
 
             // 验证文件格式
             String filename = file.getName();
-            if (!filename.endsWith(".xlsx") && !filename.endsWith(".xls")) {
-                throw new BusinessException(ResultCode.PARAM_INVALID, "只支持 Excel 文件格式 (.xlsx, .xls)");
+            if (!filename.endsWith(".xlsx")) {
+                throw new BusinessException(ResultCode.PARAM_INVALID, "只支持 Excel 文件格式 (.xlsx)");
             }
 
             // 验证项目和权限
             validateProjectAndPermission(projectId);
 
-            // 使用 Workbook 处理导入
-            try (java.io.FileInputStream fis = new java.io.FileInputStream(file);
-                    Workbook workbook = new XSSFWorkbook(fis)) {
-                return processWorkbookImport(projectId, workbook, filename);
-            }
+            return issueImportService.importIssues(projectId, securityUtils.getCurrentUserId(), file.toPath(),
+                    filename);
 
         } catch (BusinessException e) {
             throw e;
@@ -894,210 +934,6 @@ public class IssueService {
         }
     }
 
-    /**
-     * 处理 Workbook 导入
-     *
-     * @param projectId 项目ID
-     * @param workbook  Excel Workbook
-     * @param filename  文件名（用于日志）
-     * @return 导入结果
-     */
-    private IssueImportResultDTO processWorkbookImport(Long projectId, Workbook workbook, String filename)
-            throws Exception {
-        IssueImportResultDTO result = new IssueImportResultDTO();
-        User currentUser = securityUtils.getCurrentUser();
-        Long currentUserId = currentUser.getId();
-
-        Sheet sheet = workbook.getSheetAt(0);
-
-        // 跳过标题行，从第2行开始
-        int totalRows = sheet.getLastRowNum();
-        result.setTotal(totalRows);
-
-        for (int rowIndex = 1; rowIndex <= totalRows; rowIndex++) {
-            Row row = sheet.getRow(rowIndex);
-            if (row == null) {
-                result.incrementSkipped();
-                continue;
-            }
-
-            try {
-                processImportRow(row, rowIndex, projectId, currentUserId, result);
-            } catch (Exception e) {
-                String subject = "";
-                try {
-                    subject = getCellValueAsString(row.getCell(0));
-                } catch (Exception ignored) {
-                }
-                result.addError(rowIndex + 1, subject, e.getMessage());
-                log.error("任务导入失败，行: {}", rowIndex + 1, e);
-            }
-        }
-
-        log.info("任务导入完成，文件: {}, 总数: {}, 成功: {}, 失败: {}, 跳过: {}",
-                filename, result.getTotal(), result.getSuccess(), result.getFailed(), result.getSkipped());
-
-        return result;
-    }
-
-    /**
-     * 处理导入的单行数据
-     *
-     * @param row           Excel 行
-     * @param rowIndex      行索引（从1开始）
-     * @param projectId     项目ID
-     * @param currentUserId 当前用户ID
-     * @param result        导入结果
-     */
-    private void processImportRow(Row row, int rowIndex, Long projectId, Long currentUserId,
-            IssueImportResultDTO result) {
-        // 解析行数据
-        String subject = getCellValueAsString(row.getCell(0));
-        if (subject == null || subject.trim().isEmpty()) {
-            result.addError(rowIndex + 1, "", "任务标题不能为空");
-            return;
-        }
-
-        String trackerName = getCellValueAsString(row.getCell(1));
-        String statusName = getCellValueAsString(row.getCell(2));
-        String priorityName = getCellValueAsString(row.getCell(3));
-        String assignedToLogin = getCellValueAsString(row.getCell(4));
-        String description = getCellValueAsString(row.getCell(5));
-        String startDateStr = getCellValueAsString(row.getCell(6));
-        String dueDateStr = getCellValueAsString(row.getCell(7));
-        String estimatedHoursStr = getCellValueAsString(row.getCell(8));
-        String doneRatioStr = getCellValueAsString(row.getCell(9));
-
-        // 创建任务
-        Issue issue = new Issue();
-        issue.setProjectId(projectId);
-        issue.setSubject(subject.trim());
-        issue.setDescription(description);
-        issue.setAuthorId(currentUserId);
-        issue.setLockVersion(0);
-        LocalDateTime now = LocalDateTime.now();
-        issue.setCreatedOn(now);
-        issue.setUpdatedOn(now);
-
-        // 处理跟踪器
-        if (trackerName != null && !trackerName.trim().isEmpty()) {
-            Tracker tracker = findTrackerByName(trackerName.trim());
-            if (tracker != null) {
-                issue.setTrackerId(tracker.getId().intValue());
-            } else {
-                result.addError(rowIndex + 1, subject, "跟踪器不存在: " + trackerName);
-                return;
-            }
-        } else {
-            // 使用默认跟踪器 (Bug = 1)
-            issue.setTrackerId(1);
-        }
-
-        // 处理状态
-        if (statusName != null && !statusName.trim().isEmpty()) {
-            IssueStatus status = findStatusByName(statusName.trim());
-            if (status != null) {
-                issue.setStatusId(status.getId());
-            } else {
-                result.addError(rowIndex + 1, subject, "状态不存在: " + statusName);
-                return;
-            }
-        } else {
-            // 使用默认状态 (New = 1)
-            issue.setStatusId(1);
-        }
-
-        // 处理优先级
-        if (priorityName != null && !priorityName.trim().isEmpty()) {
-            Integer priorityId = findPriorityByName(priorityName.trim());
-            if (priorityId != null) {
-                issue.setPriorityId(priorityId);
-            } else {
-                result.addError(rowIndex + 1, subject, "优先级不存在: " + priorityName);
-                return;
-            }
-        } else {
-            // 使用默认优先级 (Normal = 2)
-            issue.setPriorityId(2);
-        }
-
-        // 处理指派人
-        if (assignedToLogin != null && !assignedToLogin.trim().isEmpty()) {
-            User assignedUser = findUserByLogin(assignedToLogin.trim());
-            if (assignedUser != null) {
-                issue.setAssignedToId(assignedUser.getId());
-            } else {
-                log.warn("指派人不存在，行: {}, 登录名: {}", rowIndex + 1, assignedToLogin);
-            }
-        }
-
-        // 处理开始日期
-        if (startDateStr != null && !startDateStr.trim().isEmpty()) {
-            try {
-                issue.setStartDate(java.time.LocalDate.parse(startDateStr.trim()));
-            } catch (Exception e) {
-                log.warn("开始日期格式错误，行: {}, 日期: {}", rowIndex + 1, startDateStr);
-            }
-        }
-
-        // 处理截止日期
-        if (dueDateStr != null && !dueDateStr.trim().isEmpty()) {
-            try {
-                issue.setDueDate(java.time.LocalDate.parse(dueDateStr.trim()));
-            } catch (Exception e) {
-                log.warn("截止日期格式错误，行: {}, 日期: {}", rowIndex + 1, dueDateStr);
-            }
-        }
-
-        // 处理预估工时
-        if (estimatedHoursStr != null && !estimatedHoursStr.trim().isEmpty()) {
-            try {
-                issue.setEstimatedHours(Float.parseFloat(estimatedHoursStr.trim()));
-            } catch (Exception e) {
-                log.warn("预估工时格式错误，行: {}, 工时: {}", rowIndex + 1, estimatedHoursStr);
-            }
-        }
-
-        // 处理完成度
-        if (doneRatioStr != null && !doneRatioStr.trim().isEmpty()) {
-            try {
-                int doneRatio = Integer.parseInt(doneRatioStr.trim());
-                if (doneRatio >= 0 && doneRatio <= 100) {
-                    issue.setDoneRatio(doneRatio);
-                }
-            } catch (Exception e) {
-                log.warn("完成度格式错误，行: {}, 完成度: {}", rowIndex + 1, doneRatioStr);
-            }
-        }
-
-        if (issue.getDoneRatio() == null) {
-            issue.setDoneRatio(0);
-        }
-
-        issue.setIsPrivate(false);
-
-        // 处理树形结构
-        updateTreeStructureOnCreate(issue);
-
-        // 保存任务
-        int insertResult = issueMapper.insert(issue);
-        if (insertResult <= 0) {
-            result.addError(rowIndex + 1, subject, "插入数据库失败");
-            return;
-        }
-
-        // 如果是顶级任务，更新 root_id
-        if (issue.getParentId() == null) {
-            updateRootIdForTopLevel(issue.getId());
-        }
-
-        // 记录任务创建
-        recordIssueCreation(issue);
-
-        result.incrementSuccess();
-        log.debug("任务导入成功，行: {}, 任务ID: {}", rowIndex + 1, issue.getId());
-    }
-
     /**
      * 生成导入模板 Excel 文件
      *
@@ -1164,141 +1000,6 @@ public class IssueService {
         }
     }
 
-    /**
-     * 获取单元格值作为字符串
-     */
-    private String getCellValueAsString(Cell cell) {
-        if (cell == null) {
-            return null;
-        }
-        switch (cell.getCellType()) {
-            case STRING:
-                return cell.getStringCellValue();
-            case NUMERIC:
-                if (DateUtil.isCellDateFormatted(cell)) {
-                    return cell.getLocalDateTimeCellValue().toString();
-                }
-                return String.valueOf((int) cell.getNumericCellValue());
-            case BOOLEAN:
-                return String.valueOf(cell.getBooleanCellValue());
-            case FORMULA:
-                return cell.getCellFormula();
-            default:
-                return null;
-        }
-    }
-
-    /**
-     * 根据名称查找跟踪器
-     */
-    private Tracker findTrackerByName(String name) {
-        LambdaQueryWrapper<Tracker> query = new LambdaQueryWrapper<>();
-        query.eq(Tracker::getName, name);
-        return trackerMapper.selectOne(query);
-    }
-
-    /**
-     * 根据名称查找状态
-     */
-    private IssueStatus findStatusByName(String name) {
-        LambdaQueryWrapper<IssueStatus> query = new LambdaQueryWrapper<>();
-        query.eq(IssueStatus::getName, name);
-        return issueStatusMapper.selectOne(query);
-    }
-
-    /**
-     * 根据名称查找优先级
-     */
-    private Integer findPriorityByName(String name) {
-        LambdaQueryWrapper<Enumeration> query = new LambdaQueryWrapper<>();
-        query.eq(Enumeration::getType, "IssuePriority")
-                .eq(Enumeration::getName, name);
-        Enumeration priority = enumerationMapper.selectOne(query);
-        return priority != null ? priority.getId() : null;
-    }
-
-    /**
-     * 根据登录名查找用户
-     */
-    private User findUserByLogin(String login) {
-        LambdaQueryWrapper<User> query = new LambdaQueryWrapper<>();
-        query.eq(User::getLogin, login);
-        return userMapper.selectOne(query);
-    }
-
-    /**
-     * 将 Issue 实体转换为 IssueListItemResponseDTO
-     *
-     * @param issue 任务实体
-     * @return 响应 DTO
-     */
-    private IssueListItemResponseDTO toIssueListItemResponseDTO(Issue issue) {
-        IssueListItemResponseDTO dto = new IssueListItemResponseDTO();
-        dto.setId(issue.getId());
-        dto.setTrackerId(issue.getTrackerId());
-        dto.setProjectId(issue.getProjectId());
-        dto.setSubject(issue.getSubject());
-        dto.setStatusId(issue.getStatusId());
-        dto.setPriorityId(issue.getPriorityId());
-        dto.setAssignedToId(issue.getAssignedToId());
-        dto.setAuthorId(issue.getAuthorId());
-        dto.setCreatedOn(issue.getCreatedOn());
-        dto.setUpdatedOn(issue.getUpdatedOn());
-        dto.setDueDate(issue.getDueDate());
-        dto.setDoneRatio(issue.getDoneRatio());
-        dto.setIsPrivate(issue.getIsPrivate());
-
-        // 填充关联信息
-        fillListItemRelatedInfo(dto, issue);
-
-        return dto;
-    }
-
-    /**
-     * 填充列表项关联信息（项目名称、跟踪器名称、状态名称等）
-     */
-    private void fillListItemRelatedInfo(IssueListItemResponseDTO dto, Issue issue) {
-        // 填充项目信息
-        Project project = projectMapper.selectById(issue.getProjectId());
-        if (project != null) {
-            dto.setProjectName(project.getName());
-        }
-
-        // 填充跟踪器信息
-        Tracker tracker = trackerMapper.selectById(issue.getTrackerId());
-        if (tracker != null) {
-            dto.setTrackerName(tracker.getName());
-        }
-
-        // 填充状态信息
-        IssueStatus status = issueStatusMapper.selectById(issue.getStatusId());
-        if (status != null) {
-            dto.setStatusName(status.getName());
-        }
-
-        // 填充创建者信息
-        User author = userMapper.selectById(issue.getAuthorId());
-        if (author != null) {
-            dto.setAuthorName(author.getLogin());
-        }
-
-        // 填充指派人信息
-        if (issue.getAssignedToId() != null) {
-            User assignedUser = userMapper.selectById(issue.getAssignedToId());
-            if (assignedUser != null) {
-                dto.setAssignedToName(assignedUser.getLogin());
-            }
-        }
-
-        // 填充优先级名称
-        if (issue.getPriorityId() != null) {
-            String priorityName = getPriorityName(issue.getPriorityId());
-            if (priorityName != null) {
-                dto.setPriorityName(priorityName);
-            }
-        }
-    }
-
     /**
      * 根据ID查询任务详情
      *
@@ -1531,6 +1232,8 @@ public class IssueService {
                 log.error("任务更新失败，更新数据库失败");
                 throw new BusinessException(ResultCode.SYSTEM_ERROR, "任务更新失败");
             }
+            issueCounterService.onIssueChanged(oldIssue, issue);
+            searchIndexService.indexIssue(issue.getId());
 
             log.info("任务更新成功，任务ID: {}", id);
 
@@ -1633,6 +1336,8 @@ public class IssueService {
                     throw new BusinessException(ResultCode.SYSTEM_ERROR,
                             "任务 ID: " + issue.getId() + " 更新失败");
                 }
+                issueCounterService.onIssueChanged(oldIssue, issue);
+                searchIndexService.indexIssue(issue.getId());
 
                 // 记录变更历史到 journals 表
                 recordIssueChanges(oldIssue, issue, null);
@@ -1905,6 +1610,8 @@ public class IssueService {
                 log.error("任务删除失败，删除数据库失败，任务ID: {}", id);
                 throw new BusinessException(ResultCode.SYSTEM_ERROR, "任务删除失败");
             }
+            issueCounterService.onIssueDeleted(issue);
+            searchIndexService.removeIssue(issue.getId());
 
             log.info("任务删除成功，任务ID: {}, 任务标题: {}", id, issue.getSubject());
 
@@ -2259,26 +1966,30 @@ public class IssueService {
                 }
             }
 
-            // 构建查询条件
+            // 构建查询条件（仅 WHERE 条件，统计在数据库中分组完成，不加载任务实体）
             LambdaQueryWrapper<Issue> queryWrapper = new LambdaQueryWrapper<>();
 
-            // 如果指定了项目ID，过滤项目
+            // 非管理员：查询一次当前用户是成员的项目ID集合，用于项目范围和私有任务可见性
+            Set<Long> memberProjectIds = Set.of();
+            if (!isAdmin) {
+                LambdaQueryWrapper<Member> memberQuery = new LambdaQueryWrapper<>();
+                memberQuery.eq(Member::getUserId, currentUserId);
+                memberProjectIds = memberMapper.selectList(memberQuery).stream()
+                        .map(Member::getProjectId)
+                        .collect(Collectors.toSet());
+            }
+
+            // 如果指定了项目ID，过滤项目（counterProjectIds 为 null 表示不限项目）
+            Collection<Long> counterProjectIds = null;
             if (projectId != null) {
                 queryWrapper.eq(Issue::getProjectId, projectId);
+                counterProjectIds = List.of(projectId);
             } else {
                 // 如果没有指定项目ID，需要根据权限过滤项目
                 if (!isAdmin) {
-                    // 获取当前用户是成员的项目ID集合
-                    LambdaQueryWrapper<Member> memberQuery = new LambdaQueryWrapper<>();
-                    memberQuery.eq(Member::getUserId, currentUserId);
-                    List<Member> members = memberMapper.selectList(memberQuery);
-                    Set<Long> memberProjectIds = members.stream()
-                            .map(Member::getProjectId)
-                            .collect(Collectors.toSet());
-
                     // 获取公开项目ID集合
                     LambdaQueryWrapper<Project> projectQuery = new LambdaQueryWrapper<>();
-                    projectQuery.eq(Project::getIsPublic, true);
+                    projectQuery.select(Project::getId).eq(Project::getIsPublic, true);
                     List<Project> publicProjects = projectMapper.selectList(projectQuery);
                     Set<Long> publicProjectIds = publicProjects.stream()
                             .map(Project::getId)
@@ -2306,28 +2017,20 @@ public class IssueService {
                     }
 
                     queryWrapper.in(Issue::getProjectId, accessibleProjectIds);
+                    counterProjectIds = accessibleProjectIds;
                 }
             }
 
-            // 查询所有符合条件的任务
-            List<Issue> allIssues = issueMapper.selectList(queryWrapper);
-
-            // 权限过滤：私有任务仅项目成员可见
-            List<Issue> filteredIssues = new ArrayList<>();
-            for (Issue issue : allIssues) {
-                // 检查私有任务权限
-                if (Boolean.TRUE.equals(issue.getIsPrivate()) && !isAdmin) {
-                    // 检查用户是否是项目成员
-                    LambdaQueryWrapper<Member> memberQuery = new LambdaQueryWrapper<>();
-                    memberQuery.eq(Member::getUserId, currentUserId)
-                            .eq(Member::getProjectId, issue.getProjectId());
-                    Member member = memberMapper.selectOne(memberQuery);
-                    if (member == null) {
-                        // 不是项目成员，跳过私有任务
-                        continue;
-                    }
+            // 权限过滤：私有任务仅项目成员可见（在 SQL 中完成）
+            if (!isAdmin) {
+                final Set<Long> finalMemberProjectIds = memberProjectIds;
+                if (finalMemberProjectIds.isEmpty()) {
+                    queryWrapper.eq(Issue::getIsPrivate, false);
+                } else {
+                    queryWrapper.and(w -> w.eq(Issue::getIsPrivate, false)
+                            .or()
+                            .in(Issue::getProjectId, finalMemberProjectIds));
                 }
-                filteredIssues.add(issue);
             }
 
             // 构建统计信息
@@ -2337,26 +2040,39 @@ public class IssueService {
                 statistics.setProjectName(project.getName());
             }
 
-            // 基本统计
-            int totalCount = filteredIssues.size();
-            statistics.setTotalCount(totalCount);
+            // 状态、跟踪器维度直接读取增量维护的任务计数器
+            Set<Long> memberProjectIdSet = memberProjectIds;
+            List<IssueCounter> counters = issueCounterService.listCounters(counterProjectIds, null).stream()
+                    .filter(c -> isAdmin || !Boolean.TRUE.equals(c.getIsPrivate())
+                            || memberProjectIdSet.contains(c.getProjectId()))
+                    .toList();
 
-            // 获取所有状态信息（用于判断是否已关闭）
+            // 获取所有状态信息（用于状态名称）
             List<IssueStatus> allStatuses = issueStatusMapper.selectList(null);
             Map<Integer, IssueStatus> statusMap = allStatuses.stream()
                     .collect(Collectors.toMap(IssueStatus::getId, s -> s));
 
-            // 统计进行中和已完成的任务
+            // 按状态、跟踪器汇总计数器，同时得到总数、进行中和已完成数量
+            int totalCount = 0;
             int inProgressCount = 0;
             int completedCount = 0;
-            for (Issue issue : filteredIssues) {
-                IssueStatus status = statusMap.get(issue.getStatusId());
-                if (status != null && Boolean.TRUE.equals(status.getIsClosed())) {
-                    completedCount++;
+            Map<Integer, Integer> statusCountMap = new HashMap<>();
+            Map<Long, int[]> trackerCountMap = new HashMap<>();
+            for (IssueCounter counter : counters) {
+                int count = counter.getIssueCount();
+                boolean closed = Boolean.TRUE.equals(counter.getIsClosed());
+                totalCount += count;
+                if (closed) {
+                    completedCount += count;
                 } else {
-                    inProgressCount++;
+                    inProgressCount += count;
                 }
+                statusCountMap.merge(counter.getStatusId(), count, Integer::sum);
+                int[] trackerCounts = trackerCountMap.computeIfAbsent(counter.getTrackerId().longValue(),
+                        k -> new int[2]);
+                trackerCounts[closed ? 1 : 0] += count;
             }
+            statistics.setTotalCount(totalCount);
             statistics.setInProgressCount(inProgressCount);
             statistics.setCompletedCount(completedCount);
 
@@ -2365,11 +2081,6 @@ public class IssueService {
             statistics.setCompletionRate(Math.round(completionRate * 100.0) / 100.0); // 保留两位小数
 
             // 按状态统计
-            Map<Integer, Integer> statusCountMap = new HashMap<>();
-            for (Issue issue : filteredIssues) {
-                statusCountMap.put(issue.getStatusId(),
-                        statusCountMap.getOrDefault(issue.getStatusId(), 0) + 1);
-            }
             List<IssueStatisticsResponseDTO.StatusStatistics> statusStatistics = new ArrayList<>();
             for (Map.Entry<Integer, Integer> entry : statusCountMap.entrySet()) {
                 IssueStatus status = statusMap.get(entry.getKey());
@@ -2387,28 +2098,16 @@ public class IssueService {
             statistics.setStatusStatistics(statusStatistics);
 
             // 按跟踪器统计（含打开/已关闭）
-            Map<Integer, int[]> trackerCountMap = new HashMap<>();
-            for (Issue issue : filteredIssues) {
-                int[] counts = trackerCountMap.computeIfAbsent(issue.getTrackerId(), k -> new int[2]);
-                IssueStatus status = statusMap.get(issue.getStatusId());
-                if (status != null && Boolean.TRUE.equals(status.getIsClosed())) {
-                    counts[1]++;
-                } else {
-                    counts[0]++;
-                }
-            }
             List<IssueStatisticsResponseDTO.TrackerStatistics> trackerStatistics = new ArrayList<>();
-            for (Map.Entry<Integer, int[]> entry : trackerCountMap.entrySet()) {
-                Tracker tracker = trackerMapper.selectById(entry.getKey().longValue());
-                if (tracker != null) {
-                    int open = entry.getValue()[0];
-                    int closed = entry.getValue()[1];
+            if (!trackerCountMap.isEmpty()) {
+                for (Tracker tracker : trackerMapper.selectBatchIds(trackerCountMap.keySet())) {
+                    int[] counts = trackerCountMap.get(tracker.getId());
                     IssueStatisticsResponseDTO.TrackerStatistics stat = new IssueStatisticsResponseDTO.TrackerStatistics();
                     stat.setTrackerId(tracker.getId().intValue());
                     stat.setTrackerName(tracker.getName());
-                    stat.setOpenCount(open);
-                    stat.setClosedCount(closed);
-                    stat.setCount(open + closed);
+                    stat.setOpenCount(counts[0]);
+                    stat.setClosedCount(counts[1]);
+                    stat.setCount(counts[0] + counts[1]);
                     trackerStatistics.add(stat);
                 }
             }
@@ -2417,41 +2116,60 @@ public class IssueService {
             statistics.setTrackerStatistics(trackerStatistics);
 
             // 按优先级统计
-            Map<Integer, Integer> priorityCountMap = new HashMap<>();
-            for (Issue issue : filteredIssues) {
-                priorityCountMap.put(issue.getPriorityId(),
-                        priorityCountMap.getOrDefault(issue.getPriorityId(), 0) + 1);
+            List<IssueGroupCountDTO> priorityRows = issueMapper.selectCountGroupByPriority(queryWrapper).stream()
+                    .filter(row -> row.getGroupKey() != null)
+                    .toList();
+            Map<Integer, String> priorityNames = new HashMap<>();
+            List<Integer> priorityIds = priorityRows.stream()
+                    .map(row -> row.getGroupKey().intValue())
+                    .toList();
+            if (!priorityIds.isEmpty()) {
+                LambdaQueryWrapper<Enumeration> priorityQuery = new LambdaQueryWrapper<>();
+                priorityQuery.in(Enumeration::getId, priorityIds)
+                        .eq(Enumeration::getType, "IssuePriority")
+                        .eq(Enumeration::getActive, true);
+                for (Enumeration priority : enumerationMapper.selectList(priorityQuery)) {
+                    priorityNames.put(priority.getId(), priority.getName());
+                }
             }
             List<IssueStatisticsResponseDTO.PriorityStatistics> priorityStatistics = new ArrayList<>();
-            for (Map.Entry<Integer, Integer> entry : priorityCountMap.entrySet()) {
+            for (IssueGroupCountDTO row : priorityRows) {
+                Integer priorityId = row.getGroupKey().intValue();
                 IssueStatisticsResponseDTO.PriorityStatistics stat = new IssueStatisticsResponseDTO.PriorityStatistics();
-                stat.setPriorityId(entry.getKey());
+                stat.setPriorityId(priorityId);
                 // 填充优先级名称
-                String priorityName = getPriorityName(entry.getKey());
-                stat.setPriorityName(priorityName != null ? priorityName : "优先级 " + entry.getKey());
-                stat.setCount(entry.getValue());
+                String priorityName = priorityNames.get(priorityId);
+                stat.setPriorityName(priorityName != null ? priorityName : "优先级 " + priorityId);
+                stat.setCount(row.getIssueCount().intValue());
                 priorityStatistics.add(stat);
             }
             // 按优先级ID排序
             priorityStatistics.sort((a, b) -> Integer.compare(a.getPriorityId(), b.getPriorityId()));
             statistics.setPriorityStatistics(priorityStatistics);
 
-            // 按指派人统计
-            Map<Long, Integer> assigneeCountMap = new HashMap<>();
-            for (Issue issue : filteredIssues) {
-                if (issue.getAssignedToId() != null) {
-                    assigneeCountMap.put(issue.getAssignedToId(),
-                            assigneeCountMap.getOrDefault(issue.getAssignedToId(), 0) + 1);
+            // 按指派人、创建者统计（用户信息批量查询）
+            List<IssueGroupCountDTO> assigneeRows = issueMapper.selectCountGroupByAssignee(queryWrapper).stream()
+                    .filter(row -> row.getGroupKey() != null)
+                    .toList();
+            List<IssueGroupCountDTO> authorRows = issueMapper.selectCountGroupByAuthor(queryWrapper);
+            Set<Long> statisticsUserIds = new java.util.HashSet<>();
+            assigneeRows.forEach(row -> statisticsUserIds.add(row.getGroupKey()));
+            authorRows.forEach(row -> statisticsUserIds.add(row.getGroupKey()));
+            Map<Long, User> statisticsUserMap = new HashMap<>();
+            if (!statisticsUserIds.isEmpty()) {
+                for (User user : userMapper.selectBatchIds(statisticsUserIds)) {
+                    statisticsUserMap.put(user.getId(), user);
                 }
             }
+
             List<IssueStatisticsResponseDTO.AssigneeStatistics> assigneeStatistics = new ArrayList<>();
-            for (Map.Entry<Long, Integer> entry : assigneeCountMap.entrySet()) {
-                User user = userMapper.selectById(entry.getKey());
+            for (IssueGroupCountDTO row : assigneeRows) {
+                User user = statisticsUserMap.get(row.getGroupKey());
                 if (user != null) {
                     IssueStatisticsResponseDTO.AssigneeStatistics stat = new IssueStatisticsResponseDTO.AssigneeStatistics();
                     stat.setUserId(user.getId());
                     stat.setUserName(user.getLogin());
-                    stat.setCount(entry.getValue());
+                    stat.setCount(row.getIssueCount().intValue());
                     assigneeStatistics.add(stat);
                 }
             }
@@ -2459,20 +2177,14 @@ public class IssueService {
             assigneeStatistics.sort((a, b) -> Integer.compare(b.getCount(), a.getCount()));
             statistics.setAssigneeStatistics(assigneeStatistics);
 
-            // 按创建者统计
-            Map<Long, Integer> authorCountMap = new HashMap<>();
-            for (Issue issue : filteredIssues) {
-                authorCountMap.put(issue.getAuthorId(),
-                        authorCountMap.getOrDefault(issue.getAuthorId(), 0) + 1);
-            }
             List<IssueStatisticsResponseDTO.AuthorStatistics> authorStatistics = new ArrayList<>();
-            for (Map.Entry<Long, Integer> entry : authorCountMap.entrySet()) {
-                User user = userMapper.selectById(entry.getKey());
+            for (IssueGroupCountDTO row : authorRows) {
+                User user = statisticsUserMap.get(row.getGroupKey());
                 if (user != null) {
                     IssueStatisticsResponseDTO.AuthorStatistics stat = new IssueStatisticsResponseDTO.AuthorStatistics();
                     stat.setUserId(user.getId());
                     stat.setUserName(user.getLogin());
-                    stat.setCount(entry.getValue());
+                    stat.setCount(row.getIssueCount().intValue());
                     authorStatistics.add(stat);
                 }
             }
@@ -2493,6 +2205,29 @@ public class IssueService {
         }
     }
 
+    /**
+     * 重建任务计数器
+     *
+     * @param projectId 项目ID（可选，不指定时重建全部项目）
+     * @return 重建后的计数器行数
+     */
+    public int rebuildIssueCounters(Long projectId) {
+        MDC.put("operation", "rebuild_issue_counters");
+        if (projectId != null) {
+            MDC.put("projectId", String.valueOf(projectId));
+        }
+
+        try {
+            if (projectId != null && projectMapper.selectById(projectId) == null) {
+                log.warn("项目不存在，项目ID: {}", projectId);
+                throw new BusinessException(ResultCode.PROJECT_NOT_FOUND);
+            }
+            return issueCounterService.rebuild(projectId);
+        } finally {
+            MDC.clear();
+        }
+    }
+
     /**
      * 获取任务可用的状态转换
      *
@@ -2732,6 +2467,8 @@ public class IssueService {
                 log.error("任务复制失败，插入数据库失败");
                 throw new BusinessException(ResultCode.SYSTEM_ERROR, "任务复制失败");
             }
+            issueCounterService.onIssueCreated(newIssue);
+            searchIndexService.indexIssue(newIssue.getId());
 
             Long newIssueId = newIssue.getId();
 
@@ -3029,6 +2766,8 @@ public class IssueService {
                 log.error("任务状态更新失败，更新数据库失败，任务ID: {}", id);
                 throw new BusinessException(ResultCode.SYSTEM_ERROR, "任务状态更新失败");
             }
+            issueCounterService.onIssueChanged(oldIssue, issue);
+            searchIndexService.indexIssue(issue.getId());
 
             log.info("任务状态更新成功，任务ID: {}, 旧状态ID: {}, 新状态ID: {}", id, oldStatusId, newStatusId);
 
@@ -3520,58 +3259,10 @@ public class IssueService {
             // 记录变更历史到 journals 表
             recordIssueChanges(oldIssue, issue, null);
 
-            // 发送通知给新指派人（如果指派人发生变化且新指派人存在）
+            // 通知新指派人（如果指派人发生变化且新指派人存在），写入发件箱，由后台合并发送
             if (assignedToId != null && assignedToId != 0 && !assignedToId.equals(oldAssignedToId)) {
-                try {
-                    // 获取新指派人信息
-                    User assignedUser = userMapper.selectById(assignedToId);
-                    if (assignedUser != null) {
-                        // 获取新指派人的邮箱地址
-                        LambdaQueryWrapper<EmailAddress> emailQuery = new LambdaQueryWrapper<>();
-                        emailQuery.eq(EmailAddress::getUserId, assignedToId)
-                                .eq(EmailAddress::getIsDefault, true)
-                                .eq(EmailAddress::getNotify, true);
-                        EmailAddress emailAddress = emailAddressMapper.selectOne(emailQuery);
-
-                        if (emailAddress != null && emailAddress.getAddress() != null
-                                && !emailAddress.getAddress().trim().isEmpty()) {
-                            // 获取项目信息
-                            Project project = projectMapper.selectById(issue.getProjectId());
-                            String projectName = project != null ? project.getName() : "未知项目";
-
-                            // 获取分配人姓名
-                            String assignerName = currentUser.getFirstname() + " " + currentUser.getLastname();
-                            assignerName = assignerName.trim();
-                            if (assignerName.isEmpty()) {
-                                assignerName = currentUser.getLogin();
-                            }
-
-                            // 获取指派人姓名
-                            String assigneeName = assignedUser.getFirstname() + " " + assignedUser.getLastname();
-                            assigneeName = assigneeName.trim();
-                            if (assigneeName.isEmpty()) {
-                                assigneeName = assignedUser.getLogin();
-                            }
-
-                            // 发送邮件通知
-                            emailService.sendIssueAssignmentEmail(
-                                    emailAddress.getAddress(),
-                                    assigneeName,
-                                    id,
-                                    issue.getSubject(),
-                                    projectName,
-                                    assignerName);
-                            log.info("任务分配通知邮件已发送，任务ID: {}, 指派人ID: {}, 邮箱: {}",
-                                    id, assignedToId, emailAddress.getAddress());
-                        } else {
-                            log.debug("新指派人未配置邮箱或已关闭通知，跳过邮件发送，任务ID: {}, 指派人ID: {}",
-                                    id, assignedToId);
-                        }
-                    }
-                } catch (Exception e) {
-                    // 邮件发送失败不应该影响任务分配流程，只记录错误日志
-                    log.error("发送任务分配通知邮件失败，任务ID: {}, 指派人ID: {}", id, assignedToId, e);
-                }
+                notificationOutboxService.enqueueIssueNotification(NotificationOutboxService.EVENT_ISSUE_ASSIGNED,
+                        id, currentUserId, List.of(assignedToId), null, null);
             }
 
             // 发送通用的更新通知给创建人和关注者
@@ -3629,10 +3320,8 @@ public class IssueService {
             List<Issue> filteredChildren = filterPrivateIssues(children, currentUserId, parentIssue.getProjectId(),
                     isAdmin);
 
-            // 转换为响应 DTO
-            List<IssueListItemResponseDTO> dtoList = filteredChildren.stream()
-                    .map(this::toIssueListItemResponseDTO)
-                    .toList();
+            // 转换为响应 DTO（批量填充关联信息）
+            List<IssueListItemResponseDTO> dtoList = issueListHydrator.toListItems(filteredChildren);
 
             log.info("任务子任务列表查询成功，任务ID: {}, 子任务数量: {}", id, dtoList.size());
             return dtoList;
@@ -3656,20 +3345,21 @@ public class IssueService {
     private List<Issue> getChildrenRecursive(Long parentId, boolean recursive) {
         List<Issue> allChildren = new ArrayList<>();
 
-        // 查询直接子任务
-        LambdaQueryWrapper<Issue> queryWrapper = new LambdaQueryWrapper<>();
-        queryWrapper.eq(Issue::getParentId, parentId);
-        queryWrapper.orderByAsc(Issue::getId);
-        List<Issue> directChildren = issueMapper.selectList(queryWrapper);
+        // 按层查询：每一层只执行一次 parent_id IN (...) 查询
+        List<Long> levelParentIds = List.of(parentId);
+        while (!levelParentIds.isEmpty()) {
+            LambdaQueryWrapper<Issue> queryWrapper = new LambdaQueryWrapper<>();
+            queryWrapper.in(Issue::getParentId, levelParentIds);
+            queryWrapper.orderByAsc(Issue::getId);
+            List<Issue> levelChildren = issueMapper.selectList(queryWrapper);
 
-        allChildren.addAll(directChildren);
+            allChildren.addAll(levelChildren);
 
-        // 如果递归查询，继续查询子任务的子任务
-        if (recursive) {
-            for (Issue child : directChildren) {
-                List<Issue> grandchildren = getChildrenRecursive(child.getId(), true);
-                allChildren.addAll(grandchildren);
+            // 如果不递归查询，只返回直接子任务
+            if (!recursive) {
+                break;
             }
+            levelParentIds = levelChildren.stream().map(Issue::getId).toList();
         }
 
         return allChildren;
@@ -4414,6 +4104,35 @@ public class IssueService {
                         .isNull(Journal::getPrivateNotes));
             }
 
+            // 游标分页：按 (created_on, id) 倒序定位，不执行 OFFSET 和 COUNT
+            if (requestDTO.isCursorPaging()) {
+                String sortKey = "journals:created_on:desc";
+                int pageSize = Math.min(size, KeysetCursor.MAX_PAGE_SIZE);
+                Long total = Boolean.TRUE.equals(requestDTO.getWithTotal())
+                        ? journalMapper.selectCount(queryWrapper) : null;
+                if (requestDTO.getCursor() != null && !requestDTO.getCursor().isBlank()) {
+                    KeysetCursor.decode(requestDTO.getCursor(), sortKey)
+                            .applySeek(queryWrapper, Journal::getCreatedOn, Journal::getId, false);
+                }
+                queryWrapper.orderByDesc(Journal::getCreatedOn)
+                        .orderByDesc(Journal::getId)
+                        .last("LIMIT " + (pageSize + 1));
+
+                List<Journal> journals = journalMapper.selectList(queryWrapper);
+                String nextCursor = null;
+                if (journals.size() > pageSize) {
+                    journals = journals.subList(0, pageSize);
+                    Journal last = journals.get(pageSize - 1);
+                    nextCursor = KeysetCursor.encode(sortKey, last.getCreatedOn(), last.getId());
+                }
+                log.info("任务活动日志游标查询成功，任务ID: {}, 本页 {} 条记录", issueId, journals.size());
+
+                List<IssueJournalResponseDTO> dtoList = journals.stream()
+                        .map(journal -> toIssueJournalResponseDTO(journal, issueId))
+                        .toList();
+                return PageResponse.ofCursor(dtoList, pageSize, nextCursor, total);
+            }
+
             // 按创建时间倒序排序（最新的在前）
             queryWrapper.orderByDesc(Journal::getCreatedOn)
                     .orderByDesc(Journal::getId);
@@ -5408,98 +5127,47 @@ public class IssueService {
 
     /**
      * 发送任务变更通知给相关人员
-     * 包括：创建人、被指派人、关注者
+     * 包括：创建人、被指派人、关注者。通知在当前事务中写入发件箱，由后台分发任务合并发送邮件
      *
      * @param issue    任务对象
      * @param oldIssue 旧任务对象（用于对比变更）
      * @param notes    备注信息（可选）
      */
     private void sendIssueUpdateNotification(Issue issue, Issue oldIssue, String notes) {
-        try {
-            // 获取当前用户
-            User currentUser = securityUtils.getCurrentUser();
-            Long currentUserId = currentUser.getId();
-            String updaterName = getUserDisplayName(currentUser);
-
-            // 获取项目信息
-            Project project = projectMapper.selectById(issue.getProjectId());
-            String projectName = project != null ? project.getName() : "未知项目";
-
-            // 生成变更摘要
-            String changesSummary = generateChangesSummary(oldIssue, issue);
-
-            // 收集需要通知的用户ID（避免重复）
-            Set<Long> recipientIds = new java.util.HashSet<>();
-
-            // 1. 添加创建人（如果不是当前用户）
-            if (issue.getAuthorId() != null && !issue.getAuthorId().equals(currentUserId)) {
-                recipientIds.add(issue.getAuthorId());
-            }
+        Long currentUserId = securityUtils.getCurrentUserId();
 
-            // 2. 添加被指派人（如果不是当前用户）
-            if (issue.getAssignedToId() != null && !issue.getAssignedToId().equals(currentUserId)) {
-                recipientIds.add(issue.getAssignedToId());
-            }
-
-            // 3. 添加关注者
-            LambdaQueryWrapper<Watcher> watcherQuery = new LambdaQueryWrapper<>();
-            watcherQuery.eq(Watcher::getWatchableType, "Issue")
-                    .eq(Watcher::getWatchableId, issue.getId());
-            List<Watcher> watchers = watcherMapper.selectList(watcherQuery);
-            for (Watcher watcher : watchers) {
-                Long watcherUserId = watcher.getUserId().longValue();
-                // 排除当前用户
-                if (!watcherUserId.equals(currentUserId)) {
-                    recipientIds.add(watcherUserId);
-                }
-            }
+        // 收集需要通知的用户ID（避免重复）
+        Set<Long> recipientIds = new java.util.HashSet<>();
 
-            // 发送邮件给所有收件人
-            for (Long recipientId : recipientIds) {
-                try {
-                    User recipient = userMapper.selectById(recipientId);
-                    if (recipient == null) {
-                        continue;
-                    }
+        // 1. 添加创建人（如果不是当前用户）
+        if (issue.getAuthorId() != null && !issue.getAuthorId().equals(currentUserId)) {
+            recipientIds.add(issue.getAuthorId());
+        }
 
-                    // 检查用户是否启用了邮件通知
-                    LambdaQueryWrapper<EmailAddress> emailQuery = new LambdaQueryWrapper<>();
-                    emailQuery.eq(EmailAddress::getUserId, recipientId)
-                            .eq(EmailAddress::getNotify, true);
-                    EmailAddress emailAddress = emailAddressMapper.selectOne(emailQuery);
-
-                    if (emailAddress != null && emailAddress.getAddress() != null
-                            && !emailAddress.getAddress().trim().isEmpty()) {
-                        String recipientName = getUserDisplayName(recipient);
-
-                        // 发送邮件通知
-                        emailService.sendIssueUpdateEmail(
-                                emailAddress.getAddress(),
-                                recipientName,
-                                issue.getId(),
-                                issue.getSubject(),
-                                projectName,
-                                updaterName,
-                                changesSummary,
-                                notes);
-
-                        log.debug("任务更新通知邮件已发送，任务ID: {}, 收件人ID: {}, 邮箱: {}",
-                                issue.getId(), recipientId, emailAddress.getAddress());
-                    }
-                } catch (Exception e) {
-                    // 单个邮件发送失败不影响其他邮件
-                    log.error("发送任务更新通知邮件失败，任务ID: {}, 收件人ID: {}", issue.getId(), recipientId, e);
-                }
-            }
+        // 2. 添加被指派人（如果不是当前用户）
+        if (issue.getAssignedToId() != null && !issue.getAssignedToId().equals(currentUserId)) {
+            recipientIds.add(issue.getAssignedToId());
+        }
 
-            if (!recipientIds.isEmpty()) {
-                log.info("任务更新通知已发送给 {} 位用户，任务ID: {}", recipientIds.size(), issue.getId());
+        // 3. 添加关注者
+        LambdaQueryWrapper<Watcher> watcherQuery = new LambdaQueryWrapper<>();
+        watcherQuery.eq(Watcher::getWatchableType, "Issue")
+                .eq(Watcher::getWatchableId, issue.getId());
+        List<Watcher> watchers = watcherMapper.selectList(watcherQuery);
+        for (Watcher watcher : watchers) {
+            Long watcherUserId = watcher.getUserId().longValue();
+            // 排除当前用户
+            if (!watcherUserId.equals(currentUserId)) {
+                recipientIds.add(watcherUserId);
             }
+        }
 
-        } catch (Exception e) {
-            // 邮件发送失败不应该影响任务更新流程，只记录错误日志
-            log.error("发送任务更新通知邮件失败，任务ID: {}", issue.getId(), e);
+        if (recipientIds.isEmpty()) {
+            return;
         }
+        notificationOutboxService.enqueueIssueNotification(NotificationOutboxService.EVENT_ISSUE_UPDATED,
+                issue.getId(), currentUserId, recipientIds, generateChangesSummary(oldIssue, issue), notes);
+        log.debug("任务更新通知已写入发件箱，任务ID: {}, 收件人数: {}", issue.getId(), recipientIds.size());
     }
 
     /**
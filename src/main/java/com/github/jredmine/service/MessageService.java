@@ -21,9 +21,7 @@ import com.github.jredmine.dto.response.board.MessageTopicListItemResponseDTO;
 import com.github.jredmine.entity.Attachment;
 import com.github.jredmine.entity.Board;
 import com.github.jredmine.entity.Comment;
-import com.github.jredmine.entity.EnabledModule;
 import com.github.jredmine.entity.Message;
-import com.github.jredmine.entity.Project;
 import com.github.jredmine.entity.User;
 import com.github.jredmine.enums.ProjectModule;
 import com.github.jredmine.enums.ResultCode;
@@ -32,8 +30,6 @@ import com.github.jredmine.mapper.BoardMapper;
 import com.github.jredmine.mapper.CommentMapper;
 import com.github.jredmine.mapper.MessageMapper;
 import com.github.jredmine.security.ProjectPermissionService;
-import com.github.jredmine.mapper.project.EnabledModuleMapper;
-import com.github.jredmine.mapper.project.ProjectMapper;
 import com.github.jredmine.mapper.user.UserMapper;
 import com.github.jredmine.util.SecurityUtils;
 import lombok.RequiredArgsConstructor;
@@ -59,8 +55,7 @@ public class MessageService {
 
     private final MessageMapper messageMapper;
     private final BoardMapper boardMapper;
-    private final EnabledModuleMapper enabledModuleMapper;
-    private final ProjectMapper projectMapper;
+    private final ProjectMetadataRegistry projectMetadataRegistry;
     private final UserMapper userMapper;
     private final SecurityUtils securityUtils;
     private final ProjectPermissionService projectPermissionService;
@@ -75,13 +70,7 @@ public class MessageService {
         if (dto == null || dto.getSubject() == null || dto.getSubject().isBlank()) {
             throw new BusinessException(ResultCode.PARAM_INVALID, "主题标题不能为空");
         }
-        Project project = projectMapper.selectById(projectId);
-        if (project == null) {
-            throw new BusinessException(ResultCode.PROJECT_NOT_FOUND);
-        }
-        if (!isBoardsEnabledForProject(projectId)) {
-            throw new BusinessException(ResultCode.BOARDS_NOT_ENABLED);
-        }
+        projectMetadataRegistry.requireModule(projectId, ProjectModule.BOARDS, ResultCode.BOARDS_NOT_ENABLED);
         Board board = getBoardByProjectAndId(projectId, boardId);
         Long currentUserId = securityUtils.getCurrentUserId();
         String subject = dto.getSubject().trim();
@@ -116,13 +105,7 @@ public class MessageService {
         if (dto == null || dto.getContent() == null || dto.getContent().isBlank()) {
             throw new BusinessException(ResultCode.PARAM_INVALID, "回复内容不能为空");
         }
-        Project project = projectMapper.selectById(projectId);
-        if (project == null) {
-            throw new BusinessException(ResultCode.PROJECT_NOT_FOUND);
-        }
-        if (!isBoardsEnabledForProject(projectId)) {
-            throw new BusinessException(ResultCode.BOARDS_NOT_ENABLED);
-        }
+        projectMetadataRegistry.requireModule(projectId, ProjectModule.BOARDS, ResultCode.BOARDS_NOT_ENABLED);
         Board board = getBoardByProjectAndId(projectId, boardId);
         Message topic = getTopicMessageOrThrow(boardId, topicMessageId);
         if (Boolean.TRUE.equals(topic.getLocked())) {
@@ -160,13 +143,7 @@ public class MessageService {
      */
     public PageResponse<MessageTopicListItemResponseDTO> listTopics(Long projectId, Integer boardId,
             Integer current, Integer size, String keyword) {
-        Project project = projectMapper.selectById(projectId);
-        if (project == null) {
-            throw new BusinessException(ResultCode.PROJECT_NOT_FOUND);
-        }
-        if (!isBoardsEnabledForProject(projectId)) {
-            throw new BusinessException(ResultCode.BOARDS_NOT_ENABLED);
-        }
+        projectMetadataRegistry.requireModule(projectId, ProjectModule.BOARDS, ResultCode.BOARDS_NOT_ENABLED);
         getBoardByProjectAndId(projectId, boardId);
         LambdaQueryWrapper<Message> wrapper = new LambdaQueryWrapper<>();
         wrapper.eq(Message::getBoardId, boardId)
@@ -194,13 +171,7 @@ public class MessageService {
      */
     public MessageTopicDetailResponseDTO getTopicDetail(Long projectId, Integer boardId, Integer messageId,
             Integer current, Integer size) {
-        Project project = projectMapper.selectById(projectId);
-        if (project == null) {
-            throw new BusinessException(ResultCode.PROJECT_NOT_FOUND);
-        }
-        if (!isBoardsEnabledForProject(projectId)) {
-            throw new BusinessException(ResultCode.BOARDS_NOT_ENABLED);
-        }
+        projectMetadataRegistry.requireModule(projectId, ProjectModule.BOARDS, ResultCode.BOARDS_NOT_ENABLED);
         getBoardByProjectAndId(projectId, boardId);
         Message topic = getTopicMessageOrThrow(boardId, messageId);
         MessageDetailResponseDTO topicDto = toMessageDetailResponse(topic);
@@ -237,13 +208,7 @@ public class MessageService {
         if (dto == null) {
             throw new BusinessException(ResultCode.PARAM_INVALID, "请求体不能为空");
         }
-        Project project = projectMapper.selectById(projectId);
-        if (project == null) {
-            throw new BusinessException(ResultCode.PROJECT_NOT_FOUND);
-        }
-        if (!isBoardsEnabledForProject(projectId)) {
-            throw new BusinessException(ResultCode.BOARDS_NOT_ENABLED);
-        }
+        projectMetadataRegistry.requireModule(projectId, ProjectModule.BOARDS, ResultCode.BOARDS_NOT_ENABLED);
         getBoardByProjectAndId(projectId, boardId);
         Message message = getMessageByBoardAndIdOrThrow(boardId, messageId);
         Long currentUserId = securityUtils.getCurrentUserId();
@@ -300,13 +265,7 @@ public class MessageService {
      */
     @Transactional(rollbackFor = Exception.class)
     public void deleteMessage(Long projectId, Integer boardId, Integer messageId) {
-        Project project = projectMapper.selectById(projectId);
-        if (project == null) {
-            throw new BusinessException(ResultCode.PROJECT_NOT_FOUND);
-        }
-        if (!isBoardsEnabledForProject(projectId)) {
-            throw new BusinessException(ResultCode.BOARDS_NOT_ENABLED);
-        }
+        projectMetadataRegistry.requireModule(projectId, ProjectModule.BOARDS, ResultCode.BOARDS_NOT_ENABLED);
         Board board = getBoardByProjectAndId(projectId, boardId);
         Message message = getMessageByBoardAndIdOrThrow(boardId, messageId);
         Long currentUserId = securityUtils.getCurrentUserId();
@@ -495,13 +454,7 @@ public class MessageService {
     }
 
     private void validateProjectBoardMessage(Long projectId, Integer boardId, Integer messageId) {
-        Project project = projectMapper.selectById(projectId);
-        if (project == null) {
-            throw new BusinessException(ResultCode.PROJECT_NOT_FOUND);
-        }
-        if (!isBoardsEnabledForProject(projectId)) {
-            throw new BusinessException(ResultCode.BOARDS_NOT_ENABLED);
-        }
+        projectMetadataRegistry.requireModule(projectId, ProjectModule.BOARDS, ResultCode.BOARDS_NOT_ENABLED);
         getBoardByProjectAndId(projectId, boardId);
         getMessageByBoardAndIdOrThrow(boardId, messageId);
     }
@@ -564,13 +517,6 @@ public class MessageService {
         return message;
     }
 
-    private boolean isBoardsEnabledForProject(Long projectId) {
-        LambdaQueryWrapper<EnabledModule> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(EnabledModule::getProjectId, projectId)
-                .eq(EnabledModule::getName, ProjectModule.BOARDS.getCode());
-        return enabledModuleMapper.selectCount(wrapper) > 0;
-    }
-
     private Board getBoardByProjectAndId(Long projectId, Integer boardId) {
         Board board = boardMapper.selectById(boardId);
         if (board == null || !board.getProjectId().equals(projectId.intValue())) {
@@ -0,0 +1,406 @@
+package com.github.jredmine.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.github.jredmine.entity.EmailAddress;
+import com.github.jredmine.entity.Issue;
+import com.github.jredmine.entity.NotificationOutbox;
+import com.github.jredmine.entity.Project;
+import com.github.jredmine.entity.User;
+import com.github.jredmine.mapper.NotificationOutboxMapper;
+import com.github.jredmine.mapper.issue.IssueMapper;
+import com.github.jredmine.mapper.project.ProjectMapper;
+import com.github.jredmine.mapper.user.EmailAddressMapper;
+import com.github.jredmine.mapper.user.UserMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 通知发件箱服务
+ * 任务变更时在业务事务中写入发件箱，由定时分发任务在后台发送邮件，请求耗时不依赖邮件服务器：
+ * <ul>
+ *     <li>同一任务、同一收件人在合并窗口内的多条通知合并为一封摘要邮件</li>
+ *     <li>收件人、邮箱、任务、项目均按批查询</li>
+ *     <li>一批邮件复用一个 SMTP 连接发送</li>
+ *     <li>发送失败按指数退避重试，超过最大次数后标记为失败</li>
+ * </ul>
+ *
+ * @author panfeng
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class NotificationOutboxService {
+
+    public static final String EVENT_ISSUE_UPDATED = "issue_updated";
+    public static final String EVENT_ISSUE_ASSIGNED = "issue_assigned";
+
+    private static final String STATUS_PENDING = "PENDING";
+    private static final String STATUS_SENT = "SENT";
+    private static final String STATUS_FAILED = "FAILED";
+    private static final String STATUS_SKIPPED = "SKIPPED";
+
+    private static final int LAST_ERROR_MAX_LENGTH = 500;
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private final NotificationOutboxMapper notificationOutboxMapper;
+    private final UserMapper userMapper;
+    private final EmailAddressMapper emailAddressMapper;
+    private final IssueMapper issueMapper;
+    private final ProjectMapper projectMapper;
+    private final EmailService emailService;
+
+    /**
+     * 是否启用后台分发
+     */
+    @Value("${notification.outbox.enabled:true}")
+    private Boolean enabled;
+
+    /**
+     * 合并窗口（毫秒）：通知写入后等待该时长再发送，窗口内同一任务的后续通知合并到同一封邮件
+     */
+    @Value("${notification.outbox.coalesce-window-ms:60000}")
+    private Long coalesceWindowMs;
+
+    /**
+     * 每次分发领取的 (任务, 收件人) 组合数
+     */
+    @Value("${notification.outbox.batch-size:200}")
+    private Integer batchSize;
+
+    /**
+     * 每个 SMTP 连接发送的邮件数
+     */
+    @Value("${notification.outbox.smtp-batch-size:50}")
+    private Integer smtpBatchSize;
+
+    /**
+     * 领取租约（毫秒）：分发任务异常退出后，租约到期的通知可被重新领取
+     */
+    @Value("${notification.outbox.lease-ms:300000}")
+    private Long leaseMs;
+
+    /**
+     * 最大发送次数
+     */
+    @Value("${notification.outbox.max-attempts:6}")
+    private Integer maxAttempts;
+
+    /**
+     * 首次重试间隔（毫秒），之后每次翻倍
+     */
+    @Value("${notification.outbox.retry-base-delay-ms:60000}")
+    private Long retryBaseDelayMs;
+
+    /**
+     * 已发送通知的保留天数
+     */
+    @Value("${notification.outbox.retention-days:7}")
+    private Integer retentionDays;
+
+    /**
+     * 写入任务通知（需在业务事务中调用，与任务变更一起提交或回滚）
+     *
+     * @param eventType      事件类型
+     * @param issueId        任务ID
+     * @param actorId        操作人ID
+     * @param recipientIds   收件人ID
+     * @param changesSummary 变更摘要
+     * @param notes          备注
+     */
+    public void enqueueIssueNotification(String eventType, Long issueId, Long actorId, Collection<Long> recipientIds,
+                                         String changesSummary, String notes) {
+        if (recipientIds == null || recipientIds.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime dueAt = now.plusNanos(Math.max(0L, coalesceWindowMs) * 1_000_000L);
+        List<NotificationOutbox> notifications = new ArrayList<>(recipientIds.size());
+        for (Long recipientId : recipientIds) {
+            NotificationOutbox notification = new NotificationOutbox();
+            notification.setEventType(eventType);
+            notification.setIssueId(issueId);
+            notification.setRecipientId(recipientId);
+            notification.setActorId(actorId);
+            notification.setChangesSummary(changesSummary);
+            notification.setNotes(notes);
+            notification.setStatus(STATUS_PENDING);
+            notification.setAttempts(0);
+            notification.setNextAttemptAt(dueAt);
+            notification.setCreatedOn(now);
+            notifications.add(notification);
+        }
+        notificationOutboxMapper.insertBatch(notifications);
+        log.debug("任务通知已写入发件箱，任务ID: {}, 事件: {}, 收件人数: {}", issueId, eventType, notifications.size());
+    }
+
+    /**
+     * 分发到期的通知，每次领取一批，直到没有到期的通知
+     */
+    @Scheduled(initialDelayString = "${notification.outbox.initial-delay-ms:30000}",
+            fixedDelayString = "${notification.outbox.dispatch-interval-ms:5000}")
+    public void dispatchPending() {
+        if (!Boolean.TRUE.equals(enabled)) {
+            return;
+        }
+        if (!emailService.isConfigured()) {
+            log.debug("邮件配置未设置（spring.mail.username），暂不分发通知");
+            return;
+        }
+        try {
+            while (dispatchBatch() >= batchSize) {
+                // 本批已满，继续领取下一批
+            }
+        } catch (Exception e) {
+            log.error("分发通知失败", e);
+        }
+    }
+
+    /**
+     * 领取并发送一批通知
+     *
+     * @return 领取的 (任务, 收件人) 组合数
+     */
+    private int dispatchBatch() {
+        String token = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        int claimed = notificationOutboxMapper.claimDue(token, now,
+                now.plusNanos(leaseMs * 1_000_000L), batchSize);
+        if (claimed == 0) {
+            return 0;
+        }
+        LambdaQueryWrapper<NotificationOutbox> wrapper = new LambdaQueryWrapper<>();
+        wrapper.eq(NotificationOutbox::getClaimToken, token)
+                .eq(NotificationOutbox::getStatus, STATUS_PENDING)
+                .orderByAsc(NotificationOutbox::getId);
+        List<NotificationOutbox> notifications = notificationOutboxMapper.selectList(wrapper);
+        if (notifications.isEmpty()) {
+            return 0;
+        }
+
+        // 按 (任务, 收件人) 合并
+        Map<String, List<NotificationOutbox>> groups = new LinkedHashMap<>();
+        for (NotificationOutbox notification : notifications) {
+            groups.computeIfAbsent(notification.getIssueId() + ":" + notification.getRecipientId(),
+                    key -> new ArrayList<>()).add(notification);
+        }
+
+        // 批量查询收件人、操作人、邮箱、任务和项目
+        Set<Long> userIds = new HashSet<>();
+        Set<Long> recipientIds = new HashSet<>();
+        Set<Long> issueIds = new HashSet<>();
+        for (NotificationOutbox notification : notifications) {
+            recipientIds.add(notification.getRecipientId());
+            userIds.add(notification.getRecipientId());
+            if (notification.getActorId() != null) {
+                userIds.add(notification.getActorId());
+            }
+            issueIds.add(notification.getIssueId());
+        }
+        Map<Long, User> users = toMap(userMapper.selectBatchIds(userIds), User::getId);
+        Map<Long, Issue> issues = toMap(issueMapper.selectBatchIds(issueIds), Issue::getId);
+        Set<Long> projectIds = issues.values().stream()
+                .map(Issue::getProjectId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Project> projects = projectIds.isEmpty() ? Collections.emptyMap()
+                : toMap(projectMapper.selectBatchIds(projectIds), Project::getId);
+        Map<Long, String> addresses = loadNotifyAddresses(recipientIds);
+
+        List<SimpleMailMessage> messages = new ArrayList<>();
+        Map<SimpleMailMessage, List<NotificationOutbox>> rowsByMessage = new IdentityHashMap<>();
+        List<Long> skippedIds = new ArrayList<>();
+        for (List<NotificationOutbox> group : groups.values()) {
+            NotificationOutbox first = group.get(0);
+            String address = addresses.get(first.getRecipientId());
+            Issue issue = issues.get(first.getIssueId());
+            User recipient = users.get(first.getRecipientId());
+            if (address == null || issue == null || recipient == null) {
+                // 收件人未配置邮箱、已关闭通知或任务已删除，不再发送
+                group.forEach(notification -> skippedIds.add(notification.getId()));
+                continue;
+            }
+            Project project = projects.get(issue.getProjectId());
+            SimpleMailMessage message = buildDigest(address, recipient, issue, project, group, users);
+            messages.add(message);
+            rowsByMessage.put(message, group);
+        }
+        markCompleted(skippedIds, STATUS_SKIPPED);
+
+        int chunkSize = smtpBatchSize != null && smtpBatchSize > 0 ? smtpBatchSize : messages.size();
+        for (int from = 0; from < messages.size(); from += chunkSize) {
+            List<SimpleMailMessage> chunk = messages.subList(from, Math.min(from + chunkSize, messages.size()));
+            Map<SimpleMailMessage, Exception> failures = emailService.sendBatch(chunk);
+            List<Long> sentIds = new ArrayList<>();
+            for (SimpleMailMessage message : chunk) {
+                Exception failure = failures.get(message);
+                if (failure == null) {
+                    rowsByMessage.get(message).forEach(notification -> sentIds.add(notification.getId()));
+                } else {
+                    scheduleRetry(rowsByMessage.get(message), failure);
+                }
+            }
+            markCompleted(sentIds, STATUS_SENT);
+        }
+        log.info("通知分发完成，通知数: {}, 邮件数: {}, 跳过: {}", notifications.size(), messages.size(), skippedIds.size());
+        return groups.size();
+    }
+
+    /**
+     * 批量查询接收通知的邮箱（优先默认邮箱）
+     */
+    private Map<Long, String> loadNotifyAddresses(Set<Long> userIds) {
+        LambdaQueryWrapper<EmailAddress> wrapper = new LambdaQueryWrapper<>();
+        wrapper.in(EmailAddress::getUserId, userIds)
+                .eq(EmailAddress::getNotify, true);
+        Map<Long, String> addresses = new HashMap<>();
+        for (EmailAddress emailAddress : emailAddressMapper.selectList(wrapper)) {
+            if (!StringUtils.hasText(emailAddress.getAddress())) {
+                continue;
+            }
+            if (Boolean.TRUE.equals(emailAddress.getIsDefault()) || !addresses.containsKey(emailAddress.getUserId())) {
+                addresses.put(emailAddress.getUserId(), emailAddress.getAddress().trim());
+            }
+        }
+        return addresses;
+    }
+
+    /**
+     * 生成摘要邮件：同一任务的多条通知按时间顺序列出
+     */
+    private SimpleMailMessage buildDigest(String address, User recipient, Issue issue, Project project,
+                                          List<NotificationOutbox> group, Map<Long, User> users) {
+        boolean assigned = group.stream().anyMatch(n -> EVENT_ISSUE_ASSIGNED.equals(n.getEventType()));
+        String subject = String.format(assigned ? "任务分配通知 - %s" : "任务更新通知 - %s", issue.getSubject());
+        if (group.size() > 1) {
+            subject += String.format("（%d 条更新）", group.size());
+        }
+
+        StringBuilder text = new StringBuilder();
+        text.append(String.format(
+                """
+                        您好 %s，
+                        
+                        %s
+                        
+                        任务ID: #%d
+                        任务标题: %s
+                        所属项目: %s
+                        """,
+                getUserDisplayName(recipient), assigned ? "您已被分配了一个任务：" : "任务已更新：",
+                issue.getId(), issue.getSubject(), project != null ? project.getName() : "未知项目"));
+
+        for (NotificationOutbox notification : group) {
+            String actorName = getUserDisplayName(users.get(notification.getActorId()));
+            text.append("\n[").append(notification.getCreatedOn().format(TIME_FORMATTER)).append("] ");
+            if (EVENT_ISSUE_ASSIGNED.equals(notification.getEventType())) {
+                text.append("分配人: ").append(actorName).append("\n");
+            } else {
+                text.append("更新人: ").append(actorName).append("\n");
+            }
+            if (StringUtils.hasText(notification.getChangesSummary())) {
+                text.append("变更内容:\n").append(notification.getChangesSummary()).append("\n");
+            }
+            if (StringUtils.hasText(notification.getNotes())) {
+                text.append("备注: ").append(notification.getNotes()).append("\n");
+            }
+        }
+
+        text.append("""
+                
+                请查看任务详情。
+                
+                此邮件由系统自动发送，请勿回复。""");
+        return emailService.createMessage(address, subject, text.toString());
+    }
+
+    private void markCompleted(List<Long> ids, String status) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        LambdaUpdateWrapper<NotificationOutbox> wrapper = new LambdaUpdateWrapper<>();
+        wrapper.in(NotificationOutbox::getId, ids)
+                .set(NotificationOutbox::getStatus, status)
+                .set(NotificationOutbox::getSentOn, LocalDateTime.now())
+                .set(NotificationOutbox::getClaimToken, null);
+        notificationOutboxMapper.update(null, wrapper);
+    }
+
+    /**
+     * 发送失败：按指数退避安排重试，超过最大次数后标记为失败
+     */
+    private void scheduleRetry(List<NotificationOutbox> group, Exception failure) {
+        String error = failure.getMessage() != null ? failure.getMessage() : failure.getClass().getSimpleName();
+        if (error.length() > LAST_ERROR_MAX_LENGTH) {
+            error = error.substring(0, LAST_ERROR_MAX_LENGTH);
+        }
+        for (NotificationOutbox notification : group) {
+            int attempts = (notification.getAttempts() != null ? notification.getAttempts() : 0) + 1;
+            boolean exhausted = attempts >= maxAttempts;
+            long delayMs = retryBaseDelayMs << Math.min(attempts - 1, 16);
+            LambdaUpdateWrapper<NotificationOutbox> wrapper = new LambdaUpdateWrapper<>();
+            wrapper.eq(NotificationOutbox::getId, notification.getId())
+                    .set(NotificationOutbox::getAttempts, attempts)
+                    .set(NotificationOutbox::getStatus, exhausted ? STATUS_FAILED : STATUS_PENDING)
+                    .set(NotificationOutbox::getNextAttemptAt, LocalDateTime.now().plusNanos(delayMs * 1_000_000L))
+                    .set(NotificationOutbox::getClaimToken, null)
+                    .set(NotificationOutbox::getLastError, error);
+            notificationOutboxMapper.update(null, wrapper);
+            if (exhausted) {
+                log.error("任务通知发送失败且已达最大重试次数，通知ID: {}, 任务ID: {}, 收件人ID: {}, 错误: {}",
+                        notification.getId(), notification.getIssueId(), notification.getRecipientId(), error);
+            }
+        }
+        log.warn("任务通知发送失败，将重试，任务ID: {}, 收件人ID: {}, 错误: {}",
+                group.get(0).getIssueId(), group.get(0).getRecipientId(), error);
+    }
+
+    /**
+     * 定期删除已发送和已跳过的历史通知
+     */
+    @Scheduled(cron = "${notification.outbox.cleanup-cron:0 30 3 * * ?}")
+    public void cleanupSent() {
+        LambdaQueryWrapper<NotificationOutbox> wrapper = new LambdaQueryWrapper<>();
+        wrapper.in(NotificationOutbox::getStatus, STATUS_SENT, STATUS_SKIPPED)
+                .lt(NotificationOutbox::getSentOn, LocalDateTime.now().minusDays(retentionDays));
+        int deleted = notificationOutboxMapper.delete(wrapper);
+        if (deleted > 0) {
+            log.info("清理已发送通知: 数量={}", deleted);
+        }
+    }
+
+    private String getUserDisplayName(User user) {
+        if (user == null) {
+            return "未知用户";
+        }
+        String displayName = ((user.getFirstname() != null ? user.getFirstname() : "") + " "
+                + (user.getLastname() != null ? user.getLastname() : "")).trim();
+        return displayName.isEmpty() ? user.getLogin() : displayName;
+    }
+
+    private static <T> Map<Long, T> toMap(List<T> list, Function<T, Long> idGetter) {
+        return list.stream().collect(Collectors.toMap(idGetter, item -> item, (a, b) -> a));
+    }
+}
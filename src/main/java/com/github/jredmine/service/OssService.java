@@ -2,6 +2,7 @@ package com.github.jredmine.service;
 
 import com.aliyun.oss.OSS;
 import com.aliyun.oss.OSSClientBuilder;
+import com.aliyun.oss.model.GetObjectRequest;
 import com.aliyun.oss.model.ObjectMetadata;
 import com.aliyun.oss.model.PutObjectRequest;
 import com.github.jredmine.enums.SettingKey;
@@ -125,6 +126,29 @@ public class OssService {
         }
     }
 
+    /**
+     * 从OSS读取文件的指定字节区间（直接返回对象流，不检查对象是否存在）
+     *
+     * @param objectKey OSS对象键
+     * @param start     起始字节（包含）
+     * @param end       结束字节（包含）
+     * @return 文件输入流
+     */
+    public InputStream downloadFile(String objectKey, long start, long end) {
+        try {
+            OSS client = getOssClient();
+            String fullObjectKey = objectKey.startsWith(pathPrefix) ? objectKey : buildObjectKey(objectKey);
+
+            GetObjectRequest request = new GetObjectRequest(bucketName, fullObjectKey);
+            request.setRange(start, end);
+            return client.getObject(request).getObjectContent();
+
+        } catch (Exception e) {
+            log.error("从OSS下载文件失败: objectKey={}, range={}-{}, error={}", objectKey, start, end, e.getMessage(), e);
+            throw new BusinessException("从OSS下载文件失败: " + e.getMessage());
+        }
+    }
+
     /**
      * 从OSS删除文件
      *
@@ -151,6 +175,23 @@ public class OssService {
         }
     }
 
+    /**
+     * 读取OSS对象的实际大小（只请求对象元数据，不下载内容）
+     *
+     * @param objectKey OSS对象键
+     * @return 对象字节数
+     */
+    public long getFileLength(String objectKey) {
+        try {
+            OSS client = getOssClient();
+            String fullObjectKey = objectKey.startsWith(pathPrefix) ? objectKey : buildObjectKey(objectKey);
+            return client.getObjectMetadata(bucketName, fullObjectKey).getContentLength();
+        } catch (Exception e) {
+            log.error("读取OSS文件元数据失败: objectKey={}, error={}", objectKey, e.getMessage(), e);
+            throw new BusinessException("读取OSS文件信息失败: " + e.getMessage());
+        }
+    }
+
     /**
      * 检查OSS文件是否存在
      *
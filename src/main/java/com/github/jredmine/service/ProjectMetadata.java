@@ -0,0 +1,112 @@
+package com.github.jredmine.service;
+
+import com.github.jredmine.entity.Project;
+import com.github.jredmine.enums.ProjectModule;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * 项目元数据快照
+ * 保存项目的状态、是否公开、父项目、嵌套集边界和已启用模块，
+ * 实例不可变，由 {@link ProjectMetadataRegistry} 缓存并在多个线程间共享。
+ *
+ * @author panfeng
+ */
+public final class ProjectMetadata {
+
+    private final Long id;
+    private final String name;
+    private final String identifier;
+    private final Integer status;
+    private final boolean isPublic;
+    private final Long parentId;
+    private final Integer lft;
+    private final Integer rgt;
+    private final Set<ProjectModule> enabledModules;
+
+    private ProjectMetadata(Project project, EnumSet<ProjectModule> enabledModules) {
+        this.id = project.getId();
+        this.name = project.getName();
+        this.identifier = project.getIdentifier();
+        this.status = project.getStatus();
+        this.isPublic = Boolean.TRUE.equals(project.getIsPublic());
+        this.parentId = project.getParentId();
+        this.lft = project.getLft();
+        this.rgt = project.getRgt();
+        this.enabledModules = Collections.unmodifiableSet(enabledModules);
+    }
+
+    /**
+     * 根据项目和已启用模块名称构建快照（未知的模块名称忽略）
+     *
+     * @param project     项目
+     * @param moduleNames 已启用模块名称
+     * @return 项目元数据
+     */
+    public static ProjectMetadata of(Project project, Collection<String> moduleNames) {
+        EnumSet<ProjectModule> modules = EnumSet.noneOf(ProjectModule.class);
+        if (moduleNames != null) {
+            for (String moduleName : moduleNames) {
+                ProjectModule module = ProjectModule.fromCode(moduleName);
+                if (module != null) {
+                    modules.add(module);
+                }
+            }
+        }
+        return new ProjectMetadata(project, modules);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getIdentifier() {
+        return identifier;
+    }
+
+    public Integer getStatus() {
+        return status;
+    }
+
+    public boolean isPublic() {
+        return isPublic;
+    }
+
+    public Long getParentId() {
+        return parentId;
+    }
+
+    public Integer getLft() {
+        return lft;
+    }
+
+    public Integer getRgt() {
+        return rgt;
+    }
+
+    /**
+     * 获取已启用模块（只读）
+     *
+     * @return 已启用模块集合
+     */
+    public Set<ProjectModule> getEnabledModules() {
+        return enabledModules;
+    }
+
+    /**
+     * 检查是否启用了指定模块
+     *
+     * @param module 项目模块
+     * @return true 如果已启用
+     */
+    public boolean isModuleEnabled(ProjectModule module) {
+        return module != null && enabledModules.contains(module);
+    }
+}
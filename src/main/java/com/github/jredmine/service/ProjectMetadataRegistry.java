@@ -0,0 +1,188 @@
+package com.github.jredmine.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.github.jredmine.entity.EnabledModule;
+import com.github.jredmine.entity.Project;
+import com.github.jredmine.enums.ProjectModule;
+import com.github.jredmine.enums.ResultCode;
+import com.github.jredmine.exception.BusinessException;
+import com.github.jredmine.mapper.project.EnabledModuleMapper;
+import com.github.jredmine.mapper.project.ProjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 项目元数据注册表
+ * 按项目ID缓存 {@link ProjectMetadata}，使 Wiki、论坛、消息、文档等接口的项目存在性和模块启用检查
+ * 在缓存命中时只读内存。项目创建、更新、归档、删除、复制时需调用 evict* 方法使缓存失效；
+ * 缓存条目另有有效期，多实例部署时其它实例的变更最迟在有效期后生效。
+ *
+ * @author panfeng
+ */
+@Slf4j
+@Component
+public class ProjectMetadataRegistry {
+
+    private final ProjectMapper projectMapper;
+    private final EnabledModuleMapper enabledModuleMapper;
+
+    /**
+     * 缓存有效期（毫秒）
+     */
+    private final long ttlMillis;
+
+    /**
+     * 缓存最大条目数，超过后整体清空
+     */
+    private final int maxSize;
+
+    private final Map<Long, CachedMetadata> cache = new ConcurrentHashMap<>();
+
+    public ProjectMetadataRegistry(
+            ProjectMapper projectMapper,
+            EnabledModuleMapper enabledModuleMapper,
+            @Value("${project.metadata-cache.ttl-seconds:300}") long ttlSeconds,
+            @Value("${project.metadata-cache.max-size:10000}") int maxSize) {
+        this.projectMapper = projectMapper;
+        this.enabledModuleMapper = enabledModuleMapper;
+        this.ttlMillis = ttlSeconds * 1000L;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * 获取项目元数据
+     *
+     * @param projectId 项目ID
+     * @return 项目元数据，项目不存在返回 null
+     */
+    public ProjectMetadata get(Long projectId) {
+        if (projectId == null) {
+            return null;
+        }
+        CachedMetadata cached = cache.get(projectId);
+        if (cached != null) {
+            if (cached.expiresAt >= System.currentTimeMillis()) {
+                return cached.metadata;
+            }
+            cache.remove(projectId, cached);
+        }
+        ProjectMetadata metadata = load(projectId);
+        if (metadata == null || ttlMillis <= 0) {
+            return metadata;
+        }
+        if (cache.size() >= maxSize) {
+            log.debug("项目元数据缓存已满，清空缓存，当前大小: {}", cache.size());
+            cache.clear();
+        }
+        cache.put(projectId, new CachedMetadata(metadata, System.currentTimeMillis() + ttlMillis));
+        return metadata;
+    }
+
+    /**
+     * 获取项目元数据，项目不存在时抛出 PROJECT_NOT_FOUND
+     *
+     * @param projectId 项目ID
+     * @return 项目元数据
+     */
+    public ProjectMetadata getOrThrow(Long projectId) {
+        ProjectMetadata metadata = get(projectId);
+        if (metadata == null) {
+            throw new BusinessException(ResultCode.PROJECT_NOT_FOUND);
+        }
+        return metadata;
+    }
+
+    /**
+     * 检查项目是否启用了指定模块
+     *
+     * @param projectId 项目ID
+     * @param module    项目模块
+     * @return true 如果项目存在且已启用该模块
+     */
+    public boolean isModuleEnabled(Long projectId, ProjectModule module) {
+        ProjectMetadata metadata = get(projectId);
+        return metadata != null && metadata.isModuleEnabled(module);
+    }
+
+    /**
+     * 要求项目存在且已启用指定模块
+     *
+     * @param projectId  项目ID
+     * @param module     项目模块
+     * @param notEnabled 模块未启用时使用的错误码
+     * @return 项目元数据
+     */
+    public ProjectMetadata requireModule(Long projectId, ProjectModule module, ResultCode notEnabled) {
+        ProjectMetadata metadata = getOrThrow(projectId);
+        if (!metadata.isModuleEnabled(module)) {
+            throw new BusinessException(notEnabled);
+        }
+        return metadata;
+    }
+
+    /**
+     * 项目信息或启用模块变更时调用：使该项目的缓存失效
+     *
+     * @param projectId 项目ID
+     */
+    public void evictProject(Long projectId) {
+        if (projectId == null) {
+            return;
+        }
+        runNowAndAfterCommit(() -> cache.remove(projectId));
+    }
+
+    /**
+     * 从数据库加载项目及其已启用模块
+     */
+    private ProjectMetadata load(Long projectId) {
+        Project project = projectMapper.selectById(projectId);
+        if (project == null) {
+            return null;
+        }
+        LambdaQueryWrapper<EnabledModule> wrapper = new LambdaQueryWrapper<>();
+        wrapper.select(EnabledModule::getName)
+                .eq(EnabledModule::getProjectId, projectId);
+        List<String> moduleNames = enabledModuleMapper.selectList(wrapper).stream()
+                .map(EnabledModule::getName)
+                .collect(Collectors.toList());
+        return ProjectMetadata.of(project, moduleNames);
+    }
+
+    /**
+     * 立即执行缓存失效；若处于事务中，提交后再执行一次，
+     * 防止事务提交前被并发请求以旧数据重新填充缓存
+     */
+    private void runNowAndAfterCommit(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        }
+    }
+
+    /**
+     * 缓存值：项目元数据 + 过期时间
+     */
+    private static final class CachedMetadata {
+        private final ProjectMetadata metadata;
+        private final long expiresAt;
+
+        private CachedMetadata(ProjectMetadata metadata, long expiresAt) {
+            this.metadata = metadata;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -5,6 +5,10 @@ import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.github.yulichang.wrapper.MPJLambdaWrapper;
 import com.github.yulichang.toolkit.JoinWrappers;
+import com.github.jredmine.dto.aggregate.IssueDailyCountDTO;
+import com.github.jredmine.dto.aggregate.IssueDateRangeDTO;
+import com.github.jredmine.dto.aggregate.IssueGroupCountDTO;
+import com.github.jredmine.dto.aggregate.VersionHoursSumDTO;
 import com.github.jredmine.dto.request.project.MemberRoleAssignRequestDTO;
 import com.github.jredmine.dto.request.project.ProjectArchiveRequestDTO;
 import com.github.jredmine.dto.request.project.ProjectCopyRequestDTO;
@@ -56,6 +60,7 @@ import com.github.jredmine.entity.Tracker;
 import com.github.jredmine.entity.User;
 import com.github.jredmine.entity.Version;
 import com.github.jredmine.entity.Issue;
+import com.github.jredmine.entity.IssueCounter;
 import com.github.jredmine.enums.ProjectModule;
 import com.github.jredmine.enums.ProjectStatus;
 import com.github.jredmine.enums.ResultCode;
@@ -89,6 +94,7 @@ import com.github.jredmine.util.SecurityUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.MDC;
+import org.springframework.beans.BeanUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -101,6 +107,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 /**
@@ -132,8 +139,12 @@ public class ProjectService {
     private final JournalDetailMapper journalDetailMapper;
     private final SecurityUtils securityUtils;
     private final ProjectPermissionService projectPermissionService;
+    private final ProjectMetadataRegistry projectMetadataRegistry;
     private final IssueService issueService;
     private final WikiService wikiService;
+    private final IssueListHydrator issueListHydrator;
+    private final IssueCounterService issueCounterService;
+    private final SearchIndexService searchIndexService;
 
     /**
      * 分页查询项目列表
@@ -406,6 +417,8 @@ public class ProjectService {
             // 保存项目
             projectMapper.insert(project);
             Long projectId = project.getId();
+            projectMetadataRegistry.evictProject(projectId);
+            searchIndexService.indexProject(projectId);
             log.debug("项目创建成功，项目ID: {}", projectId);
 
             // 创建项目成员（创建者自动成为成员）
@@ -415,6 +428,7 @@ public class ProjectService {
             member.setCreatedOn(now);
             member.setMailNotification(false);
             memberMapper.insert(member);
+            projectPermissionService.evictMemberPermissions(currentUserId, projectId);
             log.debug("项目成员创建成功，项目ID: {}, 用户ID: {}", projectId, currentUserId);
 
             // 创建启用的模块记录
@@ -557,6 +571,8 @@ public class ProjectService {
 
             // 保存项目
             projectMapper.updateById(project);
+            projectMetadataRegistry.evictProject(id);
+            searchIndexService.indexProject(id);
             log.debug("项目信息更新成功，项目ID: {}", id);
 
             // 更新启用的模块（如果提供了模块列表）
@@ -687,6 +703,7 @@ public class ProjectService {
             project.setStatus(ProjectStatus.ARCHIVED.getCode());
             project.setUpdatedOn(new Date());
             projectMapper.updateById(project);
+            projectMetadataRegistry.evictProject(id);
 
             log.info("项目删除成功（已归档），项目ID: {}, 项目名称: {}", id, project.getName());
 
@@ -777,6 +794,8 @@ public class ProjectService {
             // 保存新项目
             projectMapper.insert(newProject);
             Long newProjectId = newProject.getId();
+            projectMetadataRegistry.evictProject(newProjectId);
+            searchIndexService.indexProject(newProjectId);
             log.debug("新项目创建成功，项目ID: {}, 项目名称: {}", newProjectId, requestDTO.getName());
 
             // 创建项目成员（创建者自动成为成员）
@@ -850,6 +869,7 @@ public class ProjectService {
                 }
                 log.debug("项目成员复制成功，项目ID: {}, 成员数量: {}", newProjectId, sourceMembers.size());
             }
+            projectPermissionService.evictProjectPermissions(newProjectId);
 
             // 复制版本（暂不支持，记录日志）
             if (Boolean.TRUE.equals(requestDTO.getCopyVersions())) {
@@ -945,6 +965,7 @@ public class ProjectService {
             // 更新项目
             project.setUpdatedOn(new Date());
             projectMapper.updateById(project);
+            projectMetadataRegistry.evictProject(id);
 
             // 重新查询项目（获取最新数据）
             project = projectMapper.selectById(id);
@@ -1281,6 +1302,7 @@ public class ProjectService {
                 log.debug("项目成员角色关联创建成功，项目ID: {}, 成员ID: {}, 角色数量: {}",
                         projectId, memberId, requestDTO.getRoleIds().size());
             }
+            projectPermissionService.evictMemberPermissions(requestDTO.getUserId(), projectId);
 
             // 查询并返回成员信息（使用 listProjectMembers 的逻辑，但只查询当前成员）
             // 简化处理：直接构造响应DTO
@@ -1419,6 +1441,7 @@ public class ProjectService {
                     log.debug("项目成员角色关联更新成功，成员ID: {}, 角色数量: {}",
                             memberId, requestDTO.getRoleIds().size());
                 }
+                projectPermissionService.evictMemberPermissions(member.getUserId(), projectId);
             }
 
             // 查询并返回更新后的成员信息
@@ -1528,6 +1551,7 @@ public class ProjectService {
 
             // 删除成员记录（members 表）
             memberMapper.deleteById(memberId);
+            projectPermissionService.evictMemberPermissions(member.getUserId(), projectId);
             log.debug("删除成员记录，成员ID: {}", memberId);
 
             log.info("项目成员移除成功，项目ID: {}, 成员ID: {}, 用户ID: {}",
@@ -1634,6 +1658,8 @@ public class ProjectService {
                 log.debug("角色分配成功，成员ID: {}, 角色ID: {}", memberId, roleId);
             }
 
+            projectPermissionService.evictMemberPermissions(member.getUserId(), projectId);
+
             log.info("项目成员角色分配成功，项目ID: {}, 成员ID: {}, 新增角色数量: {}",
                     projectId, memberId, addedCount);
         } catch (BusinessException e) {
@@ -1729,6 +1755,8 @@ public class ProjectService {
                 log.debug("项目成员角色已清空，成员ID: {}", memberId);
             }
 
+            projectPermissionService.evictMemberPermissions(member.getUserId(), projectId);
+
             int roleCount = requestDTO.getRoleIds() != null ? requestDTO.getRoleIds().size() : 0;
             log.info("项目成员角色更新成功，项目ID: {}, 成员ID: {}, 角色数量: {}",
                     projectId, memberId, roleCount);
@@ -2323,6 +2351,7 @@ public class ProjectService {
             // 保存模板
             projectMapper.insert(template);
             Long templateId = template.getId();
+            projectMetadataRegistry.evictProject(templateId);
             log.debug("模板创建成功，模板ID: {}", templateId);
 
             // 创建启用的模块记录
@@ -2525,6 +2554,7 @@ public class ProjectService {
 
             // 保存模板
             projectMapper.updateById(template);
+            projectMetadataRegistry.evictProject(templateId);
             log.debug("模板信息更新成功，模板ID: {}", templateId);
 
             // 更新启用的模块（如果提供了模块列表）
@@ -2726,6 +2756,7 @@ public class ProjectService {
                             memberRole.setRoleId(templateRole.getRoleId());
                             memberRoleMapper.insert(memberRole);
                         }
+                        projectPermissionService.evictMemberPermissions(currentUserId, newProjectId);
                         log.debug("默认角色分配成功，项目ID: {}, 用户ID: {}, 角色数量: {}",
                                 newProjectId, currentUserId, templateRoles.size());
                     }
@@ -2804,11 +2835,13 @@ public class ProjectService {
                     memberRoleMapper.delete(memberRoleQuery);
                 }
                 memberMapper.delete(memberQuery);
+                projectPermissionService.evictProjectPermissions(templateId);
                 log.debug("模板成员删除成功，模板ID: {}, 成员数量: {}", templateId, members.size());
             }
 
             // 删除模板
             projectMapper.deleteById(templateId);
+            projectMetadataRegistry.evictProject(templateId);
             log.info("项目模板删除成功，模板ID: {}", templateId);
         } catch (BusinessException e) {
             throw e;
@@ -3293,14 +3326,9 @@ public class ProjectService {
                 throw new BusinessException(ResultCode.PARAM_INVALID, "版本不属于该项目");
             }
 
-            // 查询版本关联的所有任务
-            LambdaQueryWrapper<Issue> issueQuery = new LambdaQueryWrapper<>();
-            issueQuery.eq(Issue::getFixedVersionId, versionId.longValue())
-                    .eq(Issue::getProjectId, projectId);
-            List<Issue> issues = issueMapper.selectList(issueQuery);
-
-            // 统计任务数量
-            long totalIssues = issues.size();
+            // 任务数量、状态、完成度和预估工时直接读取增量维护的任务计数器
+            List<IssueCounter> counters = issueCounterService.listCounters(List.of(projectId),
+                    versionId.longValue());
 
             // 获取所有状态信息（用于状态名称映射）
             List<IssueStatus> allStatuses = issueStatusMapper.selectList(null);
@@ -3309,80 +3337,46 @@ public class ProjectService {
 
             // 按状态统计任务
             Map<String, Long> issuesByStatus = new HashMap<>();
+            Map<Integer, Long> trackerCounts = new HashMap<>();
+            long totalIssues = 0;
             long completedIssues = 0;
             long inProgressIssues = 0;
-            long pendingIssues = 0;
             long closedIssues = 0;
-
-            for (Issue issue : issues) {
-                String statusName = statusMap.getOrDefault(issue.getStatusId(), "未知");
-                issuesByStatus.merge(statusName, 1L, Long::sum);
-
-                // 判断任务状态分类
-                if (issue.getDoneRatio() != null && issue.getDoneRatio() >= 100) {
-                    completedIssues++;
-                } else if (issue.getDoneRatio() != null && issue.getDoneRatio() > 0) {
-                    inProgressIssues++;
-                } else {
-                    pendingIssues++;
+            double totalDoneRatio = 0;
+            double estimatedHours = 0;
+
+            for (IssueCounter counter : counters) {
+                long count = counter.getIssueCount();
+                totalIssues += count;
+                completedIssues += counter.getDoneCount();
+                inProgressIssues += counter.getStartedCount();
+                if (Boolean.TRUE.equals(counter.getIsClosed())) {
+                    closedIssues += count;
                 }
+                totalDoneRatio += counter.getDoneRatioSum();
+                estimatedHours += counter.getEstimatedHoursSum();
 
-                // 检查是否为关闭状态（通常状态ID对应关闭状态）
-                IssueStatus status = allStatuses.stream()
-                        .filter(s -> s.getId().equals(issue.getStatusId()))
-                        .findFirst()
-                        .orElse(null);
-                if (status != null && status.getIsClosed() != null && status.getIsClosed()) {
-                    closedIssues++;
-                }
+                String statusName = statusMap.getOrDefault(counter.getStatusId(), "未知");
+                issuesByStatus.merge(statusName, count, Long::sum);
+                trackerCounts.merge(counter.getTrackerId(), count, Long::sum);
             }
+            long pendingIssues = totalIssues - completedIssues - inProgressIssues;
 
             // 计算版本完成度（基于任务完成度）
-            double totalDoneRatio = issues.stream()
-                    .filter(i -> i.getDoneRatio() != null)
-                    .mapToInt(Issue::getDoneRatio)
-                    .sum();
             double completionPercentage = totalIssues > 0 ? totalDoneRatio / totalIssues : 0.0;
 
-            // 工时统计
-            double estimatedHours = issues.stream()
-                    .filter(i -> i.getEstimatedHours() != null)
-                    .mapToDouble(Issue::getEstimatedHours)
-                    .sum();
-
-            // 查询已消耗工时（通过time_entries表）
-            double spentHours = 0.0;
-            if (!issues.isEmpty()) {
-                List<Long> issueIds = issues.stream().map(Issue::getId).collect(Collectors.toList());
-                LambdaQueryWrapper<TimeEntry> timeEntryQuery = new LambdaQueryWrapper<>();
-                timeEntryQuery.eq(TimeEntry::getProjectId, projectId)
-                        .in(TimeEntry::getIssueId, issueIds)
-                        .isNotNull(TimeEntry::getHours);
-                List<TimeEntry> timeEntries = timeEntryMapper.selectList(timeEntryQuery);
-
-                spentHours = timeEntries.stream()
-                        .filter(te -> te.getHours() != null)
-                        .mapToDouble(TimeEntry::getHours)
-                        .sum();
-            }
+            // 已消耗工时（数据库按版本汇总）
+            double spentHours = totalIssues > 0 ? getVersionSpentHours(projectId, versionId) : 0.0;
 
             double remainingHours = Math.max(0, estimatedHours - spentHours);
             double hoursCompletionPercentage = estimatedHours > 0
                     ? (spentHours / estimatedHours) * 100
                     : 0.0;
 
-            // 时间统计
-            LocalDate earliestStartDate = issues.stream()
-                    .filter(i -> i.getStartDate() != null)
-                    .map(Issue::getStartDate)
-                    .min(LocalDate::compareTo)
-                    .orElse(null);
-
-            LocalDate latestDueDate = issues.stream()
-                    .filter(i -> i.getDueDate() != null)
-                    .map(Issue::getDueDate)
-                    .max(LocalDate::compareTo)
-                    .orElse(null);
+            // 时间统计（数据库取最早开始日期和最晚截止日期）
+            IssueDateRangeDTO dateRange = totalIssues > 0 ? getVersionDateRange(projectId, versionId) : null;
+            LocalDate earliestStartDate = dateRange != null ? dateRange.getMinStartDate() : null;
+            LocalDate latestDueDate = dateRange != null ? dateRange.getMaxDueDate() : null;
 
             // 预计完成时间（使用版本生效日期或最晚截止日期）
             LocalDate estimatedCompletionDate = version.getEffectiveDate() != null
@@ -3390,19 +3384,24 @@ public class ProjectService {
                     : latestDueDate;
 
             // 按跟踪器统计
-            Map<String, Long> issuesByTracker = issues.stream()
-                    .collect(Collectors.groupingBy(
-                            issue -> {
-                                Tracker tracker = trackerMapper.selectById(issue.getTrackerId());
-                                return tracker != null ? tracker.getName() : "未知";
-                            },
-                            Collectors.counting()));
-
-            // 按优先级统计（需要获取优先级名称）
-            Map<String, Long> issuesByPriority = issues.stream()
-                    .collect(Collectors.groupingBy(
-                            issue -> "优先级" + issue.getPriorityId(),
-                            Collectors.counting()));
+            Map<String, Long> issuesByTracker = new HashMap<>();
+            if (!trackerCounts.isEmpty()) {
+                Map<Long, String> trackerNames = trackerMapper.selectBatchIds(trackerCounts.keySet()).stream()
+                        .collect(Collectors.toMap(Tracker::getId, Tracker::getName));
+                trackerCounts.forEach((trackerId, count) -> issuesByTracker.merge(
+                        trackerNames.getOrDefault(trackerId.longValue(), "未知"), count, Long::sum));
+            }
+
+            // 按优先级统计（数据库分组计数）
+            Map<String, Long> issuesByPriority = new HashMap<>();
+            if (totalIssues > 0) {
+                LambdaQueryWrapper<Issue> priorityQuery = new LambdaQueryWrapper<>();
+                priorityQuery.eq(Issue::getFixedVersionId, versionId.longValue())
+                        .eq(Issue::getProjectId, projectId);
+                for (IssueGroupCountDTO row : issueMapper.selectCountGroupByPriority(priorityQuery)) {
+                    issuesByPriority.merge("优先级" + row.getGroupKey(), row.getIssueCount(), Long::sum);
+                }
+            }
 
             log.info("版本统计查询成功，版本ID: {}, 任务总数: {}", versionId, totalIssues);
 
@@ -3593,10 +3592,9 @@ public class ProjectService {
             Page<Issue> page = new Page<>(requestDTO.getCurrent(), requestDTO.getSize());
             Page<Issue> result = issueMapper.selectPage(page, queryWrapper);
 
-            // 转换为响应DTO
-            List<IssueListItemResponseDTO> dtoList = result.getRecords().stream()
-                    .map(this::convertToIssueListItemResponseDTO)
-                    .collect(Collectors.toList());
+            // 转换为响应DTO（批量填充关联信息）
+            List<IssueListItemResponseDTO> dtoList = issueListHydrator.toListItems(result.getRecords(),
+                    this::getUserDisplayName);
 
             log.info("版本关联任务查询成功，版本ID: {}, 任务总数: {}", versionId, result.getTotal());
 
@@ -3612,68 +3610,6 @@ public class ProjectService {
         }
     }
 
-    /**
-     * 转换为任务列表项响应DTO
-     */
-    private IssueListItemResponseDTO convertToIssueListItemResponseDTO(Issue issue) {
-        IssueListItemResponseDTO dto = new IssueListItemResponseDTO();
-        dto.setId(issue.getId());
-        dto.setTrackerId(issue.getTrackerId());
-        dto.setProjectId(issue.getProjectId());
-        dto.setSubject(issue.getSubject());
-        dto.setStatusId(issue.getStatusId());
-        dto.setPriorityId(issue.getPriorityId());
-        dto.setAssignedToId(issue.getAssignedToId());
-        dto.setAuthorId(issue.getAuthorId());
-        dto.setDoneRatio(issue.getDoneRatio());
-        dto.setDueDate(issue.getDueDate());
-        dto.setIsPrivate(issue.getIsPrivate());
-        dto.setCreatedOn(issue.getCreatedOn());
-        dto.setUpdatedOn(issue.getUpdatedOn());
-
-        // 获取跟踪器名称
-        if (issue.getTrackerId() != null) {
-            Tracker tracker = trackerMapper.selectById(issue.getTrackerId());
-            dto.setTrackerName(tracker != null ? tracker.getName() : null);
-        }
-
-        // 获取项目名称
-        if (issue.getProjectId() != null) {
-            Project project = projectMapper.selectById(issue.getProjectId());
-            dto.setProjectName(project != null ? project.getName() : null);
-        }
-
-        // 获取状态名称
-        if (issue.getStatusId() != null) {
-            IssueStatus status = issueStatusMapper.selectById(issue.getStatusId());
-            dto.setStatusName(status != null ? status.getName() : null);
-        }
-
-        // 获取指派人信息
-        if (issue.getAssignedToId() != null) {
-            User assignedUser = userMapper.selectById(issue.getAssignedToId());
-            if (assignedUser != null) {
-                dto.setAssignedToName(getUserDisplayName(assignedUser));
-            }
-        }
-
-        // 获取创建者信息
-        if (issue.getAuthorId() != null) {
-            User author = userMapper.selectById(issue.getAuthorId());
-            if (author != null) {
-                dto.setAuthorName(getUserDisplayName(author));
-            }
-        }
-
-        // 获取优先级名称
-        if (issue.getPriorityId() != null) {
-            String priorityName = getPriorityName(issue.getPriorityId());
-            dto.setPriorityName(priorityName);
-        }
-
-        return dto;
-    }
-
     /**
      * 获取优先级名称
      */
@@ -3807,11 +3743,14 @@ public class ProjectService {
                     }
 
                     // 更新任务的fixed_version_id
+                    Issue oldIssue = new Issue();
+                    BeanUtils.copyProperties(issue, oldIssue);
                     issue.setFixedVersionId(versionId.longValue());
                     issue.setUpdatedOn(java.time.LocalDateTime.now());
 
                     int updateResult = issueMapper.updateById(issue);
                     if (updateResult > 0) {
+                        issueCounterService.onIssueChanged(oldIssue, issue);
                         successIssueIds.add(issueId);
                         successCount++;
                         log.debug("任务关联版本成功，任务ID: {}, 版本ID: {}", issueId, versionId);
@@ -3968,6 +3907,10 @@ public class ProjectService {
 
                     int updateResult = issueMapper.update(null, updateWrapper);
                     if (updateResult > 0) {
+                        Issue unassignedIssue = new Issue();
+                        BeanUtils.copyProperties(issue, unassignedIssue);
+                        unassignedIssue.setFixedVersionId(null);
+                        issueCounterService.onIssueChanged(issue, unassignedIssue);
                         successIssueIds.add(issueId);
                         successCount++;
                         log.debug("任务取消版本关联成功，任务ID: {}, 版本ID: {}", issueId, versionId);
@@ -4047,88 +3990,77 @@ public class ProjectService {
                 throw new BusinessException(ResultCode.PARAM_INVALID, "版本不属于该项目");
             }
 
-            // 查询版本关联的所有任务
-            LambdaQueryWrapper<Issue> issueQuery = new LambdaQueryWrapper<>();
-            issueQuery.eq(Issue::getFixedVersionId, versionId.longValue())
-                    .eq(Issue::getProjectId, projectId);
-            List<Issue> issues = issueMapper.selectList(issueQuery);
-
             // 获取所有状态信息
             List<IssueStatus> allStatuses = issueStatusMapper.selectList(null);
             Map<Integer, IssueStatus> statusMap = allStatuses.stream()
                     .collect(Collectors.toMap(IssueStatus::getId, s -> s));
 
-            // 计算总体进度
-            long totalIssues = issues.size();
+            // 计算总体进度（读取增量维护的任务计数器）
+            List<IssueCounter> counters = issueCounterService.listCounters(List.of(projectId),
+                    versionId.longValue());
+            long totalIssues = 0;
             long completedIssues = 0;
             long inProgressIssues = 0;
-            long pendingIssues = 0;
             double totalDoneRatio = 0;
-
-            for (Issue issue : issues) {
-                Integer doneRatio = issue.getDoneRatio() != null ? issue.getDoneRatio() : 0;
-                totalDoneRatio += doneRatio;
-
-                if (doneRatio >= 100) {
-                    completedIssues++;
-                } else if (doneRatio > 0) {
-                    inProgressIssues++;
-                } else {
-                    pendingIssues++;
-                }
-            }
+            Map<Integer, long[]> statusTotals = new HashMap<>();
+            Map<Integer, Long> trackerCounts = new HashMap<>();
+            for (IssueCounter counter : counters) {
+                totalIssues += counter.getIssueCount();
+                completedIssues += counter.getDoneCount();
+                inProgressIssues += counter.getStartedCount();
+                totalDoneRatio += counter.getDoneRatioSum();
+                long[] totals = statusTotals.computeIfAbsent(counter.getStatusId(), k -> new long[2]);
+                totals[0] += counter.getIssueCount();
+                totals[1] += counter.getDoneRatioSum();
+                trackerCounts.merge(counter.getTrackerId(), counter.getIssueCount().longValue(), Long::sum);
+            }
+            long pendingIssues = totalIssues - completedIssues - inProgressIssues;
 
             double overallProgress = totalIssues > 0 ? totalDoneRatio / totalIssues : 0.0;
 
             // 按状态统计任务
             Map<String, VersionProgressResponseDTO.TaskStatusStatistics> taskStatusStatistics = new HashMap<>();
-            Map<Integer, List<Issue>> issuesByStatus = issues.stream()
-                    .collect(Collectors.groupingBy(Issue::getStatusId));
-
-            for (Map.Entry<Integer, List<Issue>> entry : issuesByStatus.entrySet()) {
+            for (Map.Entry<Integer, long[]> entry : statusTotals.entrySet()) {
                 IssueStatus status = statusMap.get(entry.getKey());
                 String statusName = status != null ? status.getName() : "未知";
 
-                List<Issue> statusIssues = entry.getValue();
-                double avgDoneRatio = statusIssues.stream()
-                        .filter(i -> i.getDoneRatio() != null)
-                        .mapToInt(Issue::getDoneRatio)
-                        .average()
-                        .orElse(0.0);
+                long statusCount = entry.getValue()[0];
+                double avgDoneRatio = statusCount > 0 ? (double) entry.getValue()[1] / statusCount : 0.0;
 
                 taskStatusStatistics.put(statusName, VersionProgressResponseDTO.TaskStatusStatistics.builder()
                         .statusName(statusName)
-                        .count((long) statusIssues.size())
+                        .count(statusCount)
                         .averageDoneRatio(Math.round(avgDoneRatio * 100.0) / 100.0)
                         .build());
             }
 
             // 按跟踪器统计
-            Map<String, Long> taskTrackerStatistics = issues.stream()
-                    .collect(Collectors.groupingBy(issue -> {
-                        Tracker tracker = trackerMapper.selectById(issue.getTrackerId());
-                        return tracker != null ? tracker.getName() : "未知";
-                    }, Collectors.counting()));
-
-            // 按优先级统计
-            Map<String, Long> taskPriorityStatistics = issues.stream()
-                    .collect(Collectors.groupingBy(issue -> {
-                        String priorityName = getPriorityName(issue.getPriorityId());
-                        return priorityName != null ? priorityName : "优先级" + issue.getPriorityId();
-                    }, Collectors.counting()));
-
-            // 时间进度计算
-            LocalDate startDate = issues.stream()
-                    .filter(i -> i.getStartDate() != null)
-                    .map(Issue::getStartDate)
-                    .min(LocalDate::compareTo)
-                    .orElse(null);
-
-            LocalDate dueDate = issues.stream()
-                    .filter(i -> i.getDueDate() != null)
-                    .map(Issue::getDueDate)
-                    .max(LocalDate::compareTo)
-                    .orElse(null);
+            Map<String, Long> taskTrackerStatistics = new HashMap<>();
+            if (!trackerCounts.isEmpty()) {
+                Map<Long, String> trackerNames = trackerMapper.selectBatchIds(trackerCounts.keySet()).stream()
+                        .collect(Collectors.toMap(Tracker::getId, Tracker::getName));
+                trackerCounts.forEach((trackerId, count) -> taskTrackerStatistics.merge(
+                        trackerNames.getOrDefault(trackerId.longValue(), "未知"), count, Long::sum));
+            }
+
+            // 按优先级统计（数据库分组计数）
+            Map<String, Long> taskPriorityStatistics = new HashMap<>();
+            if (totalIssues > 0) {
+                LambdaQueryWrapper<Issue> priorityQuery = new LambdaQueryWrapper<>();
+                priorityQuery.eq(Issue::getFixedVersionId, versionId.longValue())
+                        .eq(Issue::getProjectId, projectId);
+                for (IssueGroupCountDTO row : issueMapper.selectCountGroupByPriority(priorityQuery)) {
+                    Integer priorityId = row.getGroupKey() != null ? row.getGroupKey().intValue() : null;
+                    String priorityName = getPriorityName(priorityId);
+                    taskPriorityStatistics.merge(priorityName != null ? priorityName : "优先级" + priorityId,
+                            row.getIssueCount(), Long::sum);
+                }
+            }
+
+            // 时间进度计算（数据库取最早开始日期和最晚截止日期）
+            IssueDateRangeDTO dateRange = totalIssues > 0 ? getVersionDateRange(projectId, versionId) : null;
+            LocalDate startDate = dateRange != null ? dateRange.getMinStartDate() : null;
+            LocalDate dueDate = dateRange != null ? dateRange.getMaxDueDate() : null;
 
             LocalDate effectiveDate = version.getEffectiveDate();
             LocalDate estimatedCompletionDate = effectiveDate != null ? effectiveDate : dueDate;
@@ -4149,46 +4081,41 @@ public class ProjectService {
                 }
             }
 
+            // 已完成任务按完成（最后更新）日期分组计数
+            TreeMap<LocalDate, Long> dailyCompleted = new TreeMap<>();
+            if (completedIssues > 0) {
+                LambdaQueryWrapper<Issue> doneQuery = new LambdaQueryWrapper<>();
+                doneQuery.eq(Issue::getFixedVersionId, versionId.longValue())
+                        .eq(Issue::getProjectId, projectId)
+                        .ge(Issue::getDoneRatio, 100)
+                        .isNotNull(Issue::getUpdatedOn);
+                for (IssueDailyCountDTO row : issueMapper.selectCountGroupByUpdatedDate(doneQuery)) {
+                    if (row.getDate() != null) {
+                        dailyCompleted.merge(row.getDate(), row.getIssueCount(), Long::sum);
+                    }
+                }
+            }
+
             // 生成里程碑节点
             List<VersionProgressResponseDTO.MilestoneNode> milestones = generateMilestones(
-                    issues, startDate, estimatedCompletionDate, version);
+                    totalIssues, completedIssues, dailyCompleted, startDate, estimatedCompletionDate);
 
             // 生成每日进度数据
             List<VersionProgressResponseDTO.DailyProgressData> dailyProgressData = generateDailyProgressData(
-                    issues, startDate, estimatedCompletionDate);
+                    totalIssues, dailyCompleted, startDate, estimatedCompletionDate);
 
             // 完成度分布数据
             Map<String, Long> completionDistribution = new HashMap<>();
-            completionDistribution.put("已完成(100%)", issues.stream()
-                    .filter(i -> i.getDoneRatio() != null && i.getDoneRatio() >= 100)
-                    .count());
-            completionDistribution.put("进行中(1-99%)", issues.stream()
-                    .filter(i -> i.getDoneRatio() != null && i.getDoneRatio() > 0 && i.getDoneRatio() < 100)
-                    .count());
-            completionDistribution.put("待处理(0%)", issues.stream()
-                    .filter(i -> i.getDoneRatio() == null || i.getDoneRatio() == 0)
-                    .count());
+            completionDistribution.put("已完成(100%)", completedIssues);
+            completionDistribution.put("进行中(1-99%)", inProgressIssues);
+            completionDistribution.put("待处理(0%)", pendingIssues);
 
             // 工时进度数据
-            double estimatedHours = issues.stream()
-                    .filter(i -> i.getEstimatedHours() != null)
-                    .mapToDouble(Issue::getEstimatedHours)
+            double estimatedHours = counters.stream()
+                    .mapToDouble(IssueCounter::getEstimatedHoursSum)
                     .sum();
 
-            List<Long> issueIds = issues.stream().map(Issue::getId).collect(Collectors.toList());
-            double spentHours = 0.0;
-            if (!issueIds.isEmpty()) {
-                LambdaQueryWrapper<TimeEntry> timeEntryQuery = new LambdaQueryWrapper<>();
-                timeEntryQuery.eq(TimeEntry::getProjectId, projectId)
-                        .in(TimeEntry::getIssueId, issueIds)
-                        .isNotNull(TimeEntry::getHours);
-                List<TimeEntry> timeEntries = timeEntryMapper.selectList(timeEntryQuery);
-
-                spentHours = timeEntries.stream()
-                        .filter(te -> te.getHours() != null)
-                        .mapToDouble(TimeEntry::getHours)
-                        .sum();
-            }
+            double spentHours = totalIssues > 0 ? getVersionSpentHours(projectId, versionId) : 0.0;
 
             double remainingHours = Math.max(0, estimatedHours - spentHours);
             double hoursProgress = estimatedHours > 0 ? (spentHours / estimatedHours) * 100.0 : 0.0;
@@ -4234,11 +4161,35 @@ public class ProjectService {
         }
     }
 
+    /**
+     * 查询版本关联任务的已消耗工时
+     */
+    private double getVersionSpentHours(Long projectId, Integer versionId) {
+        return timeEntryMapper.selectSpentHoursGroupByVersion(projectId, List.of(versionId.longValue())).stream()
+                .filter(row -> row.getSpentHours() != null)
+                .mapToDouble(VersionHoursSumDTO::getSpentHours)
+                .sum();
+    }
+
+    /**
+     * 查询版本关联任务的最早开始日期和最晚截止日期
+     */
+    private IssueDateRangeDTO getVersionDateRange(Long projectId, Integer versionId) {
+        LambdaQueryWrapper<Issue> query = new LambdaQueryWrapper<>();
+        query.eq(Issue::getFixedVersionId, versionId.longValue())
+                .eq(Issue::getProjectId, projectId);
+        return issueMapper.selectDateRange(query);
+    }
+
     /**
      * 生成里程碑节点
+     *
+     * @param totalIssues     任务总数
+     * @param completedIssues 已完成任务数
+     * @param dailyCompleted  每日完成的任务数（按日期排序）
      */
-    private List<VersionProgressResponseDTO.MilestoneNode> generateMilestones(
-            List<Issue> issues, LocalDate startDate, LocalDate endDate, Version version) {
+    private List<VersionProgressResponseDTO.MilestoneNode> generateMilestones(long totalIssues, long completedIssues,
+            TreeMap<LocalDate, Long> dailyCompleted, LocalDate startDate, LocalDate endDate) {
         List<VersionProgressResponseDTO.MilestoneNode> milestones = new ArrayList<>();
 
         if (startDate != null) {
@@ -4248,7 +4199,7 @@ public class ProjectService {
                     .date(startDate)
                     .type("start")
                     .description("版本开始日期")
-                    .expectedIssues((long) issues.size())
+                    .expectedIssues(totalIssues)
                     .completedIssues(0L)
                     .progress(0.0)
                     .build());
@@ -4260,16 +4211,10 @@ public class ProjectService {
             if (totalDays > 0) {
                 for (int percent : new int[] { 25, 50, 75 }) {
                     LocalDate milestoneDate = startDate.plusDays(totalDays * percent / 100);
-                    long expectedCount = issues.size() * percent / 100;
-                    long completedCount = issues.stream()
-                            .filter(i -> i.getDoneRatio() != null && i.getDoneRatio() >= 100)
-                            .filter(i -> {
-                                if (i.getUpdatedOn() == null)
-                                    return false;
-                                LocalDate updatedDate = i.getUpdatedOn().toLocalDate();
-                                return updatedDate.isBefore(milestoneDate) || updatedDate.equals(milestoneDate);
-                            })
-                            .count();
+                    long expectedCount = totalIssues * percent / 100;
+                    long completedCount = dailyCompleted.headMap(milestoneDate, true).values().stream()
+                            .mapToLong(Long::longValue)
+                            .sum();
 
                     milestones.add(VersionProgressResponseDTO.MilestoneNode.builder()
                             .name(percent + "%里程碑")
@@ -4286,18 +4231,15 @@ public class ProjectService {
 
         // 结束节点
         if (endDate != null) {
-            long completedCount = issues.stream()
-                    .filter(i -> i.getDoneRatio() != null && i.getDoneRatio() >= 100)
-                    .count();
-            double progress = issues.size() > 0 ? (completedCount * 100.0 / issues.size()) : 0.0;
+            double progress = totalIssues > 0 ? (completedIssues * 100.0 / totalIssues) : 0.0;
 
             milestones.add(VersionProgressResponseDTO.MilestoneNode.builder()
                     .name("完成")
                     .date(endDate)
                     .type("end")
                     .description("版本截止日期")
-                    .expectedIssues((long) issues.size())
-                    .completedIssues(completedCount)
+                    .expectedIssues(totalIssues)
+                    .completedIssues(completedIssues)
                     .progress(Math.round(progress * 100.0) / 100.0)
                     .build());
         }
@@ -4307,24 +4249,18 @@ public class ProjectService {
 
     /**
      * 生成每日进度数据
+     *
+     * @param totalIssues    任务总数
+     * @param dailyCompleted 每日完成的任务数
      */
     private List<VersionProgressResponseDTO.DailyProgressData> generateDailyProgressData(
-            List<Issue> issues, LocalDate startDate, LocalDate endDate) {
+            long totalIssues, Map<LocalDate, Long> dailyCompleted, LocalDate startDate, LocalDate endDate) {
         List<VersionProgressResponseDTO.DailyProgressData> dailyData = new ArrayList<>();
 
         if (startDate == null || endDate == null) {
             return dailyData;
         }
 
-        // 按日期分组统计任务完成情况
-        Map<LocalDate, Long> dailyCompleted = new HashMap<>();
-        for (Issue issue : issues) {
-            if (issue.getDoneRatio() != null && issue.getDoneRatio() >= 100 && issue.getUpdatedOn() != null) {
-                LocalDate completedDate = issue.getUpdatedOn().toLocalDate();
-                dailyCompleted.merge(completedDate, 1L, Long::sum);
-            }
-        }
-
         // 生成每日数据
         LocalDate currentDate = startDate;
         long cumulativeCompleted = 0;
@@ -4333,7 +4269,7 @@ public class ProjectService {
             long dayCompleted = dailyCompleted.getOrDefault(currentDate, 0L);
             cumulativeCompleted += dayCompleted;
 
-            double progress = issues.size() > 0 ? (cumulativeCompleted * 100.0 / issues.size()) : 0.0;
+            double progress = totalIssues > 0 ? (cumulativeCompleted * 100.0 / totalIssues) : 0.0;
 
             dailyData.add(VersionProgressResponseDTO.DailyProgressData.builder()
                     .date(currentDate)
@@ -4688,16 +4624,14 @@ public class ProjectService {
                 throw new BusinessException(ResultCode.PARAM_INVALID, "版本已经发布，无需重复发布");
             }
 
-            // 查询版本关联的任务统计
-            LambdaQueryWrapper<Issue> issueQuery = new LambdaQueryWrapper<>();
-            issueQuery.eq(Issue::getFixedVersionId, versionId.longValue())
-                    .eq(Issue::getProjectId, projectId);
-            List<Issue> issues = issueMapper.selectList(issueQuery);
-
-            long totalIssues = issues.size();
-            long completedIssues = issues.stream()
-                    .filter(i -> i.getDoneRatio() != null && i.getDoneRatio() >= 100)
-                    .count();
+            // 查询版本关联的任务统计（读取增量维护的任务计数器）
+            long totalIssues = 0;
+            long completedIssues = 0;
+            for (IssueCounter counter : issueCounterService.listCounters(List.of(projectId),
+                    versionId.longValue())) {
+                totalIssues += counter.getIssueCount();
+                completedIssues += counter.getDoneCount();
+            }
             long incompleteIssues = totalIssues - completedIssues;
             double completionPercentage = totalIssues > 0 ? (completedIssues * 100.0 / totalIssues) : 0.0;
 
@@ -4818,26 +4752,20 @@ public class ProjectService {
                     .map(Version::getId)
                     .collect(Collectors.toList());
 
-            // 批量查询每个版本关联的任务统计
+            // 每个版本关联的任务统计（读取增量维护的任务计数器，按版本合计）
             Map<Integer, VersionTaskStats> versionTaskStatsMap = new HashMap<>();
             if (!versionIds.isEmpty()) {
-                LambdaQueryWrapper<Issue> issueQuery = new LambdaQueryWrapper<>();
-                issueQuery.eq(Issue::getProjectId, projectId)
-                        .in(Issue::getFixedVersionId,
-                                versionIds.stream().map(Integer::longValue).collect(Collectors.toList()))
-                        .isNotNull(Issue::getFixedVersionId);
-                List<Issue> allIssues = issueMapper.selectList(issueQuery);
-
-                // 按版本ID分组统计
-                Map<Long, List<Issue>> issuesByVersion = allIssues.stream()
-                        .collect(Collectors.groupingBy(Issue::getFixedVersionId));
+                Map<Long, long[]> countsByVersion = new HashMap<>();
+                for (IssueCounter counter : issueCounterService.listCounters(List.of(projectId), null)) {
+                    long[] counts = countsByVersion.computeIfAbsent(counter.getVersionId(), k -> new long[2]);
+                    counts[0] += counter.getIssueCount();
+                    counts[1] += counter.getDoneCount();
+                }
 
                 for (Integer versionId : versionIds) {
-                    List<Issue> versionIssues = issuesByVersion.getOrDefault(versionId.longValue(), new ArrayList<>());
-                    long totalCount = versionIssues.size();
-                    long completedCount = versionIssues.stream()
-                            .filter(i -> i.getDoneRatio() != null && i.getDoneRatio() >= 100)
-                            .count();
+                    long[] counts = countsByVersion.getOrDefault(versionId.longValue(), new long[2]);
+                    long totalCount = counts[0];
+                    long completedCount = counts[1];
                     double completionPercentage = totalCount > 0 ? (completedCount * 100.0 / totalCount) : 0.0;
 
                     versionTaskStatsMap.put(versionId, VersionTaskStats.builder()
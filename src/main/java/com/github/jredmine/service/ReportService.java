@@ -1,12 +1,17 @@
 package com.github.jredmine.service;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.github.jredmine.dto.aggregate.IssueDailyCountDTO;
+import com.github.jredmine.dto.aggregate.IssueDateRangeDTO;
+import com.github.jredmine.dto.aggregate.UserHoursSumDTO;
+import com.github.jredmine.dto.aggregate.UserIssueWorkloadDTO;
 import com.github.jredmine.dto.request.report.BurndownReportRequestDTO;
 import com.github.jredmine.dto.request.report.UserWorkloadReportRequestDTO;
 import com.github.jredmine.dto.response.report.BurndownReportResponseDTO;
 import com.github.jredmine.dto.response.report.UserWorkloadReportResponseDTO;
+import com.github.jredmine.entity.BurndownSnapshot;
 import com.github.jredmine.entity.Issue;
-import com.github.jredmine.entity.IssueStatus;
+import com.github.jredmine.entity.IssueCounter;
 import com.github.jredmine.entity.Member;
 import com.github.jredmine.entity.Project;
 import com.github.jredmine.entity.TimeEntry;
@@ -20,7 +25,6 @@ import com.github.jredmine.mapper.project.MemberMapper;
 import com.github.jredmine.mapper.project.ProjectMapper;
 import com.github.jredmine.mapper.project.VersionMapper;
 import com.github.jredmine.mapper.user.UserMapper;
-import com.github.jredmine.mapper.workflow.IssueStatusMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.MDC;
@@ -30,6 +34,7 @@ import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -52,7 +57,8 @@ public class ReportService {
     private final MemberMapper memberMapper;
     private final ProjectMapper projectMapper;
     private final VersionMapper versionMapper;
-    private final IssueStatusMapper issueStatusMapper;
+    private final IssueCounterService issueCounterService;
+    private final BurndownSnapshotService burndownSnapshotService;
 
     /**
      * 用户工作量统计报表
@@ -67,60 +73,53 @@ public class ReportService {
                 }
             }
 
-            Set<Long> userIds = collectUserIds(request);
+            // 按指派人分组统计任务数（一次查询）
+            LambdaQueryWrapper<Issue> issueWrapper = new LambdaQueryWrapper<>();
+            issueWrapper.isNotNull(Issue::getAssignedToId);
+            if (request.getProjectId() != null) {
+                issueWrapper.eq(Issue::getProjectId, request.getProjectId());
+            }
+            Map<Long, UserIssueWorkloadDTO> issueWorkloads = issueMapper.selectWorkloadGroupByAssignee(issueWrapper)
+                    .stream()
+                    .collect(Collectors.toMap(UserIssueWorkloadDTO::getUserId, w -> w, (a, b) -> a));
+
+            // 按用户分组统计工时（一次查询）
+            LambdaQueryWrapper<TimeEntry> timeWrapper = new LambdaQueryWrapper<>();
+            if (request.getProjectId() != null) {
+                timeWrapper.eq(TimeEntry::getProjectId, request.getProjectId());
+            }
+            addTimeEntryDateConditions(timeWrapper, request);
+            Map<Long, UserHoursSumDTO> hoursSums = timeEntryMapper.selectHoursGroupByUser(timeWrapper)
+                    .stream()
+                    .filter(h -> h.getUserId() != null)
+                    .collect(Collectors.toMap(UserHoursSumDTO::getUserId, h -> h, (a, b) -> a));
+
+            Set<Long> userIds = collectUserIds(request, issueWorkloads.keySet(), hoursSums.keySet());
             if (userIds.isEmpty()) {
                 return emptyUserWorkloadReport(request);
             }
-
-            List<IssueStatus> allStatuses = issueStatusMapper.selectList(null);
-            Map<Integer, Boolean> statusClosedMap = allStatuses.stream()
-                    .collect(Collectors.toMap(IssueStatus::getId, s -> Boolean.TRUE.equals(s.getIsClosed()), (a, b) -> a));
+            List<User> users = userMapper.selectBatchIds(userIds);
 
             List<UserWorkloadReportResponseDTO.UserWorkloadItem> items = new ArrayList<>();
-            for (Long userId : userIds) {
-                User user = userMapper.selectById(userId);
-                if (user == null) continue;
-
-                LambdaQueryWrapper<Issue> issueWrapper = new LambdaQueryWrapper<>();
-                issueWrapper.eq(Issue::getAssignedToId, userId);
-                if (request.getProjectId() != null) {
-                    issueWrapper.eq(Issue::getProjectId, request.getProjectId());
-                }
-                List<Issue> issues = issueMapper.selectList(issueWrapper);
-
-                long issueCount = issues.size();
-                long completedCount = issues.stream()
-                        .filter(i -> i.getStatusId() != null && Boolean.TRUE.equals(statusClosedMap.get(i.getStatusId())))
-                        .count();
-                long inProgressCount = issues.stream()
-                        .filter(i -> i.getStatusId() != null && !Boolean.TRUE.equals(statusClosedMap.get(i.getStatusId())))
-                        .filter(i -> i.getDoneRatio() != null && i.getDoneRatio() > 0 && i.getDoneRatio() < 100)
-                        .count();
+            for (User user : users) {
+                Long userId = user.getId();
+                UserIssueWorkloadDTO issueWorkload = issueWorkloads.get(userId);
+                long issueCount = issueWorkload != null ? toLong(issueWorkload.getIssueCount()) : 0L;
+                long completedCount = issueWorkload != null ? toLong(issueWorkload.getCompletedCount()) : 0L;
+                long inProgressCount = issueWorkload != null ? toLong(issueWorkload.getInProgressCount()) : 0L;
                 long pendingCount = issueCount - completedCount - inProgressCount;
                 if (pendingCount < 0) pendingCount = 0;
 
                 double completionRate = issueCount > 0 ? (completedCount * 100.0 / issueCount) : 0.0;
 
-                LambdaQueryWrapper<TimeEntry> timeWrapper = new LambdaQueryWrapper<>();
-                timeWrapper.eq(TimeEntry::getUserId, userId).isNotNull(TimeEntry::getHours);
-                if (request.getProjectId() != null) {
-                    timeWrapper.eq(TimeEntry::getProjectId, request.getProjectId());
-                }
-                addTimeEntryDateConditions(timeWrapper, request);
-                List<TimeEntry> timeEntries = timeEntryMapper.selectList(timeWrapper);
-
-                double totalHours = timeEntries.stream()
-                        .map(e -> e.getHours() != null ? e.getHours().doubleValue() : 0.0)
-                        .reduce(0.0, Double::sum);
-                long timeEntryCount = timeEntries.size();
-
-                String displayName = (user.getFirstname() != null ? user.getFirstname() : "") + " " + (user.getLastname() != null ? user.getLastname() : "").trim();
-                if (displayName.trim().isEmpty()) displayName = user.getLogin() != null ? user.getLogin() : "";
+                UserHoursSumDTO hoursSum = hoursSums.get(userId);
+                double totalHours = hoursSum != null && hoursSum.getTotalHours() != null ? hoursSum.getTotalHours() : 0.0;
+                long timeEntryCount = hoursSum != null ? toLong(hoursSum.getTimeEntryCount()) : 0L;
 
                 items.add(UserWorkloadReportResponseDTO.UserWorkloadItem.builder()
                         .userId(userId)
                         .login(user.getLogin())
-                        .displayName(displayName.trim().isEmpty() ? user.getLogin() : displayName.trim())
+                        .displayName(toDisplayName(user))
                         .issueCount(issueCount)
                         .completedCount(completedCount)
                         .inProgressCount(inProgressCount)
@@ -173,13 +172,6 @@ public class ReportService {
                 throw new BusinessException(ResultCode.PROJECT_NOT_FOUND);
             }
 
-            LambdaQueryWrapper<Issue> scopeWrapper = new LambdaQueryWrapper<>();
-            scopeWrapper.eq(Issue::getProjectId, request.getProjectId());
-            if (request.getVersionId() != null) {
-                scopeWrapper.eq(Issue::getFixedVersionId, request.getVersionId().longValue());
-            }
-            List<Issue> scopeIssues = issueMapper.selectList(scopeWrapper);
-
             Version version = null;
             if (request.getVersionId() != null) {
                 version = versionMapper.selectById(request.getVersionId());
@@ -187,44 +179,40 @@ public class ReportService {
                     throw new BusinessException(ResultCode.PARAM_INVALID, "版本不存在或不属于该项目");
                 }
             }
-
-            long totalIssues = scopeIssues.size();
-            long completedIssues = scopeIssues.stream()
-                    .filter(i -> i.getClosedOn() != null)
-                    .count();
+            Long versionId = request.getVersionId() != null ? request.getVersionId().longValue() : null;
+
+            // 当前任务数取自任务计数器
+            long totalIssues = 0;
+            long completedIssues = 0;
+            for (IssueCounter counter : issueCounterService.listCounters(
+                    Collections.singletonList(request.getProjectId()), versionId)) {
+                long count = counter.getIssueCount() != null ? counter.getIssueCount() : 0;
+                totalIssues += count;
+                if (Boolean.TRUE.equals(counter.getIsClosed())) {
+                    completedIssues += count;
+                }
+            }
             long remainingIssues = totalIssues - completedIssues;
 
+            LambdaQueryWrapper<Issue> scopeWrapper = new LambdaQueryWrapper<>();
+            scopeWrapper.eq(Issue::getProjectId, request.getProjectId());
+            if (versionId != null) {
+                scopeWrapper.eq(Issue::getFixedVersionId, versionId);
+            }
+            IssueDateRangeDTO dateRange = issueMapper.selectDateRange(scopeWrapper);
+            LocalDate minStartDate = dateRange != null ? dateRange.getMinStartDate() : null;
+            LocalDate maxDueDate = dateRange != null ? dateRange.getMaxDueDate() : null;
+
+            LocalDate today = LocalDate.now();
             LocalDate startDate;
             LocalDate endDate;
             if (version != null) {
-                endDate = version.getEffectiveDate() != null ? version.getEffectiveDate() : LocalDate.now();
-                LocalDate minStart = scopeIssues.stream()
-                        .filter(i -> i.getStartDate() != null)
-                        .map(Issue::getStartDate)
-                        .min(LocalDate::compareTo)
-                        .orElse(endDate.minusDays(30));
-                startDate = minStart.isBefore(endDate) ? minStart : endDate.minusDays(30);
+                endDate = version.getEffectiveDate() != null ? version.getEffectiveDate() : today;
             } else {
-                if (scopeIssues.isEmpty()) {
-                    endDate = LocalDate.now();
-                    startDate = endDate.minusDays(30);
-                } else {
-                    endDate = scopeIssues.stream()
-                            .filter(i -> i.getDueDate() != null)
-                            .map(Issue::getDueDate)
-                            .max(LocalDate::compareTo)
-                            .orElse(LocalDate.now());
-                    if (endDate.isAfter(LocalDate.now())) {
-                        endDate = LocalDate.now();
-                    }
-                    LocalDate minStart = scopeIssues.stream()
-                            .filter(i -> i.getStartDate() != null)
-                            .map(Issue::getStartDate)
-                            .min(LocalDate::compareTo)
-                            .orElse(endDate.minusDays(30));
-                    startDate = minStart.isBefore(endDate) ? minStart : endDate.minusDays(30);
-                }
+                endDate = maxDueDate != null && maxDueDate.isBefore(today) ? maxDueDate : today;
             }
+            LocalDate minStart = minStartDate != null ? minStartDate : endDate.minusDays(30);
+            startDate = minStart.isBefore(endDate) ? minStart : endDate.minusDays(30);
 
             long totalDays = ChronoUnit.DAYS.between(startDate, endDate) + 1;
             if (totalDays <= 0) {
@@ -232,32 +220,25 @@ public class ReportService {
             }
 
             List<BurndownReportResponseDTO.BurndownPoint> idealLine = new ArrayList<>();
-            List<BurndownReportResponseDTO.BurndownPoint> actualLine = new ArrayList<>();
-
             for (long i = 0; i <= ChronoUnit.DAYS.between(startDate, endDate); i++) {
-                LocalDate d = startDate.plusDays(i);
                 long idealRemaining = totalIssues > 0
                         ? Math.max(0, totalIssues - (totalIssues * (i + 1) / totalDays))
                         : 0;
                 idealLine.add(BurndownReportResponseDTO.BurndownPoint.builder()
-                        .date(d)
+                        .date(startDate.plusDays(i))
                         .remaining(idealRemaining)
                         .completedThatDay(null)
                         .build());
+            }
 
-                long remaining = scopeIssues.stream()
-                        .filter(issue -> issue.getClosedOn() == null
-                                || issue.getClosedOn().toLocalDate().isAfter(d))
-                        .count();
-                long completedThatDay = scopeIssues.stream()
-                        .filter(issue -> issue.getClosedOn() != null
-                                && issue.getClosedOn().toLocalDate().equals(d))
-                        .count();
-                actualLine.add(BurndownReportResponseDTO.BurndownPoint.builder()
-                        .date(d)
-                        .remaining(remaining)
-                        .completedThatDay(completedThatDay)
-                        .build());
+            // 实际线（只到今天）：快照可用时取自每日快照，快照未启用或历史回放未完成时按任务关闭日期计算
+            List<BurndownReportResponseDTO.BurndownPoint> actualLine = new ArrayList<>();
+            LocalDate actualEndDate = endDate.isAfter(today) ? today : endDate;
+            if (!actualEndDate.isBefore(startDate)) {
+                actualLine = burndownSnapshotService.isSnapshotAvailable()
+                        ? buildActualLineFromSnapshots(request.getProjectId(), versionId, startDate, actualEndDate)
+                        : buildActualLineFromClosedDates(request.getProjectId(), versionId, totalIssues,
+                                startDate, actualEndDate);
             }
 
             log.info("燃尽图报表生成完成: projectId={}, versionId={}, totalIssues={}, remaining={}",
@@ -281,24 +262,101 @@ public class ReportService {
         }
     }
 
-    private Set<Long> collectUserIds(UserWorkloadReportRequestDTO request) {
+    /**
+     * 根据每日快照生成燃尽图实际线，多取开始前一天作为当日完成数的基准
+     */
+    private List<BurndownReportResponseDTO.BurndownPoint> buildActualLineFromSnapshots(
+            Long projectId, Long versionId, LocalDate from, LocalDate to) {
+        List<BurndownSnapshot> snapshots = burndownSnapshotService.getDailySnapshots(
+                projectId, versionId, from.minusDays(1), to);
+        List<BurndownReportResponseDTO.BurndownPoint> line = new ArrayList<>();
+        for (int i = 1; i < snapshots.size(); i++) {
+            BurndownSnapshot snapshot = snapshots.get(i);
+            long closed = snapshot.getClosedCount();
+            long previousClosed = snapshots.get(i - 1).getClosedCount();
+            line.add(BurndownReportResponseDTO.BurndownPoint.builder()
+                    .date(snapshot.getSnapshotDate())
+                    .remaining((long) snapshot.getOpenCount())
+                    .completedThatDay(Math.max(0, closed - previousClosed))
+                    .total((long) snapshot.getTotalCount())
+                    .completed(closed)
+                    .remainingHours(round2(snapshot.getRemainingHours()))
+                    .build());
+        }
+        return line;
+    }
+
+    /**
+     * 根据任务关闭日期生成燃尽图实际线（快照不可用时使用）
+     * 每天的剩余数 = 当前任务总数 - 当天结束时已关闭的任务数，按关闭日期一次分组统计；
+     * 不能体现重新打开的任务和范围变化
+     */
+    private List<BurndownReportResponseDTO.BurndownPoint> buildActualLineFromClosedDates(
+            Long projectId, Long versionId, long totalIssues, LocalDate from, LocalDate to) {
+        LambdaQueryWrapper<Issue> wrapper = new LambdaQueryWrapper<>();
+        wrapper.eq(Issue::getProjectId, projectId)
+                .isNotNull(Issue::getClosedOn);
+        if (versionId != null) {
+            wrapper.eq(Issue::getFixedVersionId, versionId);
+        }
+        long closed = 0;
+        Map<LocalDate, Long> closedByDate = new HashMap<>();
+        for (IssueDailyCountDTO row : issueMapper.selectCountGroupByClosedDate(wrapper)) {
+            long count = toLong(row.getIssueCount());
+            if (row.getDate().isBefore(from)) {
+                closed += count;
+            } else {
+                closedByDate.merge(row.getDate(), count, Long::sum);
+            }
+        }
+
+        List<BurndownReportResponseDTO.BurndownPoint> line = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            long completedThatDay = closedByDate.getOrDefault(date, 0L);
+            closed += completedThatDay;
+            line.add(BurndownReportResponseDTO.BurndownPoint.builder()
+                    .date(date)
+                    .remaining(Math.max(0, totalIssues - closed))
+                    .completedThatDay(completedThatDay)
+                    .total(totalIssues)
+                    .completed(closed)
+                    .build());
+        }
+        return line;
+    }
+
+    /**
+     * 报表涉及的用户：指定项目时为项目成员，否则为有指派任务或有工时记录的用户
+     */
+    private Set<Long> collectUserIds(UserWorkloadReportRequestDTO request,
+                                     Set<Long> assigneeIds, Set<Long> timeEntryUserIds) {
         Set<Long> userIds = new HashSet<>();
         if (request.getProjectId() != null) {
             LambdaQueryWrapper<Member> memberWrapper = new LambdaQueryWrapper<>();
-            memberWrapper.eq(Member::getProjectId, request.getProjectId());
-            List<Member> members = memberMapper.selectList(memberWrapper);
-            members.forEach(m -> userIds.add(m.getUserId()));
+            memberWrapper.select(Member::getUserId)
+                    .eq(Member::getProjectId, request.getProjectId());
+            memberMapper.selectList(memberWrapper).forEach(m -> userIds.add(m.getUserId()));
         } else {
-            LambdaQueryWrapper<Issue> issueWrapper = new LambdaQueryWrapper<>();
-            issueWrapper.isNotNull(Issue::getAssignedToId);
-            issueMapper.selectList(issueWrapper).forEach(i -> userIds.add(i.getAssignedToId()));
-            LambdaQueryWrapper<TimeEntry> timeWrapper = new LambdaQueryWrapper<>();
-            addTimeEntryDateConditions(timeWrapper, request);
-            timeEntryMapper.selectList(timeWrapper).forEach(te -> userIds.add(te.getUserId()));
+            userIds.addAll(assigneeIds);
+            userIds.addAll(timeEntryUserIds);
         }
+        userIds.remove(null);
         return userIds;
     }
 
+    private static String toDisplayName(User user) {
+        String displayName = ((user.getFirstname() != null ? user.getFirstname() : "") + " "
+                + (user.getLastname() != null ? user.getLastname() : "")).trim();
+        if (displayName.isEmpty()) {
+            return user.getLogin() != null ? user.getLogin() : "";
+        }
+        return displayName;
+    }
+
+    private static long toLong(Long value) {
+        return value != null ? value : 0L;
+    }
+
     private void addTimeEntryDateConditions(LambdaQueryWrapper<TimeEntry> wrapper, UserWorkloadReportRequestDTO request) {
         if (request.getStartDate() != null) {
             wrapper.ge(TimeEntry::getSpentOn, request.getStartDate());
@@ -18,6 +18,7 @@ import com.github.jredmine.entity.RolesManagedRole;
 import com.github.jredmine.mapper.user.MemberRoleMapper;
 import com.github.jredmine.mapper.user.RoleMapper;
 import com.github.jredmine.mapper.user.RolesManagedRoleMapper;
+import com.github.jredmine.security.ProjectPermissionService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -42,6 +43,7 @@ public class RoleService {
     private final MemberRoleMapper memberRoleMapper;
     private final RolesManagedRoleMapper rolesManagedRoleMapper;
     private final ObjectMapper objectMapper;
+    private final ProjectPermissionService projectPermissionService;
 
     /**
      * 分页查询角色列表
@@ -294,6 +296,7 @@ public class RoleService {
 
             // 6. 更新到数据库
             roleMapper.updateById(role);
+            projectPermissionService.evictRolePermissions(role.getId());
 
             log.info("角色更新成功，角色ID: {}, 角色名称: {}", role.getId(), role.getName());
 
@@ -440,6 +443,7 @@ public class RoleService {
 
             // 5. 删除角色本身
             roleMapper.deleteById(id);
+            projectPermissionService.evictRolePermissions(id);
 
             log.info("角色删除成功，角色ID: {}, 角色名称: {}", id, role.getName());
 
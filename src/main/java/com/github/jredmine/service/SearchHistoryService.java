@@ -4,14 +4,18 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.github.jredmine.entity.SearchHistory;
 import com.github.jredmine.mapper.search.SearchHistoryMapper;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.stream.Collectors;
 
 /**
@@ -26,6 +30,120 @@ public class SearchHistoryService extends ServiceImpl<SearchHistoryMapper, Searc
 
     private static final int MAX_USER_HISTORIES = 50;
 
+    /**
+     * 待写入的搜索历史队列容量，队列满时丢弃新记录（搜索历史允许少量丢失）
+     */
+    private static final int PENDING_QUEUE_CAPACITY = 10000;
+
+    private final BlockingQueue<SearchHistory> pendingHistories = new LinkedBlockingQueue<>(PENDING_QUEUE_CAPACITY);
+
+    /**
+     * 异步记录搜索历史
+     * 只放入内存队列，由 {@link #flushPendingHistories()} 定时批量写入，不占用搜索请求的响应时间
+     */
+    public void enqueueSearchHistory(Long userId, String keyword, List<String> searchTypes,
+                                     Long projectId, Long resultCount) {
+        if (userId == null || !StringUtils.hasText(keyword)) {
+            return;
+        }
+        SearchHistory history = new SearchHistory();
+        history.setUserId(userId);
+        history.setKeyword(keyword.trim());
+        history.setSearchTypes(searchTypes != null ? String.join(",", searchTypes) : null);
+        history.setProjectId(projectId);
+        history.setResultCount(resultCount != null ? resultCount.intValue() : 0);
+        history.setUpdatedOn(LocalDateTime.now());
+        if (!pendingHistories.offer(history)) {
+            log.debug("搜索历史队列已满，丢弃记录: userId={}, keyword={}", userId, history.getKeyword());
+        }
+    }
+
+    /**
+     * 批量写入队列中的搜索历史
+     * 同一用户、关键词、项目范围的多次搜索合并为一条；每个用户的已有记录一次查出，
+     * 新记录和更新记录分别批量写入
+     */
+    @Scheduled(fixedDelayString = "${search.history.flush-interval-ms:2000}")
+    @PreDestroy
+    public void flushPendingHistories() {
+        List<SearchHistory> drained = new ArrayList<>();
+        pendingHistories.drainTo(drained);
+        if (drained.isEmpty()) {
+            return;
+        }
+
+        // 合并重复搜索，保留最后一次的结果数和时间
+        Map<String, SearchHistory> merged = new LinkedHashMap<>();
+        for (SearchHistory history : drained) {
+            merged.put(historyKey(history.getUserId(), history.getKeyword(), history.getProjectId()), history);
+        }
+        Map<Long, List<SearchHistory>> byUser = merged.values().stream()
+                .collect(Collectors.groupingBy(SearchHistory::getUserId));
+
+        List<SearchHistory> toInsert = new ArrayList<>();
+        List<SearchHistory> toUpdate = new ArrayList<>();
+        for (Map.Entry<Long, List<SearchHistory>> entry : byUser.entrySet()) {
+            Set<String> keywords = entry.getValue().stream()
+                    .map(SearchHistory::getKeyword)
+                    .collect(Collectors.toSet());
+            LambdaQueryWrapper<SearchHistory> queryWrapper = new LambdaQueryWrapper<>();
+            queryWrapper.eq(SearchHistory::getUserId, entry.getKey())
+                       .in(SearchHistory::getKeyword, keywords);
+            Map<String, SearchHistory> existing = new HashMap<>();
+            for (SearchHistory history : list(queryWrapper)) {
+                existing.put(historyKey(history.getUserId(), history.getKeyword(), history.getProjectId()), history);
+            }
+
+            for (SearchHistory pending : entry.getValue()) {
+                SearchHistory current = existing.get(
+                        historyKey(pending.getUserId(), pending.getKeyword(), pending.getProjectId()));
+                if (current != null) {
+                    current.setSearchTypes(pending.getSearchTypes());
+                    current.setResultCount(pending.getResultCount());
+                    current.setUpdatedOn(pending.getUpdatedOn());
+                    toUpdate.add(current);
+                } else {
+                    pending.setCreatedOn(pending.getUpdatedOn());
+                    toInsert.add(pending);
+                }
+            }
+        }
+
+        try {
+            if (!toUpdate.isEmpty()) {
+                updateBatchById(toUpdate);
+            }
+        } catch (Exception e) {
+            log.warn("批量更新搜索历史失败: count={}, error={}", toUpdate.size(), e.getMessage());
+        }
+        if (!toInsert.isEmpty()) {
+            try {
+                saveBatch(toInsert);
+            } catch (Exception e) {
+                // 与并发写入的记录冲突时逐条写入
+                log.debug("批量新增搜索历史失败，改为逐条写入: {}", e.getMessage());
+                for (SearchHistory history : toInsert) {
+                    try {
+                        recordSearchHistory(history.getUserId(), history.getKeyword(),
+                                history.getSearchTypes() != null
+                                        ? Arrays.asList(history.getSearchTypes().split(",")) : null,
+                                history.getProjectId(), history.getResultCount().longValue());
+                    } catch (Exception ex) {
+                        log.warn("记录搜索历史失败: userId={}, error={}", history.getUserId(), ex.getMessage());
+                    }
+                }
+            }
+            // 清理旧记录，保持用户搜索历史不超过50条
+            toInsert.stream().map(SearchHistory::getUserId).distinct().forEach(this::cleanupOldHistories);
+        }
+        log.debug("批量写入搜索历史: 新增={}, 更新={}", toInsert.size(), toUpdate.size());
+    }
+
+    private static String historyKey(Long userId, String keyword, Long projectId) {
+        // 与数据库排序规则一致，关键词比较不区分大小写
+        return userId + "\0" + keyword.toLowerCase(Locale.ROOT) + "\0" + projectId;
+    }
+
     /**
      * 记录搜索历史
      */
@@ -0,0 +1,189 @@
+package com.github.jredmine.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.github.jredmine.dto.aggregate.SearchHitDTO;
+import com.github.jredmine.dto.aggregate.SearchTypeCountDTO;
+import com.github.jredmine.entity.SearchIndex;
+import com.github.jredmine.mapper.search.SearchIndexMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 全文搜索索引服务
+ * 任务、项目、Wiki 页面在创建、更新、删除时同步刷新 search_index 中对应的行，
+ * 全局搜索通过 FULLTEXT 索引按相关度排序并在数据库中分页。
+ * 索引与源表出现偏差时可由管理员调用 {@link #rebuild()} 重建。
+ *
+ * @author panfeng
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SearchIndexService {
+
+    public static final String TYPE_ISSUE = "issue";
+    public static final String TYPE_PROJECT = "project";
+    public static final String TYPE_WIKI = "wiki";
+
+    /**
+     * ngram 分词长度（与 MySQL ngram_token_size 一致），短于该长度的词无法命中索引
+     */
+    private static final int MIN_TERM_LENGTH = 2;
+
+    /**
+     * 布尔模式中有特殊含义的字符
+     */
+    private static final String BOOLEAN_OPERATORS = "+-<>()~*\"@";
+
+    private final SearchIndexMapper searchIndexMapper;
+
+    /**
+     * 刷新任务索引
+     *
+     * @param issueId 任务ID
+     */
+    public void indexIssue(Long issueId) {
+        if (issueId != null) {
+            searchIndexMapper.upsertIssues(issueId);
+        }
+    }
+
+    /**
+     * 批量刷新任务索引
+     *
+     * @param issueIds 任务ID集合
+     */
+    public void indexIssues(Collection<Long> issueIds) {
+        if (issueIds != null && !issueIds.isEmpty()) {
+            searchIndexMapper.upsertIssuesByIds(issueIds);
+        }
+    }
+
+    /**
+     * 删除任务索引
+     *
+     * @param issueId 任务ID
+     */
+    public void removeIssue(Long issueId) {
+        remove(TYPE_ISSUE, issueId);
+    }
+
+    /**
+     * 刷新项目索引
+     *
+     * @param projectId 项目ID
+     */
+    public void indexProject(Long projectId) {
+        if (projectId != null) {
+            searchIndexMapper.upsertProjects(projectId);
+        }
+    }
+
+    /**
+     * 刷新 Wiki 页面索引（取页面最新内容）
+     *
+     * @param pageId 页面ID
+     */
+    public void indexWikiPage(Long pageId) {
+        if (pageId != null) {
+            searchIndexMapper.upsertWikiPages(pageId);
+        }
+    }
+
+    /**
+     * 删除 Wiki 页面索引
+     *
+     * @param pageId 页面ID
+     */
+    public void removeWikiPage(Long pageId) {
+        remove(TYPE_WIKI, pageId);
+    }
+
+    /**
+     * 根据源表重建全部索引
+     *
+     * @return 写入的索引行数
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public int rebuild() {
+        searchIndexMapper.delete(null);
+        int rows = searchIndexMapper.upsertIssues(null)
+                + searchIndexMapper.upsertProjects(null)
+                + searchIndexMapper.upsertWikiPages(null);
+        log.info("全文搜索索引重建完成，索引行数: {}", rows);
+        return rows;
+    }
+
+    /**
+     * 将用户输入的关键词转换为布尔模式查询（每个词都必须出现）
+     *
+     * @param keyword 关键词
+     * @return 布尔查询表达式，没有可检索的词时返回 null
+     */
+    public String toBooleanQuery(String keyword) {
+        if (keyword == null) {
+            return null;
+        }
+        StringBuilder cleaned = new StringBuilder(keyword.length());
+        for (char c : keyword.toCharArray()) {
+            cleaned.append(BOOLEAN_OPERATORS.indexOf(c) >= 0 ? ' ' : c);
+        }
+        List<String> terms = new ArrayList<>();
+        for (String term : cleaned.toString().trim().split("\\s+")) {
+            if (term.length() >= MIN_TERM_LENGTH) {
+                terms.add("+" + term);
+            }
+        }
+        return terms.isEmpty() ? null : String.join(" ", terms);
+    }
+
+    /**
+     * 按相关度分页查询命中结果
+     *
+     * @param query      布尔查询表达式
+     * @param types      对象类型
+     * @param projectIds 可访问的项目ID
+     * @param projectId  限定项目（为空时不限定，项目类型不受此限制）
+     * @param offset     偏移量
+     * @param limit      条数
+     * @param timeoutMillis 数据库端执行时间上限（毫秒）
+     * @return 命中结果
+     */
+    public List<SearchHitDTO> searchHits(String query, Collection<String> types, Collection<Long> projectIds,
+                                         Long projectId, long offset, int limit, long timeoutMillis) {
+        return searchIndexMapper.selectHits(query, types, projectIds, projectId, offset, limit, timeoutMillis);
+    }
+
+    /**
+     * 按对象类型统计命中数
+     *
+     * @return 对象类型 -> 命中数
+     */
+    public Map<String, Long> countHits(String query, Collection<String> types, Collection<Long> projectIds,
+                                       Long projectId, long timeoutMillis) {
+        Map<String, Long> counts = new HashMap<>();
+        for (SearchTypeCountDTO row : searchIndexMapper.countHitsByType(
+                query, types, projectIds, projectId, timeoutMillis)) {
+            counts.put(row.getSearchableType(), row.getHitCount());
+        }
+        return counts;
+    }
+
+    private void remove(String type, Long id) {
+        if (id == null) {
+            return;
+        }
+        LambdaQueryWrapper<SearchIndex> wrapper = new LambdaQueryWrapper<>();
+        wrapper.eq(SearchIndex::getSearchableType, type)
+                .eq(SearchIndex::getSearchableId, id);
+        searchIndexMapper.delete(wrapper);
+    }
+}
@@ -1,6 +1,7 @@
 package com.github.jredmine.service;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.github.jredmine.dto.aggregate.SearchHitDTO;
 import com.github.jredmine.dto.request.search.GlobalSearchRequestDTO;
 import com.github.jredmine.dto.response.PageResponse;
 import com.github.jredmine.dto.response.search.GlobalSearchResponseDTO;
@@ -10,14 +11,22 @@ import com.github.jredmine.mapper.issue.IssueMapper;
 import com.github.jredmine.mapper.project.ProjectMapper;
 import com.github.jredmine.mapper.user.UserMapper;
 import com.github.jredmine.mapper.wiki.WikiPageMapper;
-import com.github.jredmine.mapper.wiki.WikiContentMapper;
 import com.github.jredmine.util.SecurityUtils;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 /**
@@ -30,16 +39,48 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class SearchService {
 
+    /**
+     * 支持的搜索类型
+     */
+    private static final List<String> SEARCH_TYPES = List.of(
+            SearchIndexService.TYPE_ISSUE, SearchIndexService.TYPE_PROJECT, SearchIndexService.TYPE_WIKI);
+
+    /**
+     * 同时执行的分类型搜索上限（限制对数据库连接池的占用）
+     */
+    private static final int MAX_CONCURRENT_TYPE_SEARCHES = 32;
+
+    /**
+     * 合并各类型命中结果的排序：相关度倒序，其次更新时间倒序
+     */
+    private static final Comparator<SearchHitDTO> HIT_ORDER = Comparator
+            .comparing(SearchHitDTO::getScore, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(SearchHitDTO::getUpdatedOn, Comparator.nullsLast(Comparator.reverseOrder()));
+
     private final IssueMapper issueMapper;
     private final ProjectMapper projectMapper;
     private final UserMapper userMapper;
     private final WikiPageMapper wikiPageMapper;
-    private final WikiContentMapper wikiContentMapper;
     private final SearchHistoryService searchHistoryService;
+    private final SearchIndexService searchIndexService;
     private final SecurityUtils securityUtils;
 
+    /**
+     * 分类型搜索执行器，每个任务一个虚拟线程
+     */
+    private final ExecutorService searchExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore typeSearchPermits = new Semaphore(MAX_CONCURRENT_TYPE_SEARCHES);
+
+    /**
+     * 单个搜索类型的超时时间（毫秒）
+     */
+    @Value("${search.type-timeout-ms:3000}")
+    private long typeTimeoutMillis;
+
     /**
      * 全局搜索
+     * 通过全文索引按相关度排序，各类型并发搜索后合并，只加载当前页的对象；
+     * 响应时间取决于最慢的单个类型，超时的类型在 timedOut 中标记，执行出错的类型在 failed 中标记
      */
     public GlobalSearchResponseDTO globalSearch(GlobalSearchRequestDTO requestDTO) {
         String keyword = requestDTO.getKeyword();
@@ -52,59 +93,55 @@ public class SearchService {
         
         // 如果未指定类型，搜索所有类型
         if (searchTypes == null || searchTypes.isEmpty()) {
-            searchTypes = Arrays.asList("issue", "project", "wiki");
-        }
-
-        // 存储各类型搜索结果
-        List<SearchResultItemDTO> allResults = new ArrayList<>();
-        Map<String, Long> typeCounts = new HashMap<>();
-        
-        // 搜索任务
-        if (searchTypes.contains("issue")) {
-            List<SearchResultItemDTO> issueResults = searchIssues(keyword, requestDTO.getProjectId());
-            allResults.addAll(issueResults);
-            typeCounts.put("issue", (long) issueResults.size());
+            searchTypes = SEARCH_TYPES;
         } else {
-            typeCounts.put("issue", 0L);
-        }
-
-        // 搜索项目
-        if (searchTypes.contains("project")) {
-            List<SearchResultItemDTO> projectResults = searchProjects(keyword);
-            allResults.addAll(projectResults);
-            typeCounts.put("project", (long) projectResults.size());
-        } else {
-            typeCounts.put("project", 0L);
+            searchTypes = searchTypes.stream()
+                    .map(String::trim)
+                    .filter(SEARCH_TYPES::contains)
+                    .distinct()
+                    .collect(Collectors.toList());
         }
 
-        // 搜索Wiki
-        if (searchTypes.contains("wiki")) {
-            List<SearchResultItemDTO> wikiResults = searchWikis(keyword, requestDTO.getProjectId());
-            allResults.addAll(wikiResults);
-            typeCounts.put("wiki", (long) wikiResults.size());
-        } else {
-            typeCounts.put("wiki", 0L);
+        // 全文检索表达式（关键词过短或只有运算符时无法检索）
+        String query = searchIndexService.toBooleanQuery(keyword);
+        List<Long> accessibleProjectIds = getAccessibleProjectIds();
+        if (query == null || searchTypes.isEmpty() || accessibleProjectIds.isEmpty()) {
+            recordSearchHistory(requestDTO, 0L);
+            return buildEmptyResponse(requestDTO.getKeyword());
         }
 
-        // 按更新时间倒序排序
-        allResults.sort((a, b) -> {
-            if (a.getUpdatedOn() == null && b.getUpdatedOn() == null) return 0;
-            if (a.getUpdatedOn() == null) return 1;
-            if (b.getUpdatedOn() == null) return -1;
-            return b.getUpdatedOn().compareTo(a.getUpdatedOn());
-        });
-
         // 计算分页
         int pageNum = requestDTO.getCurrent() != null ? requestDTO.getCurrent() : 1;
         int pageSize = requestDTO.getSize() != null ? requestDTO.getSize() : 20;
-        long total = allResults.size();
-        
-        int startIndex = (pageNum - 1) * pageSize;
-        int endIndex = Math.min(startIndex + pageSize, allResults.size());
-        
+        long offset = (long) (pageNum - 1) * pageSize;
+
+        // 各类型并发搜索，每个类型取前 offset + pageSize 条命中后合并
+        Map<String, TypeSearchResult> typeResults = searchTypesConcurrently(
+                query, searchTypes, accessibleProjectIds, requestDTO.getProjectId(), (int) (offset + pageSize));
+
+        Map<String, Long> typeCounts = new HashMap<>();
+        Map<String, Boolean> timedOut = new HashMap<>();
+        Map<String, Boolean> failed = new HashMap<>();
+        List<SearchHitDTO> mergedHits = new ArrayList<>();
+        long total = 0;
+        for (String type : SEARCH_TYPES) {
+            TypeSearchResult typeResult = typeResults.get(type);
+            long count = typeResult != null ? typeResult.count : 0L;
+            typeCounts.put(type, count);
+            timedOut.put(type, typeResult != null && typeResult.timedOut);
+            failed.put(type, typeResult != null && typeResult.failed);
+            total += count;
+            if (typeResult != null) {
+                mergedHits.addAll(typeResult.hits);
+            }
+        }
+        mergedHits.sort(HIT_ORDER);
+
+        // 截取当前页并加载展示信息
         List<SearchResultItemDTO> pagedResults = new ArrayList<>();
-        if (startIndex < allResults.size()) {
-            pagedResults = allResults.subList(startIndex, endIndex);
+        if (offset < mergedHits.size()) {
+            int endIndex = (int) Math.min(offset + pageSize, mergedHits.size());
+            pagedResults = toResultItems(mergedHits.subList((int) offset, endIndex));
         }
 
         // 按类型分组（用于展示分类标签）
@@ -118,6 +155,8 @@ public class SearchService {
                 .keyword(requestDTO.getKeyword())
                 .totalCount(total)
                 .typeCounts(typeCounts)
+                .timedOut(timedOut)
+                .failed(failed)
                 .results(PageResponse.of(
                         pagedResults, total, (long) pageNum, (long) pageSize))
                 .groupedResults(groupedResults)
@@ -125,249 +164,241 @@ public class SearchService {
     }
 
     /**
-     * 搜索任务
+     * 并发执行各类型搜索
+     * 每个类型在独立的虚拟线程中统计命中数并取前 window 条命中，所有类型共用同一个截止时间，
+     * 超时的类型取消执行并标记为超时，执行出错的类型记录日志并标记为失败，返回其余类型的结果
      */
-    private List<SearchResultItemDTO> searchIssues(String keyword, Long projectId) {
-        LambdaQueryWrapper<Issue> queryWrapper = new LambdaQueryWrapper<>();
-        
-        // 权限过滤：只查询用户有权限查看的项目的任务
-        List<Long> accessibleProjectIds = getAccessibleProjectIds();
-        if (accessibleProjectIds.isEmpty()) {
-            return new ArrayList<>();
+    private Map<String, TypeSearchResult> searchTypesConcurrently(String query, List<String> searchTypes,
+                                                                  List<Long> projectIds, Long projectId, int window) {
+        long deadline = System.currentTimeMillis() + typeTimeoutMillis;
+        Map<String, Future<TypeSearchResult>> futures = new LinkedHashMap<>();
+        for (String type : searchTypes) {
+            futures.put(type, searchExecutor.submit(() -> searchType(query, type, projectIds, projectId, window)));
         }
-        queryWrapper.in(Issue::getProjectId, accessibleProjectIds);
 
-        // 指定项目范围
-        if (projectId != null) {
-            queryWrapper.eq(Issue::getProjectId, projectId);
+        Map<String, TypeSearchResult> results = new HashMap<>();
+        for (Map.Entry<String, Future<TypeSearchResult>> entry : futures.entrySet()) {
+            String type = entry.getKey();
+            Future<TypeSearchResult> future = entry.getValue();
+            try {
+                long remaining = Math.max(0, deadline - System.currentTimeMillis());
+                results.put(type, future.get(remaining, TimeUnit.MILLISECONDS));
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                log.warn("搜索超时: type={}, timeout={}ms", type, typeTimeoutMillis);
+                results.put(type, TypeSearchResult.timedOut());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                results.put(type, TypeSearchResult.timedOut());
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                log.error("搜索失败: type={}, error={}", type, cause.getMessage(), cause);
+                results.put(type, TypeSearchResult.failed());
+            }
         }
-
-        // 关键词搜索（在标题和描述中搜索）
-        queryWrapper.and(wrapper -> {
-            wrapper.like(Issue::getSubject, keyword)
-                    .or()
-                    .like(Issue::getDescription, keyword);
-        });
-
-        // 按更新时间倒序
-        queryWrapper.orderByDesc(Issue::getUpdatedOn);
-
-        List<Issue> issues = issueMapper.selectList(queryWrapper);
-        
-        return issues.stream().map(issue -> {
-            Project project = projectMapper.selectById(issue.getProjectId());
-            User author = issue.getAuthorId() != null ? userMapper.selectById(issue.getAuthorId()) : null;
-
-            return SearchResultItemDTO.builder()
-                    .type("issue")
-                    .id(issue.getId())
-                    .title(issue.getSubject())
-                    .description(truncateDescription(issue.getDescription()))
-                    .projectId(issue.getProjectId())
-                    .projectName(project != null ? project.getName() : null)
-                    .authorId(issue.getAuthorId())
-                    .authorName(author != null ? getUserDisplayName(author) : null)
-                    .createdOn(issue.getCreatedOn())
-                    .updatedOn(issue.getUpdatedOn())
-                    .url("/issues/" + issue.getId())
-                    .isPrivate(issue.getIsPrivate() != null && issue.getIsPrivate())
-                    .status(issue.getStatusId() != null ? issue.getStatusId().toString() : null)
-                    .priority(issue.getPriorityId())
-                    .build();
-        }).collect(Collectors.toList());
+        return results;
     }
 
     /**
-     * 搜索项目
+     * 搜索单个类型：统计命中数并取前 window 条命中
      */
-    private List<SearchResultItemDTO> searchProjects(String keyword) {
-        LambdaQueryWrapper<Project> queryWrapper = new LambdaQueryWrapper<>();
-        
-        // 权限过滤：只查询用户有权限查看的项目
-        List<Long> accessibleProjectIds = getAccessibleProjectIds();
-        if (accessibleProjectIds.isEmpty()) {
-            return new ArrayList<>();
+    private TypeSearchResult searchType(String query, String type, List<Long> projectIds, Long projectId, int window)
+            throws InterruptedException {
+        // 限制同时执行的类型搜索数，避免占满数据库连接池
+        if (!typeSearchPermits.tryAcquire(typeTimeoutMillis, TimeUnit.MILLISECONDS)) {
+            return TypeSearchResult.timedOut();
+        }
+        try {
+            List<String> types = List.of(type);
+            long count = searchIndexService.countHits(query, types, projectIds, projectId, typeTimeoutMillis)
+                    .getOrDefault(type, 0L);
+            List<SearchHitDTO> hits = count > 0
+                    ? searchIndexService.searchHits(query, types, projectIds, projectId, 0, window, typeTimeoutMillis)
+                    : Collections.emptyList();
+            return new TypeSearchResult(count, hits, false, false);
+        } finally {
+            typeSearchPermits.release();
         }
-        queryWrapper.in(Project::getId, accessibleProjectIds);
-
-        // 关键词搜索（在名称和描述中搜索）
-        queryWrapper.and(wrapper -> {
-            wrapper.like(Project::getName, keyword)
-                    .or()
-                    .like(Project::getDescription, keyword);
-        });
-
-        // 按更新时间倒序
-        queryWrapper.orderByDesc(Project::getUpdatedOn);
-
-        List<Project> projects = projectMapper.selectList(queryWrapper);
-        
-        return projects.stream().map(project -> {
-            return SearchResultItemDTO.builder()
-                    .type("project")
-                    .id(project.getId())
-                    .title(project.getName())
-                    .description(truncateDescription(project.getDescription()))
-                    .projectId(project.getId())
-                    .projectName(project.getName())
-                    .authorId(null) // 项目没有作者字段，可以用创建者
-                    .authorName(null)
-                    .createdOn(project.getCreatedOn() != null ? 
-                            new java.sql.Timestamp(project.getCreatedOn().getTime()).toLocalDateTime() : null)
-                    .updatedOn(project.getUpdatedOn() != null ? 
-                            new java.sql.Timestamp(project.getUpdatedOn().getTime()).toLocalDateTime() : null)
-                    .url("/projects/" + project.getIdentifier())
-                    .isPrivate(project.getIsPublic() == null || !project.getIsPublic())
-                    .status(project.getStatus() != null ? project.getStatus().toString() : null)
-                    .statusName(getProjectStatusName(project.getStatus()))
-                    .build();
-        }).collect(Collectors.toList());
     }
 
     /**
-     * 搜索Wiki
+     * 单个类型的搜索结果
      */
-    private List<SearchResultItemDTO> searchWikis(String keyword, Long projectId) {
-        // 首先根据Wiki页面标题搜索
-        LambdaQueryWrapper<WikiPage> pageQueryWrapper = new LambdaQueryWrapper<>();
-        
-        // 权限过滤：只查询用户有权限查看的项目的Wiki
-        List<Long> accessibleProjectIds = getAccessibleProjectIds();
-        if (accessibleProjectIds.isEmpty()) {
-            return new ArrayList<>();
+    private static class TypeSearchResult {
+        private final long count;
+        private final List<SearchHitDTO> hits;
+        private final boolean timedOut;
+        private final boolean failed;
+
+        private TypeSearchResult(long count, List<SearchHitDTO> hits, boolean timedOut, boolean failed) {
+            this.count = count;
+            this.hits = hits;
+            this.timedOut = timedOut;
+            this.failed = failed;
         }
-        
-        // 通过wiki表关联项目
-        pageQueryWrapper.exists(
-                "SELECT 1 FROM wikis w WHERE w.id = wiki_pages.wiki_id AND w.project_id IN (" +
-                        accessibleProjectIds.stream().map(String::valueOf).collect(Collectors.joining(",")) + ")"
-        );
-
-        // 指定项目范围
-        if (projectId != null) {
-            pageQueryWrapper.exists(
-                    "SELECT 1 FROM wikis w WHERE w.id = wiki_pages.wiki_id AND w.project_id = " + projectId
-            );
+
+        private static TypeSearchResult timedOut() {
+            return new TypeSearchResult(0L, Collections.emptyList(), true, false);
         }
 
-        // 在Wiki页面标题中搜索
-        pageQueryWrapper.like(WikiPage::getTitle, keyword);
+        private static TypeSearchResult failed() {
+            return new TypeSearchResult(0L, Collections.emptyList(), false, true);
+        }
+    }
 
-        List<WikiPage> wikiPages = wikiPageMapper.selectList(pageQueryWrapper);
-        
-        List<SearchResultItemDTO> results = new ArrayList<>();
-        
-        // 为每个Wiki页面构建搜索结果
-        for (WikiPage page : wikiPages) {
-            // 获取最新的Wiki内容
-            LambdaQueryWrapper<WikiContent> contentWrapper = new LambdaQueryWrapper<>();
-            contentWrapper.eq(WikiContent::getPageId, page.getId())
-                    .orderByDesc(WikiContent::getVersion)
-                    .last("LIMIT 1");
-            WikiContent content = wikiContentMapper.selectOne(contentWrapper);
-            
-            // 获取项目信息
-            Project project = null;
-            if (page.getWikiId() != null) {
-                // 通过wiki_id查找项目
-                LambdaQueryWrapper<Project> projectWrapper = new LambdaQueryWrapper<>();
-                projectWrapper.exists(
-                        "SELECT 1 FROM wikis w WHERE w.project_id = projects.id AND w.id = " + page.getWikiId()
-                );
-                project = projectMapper.selectOne(projectWrapper);
+    @PreDestroy
+    public void shutdownSearchExecutor() {
+        searchExecutor.shutdownNow();
+    }
+
+    /**
+     * 将一页命中结果转换为搜索结果项
+     * 任务、项目、Wiki 页面和作者各执行一次 IN 查询；索引中存在但源数据已删除的命中会被跳过
+     */
+    private List<SearchResultItemDTO> toResultItems(List<SearchHitDTO> hits) {
+        Set<Long> issueIds = new HashSet<>();
+        Set<Long> projectIds = new HashSet<>();
+        Set<Long> pageIds = new HashSet<>();
+        Set<Long> authorIds = new HashSet<>();
+        for (SearchHitDTO hit : hits) {
+            if (SearchIndexService.TYPE_ISSUE.equals(hit.getSearchableType())) {
+                issueIds.add(hit.getSearchableId());
+            } else if (SearchIndexService.TYPE_WIKI.equals(hit.getSearchableType())) {
+                pageIds.add(hit.getSearchableId());
             }
-            
-            // 获取作者信息
-            User author = null;
-            if (content != null && content.getAuthorId() != null) {
-                author = userMapper.selectById(content.getAuthorId());
+            if (hit.getProjectId() != null) {
+                projectIds.add(hit.getProjectId());
+            }
+            if (hit.getAuthorId() != null) {
+                authorIds.add(hit.getAuthorId());
             }
-            
-            SearchResultItemDTO result = SearchResultItemDTO.builder()
-                    .type("wiki")
-                    .id(page.getId())
-                    .title(page.getTitle())
-                    .description(content != null ? truncateDescription(content.getText()) : null)
-                    .projectId(project != null ? project.getId() : null)
-                    .projectName(project != null ? project.getName() : null)
-                    .authorId(content != null ? content.getAuthorId() : null)
-                    .authorName(author != null ? getUserDisplayName(author) : null)
-                    .createdOn(page.getCreatedOn() != null ? 
-                            new java.sql.Timestamp(page.getCreatedOn().getTime()).toLocalDateTime() : null)
-                    .updatedOn(content != null && content.getUpdatedOn() != null ? 
-                            new java.sql.Timestamp(content.getUpdatedOn().getTime()).toLocalDateTime() : null)
-                    .url("/projects/" + (project != null ? project.getIdentifier() : "unknown") + "/wiki/" + page.getTitle())
-                    .isPrivate(false) // Wiki通常是项目内公开的
-                    .status("active")
-                    .statusName("活动")
-                    .build();
-            
-            results.add(result);
         }
-        
-        // 也在Wiki内容中搜索
-        LambdaQueryWrapper<WikiContent> contentSearchWrapper = new LambdaQueryWrapper<>();
-        contentSearchWrapper.like(WikiContent::getText, keyword);
-        
-        List<WikiContent> contents = wikiContentMapper.selectList(contentSearchWrapper);
-        
-        for (WikiContent content : contents) {
-            // 检查是否已经通过标题搜索添加过了
-            boolean alreadyAdded = results.stream()
-                    .anyMatch(r -> r.getId().equals(content.getPageId()) && "wiki".equals(r.getType()));
-            
-            if (!alreadyAdded) {
-                WikiPage page = wikiPageMapper.selectById(content.getPageId());
-                if (page != null) {
-                    // 检查项目权限
-                    Project project = null;
-                    if (page.getWikiId() != null) {
-                        LambdaQueryWrapper<Project> projectWrapper = new LambdaQueryWrapper<>();
-                        projectWrapper.exists(
-                                "SELECT 1 FROM wikis w WHERE w.project_id = projects.id AND w.id = " + page.getWikiId()
-                        );
-                        project = projectMapper.selectOne(projectWrapper);
-                        
-                        // 权限检查
-                        if (project == null || !accessibleProjectIds.contains(project.getId())) {
-                            continue;
-                        }
-                        
-                        // 项目范围检查
-                        if (projectId != null && !projectId.equals(project.getId())) {
-                            continue;
-                        }
+
+        Map<Long, Issue> issues = issueIds.isEmpty() ? Collections.emptyMap()
+                : issueMapper.selectBatchIds(issueIds).stream()
+                        .collect(Collectors.toMap(Issue::getId, i -> i));
+        Map<Long, Project> projects = projectIds.isEmpty() ? Collections.emptyMap()
+                : projectMapper.selectBatchIds(projectIds).stream()
+                        .collect(Collectors.toMap(Project::getId, p -> p));
+        Map<Long, WikiPage> pages = pageIds.isEmpty() ? Collections.emptyMap()
+                : wikiPageMapper.selectBatchIds(pageIds).stream()
+                        .collect(Collectors.toMap(WikiPage::getId, p -> p));
+        Map<Long, User> authors = authorIds.isEmpty() ? Collections.emptyMap()
+                : userMapper.selectBatchIds(authorIds).stream()
+                        .collect(Collectors.toMap(User::getId, u -> u));
+
+        List<SearchResultItemDTO> results = new ArrayList<>(hits.size());
+        for (SearchHitDTO hit : hits) {
+            SearchResultItemDTO item = null;
+            switch (hit.getSearchableType()) {
+                case SearchIndexService.TYPE_ISSUE:
+                    Issue issue = issues.get(hit.getSearchableId());
+                    if (issue != null) {
+                        item = toIssueItem(issue, hit, projects.get(issue.getProjectId()),
+                                authors.get(issue.getAuthorId()));
+                    }
+                    break;
+                case SearchIndexService.TYPE_PROJECT:
+                    Project project = projects.get(hit.getSearchableId());
+                    if (project != null) {
+                        item = toProjectItem(project, hit);
                     }
-                    
-                    User author = content.getAuthorId() != null ? userMapper.selectById(content.getAuthorId()) : null;
-                    
-                    SearchResultItemDTO result = SearchResultItemDTO.builder()
-                            .type("wiki")
-                            .id(page.getId())
-                            .title(page.getTitle())
-                            .description(truncateDescription(content.getText()))
-                            .projectId(project != null ? project.getId() : null)
-                            .projectName(project != null ? project.getName() : null)
-                            .authorId(content.getAuthorId())
-                            .authorName(author != null ? getUserDisplayName(author) : null)
-                            .createdOn(page.getCreatedOn() != null ? 
-                                    new java.sql.Timestamp(page.getCreatedOn().getTime()).toLocalDateTime() : null)
-                            .updatedOn(content.getUpdatedOn() != null ? 
-                                    new java.sql.Timestamp(content.getUpdatedOn().getTime()).toLocalDateTime() : null)
-                            .url("/projects/" + (project != null ? project.getIdentifier() : "unknown") + "/wiki/" + page.getTitle())
-                            .isPrivate(false)
-                            .status("active")
-                            .statusName("活动")
-                            .build();
-                    
-                    results.add(result);
-                }
+                    break;
+                case SearchIndexService.TYPE_WIKI:
+                    WikiPage page = pages.get(hit.getSearchableId());
+                    if (page != null) {
+                        item = toWikiItem(page, hit, projects.get(hit.getProjectId()), authors.get(hit.getAuthorId()));
+                    }
+                    break;
+                default:
+                    break;
+            }
+            if (item != null) {
+                results.add(item);
             }
         }
-        
         return results;
     }
 
+    /**
+     * 任务搜索结果
+     */
+    private SearchResultItemDTO toIssueItem(Issue issue, SearchHitDTO hit, Project project, User author) {
+        return SearchResultItemDTO.builder()
+                .type("issue")
+                .id(issue.getId())
+                .title(issue.getSubject())
+                .description(truncateDescription(hit.getExcerpt()))
+                .projectId(issue.getProjectId())
+                .projectName(project != null ? project.getName() : null)
+                .authorId(issue.getAuthorId())
+                .authorName(author != null ? getUserDisplayName(author) : null)
+                .createdOn(issue.getCreatedOn())
+                .updatedOn(issue.getUpdatedOn())
+                .url("/issues/" + issue.getId())
+                .isPrivate(issue.getIsPrivate() != null && issue.getIsPrivate())
+                .status(issue.getStatusId() != null ? issue.getStatusId().toString() : null)
+                .priority(issue.getPriorityId())
+                .build();
+    }
+
+    /**
+     * 项目搜索结果
+     */
+    private SearchResultItemDTO toProjectItem(Project project, SearchHitDTO hit) {
+        return SearchResultItemDTO.builder()
+                .type("project")
+                .id(project.getId())
+                .title(project.getName())
+                .description(truncateDescription(hit.getExcerpt()))
+                .projectId(project.getId())
+                .projectName(project.getName())
+                .authorId(null) // 项目没有作者字段，可以用创建者
+                .authorName(null)
+                .createdOn(project.getCreatedOn() != null ? 
+                        new java.sql.Timestamp(project.getCreatedOn().getTime()).toLocalDateTime() : null)
+                .updatedOn(project.getUpdatedOn() != null ? 
+                        new java.sql.Timestamp(project.getUpdatedOn().getTime()).toLocalDateTime() : null)
+                .url("/projects/" + project.getIdentifier())
+                .isPrivate(project.getIsPublic() == null || !project.getIsPublic())
+                .status(project.getStatus() != null ? project.getStatus().toString() : null)
+                .statusName(getProjectStatusName(project.getStatus()))
+                .build();
+    }
+
+    /**
+     * Wiki 搜索结果（正文摘要、作者和更新时间取自页面最新内容）
+     */
+    private SearchResultItemDTO toWikiItem(WikiPage page, SearchHitDTO hit, Project project, User author) {
+        return SearchResultItemDTO.builder()
+                .type("wiki")
+                .id(page.getId())
+                .title(page.getTitle())
+                .description(truncateDescription(hit.getExcerpt()))
+                .projectId(project != null ? project.getId() : null)
+                .projectName(project != null ? project.getName() : null)
+                .authorId(hit.getAuthorId())
+                .authorName(author != null ? getUserDisplayName(author) : null)
+                .createdOn(page.getCreatedOn() != null ? 
+                        new java.sql.Timestamp(page.getCreatedOn().getTime()).toLocalDateTime() : null)
+                .updatedOn(hit.getUpdatedOn())
+                .url("/projects/" + (project != null ? project.getIdentifier() : "unknown") + "/wiki/" + page.getTitle())
+                .isPrivate(false) // Wiki通常是项目内公开的
+                .status("active")
+                .statusName("活动")
+                .build();
+    }
+
+    /**
+     * 重建全文搜索索引
+     *
+     * @return 写入的索引行数
+     */
+    public int rebuildSearchIndex() {
+        return searchIndexService.rebuild();
+    }
+
     /**
      * 获取用户可访问的项目ID列表
      */
@@ -442,13 +473,13 @@ public class SearchService {
     }
 
     /**
-     * 记录搜索历史
+     * 记录搜索历史（放入队列后异步批量写入）
      */
     private void recordSearchHistory(GlobalSearchRequestDTO requestDTO, Long totalCount) {
         try {
             Long currentUserId = securityUtils.getCurrentUserId();
             if (currentUserId != null && StringUtils.hasText(requestDTO.getKeyword())) {
-                searchHistoryService.recordSearchHistory(
+                searchHistoryService.enqueueSearchHistory(
                     currentUserId,
                     requestDTO.getKeyword(),
                     requestDTO.getTypes(),
@@ -499,10 +530,19 @@ public class SearchService {
         typeCounts.put("project", 0L);
         typeCounts.put("wiki", 0L);
         
+        Map<String, Boolean> timedOut = new HashMap<>();
+        Map<String, Boolean> failed = new HashMap<>();
+        typeCounts.keySet().forEach(type -> {
+            timedOut.put(type, false);
+            failed.put(type, false);
+        });
+        
         return GlobalSearchResponseDTO.builder()
                 .keyword(keyword)
                 .totalCount(0L)
                 .typeCounts(typeCounts)
+                .timedOut(timedOut)
+                .failed(failed)
                 .results(PageResponse.of(
                         new ArrayList<>(), 0L, 1L, 20L))
                 .groupedResults(new HashMap<>())
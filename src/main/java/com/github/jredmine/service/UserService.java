@@ -31,6 +31,10 @@ import com.github.jredmine.mapper.user.EmailAddressMapper;
 import com.github.jredmine.mapper.user.TokenMapper;
 import com.github.jredmine.mapper.user.UserMapper;
 import com.github.jredmine.mapper.user.UserPreferenceMapper;
+import com.github.jredmine.security.JwtClaims;
+import com.github.jredmine.security.JwtTokenVerifier;
+import com.github.jredmine.security.ProjectPermissionService;
+import com.github.jredmine.security.UserPrincipalCache;
 import com.github.jredmine.util.JwtUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -51,7 +55,10 @@ public class UserService {
     private final TokenMapper tokenMapper;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtils jwtUtils;
+    private final JwtTokenVerifier jwtTokenVerifier;
     private final EmailService emailService;
+    private final UserPrincipalCache userPrincipalCache;
+    private final ProjectPermissionService projectPermissionService;
 
     // 邮箱格式验证正则表达式
     private static final Pattern EMAIL_PATTERN = Pattern.compile(
@@ -469,6 +476,7 @@ public class UserService {
             if (hasUpdate) {
                 user.setUpdatedOn(new Date());
                 userMapper.updateById(user);
+                userPrincipalCache.evictUser(id);
                 log.info("用户信息更新成功，用户ID: {}", id);
             } else {
                 log.debug("用户信息无变化，用户ID: {}", id);
@@ -555,6 +563,8 @@ public class UserService {
             user.setStatus(status);
             user.setUpdatedOn(new Date());
             userMapper.updateById(user);
+            // 锁定或解锁后该用户的认证主体和各项目权限缓存都需要重新加载
+            projectPermissionService.evictUserPermissions(id);
 
             log.info("用户状态更新成功，用户ID: {}, 新状态: {}", id, status);
 
@@ -619,14 +629,15 @@ public class UserService {
             String token = requestDTO.getToken();
 
             // 1. 验证Token是否有效（即使快过期也可以，只要还没过期）
-            if (!jwtUtils.validateToken(token)) {
+            JwtClaims claims = jwtTokenVerifier.verify(token);
+            if (claims == null) {
                 log.warn("Token刷新失败：Token无效或已过期");
                 throw new BusinessException(ResultCode.UNAUTHORIZED, "Token无效或已过期");
             }
 
             // 2. 从Token中提取用户信息
-            String username = jwtUtils.extractUsername(token);
-            Long userId = jwtUtils.extractUserId(token);
+            String username = claims.getUsername();
+            Long userId = claims.getUserId();
 
             if (username == null || userId == null) {
                 log.warn("Token刷新失败：无法从Token中提取用户信息");
@@ -742,6 +753,7 @@ public class UserService {
             user.setHashedPassword(passwordEncoder.encode(requestDTO.getNewPassword()));
             user.setUpdatedOn(new Date());
             userMapper.updateById(user);
+            userPrincipalCache.evictUser(user.getId());
 
             MDC.put("userId", String.valueOf(user.getId()));
             log.info("密码变更成功，用户ID: {}", user.getId());
@@ -779,6 +791,8 @@ public class UserService {
             user.setDeletedAt(new Date());
             user.setUpdatedOn(new Date());
             userMapper.updateById(user);
+            // 软删除保留成员关系，清除该用户的认证主体和各项目权限缓存
+            projectPermissionService.evictUserPermissions(id);
 
             log.info("用户软删除成功，用户ID: {}", id);
         } finally {
@@ -1124,6 +1138,7 @@ public class UserService {
             user.setMustChangePasswd(false); // 重置后不需要强制修改密码
             user.setUpdatedOn(new Date());
             userMapper.updateById(user);
+            userPrincipalCache.evictUser(user.getId());
 
             // 6. 删除已使用的Token
             tokenMapper.deleteById(token.getId());
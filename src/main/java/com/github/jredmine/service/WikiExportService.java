@@ -1,25 +1,58 @@
 package com.github.jredmine.service;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.github.jredmine.dto.response.wiki.WikiExportJobResponseDTO;
+import com.github.jredmine.entity.Attachment;
+import com.github.jredmine.entity.EmailAddress;
+import com.github.jredmine.entity.Project;
+import com.github.jredmine.entity.User;
 import com.github.jredmine.entity.Wiki;
 import com.github.jredmine.entity.WikiContent;
 import com.github.jredmine.entity.WikiPage;
 import com.github.jredmine.enums.ResultCode;
 import com.github.jredmine.exception.BusinessException;
+import com.github.jredmine.mapper.AttachmentMapper;
+import com.github.jredmine.mapper.project.ProjectMapper;
+import com.github.jredmine.mapper.user.EmailAddressMapper;
+import com.github.jredmine.mapper.user.UserMapper;
 import com.github.jredmine.mapper.wiki.WikiContentMapper;
 import com.github.jredmine.mapper.wiki.WikiPageMapper;
+import com.github.jredmine.util.SecurityUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
 /**
- * Wiki 导出服务：单页/全部导出为 Markdown 或 HTML
+ * Wiki 导出服务：单页导出为 Markdown 或 HTML，全部页面流式导出为 ZIP；
+ * 页面很多时可提交后台导出任务，生成文件后通知用户下载
  *
  * @author panfeng
  */
@@ -28,16 +61,60 @@ import java.util.zip.ZipOutputStream;
 @RequiredArgsConstructor
 public class WikiExportService {
 
+    /**
+     * 流式导出时每批读取的页面数
+     */
+    private static final int PAGE_BATCH_SIZE = 200;
+
+    /**
+     * Wiki 页面附件的容器类型
+     */
+    private static final String CONTAINER_TYPE_WIKI_PAGE = "WikiPage";
+
+    private static final String JOB_STATUS_PENDING = "PENDING";
+    private static final String JOB_STATUS_RUNNING = "RUNNING";
+    private static final String JOB_STATUS_READY = "READY";
+    private static final String JOB_STATUS_FAILED = "FAILED";
+
     private final WikiService wikiService;
     private final WikiPageMapper wikiPageMapper;
     private final WikiContentMapper wikiContentMapper;
+    private final WikiVersionStore wikiVersionStore;
+    private final AttachmentMapper attachmentMapper;
+    private final AttachmentService attachmentService;
+    private final ProjectMapper projectMapper;
+    private final UserMapper userMapper;
+    private final EmailAddressMapper emailAddressMapper;
+    private final EmailService emailService;
+    private final SecurityUtils securityUtils;
+    /**
+     * 后台导出执行器（单线程、队列有界，见 AsyncConfig#exportJobExecutor）
+     */
+    private final ThreadPoolTaskExecutor exportJobExecutor;
+
+    /**
+     * 后台导出文件目录，为空时使用系统临时目录
+     */
+    @Value("${wiki.export.job.path:}")
+    private String exportJobPath;
+
+    /**
+     * 后台导出文件保留时间（分钟），过期后删除文件和任务记录
+     */
+    @Value("${wiki.export.job.retention-minutes:60}")
+    private Long exportJobRetentionMinutes;
+
+    /**
+     * 后台导出任务（任务ID -> 任务）
+     */
+    private final Map<String, ExportJob> exportJobs = new ConcurrentHashMap<>();
 
     /**
      * 导出单页为 Markdown（正文原文，通常已是 Markdown）
      */
     public byte[] exportPageToMarkdown(Long projectId, String titleOrId) {
         WikiPage page = wikiService.getPageByProjectAndTitleOrId(projectId, titleOrId);
-        WikiContent content = getLatestContent(page.getId());
+        WikiContent content = wikiService.getLatestContent(page);
         String text = content != null && content.getText() != null ? content.getText() : "";
         String md = "# " + page.getTitle() + "\n\n" + text;
         return md.getBytes(StandardCharsets.UTF_8);
@@ -48,7 +125,7 @@ public class WikiExportService {
      */
     public byte[] exportPageToHtml(Long projectId, String titleOrId) {
         WikiPage page = wikiService.getPageByProjectAndTitleOrId(projectId, titleOrId);
-        WikiContent content = getLatestContent(page.getId());
+        WikiContent content = wikiService.getLatestContent(page);
         String text = content != null && content.getText() != null ? content.getText() : "";
         String escaped = escapeHtml(text);
         String html = "<!DOCTYPE html><html><head><meta charset=\"UTF-8\"><title>" + escapeHtml(page.getTitle()) + "</title></head><body><h1>" + escapeHtml(page.getTitle()) + "</h1><pre>" + escaped + "</pre></body></html>";
@@ -56,37 +133,324 @@ public class WikiExportService {
     }
 
     /**
-     * 导出全部页面为 ZIP（内为多份 .md 文件）
+     * 导出全部页面为 ZIP（内为多份 .md 文件），直接写入输出流
+     *
+     * @param projectId          项目ID
+     * @param includeAttachments 是否包含页面附件（attachments/页面名/文件名）
+     * @param includeHistory     是否包含历史版本（history/页面名/v版本号.md）
+     * @param out                输出流（调用方负责关闭）
      */
-    public byte[] exportAllToMarkdownZip(Long projectId) {
+    public void writeMarkdownZip(Long projectId, boolean includeAttachments, boolean includeHistory,
+                                 OutputStream out) throws IOException {
         Wiki wiki = wikiService.getOrCreateWiki(projectId);
-        LambdaQueryWrapper<WikiPage> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(WikiPage::getWikiId, wiki.getId()).orderByAsc(WikiPage::getTitle);
-        List<WikiPage> pages = wikiPageMapper.selectList(wrapper);
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
-             ZipOutputStream zos = new ZipOutputStream(baos, StandardCharsets.UTF_8)) {
+        int pageCount = writeMarkdownZip(wiki, includeAttachments, includeHistory, out);
+        log.info("Wiki 全部导出 ZIP: projectId={}, 页面数={}", projectId, pageCount);
+    }
+
+    /**
+     * 按页面ID游标分批读取页面，逐页写入ZIP条目；内存中只保留当前批次的页面和最新内容
+     *
+     * @return 导出的页面数
+     */
+    private int writeMarkdownZip(Wiki wiki, boolean includeAttachments, boolean includeHistory,
+                                 OutputStream out) throws IOException {
+        ZipOutputStream zos = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        Set<String> usedNames = new HashSet<>();
+        int pageCount = 0;
+        long lastId = 0L;
+        while (true) {
+            LambdaQueryWrapper<WikiPage> wrapper = new LambdaQueryWrapper<>();
+            wrapper.eq(WikiPage::getWikiId, wiki.getId())
+                    .gt(WikiPage::getId, lastId)
+                    .orderByAsc(WikiPage::getId)
+                    .last("LIMIT " + PAGE_BATCH_SIZE);
+            List<WikiPage> pages = wikiPageMapper.selectList(wrapper);
+            if (pages.isEmpty()) {
+                break;
+            }
+
+            Map<Long, WikiContent> contentById = loadLatestContents(pages);
+            Map<Long, List<Attachment>> attachmentsByPageId = includeAttachments
+                    ? loadPageAttachments(pages) : Collections.emptyMap();
             for (WikiPage page : pages) {
-                WikiContent content = getLatestContent(page.getId());
+                WikiContent content = page.getLatestContentId() != null
+                        ? contentById.get(page.getLatestContentId()) : null;
+                if (content == null) {
+                    content = wikiService.getLatestContent(page);
+                }
+                String baseName = uniqueName(sanitizeFileName(page.getTitle()), usedNames);
                 String text = content != null && content.getText() != null ? content.getText() : "";
-                String md = "# " + page.getTitle() + "\n\n" + text;
-                String safeName = sanitizeFileName(page.getTitle()) + ".md";
-                zos.putNextEntry(new ZipEntry(safeName));
-                zos.write(md.getBytes(StandardCharsets.UTF_8));
+                writeEntry(zos, baseName + ".md", "# " + page.getTitle() + "\n\n" + text);
+
+                if (includeHistory && content != null && content.getVersion() != null && content.getVersion() > 1) {
+                    wikiVersionStore.forEachVersion(page.getId(), content.getVersion() - 1, (row, versionText) ->
+                            writeEntry(zos, "history/" + baseName + "/v" + row.getVersion() + ".md",
+                                    "# " + page.getTitle() + "\n\n" + versionText));
+                }
+                List<Attachment> attachments = attachmentsByPageId.get(page.getId());
+                if (attachments != null) {
+                    writeAttachments(zos, "attachments/" + baseName + "/", attachments);
+                }
+                pageCount++;
+            }
+            lastId = pages.get(pages.size() - 1).getId();
+            if (pages.size() < PAGE_BATCH_SIZE) {
+                break;
+            }
+        }
+        zos.finish();
+        zos.flush();
+        return pageCount;
+    }
+
+    /**
+     * 按最新内容指针批量加载一批页面的最新内容
+     */
+    private Map<Long, WikiContent> loadLatestContents(List<WikiPage> pages) {
+        List<Long> contentIds = pages.stream()
+                .map(WikiPage::getLatestContentId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        Map<Long, WikiContent> contentById = new HashMap<>();
+        if (!contentIds.isEmpty()) {
+            for (WikiContent content : wikiContentMapper.selectBatchIds(contentIds)) {
+                contentById.put(content.getId(), content);
+            }
+        }
+        return contentById;
+    }
+
+    /**
+     * 批量加载一批页面的附件
+     */
+    private Map<Long, List<Attachment>> loadPageAttachments(List<WikiPage> pages) {
+        List<Long> pageIds = pages.stream().map(WikiPage::getId).collect(Collectors.toList());
+        LambdaQueryWrapper<Attachment> wrapper = new LambdaQueryWrapper<>();
+        wrapper.eq(Attachment::getContainerType, CONTAINER_TYPE_WIKI_PAGE)
+                .in(Attachment::getContainerId, pageIds)
+                .orderByAsc(Attachment::getId);
+        return attachmentMapper.selectList(wrapper).stream()
+                .collect(Collectors.groupingBy(Attachment::getContainerId));
+    }
+
+    /**
+     * 写入页面附件，文件不存在时跳过
+     */
+    private void writeAttachments(ZipOutputStream zos, String prefix, List<Attachment> attachments)
+            throws IOException {
+        Set<String> usedNames = new HashSet<>();
+        for (Attachment attachment : attachments) {
+            InputStream in;
+            try {
+                in = attachmentService.openContent(attachment);
+            } catch (BusinessException e) {
+                log.warn("Wiki 导出跳过附件: attachmentId={}, error={}", attachment.getId(), e.getMessage());
+                continue;
+            }
+            String filename = StringUtils.hasText(attachment.getFilename())
+                    ? sanitizeFileName(attachment.getFilename()) : "unnamed_" + attachment.getId();
+            // 完整读取存储的文件，不按附件记录中的大小截断
+            try (in) {
+                zos.putNextEntry(new ZipEntry(prefix + uniqueName(filename, usedNames)));
+                in.transferTo(zos);
                 zos.closeEntry();
             }
-            zos.finish();
-            log.info("Wiki 全部导出 ZIP: projectId={}, 页面数={}", projectId, pages.size());
-            return baos.toByteArray();
+        }
+    }
+
+    private void writeEntry(ZipOutputStream zos, String name, String text) throws IOException {
+        zos.putNextEntry(new ZipEntry(name));
+        zos.write(text.getBytes(StandardCharsets.UTF_8));
+        zos.closeEntry();
+    }
+
+    /**
+     * 提交后台导出任务：导出文件写入磁盘，完成后邮件通知提交人
+     * 同一用户对同一项目已有未完成的任务时直接返回该任务
+     */
+    public WikiExportJobResponseDTO submitExportJob(Long projectId, boolean includeAttachments,
+                                                    boolean includeHistory) {
+        Wiki wiki = wikiService.getOrCreateWiki(projectId);
+        Long userId = securityUtils.getCurrentUserId();
+        for (ExportJob existing : exportJobs.values()) {
+            if (existing.projectId.equals(projectId) && Objects.equals(existing.userId, userId)
+                    && (JOB_STATUS_PENDING.equals(existing.status) || JOB_STATUS_RUNNING.equals(existing.status))) {
+                return toJobResponse(existing);
+            }
+        }
+
+        ExportJob job = new ExportJob(UUID.randomUUID().toString().replace("-", ""), projectId, userId,
+                includeAttachments, includeHistory);
+        exportJobs.put(job.jobId, job);
+        try {
+            exportJobExecutor.execute(() -> runExportJob(job, wiki));
+        } catch (TaskRejectedException e) {
+            exportJobs.remove(job.jobId);
+            log.warn("Wiki 导出任务队列已满，拒绝提交: projectId={}, userId={}", projectId, userId);
+            throw new BusinessException("导出任务较多，请稍后再试");
+        }
+        log.info("提交 Wiki 导出任务: jobId={}, projectId={}, userId={}", job.jobId, projectId, userId);
+        return toJobResponse(job);
+    }
+
+    /**
+     * 查询后台导出任务
+     */
+    public WikiExportJobResponseDTO getExportJob(Long projectId, String jobId) {
+        return toJobResponse(findExportJob(projectId, jobId));
+    }
+
+    /**
+     * 获取已完成的后台导出文件
+     */
+    public Path getExportJobFile(Long projectId, String jobId) {
+        ExportJob job = findExportJob(projectId, jobId);
+        if (!JOB_STATUS_READY.equals(job.status)) {
+            throw new BusinessException(ResultCode.WIKI_EXPORT_JOB_NOT_READY);
+        }
+        if (!Files.isRegularFile(job.file)) {
+            exportJobs.remove(job.jobId);
+            throw new BusinessException(ResultCode.WIKI_EXPORT_JOB_NOT_FOUND);
+        }
+        return job.file;
+    }
+
+    /**
+     * 任务只对提交人和系统管理员可见
+     */
+    private ExportJob findExportJob(Long projectId, String jobId) {
+        ExportJob job = jobId != null ? exportJobs.get(jobId) : null;
+        if (job == null || !job.projectId.equals(projectId)
+                || !(Objects.equals(job.userId, securityUtils.getCurrentUserId()) || securityUtils.isAdmin())) {
+            throw new BusinessException(ResultCode.WIKI_EXPORT_JOB_NOT_FOUND);
+        }
+        return job;
+    }
+
+    private void runExportJob(ExportJob job, Wiki wiki) {
+        job.status = JOB_STATUS_RUNNING;
+        Path file = null;
+        try {
+            Path directory = getExportJobDirectory();
+            Files.createDirectories(directory);
+            file = directory.resolve("wiki-export-" + job.jobId + ".zip");
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+                job.pageCount = writeMarkdownZip(wiki, job.includeAttachments, job.includeHistory, out);
+            }
+            job.file = file;
+            job.fileSize = Files.size(file);
+            job.completedOn = new Date();
+            job.status = JOB_STATUS_READY;
+            log.info("Wiki 导出任务完成: jobId={}, projectId={}, 页面数={}, 文件大小={}",
+                    job.jobId, job.projectId, job.pageCount, job.fileSize);
+            notifyExportReady(job);
         } catch (Exception e) {
-            log.error("Wiki 导出 ZIP 失败", e);
-            throw new BusinessException(ResultCode.SYSTEM_ERROR, "导出失败: " + e.getMessage());
+            log.error("Wiki 导出任务失败: jobId={}, projectId={}", job.jobId, job.projectId, e);
+            job.errorMessage = e.getMessage();
+            job.completedOn = new Date();
+            job.status = JOB_STATUS_FAILED;
+            if (file != null) {
+                deleteQuietly(file);
+            }
         }
     }
 
-    private WikiContent getLatestContent(Long pageId) {
-        LambdaQueryWrapper<WikiContent> w = new LambdaQueryWrapper<>();
-        w.eq(WikiContent::getPageId, pageId).orderByDesc(WikiContent::getVersion).last("LIMIT 1");
-        return wikiContentMapper.selectOne(w);
+    /**
+     * 邮件通知提交人导出完成（未配置默认邮箱或关闭通知时跳过）
+     */
+    private void notifyExportReady(ExportJob job) {
+        if (job.userId == null) {
+            return;
+        }
+        LambdaQueryWrapper<EmailAddress> emailQuery = new LambdaQueryWrapper<>();
+        emailQuery.eq(EmailAddress::getUserId, job.userId)
+                .eq(EmailAddress::getIsDefault, true)
+                .eq(EmailAddress::getNotify, true);
+        EmailAddress emailAddress = emailAddressMapper.selectOne(emailQuery);
+        if (emailAddress == null || !StringUtils.hasText(emailAddress.getAddress())) {
+            log.debug("导出任务提交人未配置邮箱或已关闭通知，跳过邮件发送: jobId={}, userId={}", job.jobId, job.userId);
+            return;
+        }
+        User user = userMapper.selectById(job.userId);
+        String userName = user != null
+                ? ((user.getFirstname() != null ? user.getFirstname() : "") + " "
+                + (user.getLastname() != null ? user.getLastname() : "")).trim()
+                : "";
+        if (userName.isEmpty() && user != null) {
+            userName = user.getLogin();
+        }
+        Project project = projectMapper.selectById(job.projectId);
+        String projectName = project != null ? project.getName() : "未知项目";
+        String downloadPath = "/api/projects/" + job.projectId + "/wiki/export/jobs/" + job.jobId + "/file";
+        emailService.sendWikiExportReadyEmail(emailAddress.getAddress(), userName, projectName, downloadPath);
+    }
+
+    /**
+     * 定期删除过期的导出文件和任务记录
+     */
+    @Scheduled(fixedDelayString = "${wiki.export.job.cleanup-interval-ms:600000}")
+    public void cleanupExpiredExportJobs() {
+        long retentionMillis = (exportJobRetentionMinutes != null ? exportJobRetentionMinutes : 60L) * 60_000L;
+        long expireBefore = System.currentTimeMillis() - retentionMillis;
+        List<ExportJob> expired = new ArrayList<>();
+        for (ExportJob job : exportJobs.values()) {
+            if (job.completedOn != null && job.completedOn.getTime() < expireBefore) {
+                expired.add(job);
+            }
+        }
+        for (ExportJob job : expired) {
+            exportJobs.remove(job.jobId);
+            if (job.file != null) {
+                deleteQuietly(job.file);
+            }
+        }
+        if (!expired.isEmpty()) {
+            log.info("清理过期 Wiki 导出任务: 数量={}", expired.size());
+        }
+    }
+
+    private Path getExportJobDirectory() {
+        return StringUtils.hasText(exportJobPath) ? Paths.get(exportJobPath)
+                : Paths.get(System.getProperty("java.io.tmpdir"), "jredmine-wiki-exports");
+    }
+
+    private WikiExportJobResponseDTO toJobResponse(ExportJob job) {
+        return WikiExportJobResponseDTO.builder()
+                .jobId(job.jobId)
+                .projectId(job.projectId)
+                .status(job.status)
+                .includeAttachments(job.includeAttachments)
+                .includeHistory(job.includeHistory)
+                .pageCount(job.pageCount)
+                .fileSize(job.fileSize)
+                .errorMessage(job.errorMessage)
+                .createdOn(job.createdOn)
+                .completedOn(job.completedOn)
+                .build();
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("删除 Wiki 导出文件失败: {}", file);
+        }
+    }
+
+    /**
+     * 生成ZIP内唯一的名称：已存在同名时添加序号
+     */
+    private static String uniqueName(String name, Set<String> usedNames) {
+        String candidate = name;
+        int counter = 1;
+        while (!usedNames.add(candidate.toLowerCase())) {
+            int lastDot = name.lastIndexOf('.');
+            candidate = lastDot > 0
+                    ? name.substring(0, lastDot) + "_" + counter + name.substring(lastDot)
+                    : name + "_" + counter;
+            counter++;
+        }
+        return candidate;
     }
 
     private static String escapeHtml(String s) {
@@ -96,6 +460,36 @@ public class WikiExportService {
 
     private static String sanitizeFileName(String title) {
         if (title == null) return "untitled";
-        return title.replaceAll("[\\\\/:*?\"<>|]", "_").trim();
+        String name = title.replaceAll("[\\\\/:*?\"<>|\\x00-\\x1f]", "_").trim();
+        // 去掉开头的点："."、".." 不能成为 ZIP 路径段（解压时写到目标目录之外），也不生成隐藏文件
+        name = name.replaceFirst("^\\.+", "");
+        return name.isEmpty() ? "_" : name;
+    }
+
+    /**
+     * 后台导出任务（保存在内存中，服务重启后失效）
+     */
+    private static final class ExportJob {
+        private final String jobId;
+        private final Long projectId;
+        private final Long userId;
+        private final boolean includeAttachments;
+        private final boolean includeHistory;
+        private final Date createdOn = new Date();
+        private volatile String status = JOB_STATUS_PENDING;
+        private volatile Integer pageCount;
+        private volatile Long fileSize;
+        private volatile Path file;
+        private volatile String errorMessage;
+        private volatile Date completedOn;
+
+        private ExportJob(String jobId, Long projectId, Long userId, boolean includeAttachments,
+                          boolean includeHistory) {
+            this.jobId = jobId;
+            this.projectId = projectId;
+            this.userId = userId;
+            this.includeAttachments = includeAttachments;
+            this.includeHistory = includeHistory;
+        }
     }
 }
@@ -1,6 +1,7 @@
 package com.github.jredmine.service;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.github.jredmine.dto.request.wiki.WikiPageCreateRequestDTO;
 import com.github.jredmine.dto.request.wiki.WikiPageUpdateRequestDTO;
@@ -14,8 +15,6 @@ import com.github.jredmine.dto.request.wiki.WikiUpdateRequestDTO;
 import com.github.jredmine.dto.response.wiki.WikiPageVersionDetailResponseDTO;
 import com.github.jredmine.dto.response.wiki.WikiPageVersionListItemResponseDTO;
 import com.github.jredmine.dto.response.wiki.WikiRedirectResponseDTO;
-import com.github.jredmine.entity.EnabledModule;
-import com.github.jredmine.entity.Project;
 import com.github.jredmine.entity.User;
 import com.github.jredmine.entity.Wiki;
 import com.github.jredmine.entity.WikiContent;
@@ -25,8 +24,6 @@ import com.github.jredmine.entity.WikiRedirect;
 import com.github.jredmine.enums.ProjectModule;
 import com.github.jredmine.enums.ResultCode;
 import com.github.jredmine.exception.BusinessException;
-import com.github.jredmine.mapper.project.EnabledModuleMapper;
-import com.github.jredmine.mapper.project.ProjectMapper;
 import com.github.jredmine.mapper.user.UserMapper;
 import com.github.jredmine.mapper.wiki.WikiContentMapper;
 import com.github.jredmine.mapper.wiki.WikiContentVersionMapper;
@@ -40,11 +37,14 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -65,20 +65,18 @@ public class WikiService {
     private final WikiContentMapper wikiContentMapper;
     private final WikiContentVersionMapper wikiContentVersionMapper;
     private final WikiRedirectMapper wikiRedirectMapper;
-    private final EnabledModuleMapper enabledModuleMapper;
-    private final ProjectMapper projectMapper;
+    private final ProjectMetadataRegistry projectMetadataRegistry;
     private final UserMapper userMapper;
     private final SecurityUtils securityUtils;
     private final ProjectPermissionService projectPermissionService;
+    private final SearchIndexService searchIndexService;
+    private final WikiVersionStore wikiVersionStore;
 
     /**
      * 检查项目是否启用了 Wiki 模块
      */
     public boolean isWikiEnabledForProject(Long projectId) {
-        LambdaQueryWrapper<EnabledModule> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(EnabledModule::getProjectId, projectId)
-                .eq(EnabledModule::getName, ProjectModule.WIKI.getCode());
-        return enabledModuleMapper.selectCount(wrapper) > 0;
+        return projectMetadataRegistry.isModuleEnabled(projectId, ProjectModule.WIKI);
     }
 
     /**
@@ -110,13 +108,7 @@ public class WikiService {
      * 若项目未启用 Wiki 模块则抛出业务异常。
      */
     public Wiki getOrCreateWiki(Long projectId) {
-        Project project = projectMapper.selectById(projectId);
-        if (project == null) {
-            throw new BusinessException(ResultCode.PROJECT_NOT_FOUND);
-        }
-        if (!isWikiEnabledForProject(projectId)) {
-            throw new BusinessException(ResultCode.WIKI_NOT_ENABLED);
-        }
+        projectMetadataRegistry.requireModule(projectId, ProjectModule.WIKI, ResultCode.WIKI_NOT_ENABLED);
         LambdaQueryWrapper<Wiki> wrapper = new LambdaQueryWrapper<>();
         wrapper.eq(Wiki::getProjectId, projectId);
         Wiki wiki = wikiMapper.selectOne(wrapper);
@@ -133,7 +125,7 @@ public class WikiService {
      */
     public WikiInfoResponseDTO getWikiInfo(Long projectId) {
         Wiki wiki = getOrCreateWiki(projectId);
-        Project project = projectMapper.selectById(projectId);
+        ProjectMetadata project = projectMetadataRegistry.get(projectId);
         return WikiInfoResponseDTO.builder()
                 .id(wiki.getId())
                 .projectId(wiki.getProjectId())
@@ -199,16 +191,55 @@ public class WikiService {
     }
 
     /**
-     * 获取某页面的最新内容
+     * 获取某页面的最新内容（按最新内容指针主键查询，指针缺失时按版本号查询）
      */
-    private WikiContent getLatestContent(Long pageId) {
+    WikiContent getLatestContent(WikiPage page) {
+        if (page.getLatestContentId() != null) {
+            WikiContent content = wikiContentMapper.selectById(page.getLatestContentId());
+            if (content != null) {
+                return content;
+            }
+        }
         LambdaQueryWrapper<WikiContent> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(WikiContent::getPageId, pageId).orderByDesc(WikiContent::getVersion).last("LIMIT 1");
+        wrapper.eq(WikiContent::getPageId, page.getId()).orderByDesc(WikiContent::getVersion).last("LIMIT 1");
         return wikiContentMapper.selectOne(wrapper);
     }
 
     /**
-     * 获取某页面的指定版本内容
+     * 锁定页面后读取最新内容，用于分配新版本号
+     * 页面行锁持有到事务结束，并发编辑同一页面时依次分配版本号，不会产生重复的版本记录
+     */
+    private WikiContent lockAndGetLatestContent(WikiPage page) {
+        WikiPage locked = wikiPageMapper.selectByIdForUpdate(page.getId());
+        if (locked != null) {
+            page.setLatestContentId(locked.getLatestContentId());
+            page.setLatestVersion(locked.getLatestVersion());
+            page.setLatestAuthorId(locked.getLatestAuthorId());
+            page.setLatestUpdatedOn(locked.getLatestUpdatedOn());
+        }
+        return getLatestContent(page);
+    }
+
+    /**
+     * 更新页面的最新内容指针（只前进不回退，并发更新时保留较新的版本）
+     */
+    private void updateLatestContentPointer(WikiPage page, WikiContent content) {
+        LambdaUpdateWrapper<WikiPage> wrapper = new LambdaUpdateWrapper<>();
+        wrapper.eq(WikiPage::getId, page.getId())
+                .and(w -> w.isNull(WikiPage::getLatestVersion).or().lt(WikiPage::getLatestVersion, content.getVersion()))
+                .set(WikiPage::getLatestContentId, content.getId())
+                .set(WikiPage::getLatestVersion, content.getVersion())
+                .set(WikiPage::getLatestAuthorId, content.getAuthorId())
+                .set(WikiPage::getLatestUpdatedOn, content.getUpdatedOn());
+        wikiPageMapper.update(null, wrapper);
+        page.setLatestContentId(content.getId());
+        page.setLatestVersion(content.getVersion());
+        page.setLatestAuthorId(content.getAuthorId());
+        page.setLatestUpdatedOn(content.getUpdatedOn());
+    }
+
+    /**
+     * 获取某页面的指定版本记录（非最新版本的正文保存在版本存储中，需通过 WikiVersionStore 读取）
      */
     private WikiContent getContentByVersion(Long pageId, Integer version) {
         LambdaQueryWrapper<WikiContent> wrapper = new LambdaQueryWrapper<>();
@@ -216,31 +247,30 @@ public class WikiService {
         return wikiContentMapper.selectOne(wrapper);
     }
 
+    private String getAuthorDisplayName(Long authorId) {
+        if (authorId == null)
+            return null;
+        return toDisplayName(userMapper.selectById(authorId));
+    }
+
     /**
-     * 将当前内容版本同步写入 wiki_content_versions 表，作为持久化快照。
-     * 每次向 wiki_contents 插入新记录后调用（content 需已具备 id）。
+     * 批量查询页面最新版本作者的显示名称
      */
-    private void saveContentVersionSnapshot(WikiContent content) {
-        if (content == null || content.getId() == null) {
-            return;
+    private Map<Long, String> getAuthorDisplayNames(Collection<WikiPage> pages) {
+        Set<Long> authorIds = pages.stream()
+                .map(WikiPage::getLatestAuthorId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, String> names = new HashMap<>();
+        if (!authorIds.isEmpty()) {
+            for (User user : userMapper.selectBatchIds(authorIds)) {
+                names.put(user.getId(), toDisplayName(user));
+            }
         }
-        WikiContentVersion snapshot = new WikiContentVersion();
-        snapshot.setWikiContentId(content.getId());
-        snapshot.setPageId(content.getPageId());
-        snapshot.setAuthorId(content.getAuthorId());
-        String text = content.getText();
-        snapshot.setData(text != null ? text.getBytes(StandardCharsets.UTF_8) : new byte[0]);
-        snapshot.setCompression("");
-        snapshot.setComments(content.getComments());
-        snapshot.setUpdatedOn(content.getUpdatedOn());
-        snapshot.setVersion(content.getVersion());
-        wikiContentVersionMapper.insert(snapshot);
+        return names;
     }
 
-    private String getAuthorDisplayName(Long authorId) {
-        if (authorId == null)
-            return null;
-        User user = userMapper.selectById(authorId);
+    private String toDisplayName(User user) {
         if (user == null)
             return null;
         String name = ((user.getFirstname() != null ? user.getFirstname() : "") + " "
@@ -262,18 +292,18 @@ public class WikiService {
         wrapper.orderByAsc(WikiPage::getTitle);
         Page<WikiPage> page = new Page<>(current != null ? current : 1, size != null && size > 0 ? size : 20);
         Page<WikiPage> result = wikiPageMapper.selectPage(page, wrapper);
+        Map<Long, String> authorNames = getAuthorDisplayNames(result.getRecords());
         List<WikiPageListItemResponseDTO> list = new ArrayList<>();
         for (WikiPage p : result.getRecords()) {
-            WikiContent content = getLatestContent(p.getId());
             list.add(WikiPageListItemResponseDTO.builder()
                     .id(p.getId())
                     .title(p.getTitle())
                     .parentId(p.getParentId())
                     .isProtected(p.getIsProtected())
                     .createdOn(p.getCreatedOn())
-                    .updatedOn(content != null ? content.getUpdatedOn() : p.getCreatedOn())
-                    .version(content != null ? content.getVersion() : 0)
-                    .authorName(content != null ? getAuthorDisplayName(content.getAuthorId()) : null)
+                    .updatedOn(p.getLatestUpdatedOn() != null ? p.getLatestUpdatedOn() : p.getCreatedOn())
+                    .version(p.getLatestVersion() != null ? p.getLatestVersion() : 0)
+                    .authorName(authorNames.get(p.getLatestAuthorId()))
                     .build());
         }
         return PageResponse.of(list, result.getTotal(), result.getCurrent(), result.getSize());
@@ -287,35 +317,28 @@ public class WikiService {
         LambdaQueryWrapper<WikiPage> wrapper = new LambdaQueryWrapper<>();
         wrapper.eq(WikiPage::getWikiId, wiki.getId()).orderByAsc(WikiPage::getTitle);
         List<WikiPage> allPages = wikiPageMapper.selectList(wrapper);
-        List<WikiContent> latestContents = new ArrayList<>();
-        for (WikiPage p : allPages) {
-            WikiContent c = getLatestContent(p.getId());
-            if (c != null) latestContents.add(c);
-        }
-        Map<Long, WikiContent> contentByPageId = latestContents.stream()
-                .collect(Collectors.toMap(WikiContent::getPageId, c -> c, (a, b) -> a));
+        Map<Long, String> authorNames = getAuthorDisplayNames(allPages);
         Map<Long, List<WikiPage>> byParentId = allPages.stream()
                 .collect(Collectors.groupingBy(p -> p.getParentId() != null ? p.getParentId() : 0L));
-        return buildPageTree(0L, byParentId, contentByPageId);
+        return buildPageTree(0L, byParentId, authorNames);
     }
 
     private List<WikiPageTreeNodeResponseDTO> buildPageTree(Long parentId, Map<Long, List<WikiPage>> byParentId,
-            Map<Long, WikiContent> contentByPageId) {
+            Map<Long, String> authorNames) {
         List<WikiPage> children = byParentId.get(parentId);
         if (children == null) return new ArrayList<>();
         List<WikiPageTreeNodeResponseDTO> list = new ArrayList<>();
         for (WikiPage p : children) {
-            WikiContent c = contentByPageId.get(p.getId());
             list.add(WikiPageTreeNodeResponseDTO.builder()
                     .id(p.getId())
                     .title(p.getTitle())
                     .parentId(p.getParentId())
                     .isProtected(p.getIsProtected())
                     .createdOn(p.getCreatedOn())
-                    .updatedOn(c != null ? c.getUpdatedOn() : p.getCreatedOn())
-                    .version(c != null ? c.getVersion() : 0)
-                    .authorName(c != null ? getAuthorDisplayName(c.getAuthorId()) : null)
-                    .children(buildPageTree(p.getId(), byParentId, contentByPageId))
+                    .updatedOn(p.getLatestUpdatedOn() != null ? p.getLatestUpdatedOn() : p.getCreatedOn())
+                    .version(p.getLatestVersion() != null ? p.getLatestVersion() : 0)
+                    .authorName(authorNames.get(p.getLatestAuthorId()))
+                    .children(buildPageTree(p.getId(), byParentId, authorNames))
                     .build());
         }
         return list;
@@ -365,7 +388,9 @@ public class WikiService {
         content.setUpdatedOn(now);
         content.setVersion(version);
         wikiContentMapper.insert(content);
-        saveContentVersionSnapshot(content);
+        wikiVersionStore.saveVersion(content, null);
+        updateLatestContentPointer(page, content);
+        searchIndexService.indexWikiPage(page.getId());
 
         log.info("Wiki 页面创建成功: projectId={}, pageId={}, title={}", projectId, page.getId(), title);
         return toDetailResponse(projectId, page, content);
@@ -376,7 +401,7 @@ public class WikiService {
      */
     public WikiPageDetailResponseDTO getPageWithLatestContent(Long projectId, String titleOrId) {
         WikiPage page = getPageByProjectAndTitleOrId(projectId, titleOrId);
-        WikiContent content = getLatestContent(page.getId());
+        WikiContent content = getLatestContent(page);
         Wiki wiki = wikiMapper.selectById(page.getWikiId());
         Long projectIdResolved = wiki != null ? wiki.getProjectId() : projectId;
         return toDetailResponse(projectIdResolved, page, content);
@@ -394,15 +419,22 @@ public class WikiService {
         }
         boolean updateMeta = dto.getParentId() != null || dto.getIsProtected() != null;
         if (updateMeta) {
-            if (dto.getParentId() != null)
+            // 只更新元数据字段，避免覆盖并发更新的最新内容指针
+            WikiPage meta = new WikiPage();
+            meta.setId(page.getId());
+            if (dto.getParentId() != null) {
                 page.setParentId(dto.getParentId());
-            if (dto.getIsProtected() != null)
+                meta.setParentId(dto.getParentId());
+            }
+            if (dto.getIsProtected() != null) {
                 page.setIsProtected(dto.getIsProtected());
-            wikiPageMapper.updateById(page);
+                meta.setIsProtected(dto.getIsProtected());
+            }
+            wikiPageMapper.updateById(meta);
         }
         boolean hasNewContent = (dto.getText() != null) || (dto.getComments() != null);
         if (hasNewContent) {
-            WikiContent latest = getLatestContent(page.getId());
+            WikiContent latest = lockAndGetLatestContent(page);
             int nextVersion = (latest != null ? latest.getVersion() : 0) + 1;
             Date now = new Date();
             WikiContent content = new WikiContent();
@@ -413,7 +445,9 @@ public class WikiService {
             content.setUpdatedOn(now);
             content.setVersion(nextVersion);
             wikiContentMapper.insert(content);
-            saveContentVersionSnapshot(content);
+            wikiVersionStore.saveVersion(content, latest != null ? latest.getText() : null);
+            updateLatestContentPointer(page, content);
+            searchIndexService.indexWikiPage(page.getId());
             log.info("Wiki 页面内容更新: projectId={}, pageId={}, version={}", projectId, page.getId(), nextVersion);
         }
         return getPageWithLatestContent(projectId, titleOrId);
@@ -433,6 +467,7 @@ public class WikiService {
         contentWrapper.eq(WikiContent::getPageId, page.getId());
         wikiContentMapper.delete(contentWrapper);
         wikiPageMapper.deleteById(page.getId());
+        searchIndexService.removeWikiPage(page.getId());
         log.info("Wiki 页面已删除: projectId={}, pageId={}, title={}", projectId, page.getId(), page.getTitle());
     }
 
@@ -490,7 +525,7 @@ public class WikiService {
                 .pageId(page.getId())
                 .pageTitle(page.getTitle())
                 .version(content.getVersion())
-                .text(content.getText())
+                .text(wikiVersionStore.loadText(page.getId(), content.getVersion()))
                 .comments(content.getComments())
                 .authorId(content.getAuthorId())
                 .authorName(getAuthorDisplayName(content.getAuthorId()))
@@ -509,18 +544,21 @@ public class WikiService {
         if (targetContent == null) {
             throw new BusinessException(ResultCode.WIKI_VERSION_NOT_FOUND);
         }
-        WikiContent latest = getLatestContent(page.getId());
+        WikiContent latest = lockAndGetLatestContent(page);
         int nextVersion = (latest != null ? latest.getVersion() : 0) + 1;
         Date now = new Date();
         WikiContent newContent = new WikiContent();
         newContent.setPageId(page.getId());
         newContent.setAuthorId(securityUtils.getCurrentUserId());
-        newContent.setText(targetContent.getText() != null ? targetContent.getText() : "");
+        String targetText = wikiVersionStore.loadText(page.getId(), targetContent.getVersion());
+        newContent.setText(targetText != null ? targetText : "");
         newContent.setComments("回滚到版本 " + version);
         newContent.setUpdatedOn(now);
         newContent.setVersion(nextVersion);
         wikiContentMapper.insert(newContent);
-        saveContentVersionSnapshot(newContent);
+        wikiVersionStore.saveVersion(newContent, latest != null ? latest.getText() : null);
+        updateLatestContentPointer(page, newContent);
+        searchIndexService.indexWikiPage(page.getId());
         log.info("Wiki 页面回滚: projectId={}, pageId={}, 回滚到版本={}, 新版本={}", projectId, page.getId(), version, nextVersion);
         Wiki wiki = wikiMapper.selectById(page.getWikiId());
         Long projectIdResolved = wiki != null ? wiki.getProjectId() : projectId;
@@ -0,0 +1,427 @@
+package com.github.jredmine.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.github.jredmine.entity.WikiContent;
+import com.github.jredmine.entity.WikiContentVersion;
+import com.github.jredmine.enums.ResultCode;
+import com.github.jredmine.exception.BusinessException;
+import com.github.jredmine.mapper.wiki.WikiContentMapper;
+import com.github.jredmine.mapper.wiki.WikiContentVersionMapper;
+import com.github.jredmine.mapper.wiki.WikiPageMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Wiki 版本存储
+ * 历史正文保存在 wiki_content_versions.data 中，compression 列标识编码方式：
+ * <ul>
+ *     <li>zlib：deflate 压缩的完整快照，每 N 个版本保存一次</li>
+ *     <li>zdelta：deflate 压缩的增量（相对上一版本的公共前缀、公共后缀长度及中间替换内容）</li>
+ *     <li>空：历史数据，未压缩的完整正文，由后台任务逐步压缩</li>
+ * </ul>
+ * wiki_contents 只有最新版本保留完整正文，读取历史版本时从最近的快照开始依次应用增量。
+ *
+ * @author panfeng
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WikiVersionStore {
+
+    static final String COMPRESSION_NONE = "";
+    static final String COMPRESSION_SNAPSHOT = "zlib";
+    static final String COMPRESSION_DELTA = "zdelta";
+
+    /**
+     * 按版本遍历历史记录时每批读取的数量
+     */
+    private static final int ITERATION_BATCH_SIZE = 100;
+
+    private final WikiContentMapper wikiContentMapper;
+    private final WikiContentVersionMapper wikiContentVersionMapper;
+    private final WikiPageMapper wikiPageMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * 完整快照间隔（每多少个版本保存一次完整快照）
+     */
+    @Value("${wiki.version.snapshot-interval:10}")
+    private Integer snapshotInterval;
+
+    /**
+     * 是否启用历史版本后台压缩
+     */
+    @Value("${wiki.version.compaction.enabled:true}")
+    private Boolean compactionEnabled;
+
+    /**
+     * 每次后台压缩处理的页面数
+     */
+    @Value("${wiki.version.compaction.batch-size:50}")
+    private Integer compactionBatchSize;
+
+    /**
+     * 后台压缩的游标（已处理的最大页面ID），压缩失败的页面同样跳过，本次运行期间不再重试
+     */
+    private volatile long compactionCursor;
+
+    /**
+     * 已处理完全部待压缩页面；新版本保存时即已压缩，之后不会再产生待压缩的记录
+     */
+    private volatile boolean compactionFinished;
+
+    /**
+     * 保存新版本的历史记录，并清空已保存历史记录的旧版本在 wiki_contents 中的正文
+     * 需在插入 wiki_contents 新记录后调用（content 需已具备 id）
+     *
+     * @param content      新版本内容
+     * @param previousText 上一版本正文，新页面为 null
+     */
+    public void saveVersion(WikiContent content, String previousText) {
+        if (content == null || content.getId() == null) {
+            return;
+        }
+        int version = content.getVersion();
+        // 上一版本的历史记录存在时才能保存增量，否则保存完整快照
+        boolean delta = previousText != null && !isSnapshotVersion(version)
+                && hasVersionRow(content.getPageId(), version - 1);
+
+        WikiContentVersion row = new WikiContentVersion();
+        row.setWikiContentId(content.getId());
+        row.setPageId(content.getPageId());
+        row.setAuthorId(content.getAuthorId());
+        encode(row, content.getText(), delta ? previousText : null);
+        row.setComments(content.getComments());
+        row.setUpdatedOn(content.getUpdatedOn());
+        row.setVersion(version);
+        wikiContentVersionMapper.insert(row);
+
+        clearHistoricalText(content.getPageId(), version);
+    }
+
+    /**
+     * 读取指定版本的正文：从不晚于该版本的最近快照开始依次应用增量
+     *
+     * @param pageId  页面ID
+     * @param version 版本号
+     * @return 正文，版本不存在返回 null
+     */
+    public String loadText(Long pageId, Integer version) {
+        List<WikiContentVersion> chain = wikiContentVersionMapper.selectDecodeChain(pageId, version);
+        if (chain.isEmpty() || !version.equals(chain.get(chain.size() - 1).getVersion())) {
+            // 没有历史记录的旧版本，正文仍在 wiki_contents 中
+            return loadContentText(pageId, version);
+        }
+
+        byte[] data = null;
+        Integer previousVersion = null;
+        for (WikiContentVersion row : chain) {
+            if (COMPRESSION_DELTA.equals(row.getCompression())
+                    && (data == null || previousVersion == null || row.getVersion() != previousVersion + 1)) {
+                log.error("Wiki 版本增量链不完整: pageId={}, version={}", pageId, row.getVersion());
+                throw new BusinessException(ResultCode.SYSTEM_ERROR, "Wiki 版本数据损坏");
+            }
+            data = decode(row, data);
+            previousVersion = row.getVersion();
+        }
+        return new String(data, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 按版本号升序依次解码页面的历史正文（每批读取固定数量的记录，增量基于上一版本继续应用，
+     * 不必为每个版本重新从快照解码）
+     *
+     * @param pageId     页面ID
+     * @param maxVersion 最大版本号（含）
+     * @param consumer   版本记录与正文的回调
+     */
+    public void forEachVersion(Long pageId, Integer maxVersion, VersionTextConsumer consumer) throws IOException {
+        byte[] data = null;
+        Integer previousVersion = null;
+        int lastVersion = 0;
+        while (true) {
+            LambdaQueryWrapper<WikiContentVersion> wrapper = new LambdaQueryWrapper<>();
+            wrapper.eq(WikiContentVersion::getPageId, pageId)
+                    .gt(WikiContentVersion::getVersion, lastVersion)
+                    .le(WikiContentVersion::getVersion, maxVersion)
+                    .orderByAsc(WikiContentVersion::getVersion)
+                    .last("LIMIT " + ITERATION_BATCH_SIZE);
+            List<WikiContentVersion> rows = wikiContentVersionMapper.selectList(wrapper);
+            for (WikiContentVersion row : rows) {
+                if (COMPRESSION_DELTA.equals(row.getCompression())
+                        && (data == null || previousVersion == null || row.getVersion() != previousVersion + 1)) {
+                    // 中间版本缺失记录时按完整解码链读取
+                    String text = loadText(pageId, row.getVersion());
+                    data = text != null ? text.getBytes(StandardCharsets.UTF_8) : null;
+                } else {
+                    data = decode(row, data);
+                }
+                previousVersion = row.getVersion();
+                consumer.accept(row, data != null ? new String(data, StandardCharsets.UTF_8) : "");
+            }
+            if (rows.size() < ITERATION_BATCH_SIZE) {
+                return;
+            }
+            lastVersion = rows.get(rows.size() - 1).getVersion();
+        }
+    }
+
+    /**
+     * 后台压缩历史版本：将未压缩的历史记录改写为快照 + 增量，补齐缺失的历史记录，
+     * 并清空 wiki_contents 中非最新版本的正文。
+     * 按页面ID游标每次处理一批页面，每个页面在独立事务中处理，失败的页面记录日志后跳过；
+     * 游标之后没有待压缩页面时结束，不再查询
+     */
+    @Scheduled(initialDelayString = "${wiki.version.compaction.initial-delay-ms:60000}",
+            fixedDelayString = "${wiki.version.compaction.interval-ms:600000}")
+    public void compactLegacyHistory() {
+        if (!Boolean.TRUE.equals(compactionEnabled) || compactionFinished) {
+            return;
+        }
+        List<Long> pageIds = wikiContentVersionMapper.selectPageIdsToCompact(compactionCursor, compactionBatchSize);
+        if (pageIds.isEmpty()) {
+            compactionFinished = true;
+            log.info("Wiki 历史版本压缩已全部完成");
+            return;
+        }
+        int compacted = 0;
+        for (Long pageId : pageIds) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> compactPage(pageId));
+                compacted++;
+            } catch (Exception e) {
+                log.error("Wiki 历史版本压缩失败，跳过该页面: pageId={}, error={}", pageId, e.getMessage(), e);
+            }
+            compactionCursor = pageId;
+        }
+        log.info("Wiki 历史版本压缩完成: 页面数={}, 成功数={}, 游标={}", pageIds.size(), compacted, compactionCursor);
+    }
+
+    /**
+     * 压缩单个页面的历史版本，需在事务中调用
+     * 先对页面行加锁（与编辑、回滚保存新版本时相同），期间不会有新版本写入，
+     * 不会产生重复的版本记录，也不会改写并发编辑正在作为增量基础的版本
+     */
+    void compactPage(Long pageId) {
+        if (wikiPageMapper.selectByIdForUpdate(pageId) == null) {
+            return;
+        }
+        LambdaQueryWrapper<WikiContent> contentWrapper = new LambdaQueryWrapper<>();
+        contentWrapper.eq(WikiContent::getPageId, pageId).orderByAsc(WikiContent::getVersion);
+        List<WikiContent> contents = wikiContentMapper.selectList(contentWrapper);
+        if (contents.isEmpty()) {
+            return;
+        }
+        int latestVersion = contents.get(contents.size() - 1).getVersion();
+
+        LambdaQueryWrapper<WikiContentVersion> versionWrapper = new LambdaQueryWrapper<>();
+        versionWrapper.eq(WikiContentVersion::getPageId, pageId).orderByAsc(WikiContentVersion::getVersion);
+        Map<Integer, WikiContentVersion> rows = new TreeMap<>();
+        for (WikiContentVersion row : wikiContentVersionMapper.selectList(versionWrapper)) {
+            rows.putIfAbsent(row.getVersion(), row);
+        }
+
+        // 1. 解码已有历史记录
+        Map<Integer, byte[]> texts = new HashMap<>();
+        byte[] previous = null;
+        Integer previousVersion = null;
+        for (WikiContentVersion row : rows.values()) {
+            boolean chained = previousVersion != null && row.getVersion() == previousVersion + 1;
+            if (COMPRESSION_DELTA.equals(row.getCompression()) && !chained) {
+                log.warn("Wiki 版本增量链不完整，跳过压缩: pageId={}, version={}", pageId, row.getVersion());
+                return;
+            }
+            previous = decode(row, previous);
+            previousVersion = row.getVersion();
+            texts.put(row.getVersion(), previous);
+        }
+
+        // 2. 补齐缺失的历史记录（正文只保存在 wiki_contents 中的旧版本）
+        for (WikiContent content : contents) {
+            if (rows.containsKey(content.getVersion())) {
+                continue;
+            }
+            String text = content.getText() != null ? content.getText() : "";
+            if (text.isEmpty() && content.getVersion() != latestVersion) {
+                log.warn("Wiki 版本正文已丢失，保留空内容: pageId={}, version={}", pageId, content.getVersion());
+            }
+            WikiContentVersion row = new WikiContentVersion();
+            row.setWikiContentId(content.getId());
+            row.setPageId(pageId);
+            row.setAuthorId(content.getAuthorId());
+            encode(row, text, null);
+            row.setComments(content.getComments());
+            row.setUpdatedOn(content.getUpdatedOn());
+            row.setVersion(content.getVersion());
+            wikiContentVersionMapper.insert(row);
+            rows.put(row.getVersion(), row);
+            texts.put(row.getVersion(), text.getBytes(StandardCharsets.UTF_8));
+        }
+
+        // 3. 按快照间隔重新编码未压缩或编码方式不符的记录
+        int rewritten = 0;
+        previousVersion = null;
+        for (WikiContentVersion row : rows.values()) {
+            int version = row.getVersion();
+            boolean delta = previousVersion != null && version == previousVersion + 1 && !isSnapshotVersion(version);
+            String expected = delta ? COMPRESSION_DELTA : COMPRESSION_SNAPSHOT;
+            if (!expected.equals(row.getCompression())) {
+                String text = new String(texts.get(version), StandardCharsets.UTF_8);
+                String base = delta ? new String(texts.get(previousVersion), StandardCharsets.UTF_8) : null;
+                WikiContentVersion update = new WikiContentVersion();
+                update.setId(row.getId());
+                encode(update, text, base);
+                wikiContentVersionMapper.updateById(update);
+                rewritten++;
+            }
+            previousVersion = version;
+        }
+
+        // 4. 清空非最新版本在 wiki_contents 中的正文
+        clearHistoricalText(pageId, latestVersion);
+        log.debug("Wiki 页面历史版本已压缩: pageId={}, 版本数={}, 改写数={}", pageId, rows.size(), rewritten);
+    }
+
+    private boolean isSnapshotVersion(int version) {
+        int interval = snapshotInterval != null && snapshotInterval > 0 ? snapshotInterval : 1;
+        return (version - 1) % interval == 0;
+    }
+
+    private boolean hasVersionRow(Long pageId, int version) {
+        LambdaQueryWrapper<WikiContentVersion> wrapper = new LambdaQueryWrapper<>();
+        wrapper.eq(WikiContentVersion::getPageId, pageId).eq(WikiContentVersion::getVersion, version);
+        return wikiContentVersionMapper.selectCount(wrapper) > 0;
+    }
+
+    private String loadContentText(Long pageId, Integer version) {
+        LambdaQueryWrapper<WikiContent> wrapper = new LambdaQueryWrapper<>();
+        wrapper.eq(WikiContent::getPageId, pageId).eq(WikiContent::getVersion, version);
+        WikiContent content = wikiContentMapper.selectOne(wrapper);
+        return content != null ? content.getText() : null;
+    }
+
+    /**
+     * 清空早于指定版本的 wiki_contents 正文，只清空已保存历史记录的版本；
+     * 后台压缩尚未处理的旧版本正文保留，由压缩任务补齐历史记录后再清空
+     */
+    private void clearHistoricalText(Long pageId, int version) {
+        wikiContentMapper.clearArchivedText(pageId, version);
+    }
+
+    /**
+     * 编码正文：base 为 null 时保存完整快照，否则保存相对 base 的增量
+     */
+    void encode(WikiContentVersion row, String text, String base) {
+        byte[] target = (text != null ? text : "").getBytes(StandardCharsets.UTF_8);
+        if (base == null) {
+            row.setData(deflate(target));
+            row.setCompression(COMPRESSION_SNAPSHOT);
+            return;
+        }
+
+        byte[] source = base.getBytes(StandardCharsets.UTF_8);
+        int maxCommon = Math.min(source.length, target.length);
+        int prefix = 0;
+        while (prefix < maxCommon && source[prefix] == target[prefix]) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < maxCommon - prefix
+                && source[source.length - 1 - suffix] == target[target.length - 1 - suffix]) {
+            suffix++;
+        }
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(target.length - prefix - suffix + 8);
+        try (DataOutputStream out = new DataOutputStream(buffer)) {
+            out.writeInt(prefix);
+            out.writeInt(suffix);
+            out.write(target, prefix, target.length - prefix - suffix);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        row.setData(deflate(buffer.toByteArray()));
+        row.setCompression(COMPRESSION_DELTA);
+    }
+
+    /**
+     * 解码记录：快照和未压缩记录直接返回正文，增量记录应用到上一版本正文 base 上
+     */
+    byte[] decode(WikiContentVersion row, byte[] base) {
+        byte[] data = row.getData() != null ? row.getData() : new byte[0];
+        String compression = row.getCompression() != null ? row.getCompression() : COMPRESSION_NONE;
+        switch (compression) {
+            case COMPRESSION_NONE:
+                return data;
+            case COMPRESSION_SNAPSHOT:
+                return inflate(data);
+            case COMPRESSION_DELTA:
+                try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(inflate(data)))) {
+                    int prefix = in.readInt();
+                    int suffix = in.readInt();
+                    byte[] middle = in.readAllBytes();
+                    byte[] result = Arrays.copyOf(base, prefix + middle.length + suffix);
+                    System.arraycopy(middle, 0, result, prefix, middle.length);
+                    System.arraycopy(base, base.length - suffix, result, prefix + middle.length, suffix);
+                    return result;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            default:
+                log.error("不支持的 Wiki 版本压缩方式: id={}, compression={}", row.getId(), compression);
+                throw new BusinessException(ResultCode.SYSTEM_ERROR, "不支持的 Wiki 版本压缩方式: " + compression);
+        }
+    }
+
+    private byte[] deflate(byte[] data) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(64, data.length / 2));
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (DeflaterOutputStream out = new DeflaterOutputStream(buffer, deflater)) {
+            out.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            deflater.end();
+        }
+        return buffer.toByteArray();
+    }
+
+    private byte[] inflate(byte[] data) {
+        Inflater inflater = new Inflater();
+        try (InflaterInputStream in = new InflaterInputStream(new ByteArrayInputStream(data), inflater)) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * 历史版本正文回调
+     */
+    @FunctionalInterface
+    public interface VersionTextConsumer {
+        void accept(WikiContentVersion row, String text) throws IOException;
+    }
+}
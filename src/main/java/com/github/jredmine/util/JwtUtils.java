@@ -1,9 +1,12 @@
 package com.github.jredmine.util;
 
+import com.github.jredmine.security.JwtClaims;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -32,11 +35,32 @@ public class JwtUtils {
     private Long expiration;
 
     /**
-     * 获取签名密钥
+     * 签名密钥（启动时派生一次）
+     */
+    private SecretKey signingKey;
+
+    /**
+     * Token解析器（线程安全，复用）
+     */
+    private JwtParser parser;
+
+    /**
+     * 派生签名密钥并创建解析器
+     */
+    @PostConstruct
+    public void init() {
+        this.signingKey = deriveSigningKey();
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+    }
+
+    /**
+     * 派生签名密钥
      * HS512算法要求密钥至少512位（64字节）
      * 如果配置的密钥不够长，使用SHA-512哈希扩展（SHA-512输出正好64字节）
      */
-    private SecretKey getSigningKey() {
+    private SecretKey deriveSigningKey() {
         byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
         
         // HS512需要至少64字节（512位）
@@ -77,10 +101,28 @@ public class JwtUtils {
                 .setSubject(subject)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
+                .signWith(signingKey, SignatureAlgorithm.HS512)
                 .compact();
     }
 
+    /**
+     * 解析并验证Token，一次性提取全部所需声明
+     * 签名无效、格式错误或已过期时抛出 {@link io.jsonwebtoken.JwtException}
+     *
+     * @param token Token
+     * @return 已验证的声明
+     */
+    public JwtClaims parseToken(String token) {
+        Claims claims = extractAllClaims(token);
+        Date issuedAt = claims.getIssuedAt();
+        Date expiresAt = claims.getExpiration();
+        return new JwtClaims(
+                claims.getSubject(),
+                toUserId(claims.get("userId")),
+                issuedAt != null ? issuedAt.getTime() : 0L,
+                expiresAt != null ? expiresAt.getTime() : Long.MAX_VALUE);
+    }
+
     /**
      * 从Token中提取用户名
      */
@@ -92,8 +134,10 @@ public class JwtUtils {
      * 从Token中提取用户ID
      */
     public Long extractUserId(String token) {
-        Claims claims = extractAllClaims(token);
-        Object userId = claims.get("userId");
+        return toUserId(extractAllClaims(token).get("userId"));
+    }
+
+    private Long toUserId(Object userId) {
         if (userId instanceof Integer) {
             return ((Integer) userId).longValue();
         } else if (userId instanceof Long) {
@@ -102,6 +146,13 @@ public class JwtUtils {
         return null;
     }
 
+    /**
+     * 从Token中提取签发时间
+     */
+    public Date extractIssuedAt(String token) {
+        return extractClaim(token, Claims::getIssuedAt);
+    }
+
     /**
      * 从Token中提取过期时间
      */
@@ -121,11 +172,7 @@ public class JwtUtils {
      * 从Token中提取所有声明
      */
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
     }
 
     /**
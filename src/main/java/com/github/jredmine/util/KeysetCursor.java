@@ -0,0 +1,175 @@
+package com.github.jredmine.util;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
+import com.github.jredmine.enums.ResultCode;
+import com.github.jredmine.exception.BusinessException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * 游标（keyset）分页工具类
+ * 游标对客户端不透明，内容为 排序键 + 最后一条记录的排序值 + 最后一条记录的ID，
+ * 查询下一页时使用 (sort_key, id) 比较代替 OFFSET，每页开销与页码无关。
+ * 排序字段必须非空，否则 NULL 值的记录无法被定位。
+ *
+ * @author panfeng
+ */
+public final class KeysetCursor {
+
+    /**
+     * 游标分页每页最大数量（与分页插件的限制保持一致）
+     */
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final Object sortValue;
+    private final Object id;
+
+    private KeysetCursor(Object sortValue, Object id) {
+        this.sortValue = sortValue;
+        this.id = id;
+    }
+
+    public Object getSortValue() {
+        return sortValue;
+    }
+
+    public Object getId() {
+        return id;
+    }
+
+    /**
+     * 根据最后一条记录构建定位条件（服务端分批扫描时使用）
+     *
+     * @param sortValue 排序值
+     * @param id        ID
+     * @return 定位条件
+     */
+    public static KeysetCursor of(Object sortValue, Object id) {
+        return new KeysetCursor(sortValue, id);
+    }
+
+    /**
+     * 生成游标
+     *
+     * @param sortKey   排序键（排序字段 + 方向，用于校验游标与请求是否匹配）
+     * @param sortValue 最后一条记录的排序值（按ID排序时为 null）
+     * @param id        最后一条记录的ID
+     * @return 游标字符串
+     */
+    public static String encode(String sortKey, Object sortValue, Object id) {
+        return encodePart(sortKey) + "." + encodePart(toTyped(sortValue)) + "." + encodePart(toTyped(id));
+    }
+
+    /**
+     * 解析游标
+     *
+     * @param cursor  游标字符串
+     * @param sortKey 当前请求的排序键
+     * @return 解析结果
+     * @throws BusinessException 游标格式错误或与当前排序不匹配时
+     */
+    public static KeysetCursor decode(String cursor, String sortKey) {
+        try {
+            String[] parts = cursor.trim().split("\\.", -1);
+            if (parts.length != 3 || !sortKey.equals(decodePart(parts[0]))) {
+                throw new BusinessException(ResultCode.PARAM_INVALID, "分页游标无效或与排序条件不匹配");
+            }
+            Object id = fromTyped(decodePart(parts[2]));
+            if (id == null) {
+                throw new BusinessException(ResultCode.PARAM_INVALID, "分页游标无效");
+            }
+            return new KeysetCursor(fromTyped(decodePart(parts[1])), id);
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new BusinessException(ResultCode.PARAM_INVALID, "分页游标无效");
+        }
+    }
+
+    /**
+     * 添加 (sort_key, id) 定位条件
+     *
+     * @param queryWrapper 查询条件
+     * @param sortColumn   排序字段（按ID排序时传 null）
+     * @param idColumn     ID字段
+     * @param ascending    是否升序
+     */
+    public <T> void applySeek(LambdaQueryWrapper<T> queryWrapper, SFunction<T, ?> sortColumn,
+            SFunction<T, ?> idColumn, boolean ascending) {
+        if (sortColumn == null) {
+            if (ascending) {
+                queryWrapper.gt(idColumn, id);
+            } else {
+                queryWrapper.lt(idColumn, id);
+            }
+            return;
+        }
+        if (sortValue == null) {
+            throw new BusinessException(ResultCode.PARAM_INVALID, "分页游标无效");
+        }
+        if (ascending) {
+            queryWrapper.and(w -> w.gt(sortColumn, sortValue)
+                    .or(o -> o.eq(sortColumn, sortValue).gt(idColumn, id)));
+        } else {
+            queryWrapper.and(w -> w.lt(sortColumn, sortValue)
+                    .or(o -> o.eq(sortColumn, sortValue).lt(idColumn, id)));
+        }
+    }
+
+    private static String encodePart(String value) {
+        return ENCODER.encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodePart(String value) {
+        return new String(DECODER.decode(value), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 带类型前缀的序列化，保证解析后与数据库字段类型一致
+     */
+    private static String toTyped(Object value) {
+        if (value == null) {
+            return "N:";
+        }
+        if (value instanceof Long) {
+            return "L:" + value;
+        }
+        if (value instanceof Integer) {
+            return "I:" + value;
+        }
+        if (value instanceof LocalDateTime) {
+            return "T:" + value;
+        }
+        if (value instanceof LocalDate) {
+            return "D:" + value;
+        }
+        return "S:" + value;
+    }
+
+    private static Object fromTyped(String typed) {
+        String value = typed.substring(2);
+        switch (typed.substring(0, 2)) {
+            case "N:":
+                return null;
+            case "L:":
+                return Long.valueOf(value);
+            case "I:":
+                return Integer.valueOf(value);
+            case "T:":
+                return LocalDateTime.parse(value);
+            case "D:":
+                return LocalDate.parse(value);
+            case "S:":
+                return value;
+            default:
+                throw new IllegalArgumentException("未知的游标值类型");
+        }
+    }
+}
@@ -7,9 +7,12 @@ import com.github.jredmine.mapper.user.UserMapper;
 import com.github.jredmine.security.UserPrincipal;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.BeanUtils;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 /**
  * 安全工具类
@@ -21,6 +24,11 @@ import org.springframework.stereotype.Component;
 @RequiredArgsConstructor
 public class SecurityUtils {
 
+    /**
+     * 请求属性名：当前请求已解析的用户信息
+     */
+    public static final String CURRENT_USER_ATTRIBUTE = SecurityUtils.class.getName() + ".CURRENT_USER";
+
     private final UserMapper userMapper;
 
     /**
@@ -71,10 +79,28 @@ public class SecurityUtils {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal) {
             UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-            // 从数据库查询完整用户信息（因为 UserPrincipal 可能不包含所有字段）
-            User user = userMapper.selectById(userPrincipal.getId());
-            if (user == null) {
-                throw new BusinessException(ResultCode.USER_NOT_FOUND);
+            // 同一请求内复用已解析的用户信息，避免重复查询数据库
+            RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+            if (requestAttributes != null) {
+                Object cached = requestAttributes.getAttribute(CURRENT_USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+                if (cached instanceof User && userPrincipal.getId().equals(((User) cached).getId())) {
+                    return (User) cached;
+                }
+            }
+
+            User user;
+            if (userPrincipal.getUser() != null) {
+                // 使用认证时加载的用户快照（复制一份，避免调用方修改共享的缓存对象）
+                user = copyUser(userPrincipal.getUser());
+            } else {
+                // 从数据库查询完整用户信息
+                user = userMapper.selectById(userPrincipal.getId());
+                if (user == null) {
+                    throw new BusinessException(ResultCode.USER_NOT_FOUND);
+                }
+            }
+            if (requestAttributes != null) {
+                requestAttributes.setAttribute(CURRENT_USER_ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST);
             }
             return user;
         }
@@ -90,6 +116,18 @@ public class SecurityUtils {
         return user;
     }
 
+    /**
+     * 复制用户实体
+     *
+     * @param user 用户实体
+     * @return 副本
+     */
+    public static User copyUser(User user) {
+        User copy = new User();
+        BeanUtils.copyProperties(user, copy);
+        return copy;
+    }
+
     /**
      * 获取当前登录用户主体（包含权限信息）
      *
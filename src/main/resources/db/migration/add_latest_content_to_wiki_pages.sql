@@ -0,0 +1,16 @@
+-- 为 wiki_pages 增加最新内容指针（最新内容ID、版本号、作者、更新时间），
+-- 页面列表和页面树直接读取，无需逐页查询 wiki_contents
+ALTER TABLE `wiki_pages`
+  ADD COLUMN `latest_content_id` int DEFAULT NULL COMMENT '最新内容ID',
+  ADD COLUMN `latest_version` int DEFAULT NULL COMMENT '最新版本号',
+  ADD COLUMN `latest_author_id` int DEFAULT NULL COMMENT '最新版本作者ID',
+  ADD COLUMN `latest_updated_on` datetime DEFAULT NULL COMMENT '最新版本更新时间';
+
+-- 初始化已有页面的最新内容指针
+UPDATE `wiki_pages` wp
+JOIN `wiki_contents` wc ON wc.`page_id` = wp.`id`
+  AND wc.`version` = (SELECT MAX(c2.`version`) FROM `wiki_contents` c2 WHERE c2.`page_id` = wp.`id`)
+SET wp.`latest_content_id` = wc.`id`,
+    wp.`latest_version` = wc.`version`,
+    wp.`latest_author_id` = wc.`author_id`,
+    wp.`latest_updated_on` = wc.`updated_on`;
@@ -0,0 +1,4 @@
+-- 为 wiki_content_versions 增加 (page_id, version) 索引，用于按页面读取快照 + 增量版本链
+-- compression 列取值：'' 未压缩（历史数据）、'zlib' 压缩快照、'zdelta' 压缩增量
+ALTER TABLE `wiki_content_versions`
+  ADD KEY `idx_page_id_version` (`page_id`, `version`);
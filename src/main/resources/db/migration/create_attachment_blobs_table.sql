@@ -0,0 +1,13 @@
+-- 创建附件内容表（内容寻址存储：相同 SHA-256 的附件共用一份文件，按引用计数回收）
+CREATE TABLE `attachment_blobs` (
+  `id` bigint NOT NULL AUTO_INCREMENT,
+  `storage_type` varchar(20) NOT NULL COMMENT '存储类型(local/oss/cos)',
+  `digest` varchar(64) NOT NULL COMMENT '文件内容SHA-256摘要',
+  `disk_directory` varchar(255) NOT NULL COMMENT '存储目录',
+  `disk_filename` varchar(255) NOT NULL COMMENT '存储文件名',
+  `filesize` bigint NOT NULL DEFAULT 0 COMMENT '文件大小',
+  `ref_count` int NOT NULL DEFAULT 0 COMMENT '引用该文件的附件数',
+  `created_on` datetime NOT NULL COMMENT '创建时间',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_storage_digest` (`storage_type`, `digest`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='附件内容表';
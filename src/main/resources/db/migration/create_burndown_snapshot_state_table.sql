@@ -0,0 +1,8 @@
+-- 创建燃尽图快照状态表（单行，记录历史快照回放是否已完整完成）
+-- 回放中途失败时不写入，下次定时任务重新回放；快照表非空不代表历史已补齐
+CREATE TABLE `burndown_snapshot_state` (
+  `id` int NOT NULL COMMENT '固定为1',
+  `backfill_date` date NOT NULL COMMENT '历史回放截止日期',
+  `backfill_completed_on` datetime NOT NULL COMMENT '历史回放完成时间',
+  PRIMARY KEY (`id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='燃尽图快照状态表';
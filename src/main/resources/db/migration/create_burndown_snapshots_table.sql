@@ -0,0 +1,15 @@
+-- 创建燃尽图每日快照表（按 项目 × 版本 × 日期 保存当日结束时的任务数和剩余预估工时）
+-- 由后台任务根据 issue_counters 追加当日快照；表为空时根据任务活动记录（journals）回放补齐历史
+CREATE TABLE `burndown_snapshots` (
+  `id` bigint NOT NULL AUTO_INCREMENT,
+  `project_id` bigint NOT NULL COMMENT '项目ID',
+  `version_id` bigint NOT NULL DEFAULT 0 COMMENT '目标版本ID(0表示未关联版本)',
+  `snapshot_date` date NOT NULL COMMENT '快照日期',
+  `total_count` int NOT NULL DEFAULT 0 COMMENT '任务总数',
+  `open_count` int NOT NULL DEFAULT 0 COMMENT '未关闭任务数',
+  `closed_count` int NOT NULL DEFAULT 0 COMMENT '已关闭任务数',
+  `remaining_hours` double NOT NULL DEFAULT 0 COMMENT '未关闭任务的预估工时合计',
+  `updated_on` datetime NOT NULL COMMENT '更新时间',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_project_version_date` (`project_id`, `version_id`, `snapshot_date`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='燃尽图每日快照表';
@@ -0,0 +1,35 @@
+-- 创建任务计数器表（按 项目 × 版本 × 跟踪器 × 状态 × 私有 维度增量维护的任务统计）
+CREATE TABLE `issue_counters` (
+  `id` bigint NOT NULL AUTO_INCREMENT,
+  `project_id` bigint NOT NULL COMMENT '项目ID',
+  `version_id` bigint NOT NULL DEFAULT 0 COMMENT '目标版本ID(0表示未关联版本)',
+  `tracker_id` int NOT NULL COMMENT '跟踪器ID',
+  `status_id` int NOT NULL COMMENT '状态ID',
+  `is_private` tinyint(1) NOT NULL DEFAULT 0 COMMENT '是否私有任务',
+  `is_closed` tinyint(1) NOT NULL DEFAULT 0 COMMENT '状态是否为关闭状态',
+  `issue_count` int NOT NULL DEFAULT 0 COMMENT '任务数量',
+  `done_count` int NOT NULL DEFAULT 0 COMMENT '完成度为100%的任务数量',
+  `started_count` int NOT NULL DEFAULT 0 COMMENT '完成度为1-99%的任务数量',
+  `estimated_hours_sum` double NOT NULL DEFAULT 0 COMMENT '预估工时合计',
+  `done_ratio_sum` bigint NOT NULL DEFAULT 0 COMMENT '完成度合计',
+  `updated_on` datetime NOT NULL COMMENT '更新时间',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_project_version_tracker_status` (`project_id`, `version_id`, `tracker_id`, `status_id`, `is_private`),
+  KEY `idx_version_id` (`version_id`),
+  KEY `idx_status_id` (`status_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='任务计数器表';
+
+-- 根据现有任务初始化计数器
+INSERT INTO `issue_counters` (`project_id`, `version_id`, `tracker_id`, `status_id`, `is_private`, `is_closed`,
+  `issue_count`, `done_count`, `started_count`, `estimated_hours_sum`, `done_ratio_sum`, `updated_on`)
+SELECT i.`project_id`, COALESCE(i.`fixed_version_id`, 0), i.`tracker_id`, i.`status_id`, COALESCE(i.`is_private`, 0),
+  COALESCE(MAX(s.`is_closed`), 0),
+  COUNT(*),
+  SUM(CASE WHEN i.`done_ratio` >= 100 THEN 1 ELSE 0 END),
+  SUM(CASE WHEN i.`done_ratio` > 0 AND i.`done_ratio` < 100 THEN 1 ELSE 0 END),
+  COALESCE(SUM(i.`estimated_hours`), 0),
+  COALESCE(SUM(i.`done_ratio`), 0),
+  NOW()
+FROM `issues` i
+LEFT JOIN `issue_statuses` s ON s.`id` = i.`status_id`
+GROUP BY i.`project_id`, COALESCE(i.`fixed_version_id`, 0), i.`tracker_id`, i.`status_id`, COALESCE(i.`is_private`, 0);
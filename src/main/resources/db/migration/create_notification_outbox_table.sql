@@ -0,0 +1,21 @@
+-- 创建通知发件箱表（与任务更新在同一事务中写入，由后台分发任务合并、批量发送邮件）
+CREATE TABLE `notification_outbox` (
+  `id` bigint NOT NULL AUTO_INCREMENT,
+  `event_type` varchar(30) NOT NULL COMMENT '事件类型(issue_updated/issue_assigned)',
+  `issue_id` bigint NOT NULL COMMENT '任务ID',
+  `recipient_id` bigint NOT NULL COMMENT '收件人用户ID',
+  `actor_id` bigint DEFAULT NULL COMMENT '操作人用户ID',
+  `changes_summary` text COMMENT '变更摘要',
+  `notes` text COMMENT '备注',
+  `status` varchar(20) NOT NULL DEFAULT 'PENDING' COMMENT '状态(PENDING/SENT/SKIPPED/FAILED)',
+  `attempts` int NOT NULL DEFAULT 0 COMMENT '已尝试发送次数',
+  `next_attempt_at` datetime NOT NULL COMMENT '下次可发送时间',
+  `claim_token` varchar(64) DEFAULT NULL COMMENT '分发任务领取标识',
+  `last_error` varchar(500) DEFAULT NULL COMMENT '最近一次发送失败原因',
+  `created_on` datetime NOT NULL COMMENT '创建时间',
+  `sent_on` datetime DEFAULT NULL COMMENT '发送时间',
+  PRIMARY KEY (`id`),
+  KEY `idx_status_next_attempt` (`status`, `next_attempt_at`),
+  KEY `idx_issue_recipient` (`issue_id`, `recipient_id`),
+  KEY `idx_claim_token` (`claim_token`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='通知发件箱表';
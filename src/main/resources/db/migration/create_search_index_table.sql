@@ -0,0 +1,32 @@
+-- 创建全文搜索索引表（任务、项目、Wiki 页面统一建立 FULLTEXT 索引）
+-- 使用 ngram 分词器以支持中文，ngram_token_size 默认为 2
+CREATE TABLE `search_index` (
+  `id` bigint NOT NULL AUTO_INCREMENT,
+  `searchable_type` varchar(20) NOT NULL COMMENT '对象类型: issue/project/wiki',
+  `searchable_id` bigint NOT NULL COMMENT '对象ID',
+  `project_id` bigint DEFAULT NULL COMMENT '所属项目ID（项目为自身ID）',
+  `author_id` bigint DEFAULT NULL COMMENT '作者ID',
+  `title` varchar(255) NOT NULL DEFAULT '' COMMENT '标题',
+  `content` mediumtext COMMENT '正文',
+  `updated_on` datetime DEFAULT NULL COMMENT '对象更新时间',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_searchable` (`searchable_type`, `searchable_id`),
+  KEY `idx_project_type` (`project_id`, `searchable_type`),
+  FULLTEXT KEY `ft_title_content` (`title`, `content`) WITH PARSER ngram
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='全文搜索索引表';
+
+-- 根据现有数据初始化索引
+INSERT INTO `search_index` (`searchable_type`, `searchable_id`, `project_id`, `author_id`, `title`, `content`, `updated_on`)
+SELECT 'issue', i.`id`, i.`project_id`, i.`author_id`, COALESCE(i.`subject`, ''), i.`description`, i.`updated_on`
+FROM `issues` i;
+
+INSERT INTO `search_index` (`searchable_type`, `searchable_id`, `project_id`, `author_id`, `title`, `content`, `updated_on`)
+SELECT 'project', p.`id`, p.`id`, NULL, COALESCE(p.`name`, ''), p.`description`, p.`updated_on`
+FROM `projects` p;
+
+INSERT INTO `search_index` (`searchable_type`, `searchable_id`, `project_id`, `author_id`, `title`, `content`, `updated_on`)
+SELECT 'wiki', wp.`id`, w.`project_id`, wc.`author_id`, COALESCE(wp.`title`, ''), wc.`text`, wc.`updated_on`
+FROM `wiki_pages` wp
+JOIN `wikis` w ON w.`id` = wp.`wiki_id`
+LEFT JOIN `wiki_contents` wc ON wc.`page_id` = wp.`id`
+  AND wc.`version` = (SELECT MAX(c2.`version`) FROM `wiki_contents` c2 WHERE c2.`page_id` = wp.`id`);
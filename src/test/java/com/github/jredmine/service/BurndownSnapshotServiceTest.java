@@ -0,0 +1,173 @@
+package com.github.jredmine.service;
+
+import com.github.jredmine.dto.aggregate.IssueAttributeChangeDTO;
+import com.github.jredmine.entity.BurndownSnapshot;
+import com.github.jredmine.entity.Issue;
+import com.github.jredmine.entity.IssueStatus;
+import com.github.jredmine.mapper.issue.BurndownSnapshotMapper;
+import com.github.jredmine.mapper.issue.IssueMapper;
+import com.github.jredmine.mapper.issue.JournalDetailMapper;
+import com.github.jredmine.mapper.workflow.IssueStatusMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * BurndownSnapshotService 单元测试：按变更记录回放历史快照、按日期沿用快照、当天快照写入
+ */
+class BurndownSnapshotServiceTest {
+
+    private static final int STATUS_OPEN = 1;
+    private static final int STATUS_CLOSED = 5;
+
+    private BurndownSnapshotMapper burndownSnapshotMapper;
+    private IssueMapper issueMapper;
+    private JournalDetailMapper journalDetailMapper;
+    private IssueStatusMapper issueStatusMapper;
+    private BurndownSnapshotService service;
+
+    /**
+     * upsertBatch 写入的全部快照（写入后缓冲区会被清空，需复制）
+     */
+    private final List<BurndownSnapshot> written = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        burndownSnapshotMapper = mock(BurndownSnapshotMapper.class);
+        issueMapper = mock(IssueMapper.class);
+        journalDetailMapper = mock(JournalDetailMapper.class);
+        issueStatusMapper = mock(IssueStatusMapper.class);
+        service = new BurndownSnapshotService(burndownSnapshotMapper, issueMapper, journalDetailMapper,
+                issueStatusMapper);
+        ReflectionTestUtils.setField(service, "enabled", true);
+
+        when(issueStatusMapper.selectList(any())).thenReturn(List.of(status(STATUS_OPEN, false),
+                status(STATUS_CLOSED, true)));
+        doAnswer(invocation -> {
+            List<BurndownSnapshot> snapshots = invocation.getArgument(0);
+            written.addAll(snapshots);
+            return snapshots.size();
+        }).when(burndownSnapshotMapper).upsertBatch(any());
+    }
+
+    @Test
+    void backfillReplaysStatusAndVersionChanges() {
+        // 任务1：1月1日创建于版本10，1月3日关闭；任务2：1月2日创建时未关联版本，1月3日移入版本10
+        Issue closed = issue(1L, 10L, STATUS_CLOSED, 2.0f, LocalDateTime.of(2026, 1, 1, 9, 0));
+        Issue moved = issue(2L, 10L, STATUS_OPEN, 3.0f, LocalDateTime.of(2026, 1, 2, 9, 0));
+        when(issueMapper.selectList(any())).thenReturn(List.of(closed, moved));
+        when(journalDetailMapper.selectAttributeChanges(any(), any())).thenReturn(List.of(
+                change(1L, "status_id", String.valueOf(STATUS_OPEN), String.valueOf(STATUS_CLOSED),
+                        LocalDateTime.of(2026, 1, 3, 10, 0)),
+                change(2L, "fixed_version_id", "", "10", LocalDateTime.of(2026, 1, 3, 11, 0))));
+
+        int rows = service.backfill(LocalDate.of(2026, 1, 4));
+
+        assertThat(rows).isEqualTo(written.size());
+        assertSnapshot(10L, LocalDate.of(2026, 1, 1), 1, 1, 0, 2.0);
+        assertSnapshot(10L, LocalDate.of(2026, 1, 2), 1, 1, 0, 2.0);
+        assertSnapshot(10L, LocalDate.of(2026, 1, 3), 2, 1, 1, 3.0);
+        assertSnapshot(10L, LocalDate.of(2026, 1, 4), 2, 1, 1, 3.0);
+        assertSnapshot(0L, LocalDate.of(2026, 1, 2), 1, 1, 0, 3.0);
+        assertSnapshot(0L, LocalDate.of(2026, 1, 3), 0, 0, 0, 0.0);
+        assertSnapshot(0L, LocalDate.of(2026, 1, 4), 0, 0, 0, 0.0);
+    }
+
+    @Test
+    void dailySnapshotsCarryForwardLastSnapshotPerVersion() {
+        LocalDate from = LocalDate.of(2026, 1, 2);
+        LocalDate to = LocalDate.of(2026, 1, 4);
+        when(burndownSnapshotMapper.selectRange(1L, null, from, to)).thenReturn(List.of(
+                snapshot(10L, LocalDate.of(2026, 1, 1), 3, 3, 0, 6.0),
+                snapshot(10L, LocalDate.of(2026, 1, 3), 3, 1, 2, 2.0),
+                snapshot(20L, LocalDate.of(2026, 1, 3), 1, 1, 0, 1.0)));
+
+        List<BurndownSnapshot> days = service.getDailySnapshots(1L, null, from, to);
+
+        assertThat(days).extracting(BurndownSnapshot::getSnapshotDate)
+                .containsExactly(from, from.plusDays(1), to);
+        assertThat(days).extracting(BurndownSnapshot::getTotalCount).containsExactly(3, 4, 4);
+        assertThat(days).extracting(BurndownSnapshot::getOpenCount).containsExactly(3, 2, 2);
+        assertThat(days).extracting(BurndownSnapshot::getClosedCount).containsExactly(0, 2, 2);
+        assertThat(days).extracting(BurndownSnapshot::getRemainingHours).containsExactly(6.0, 3.0, 3.0);
+    }
+
+    @Test
+    void captureWritesZeroSnapshotsAfterCounterSnapshots() {
+        when(burndownSnapshotMapper.isBackfillCompleted()).thenReturn(true);
+
+        service.captureSnapshots();
+
+        LocalDate today = LocalDate.now();
+        InOrder order = inOrder(burndownSnapshotMapper);
+        order.verify(burndownSnapshotMapper).upsertFromCounters(today);
+        order.verify(burndownSnapshotMapper).upsertZeroForMissingCounters(today);
+    }
+
+    private void assertSnapshot(Long versionId, LocalDate date, int total, int open, int closed, double hours) {
+        BurndownSnapshot snapshot = written.stream()
+                .filter(s -> s.getVersionId().equals(versionId) && s.getSnapshotDate().equals(date))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("缺少快照: version=" + versionId + ", date=" + date));
+        assertThat(snapshot.getProjectId()).isEqualTo(1L);
+        assertThat(snapshot.getTotalCount()).isEqualTo(total);
+        assertThat(snapshot.getOpenCount()).isEqualTo(open);
+        assertThat(snapshot.getClosedCount()).isEqualTo(closed);
+        assertThat(snapshot.getRemainingHours()).isEqualTo(hours);
+    }
+
+    private IssueStatus status(int id, boolean closed) {
+        IssueStatus status = new IssueStatus();
+        status.setId(id);
+        status.setIsClosed(closed);
+        return status;
+    }
+
+    private Issue issue(Long id, Long versionId, int statusId, Float estimatedHours, LocalDateTime createdOn) {
+        Issue issue = new Issue();
+        issue.setId(id);
+        issue.setProjectId(1L);
+        issue.setFixedVersionId(versionId);
+        issue.setStatusId(statusId);
+        issue.setEstimatedHours(estimatedHours);
+        issue.setCreatedOn(createdOn);
+        return issue;
+    }
+
+    private IssueAttributeChangeDTO change(Long issueId, String propKey, String oldValue, String value,
+                                           LocalDateTime changedOn) {
+        IssueAttributeChangeDTO change = new IssueAttributeChangeDTO();
+        change.setIssueId(issueId);
+        change.setPropKey(propKey);
+        change.setOldValue(oldValue);
+        change.setValue(value);
+        change.setChangedOn(changedOn);
+        return change;
+    }
+
+    private BurndownSnapshot snapshot(Long versionId, LocalDate date, int total, int open, int closed,
+                                      double hours) {
+        BurndownSnapshot snapshot = new BurndownSnapshot();
+        snapshot.setProjectId(1L);
+        snapshot.setVersionId(versionId);
+        snapshot.setSnapshotDate(date);
+        snapshot.setTotalCount(total);
+        snapshot.setOpenCount(open);
+        snapshot.setClosedCount(closed);
+        snapshot.setRemainingHours(hours);
+        return snapshot;
+    }
+}
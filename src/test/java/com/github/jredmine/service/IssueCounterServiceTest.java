@@ -0,0 +1,188 @@
+package com.github.jredmine.service;
+
+import com.github.jredmine.entity.Issue;
+import com.github.jredmine.entity.IssueCounter;
+import com.github.jredmine.mapper.issue.IssueCounterMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * IssueCounterService 单元测试：以内存中的计数器模拟 upsertDelta 的累加语义，
+ * 验证创建、移动、删除后各维度的计数
+ */
+class IssueCounterServiceTest {
+
+    private IssueCounterMapper issueCounterMapper;
+    private IssueCounterService service;
+
+    /**
+     * 维度（项目、版本、跟踪器、状态、私有）-> 累加后的计数器
+     */
+    private final Map<List<Object>, IssueCounter> counters = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        issueCounterMapper = mock(IssueCounterMapper.class);
+        doAnswer(invocation -> {
+            apply(invocation.getArgument(0));
+            return 1;
+        }).when(issueCounterMapper).upsertDelta(any());
+        service = new IssueCounterService(issueCounterMapper);
+    }
+
+    @Test
+    void createThenDeleteLeavesZeroCounters() {
+        Issue issue = issue(1L, 10L, 2, 50, 4.5f);
+
+        service.onIssueCreated(issue);
+        assertThat(counter(1L, 10L, 2).getIssueCount()).isEqualTo(1);
+        assertThat(counter(1L, 10L, 2).getStartedCount()).isEqualTo(1);
+        assertThat(counter(1L, 10L, 2).getEstimatedHoursSum()).isEqualTo(4.5);
+
+        service.onIssueDeleted(issue);
+        assertZero(counter(1L, 10L, 2));
+    }
+
+    @Test
+    void statusChangeMovesIssueBetweenBuckets() {
+        Issue before = issue(1L, 10L, 2, 50, 3.0f);
+        service.onIssueCreated(before);
+
+        Issue after = issue(1L, 10L, 5, 100, 3.0f);
+        service.onIssueChanged(before, after);
+
+        assertZero(counter(1L, 10L, 2));
+        IssueCounter moved = counter(1L, 10L, 5);
+        assertThat(moved.getIssueCount()).isEqualTo(1);
+        assertThat(moved.getDoneCount()).isEqualTo(1);
+        assertThat(moved.getStartedCount()).isZero();
+        assertThat(moved.getDoneRatioSum()).isEqualTo(100L);
+        assertThat(moved.getEstimatedHoursSum()).isEqualTo(3.0);
+    }
+
+    @Test
+    void versionAndProjectChangeMovesIssueAndKeepsTotals() {
+        Issue before = issue(1L, null, 2, 0, 2.0f);
+        service.onIssueCreated(before);
+        service.onIssueCreated(issue(1L, null, 2, 0, 1.0f));
+
+        Issue after = issue(3L, 20L, 2, 0, 2.0f);
+        service.onIssueChanged(before, after);
+
+        IssueCounter remaining = counter(1L, 0L, 2);
+        assertThat(remaining.getIssueCount()).isEqualTo(1);
+        assertThat(remaining.getEstimatedHoursSum()).isEqualTo(1.0);
+        assertThat(counter(3L, 20L, 2).getIssueCount()).isEqualTo(1);
+        assertThat(counters.values().stream().mapToInt(IssueCounter::getIssueCount).sum()).isEqualTo(2);
+    }
+
+    @Test
+    void changeWithinSameBucketOnlyAdjustsSums() {
+        Issue before = issue(1L, 10L, 2, 0, 1.0f);
+        service.onIssueCreated(before);
+
+        service.onIssueChanged(before, issue(1L, 10L, 2, 40, 6.0f));
+
+        IssueCounter counter = counter(1L, 10L, 2);
+        assertThat(counter.getIssueCount()).isEqualTo(1);
+        assertThat(counter.getStartedCount()).isEqualTo(1);
+        assertThat(counter.getDoneRatioSum()).isEqualTo(40L);
+        assertThat(counter.getEstimatedHoursSum()).isEqualTo(6.0);
+    }
+
+    @Test
+    void unchangedIssueDoesNotWrite() {
+        Issue before = issue(1L, 10L, 2, 30, 1.0f);
+
+        service.onIssueChanged(before, issue(1L, 10L, 2, 30, 1.0f));
+
+        verify(issueCounterMapper, never()).upsertDelta(any());
+    }
+
+    @Test
+    void batchCreateMergesSameBucket() {
+        service.onIssuesCreated(List.of(
+                issue(1L, 10L, 2, 0, 1.0f),
+                issue(1L, 10L, 2, 100, 2.0f),
+                issue(1L, 11L, 2, 0, null)));
+
+        verify(issueCounterMapper, times(2)).upsertDelta(any());
+        IssueCounter merged = counter(1L, 10L, 2);
+        assertThat(merged.getIssueCount()).isEqualTo(2);
+        assertThat(merged.getDoneCount()).isEqualTo(1);
+        assertThat(merged.getEstimatedHoursSum()).isEqualTo(3.0);
+        assertThat(counter(1L, 11L, 2).getIssueCount()).isEqualTo(1);
+    }
+
+    @Test
+    void issueMissingDimensionsIsIgnored() {
+        Issue issue = issue(1L, 10L, 2, 0, 1.0f);
+        issue.setTrackerId(null);
+
+        service.onIssueCreated(issue);
+        service.onIssueDeleted(issue);
+
+        verify(issueCounterMapper, never()).upsertDelta(any());
+    }
+
+    private Issue issue(Long projectId, Long versionId, int statusId, int doneRatio, Float estimatedHours) {
+        Issue issue = new Issue();
+        issue.setProjectId(projectId);
+        issue.setFixedVersionId(versionId);
+        issue.setTrackerId(1);
+        issue.setStatusId(statusId);
+        issue.setDoneRatio(doneRatio);
+        issue.setEstimatedHours(estimatedHours);
+        issue.setIsPrivate(false);
+        return issue;
+    }
+
+    private IssueCounter counter(Long projectId, Long versionId, int statusId) {
+        IssueCounter counter = counters.get(List.of(projectId, versionId, 1, statusId, false));
+        assertThat(counter).as("计数器 project=%s version=%s status=%s", projectId, versionId, statusId).isNotNull();
+        return counter;
+    }
+
+    private void assertZero(IssueCounter counter) {
+        assertThat(counter.getIssueCount()).isZero();
+        assertThat(counter.getDoneCount()).isZero();
+        assertThat(counter.getStartedCount()).isZero();
+        assertThat(counter.getDoneRatioSum()).isZero();
+        assertThat(counter.getEstimatedHoursSum()).isZero();
+    }
+
+    /**
+     * 与 upsertDelta 相同：维度不存在时插入，存在时累加
+     */
+    private void apply(IssueCounter delta) {
+        List<Object> bucket = List.of(delta.getProjectId(), delta.getVersionId(), delta.getTrackerId(),
+                delta.getStatusId(), delta.getIsPrivate());
+        IssueCounter counter = counters.get(bucket);
+        if (counter == null) {
+            counter = new IssueCounter();
+            counter.setIssueCount(0);
+            counter.setDoneCount(0);
+            counter.setStartedCount(0);
+            counter.setEstimatedHoursSum(0.0);
+            counter.setDoneRatioSum(0L);
+            counters.put(bucket, counter);
+        }
+        counter.setIssueCount(counter.getIssueCount() + delta.getIssueCount());
+        counter.setDoneCount(counter.getDoneCount() + delta.getDoneCount());
+        counter.setStartedCount(counter.getStartedCount() + delta.getStartedCount());
+        counter.setEstimatedHoursSum(counter.getEstimatedHoursSum() + delta.getEstimatedHoursSum());
+        counter.setDoneRatioSum(counter.getDoneRatioSum() + delta.getDoneRatioSum());
+    }
+}
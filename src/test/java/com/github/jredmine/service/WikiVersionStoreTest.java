@@ -0,0 +1,240 @@
+package com.github.jredmine.service;
+
+import com.github.jredmine.entity.WikiContent;
+import com.github.jredmine.entity.WikiContentVersion;
+import com.github.jredmine.entity.WikiPage;
+import com.github.jredmine.exception.BusinessException;
+import com.github.jredmine.mapper.wiki.WikiContentMapper;
+import com.github.jredmine.mapper.wiki.WikiContentVersionMapper;
+import com.github.jredmine.mapper.wiki.WikiPageMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * WikiVersionStore 单元测试：快照/增量编码往返、解码链、后台压缩游标
+ */
+class WikiVersionStoreTest {
+
+    private static final long PAGE_ID = 7L;
+
+    private WikiContentMapper wikiContentMapper;
+    private WikiContentVersionMapper wikiContentVersionMapper;
+    private WikiPageMapper wikiPageMapper;
+    private TransactionTemplate transactionTemplate;
+    private WikiVersionStore store;
+
+    @BeforeEach
+    void setUp() {
+        wikiContentMapper = mock(WikiContentMapper.class);
+        wikiContentVersionMapper = mock(WikiContentVersionMapper.class);
+        wikiPageMapper = mock(WikiPageMapper.class);
+        transactionTemplate = mock(TransactionTemplate.class);
+        store = new WikiVersionStore(wikiContentMapper, wikiContentVersionMapper, wikiPageMapper, transactionTemplate);
+        ReflectionTestUtils.setField(store, "snapshotInterval", 10);
+        ReflectionTestUtils.setField(store, "compactionEnabled", true);
+        ReflectionTestUtils.setField(store, "compactionBatchSize", 2);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "hello", "中文内容\n第二行\t制表符", "重复内容重复内容重复内容重复内容"})
+    void snapshotRoundTrip(String text) {
+        WikiContentVersion row = new WikiContentVersion();
+        store.encode(row, text, null);
+
+        assertThat(row.getCompression()).isEqualTo(WikiVersionStore.COMPRESSION_SNAPSHOT);
+        assertThat(decodeToString(row, null)).isEqualTo(text);
+    }
+
+    @ParameterizedTest
+    @CsvSource(value = {
+            "'', abc",
+            "abc, ''",
+            "abc, abc",
+            "hello world, hello there world",
+            "hello there world, hello world",
+            "aaaa, aa",
+            "aa, aaaa",
+            "abcdef, xbcdey",
+            "abc, xyz",
+            "中文内容, 中文新内容",
+            "前缀-中间-后缀, 前缀-后缀"
+    })
+    void deltaRoundTrip(String base, String target) {
+        WikiContentVersion row = new WikiContentVersion();
+        store.encode(row, target, base);
+
+        assertThat(row.getCompression()).isEqualTo(WikiVersionStore.COMPRESSION_DELTA);
+        assertThat(decodeToString(row, base)).isEqualTo(target);
+    }
+
+    @Test
+    void legacyUncompressedRowDecodesAsIs() {
+        WikiContentVersion row = new WikiContentVersion();
+        row.setCompression(WikiVersionStore.COMPRESSION_NONE);
+        row.setData("旧正文".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(decodeToString(row, null)).isEqualTo("旧正文");
+    }
+
+    @Test
+    void loadTextAppliesDeltasFromNearestSnapshot() {
+        List<String> texts = List.of("第一版", "第一版，追加", "修改后，追加", "修改后，追加。结尾");
+        List<WikiContentVersion> chain = buildChain(texts);
+        when(wikiContentVersionMapper.selectDecodeChain(PAGE_ID, 4)).thenReturn(chain);
+
+        assertThat(store.loadText(PAGE_ID, 4)).isEqualTo("修改后，追加。结尾");
+    }
+
+    @Test
+    void loadTextRejectsBrokenDeltaChain() {
+        List<WikiContentVersion> chain = new ArrayList<>(buildChain(List.of("a", "ab", "abc")));
+        chain.remove(1);
+        when(wikiContentVersionMapper.selectDecodeChain(PAGE_ID, 3)).thenReturn(chain);
+
+        assertThatThrownBy(() -> store.loadText(PAGE_ID, 3)).isInstanceOf(BusinessException.class);
+    }
+
+    @Test
+    void loadTextFallsBackToContentTableForLegacyVersion() {
+        when(wikiContentVersionMapper.selectDecodeChain(PAGE_ID, 2)).thenReturn(List.of());
+        when(wikiContentMapper.selectOne(any())).thenReturn(content(2, "旧版本正文"));
+
+        assertThat(store.loadText(PAGE_ID, 2)).isEqualTo("旧版本正文");
+    }
+
+    @Test
+    void saveVersionStoresDeltaWhenPreviousRowExists() {
+        when(wikiContentVersionMapper.selectCount(any())).thenReturn(1L);
+        WikiContent content = content(3, "新版本正文");
+        content.setId(30L);
+
+        store.saveVersion(content, "旧版本正文");
+
+        ArgumentCaptor<WikiContentVersion> inserted = ArgumentCaptor.forClass(WikiContentVersion.class);
+        verify(wikiContentVersionMapper).insert(inserted.capture());
+        assertThat(inserted.getValue().getCompression()).isEqualTo(WikiVersionStore.COMPRESSION_DELTA);
+        assertThat(decodeToString(inserted.getValue(), "旧版本正文")).isEqualTo("新版本正文");
+        verify(wikiContentMapper).clearArchivedText(PAGE_ID, 3);
+    }
+
+    @Test
+    void saveVersionStoresSnapshotWhenPreviousRowMissing() {
+        when(wikiContentVersionMapper.selectCount(any())).thenReturn(0L);
+        WikiContent content = content(3, "新版本正文");
+        content.setId(30L);
+
+        store.saveVersion(content, "旧版本正文");
+
+        ArgumentCaptor<WikiContentVersion> inserted = ArgumentCaptor.forClass(WikiContentVersion.class);
+        verify(wikiContentVersionMapper).insert(inserted.capture());
+        assertThat(inserted.getValue().getCompression()).isEqualTo(WikiVersionStore.COMPRESSION_SNAPSHOT);
+        assertThat(decodeToString(inserted.getValue(), null)).isEqualTo("新版本正文");
+    }
+
+    @Test
+    void compactPageBackfillsLegacyVersionsAsSnapshotAndDeltas() {
+        when(wikiPageMapper.selectByIdForUpdate(PAGE_ID)).thenReturn(new WikiPage());
+        when(wikiContentMapper.selectList(any())).thenReturn(List.of(
+                content(1, "a"), content(2, "ab"), content(3, "abc")));
+        when(wikiContentVersionMapper.selectList(any())).thenReturn(List.of());
+
+        store.compactPage(PAGE_ID);
+
+        ArgumentCaptor<WikiContentVersion> inserted = ArgumentCaptor.forClass(WikiContentVersion.class);
+        verify(wikiContentVersionMapper, times(3)).insert(inserted.capture());
+        assertThat(inserted.getAllValues()).extracting(WikiContentVersion::getVersion).containsExactly(1, 2, 3);
+
+        // 版本 2、3 由快照改写为相对上一版本的增量
+        ArgumentCaptor<WikiContentVersion> updated = ArgumentCaptor.forClass(WikiContentVersion.class);
+        verify(wikiContentVersionMapper, times(2)).updateById(updated.capture());
+        assertThat(updated.getAllValues()).allSatisfy(row ->
+                assertThat(row.getCompression()).isEqualTo(WikiVersionStore.COMPRESSION_DELTA));
+        assertThat(decodeToString(updated.getAllValues().get(0), "a")).isEqualTo("ab");
+        assertThat(decodeToString(updated.getAllValues().get(1), "ab")).isEqualTo("abc");
+        verify(wikiContentMapper).clearArchivedText(PAGE_ID, 3);
+    }
+
+    @Test
+    void compactPageSkipsDeletedPage() {
+        when(wikiPageMapper.selectByIdForUpdate(PAGE_ID)).thenReturn(null);
+
+        store.compactPage(PAGE_ID);
+
+        verify(wikiContentMapper, never()).selectList(any());
+        verify(wikiContentMapper, never()).clearArchivedText(anyLong(), anyInt());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void compactLegacyHistoryAdvancesCursorPastFailedPagesAndStops() {
+        doAnswer(invocation -> {
+            ((Consumer<TransactionStatus>) invocation.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(wikiPageMapper.selectByIdForUpdate(1L)).thenThrow(new IllegalStateException("锁等待超时"));
+        when(wikiContentVersionMapper.selectPageIdsToCompact(0L, 2)).thenReturn(List.of(1L, 2L));
+        when(wikiContentVersionMapper.selectPageIdsToCompact(2L, 2)).thenReturn(List.of());
+
+        store.compactLegacyHistory();
+        store.compactLegacyHistory();
+        store.compactLegacyHistory();
+
+        verify(wikiPageMapper).selectByIdForUpdate(1L);
+        verify(wikiPageMapper).selectByIdForUpdate(2L);
+        verify(wikiContentVersionMapper).selectPageIdsToCompact(0L, 2);
+        // 全部完成后不再查询
+        verify(wikiContentVersionMapper, times(1)).selectPageIdsToCompact(2L, 2);
+    }
+
+    /**
+     * 按保存新版本的方式构造解码链：第一个版本为快照，之后为相对上一版本的增量
+     */
+    private List<WikiContentVersion> buildChain(List<String> texts) {
+        List<WikiContentVersion> chain = new ArrayList<>();
+        for (int i = 0; i < texts.size(); i++) {
+            WikiContentVersion row = new WikiContentVersion();
+            row.setPageId(PAGE_ID);
+            row.setVersion(i + 1);
+            store.encode(row, texts.get(i), i == 0 ? null : texts.get(i - 1));
+            chain.add(row);
+        }
+        return chain;
+    }
+
+    private WikiContent content(int version, String text) {
+        WikiContent content = new WikiContent();
+        content.setPageId(PAGE_ID);
+        content.setVersion(version);
+        content.setText(text);
+        return content;
+    }
+
+    private String decodeToString(WikiContentVersion row, String base) {
+        byte[] baseBytes = base != null ? base.getBytes(StandardCharsets.UTF_8) : null;
+        return new String(store.decode(row, baseBytes), StandardCharsets.UTF_8);
+    }
+}